@@ -0,0 +1,40 @@
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.stream.Collectors;
+
+/** Training program for the CDS archive; exercises the classes typical submissions load. */
+public class Warmup {
+
+  record Point(int x, int y) {}
+
+  public static void main(String[] args) throws Exception {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+    String line = reader.readLine();
+    Scanner scanner = new Scanner(line != null ? line : "");
+    List<Integer> numbers = new ArrayList<>();
+    while (scanner.hasNextInt()) {
+      numbers.add(scanner.nextInt());
+    }
+
+    Map<Integer, Point> points = new HashMap<>();
+    for (int number : numbers) {
+      points.put(number, new Point(number, number * number));
+    }
+
+    int[] sorted = numbers.stream().mapToInt(Integer::intValue).sorted().toArray();
+    String joined =
+        Arrays.stream(sorted).mapToObj(String::valueOf).collect(Collectors.joining(", "));
+
+    StringBuilder output = new StringBuilder();
+    output.append(String.format("Sorted: %s%n", joined));
+    output.append(String.format("Max: %.2f%n", Math.sqrt(points.size())));
+    points.values().forEach(point -> output.append(point).append(System.lineSeparator()));
+    System.out.print(output);
+  }
+}
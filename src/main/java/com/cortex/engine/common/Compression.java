@@ -0,0 +1,69 @@
+package com.cortex.engine.common;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * DEFLATE helpers shared by the stores that keep code and input bodies compressed. Data is in the
+ * zlib format, DEFLATE with a header and a checksum, which is also what {@link
+ * java.util.zip.InflaterInputStream} reads by default when offloaded stdin is streamed back.
+ */
+public final class Compression {
+
+  private Compression() {}
+
+  /**
+   * Compresses content with the fastest DEFLATE level.
+   *
+   * @param content The content to compress
+   * @return The compressed bytes, which may be larger than the input for incompressible content
+   */
+  public static byte[] deflate(byte[] content) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(content);
+      deflater.finish();
+      ByteArrayOutputStream output = new ByteArrayOutputStream(content.length / 2 + 16);
+      byte[] buffer = new byte[8192];
+      while (!deflater.finished()) {
+        output.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return output.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Decompresses content produced by {@link #deflate(byte[])}.
+   *
+   * @param compressed The compressed bytes
+   * @param offset Where the compressed bytes start
+   * @param size The size of the original content
+   * @return The original content
+   * @throws DataFormatException if the bytes are not valid DEFLATE data or are cut short
+   */
+  public static byte[] inflate(byte[] compressed, int offset, int size)
+      throws DataFormatException {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(compressed, offset, compressed.length - offset);
+      byte[] content = new byte[size];
+      int length = 0;
+      while (length < content.length && !inflater.finished()) {
+        int inflated = inflater.inflate(content, length, content.length - length);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          // Truncated input: without this check the loop would spin forever
+          throw new DataFormatException("Compressed data ends after " + length + " bytes");
+        }
+        length += inflated;
+      }
+      return length == content.length ? content : Arrays.copyOf(content, length);
+    } finally {
+      inflater.end();
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package com.cortex.engine.common;
+
+/**
+ * A body as kept by a content-addressed store, possibly still compressed, so that it can be copied
+ * from one store to another without inflating it.
+ *
+ * @param hash The SHA-256 hash of the original content, in hex
+ * @param size The size of the original content in bytes
+ * @param compressed Whether {@code content} is deflated with {@link Compression}
+ * @param content The stored bytes
+ */
+public record StoredPayload(String hash, int size, boolean compressed, byte[] content) {}
@@ -0,0 +1,53 @@
+package com.cortex.engine.common;
+
+/**
+ * Holds the tenant and user identity of the request being served on the current thread.
+ *
+ * <p>The values are populated by {@link com.cortex.engine.config.TenantFilter} and cleared once
+ * the request completes, so they are only meaningful on request-handling threads.
+ */
+public final class TenantContext {
+
+  public static final String DEFAULT_TENANT = "default";
+  public static final long DEFAULT_USER = 1L;
+
+  private static final ThreadLocal<String> TENANT = new ThreadLocal<>();
+  private static final ThreadLocal<Long> USER = new ThreadLocal<>();
+  private static final ThreadLocal<Boolean> AUTHENTICATED = new ThreadLocal<>();
+
+  private TenantContext() {}
+
+  /**
+   * Sets the identity of the current request.
+   *
+   * @param tenantId The tenant, or {@code null} for the default tenant
+   * @param userId The user, or {@code null} for the default user
+   * @param authenticated Whether the tenant was proven with an API key rather than taken from a
+   *     header
+   */
+  public static void set(String tenantId, Long userId, boolean authenticated) {
+    TENANT.set(tenantId);
+    USER.set(userId);
+    AUTHENTICATED.set(authenticated);
+  }
+
+  public static String getTenantId() {
+    String tenantId = TENANT.get();
+    return tenantId != null ? tenantId : DEFAULT_TENANT;
+  }
+
+  public static Long getUserId() {
+    Long userId = USER.get();
+    return userId != null ? userId : DEFAULT_USER;
+  }
+
+  public static boolean isAuthenticated() {
+    return Boolean.TRUE.equals(AUTHENTICATED.get());
+  }
+
+  public static void clear() {
+    TENANT.remove();
+    USER.remove();
+    AUTHENTICATED.remove();
+  }
+}
@@ -0,0 +1,62 @@
+package com.cortex.engine.config;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.config.ConfigDataEnvironmentPostProcessor;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/**
+ * Refuses to start an AOT-processed build with other role profiles than it was processed for.
+ *
+ * <p>AOT processing fixes the bean graph at build time, so {@code @Profile} conditions are no
+ * longer evaluated when the application starts: a build processed for the full role and started
+ * with {@code worker} would still create the API beans, and one processed for {@code api} would
+ * run without workers. The profiles of the build are read from {@code engine.aot.profiles}, which
+ * the Dockerfile sets to the same value as the {@code aot.profiles} Maven property, and default to
+ * the {@code faststart} profile that Maven processes by default. Environment profiles such as
+ * {@code dev} only change property values and are not compared.
+ */
+public class AotProfileGuard implements EnvironmentPostProcessor, Ordered {
+
+  private static final List<String> ROLE_PROFILES =
+      List.of("api", "worker", "sessions", "faststart");
+
+  @Override
+  public void postProcessEnvironment(
+      ConfigurableEnvironment environment, SpringApplication application) {
+    if (!AotDetector.useGeneratedArtifacts()) {
+      return;
+    }
+    Set<String> built =
+        roles(environment.getProperty("engine.aot.profiles", "faststart").split(","));
+    Set<String> active = roles(environment.getActiveProfiles());
+    if (!built.equals(active)) {
+      throw new IllegalStateException(
+          "This build was AOT-processed for the profiles "
+              + built
+              + " but is starting with "
+              + active
+              + "; build it with -Daot.profiles="
+              + String.join(",", active)
+              + " or start it with the profiles it was built for");
+    }
+  }
+
+  @Override
+  public int getOrder() {
+    // Active profiles are only known once config data has been loaded
+    return ConfigDataEnvironmentPostProcessor.ORDER + 1;
+  }
+
+  private static Set<String> roles(String[] profiles) {
+    Set<String> roles = new TreeSet<>();
+    Arrays.stream(profiles).map(String::trim).filter(ROLE_PROFILES::contains).forEach(roles::add);
+    return roles;
+  }
+}
@@ -1,25 +1,30 @@
 package com.cortex.engine.config;
 
+import com.cortex.engine.docker.TracingDockerHttpClient;
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.core.DefaultDockerClientConfig;
 import com.github.dockerjava.core.DockerClientConfig;
 import com.github.dockerjava.core.DockerClientImpl;
 import com.github.dockerjava.httpclient5.ApacheDockerHttpClient;
 import com.github.dockerjava.transport.DockerHttpClient;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 @Configuration
+@Profile("!api")
 public class DockerConfig {
 
   @Bean
-  public DockerClient dockerClient() {
+  public DockerClient dockerClient(ObservationRegistry observationRegistry) {
     DockerClientConfig config = DefaultDockerClientConfig.createDefaultConfigBuilder().build();
     DockerHttpClient httpClient =
         new ApacheDockerHttpClient.Builder()
             .dockerHost(config.getDockerHost())
             .sslConfig(config.getSSLConfig())
             .build();
-    return DockerClientImpl.getInstance(config, httpClient);
+    return DockerClientImpl.getInstance(
+        config, new TracingDockerHttpClient(httpClient, observationRegistry));
   }
 }
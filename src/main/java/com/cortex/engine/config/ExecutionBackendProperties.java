@@ -0,0 +1,80 @@
+package com.cortex.engine.config;
+
+import com.cortex.engine.execution.DockerExecutionBackend;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Which execution backend runs each submission.
+ *
+ * <p>A tenant entry in {@link #getTenants()} wins over a language entry in {@link
+ * #getLanguages()}, and both fall back to {@link #getDefaultBackend()}. Values are backend names
+ * such as {@code docker} or {@code local}.
+ *
+ * <p>A tenant entry that routes away from {@code docker} only applies when the tenant
+ * authenticated with an API key. A tenant taken from a header could otherwise claim a trusted
+ * tenant and run code outside a container.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "engine.backends")
+public class ExecutionBackendProperties {
+
+  private String defaultBackend = DockerExecutionBackend.NAME;
+
+  private Map<String, String> languages = new HashMap<>();
+
+  private Map<String, String> tenants = new HashMap<>();
+
+  private Local local = new Local();
+
+  private Zygote zygote = new Zygote();
+
+  public String backendFor(String tenantId, boolean authenticated, String language) {
+    String backend = tenantId != null ? tenants.get(tenantId) : null;
+    if (backend != null && !authenticated && !DockerExecutionBackend.NAME.equals(backend)) {
+      backend = null;
+    }
+    if (backend == null) {
+      backend = languages.get(language);
+    }
+    return backend != null ? backend : defaultBackend;
+  }
+
+  @Getter
+  @Setter
+  public static class Local {
+    /** Runs programs directly on the worker host; only for trusted workloads. */
+    private boolean enabled = false;
+
+    /**
+     * Delegated cgroup v2 directory, writable by the engine, under which each run gets its own
+     * cgroup. Without it, memory is limited with an address-space rlimit only.
+     */
+    private String cgroupRoot = "/sys/fs/cgroup/cortex";
+
+    private int maxProcesses = 64;
+
+    private int maxOpenFiles = 256;
+
+    /** Largest file a program may write. */
+    private long maxFileBytes = 64L * 1024 * 1024;
+  }
+
+  @Getter
+  @Setter
+  public static class Zygote {
+    /** Keeps a warm fork-server container per language for Python and JavaScript runs. */
+    private boolean enabled = false;
+
+    /** Runs a fork-server container executes at the same time. */
+    private int slots = 4;
+
+    /** How long a new fork-server container may take to become ready. */
+    private Duration startupTimeout = Duration.ofSeconds(60);
+  }
+}
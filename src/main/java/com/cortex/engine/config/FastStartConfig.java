@@ -0,0 +1,37 @@
+package com.cortex.engine.config;
+
+import com.cortex.engine.scheduling.FairTaskScheduler;
+import com.cortex.engine.services.impl.DockerCleanupServiceImpl;
+import com.cortex.engine.services.impl.LanguageServiceImpl;
+import com.cortex.engine.services.impl.SubmissionBlobMigrationServiceImpl;
+import com.cortex.engine.services.impl.SubmissionPartitionServiceImpl;
+import com.cortex.engine.services.impl.ToolchainCacheServiceImpl;
+import com.cortex.engine.workers.CodeExecutionWorker;
+import com.cortex.engine.workers.JudgeWorker;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Keeps the components that must be running as soon as the context starts out of lazy
+ * initialization in the {@code faststart} profile. Listeners and scheduled tasks are only
+ * registered when their bean is created, so a lazy worker would never consume anything.
+ */
+@Configuration
+@Profile("faststart")
+public class FastStartConfig {
+
+  @Bean
+  public static LazyInitializationExcludeFilter eagerWorkerComponents() {
+    return LazyInitializationExcludeFilter.forBeanTypes(
+        CodeExecutionWorker.class,
+        JudgeWorker.class,
+        FairTaskScheduler.class,
+        DockerCleanupServiceImpl.class,
+        LanguageServiceImpl.class,
+        SubmissionBlobMigrationServiceImpl.class,
+        SubmissionPartitionServiceImpl.class,
+        ToolchainCacheServiceImpl.class);
+  }
+}
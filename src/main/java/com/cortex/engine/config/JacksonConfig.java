@@ -0,0 +1,33 @@
+package com.cortex.engine.config;
+
+import com.cortex.engine.validation.Utf8TextDeserializer;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caps the length of any JSON string the request mapper reads at the largest accepted stdin.
+ *
+ * <p>Jackson reads a string value whole before a deserializer sees it, so {@link
+ * Utf8TextDeserializer} alone can only reject an oversized stdin once it has been buffered. With
+ * this cap the parser fails as soon as the value outgrows it. A UTF-8 character takes at least one
+ * byte, so no string within the byte limit is refused.
+ */
+@Configuration
+public class JacksonConfig {
+
+  @Bean
+  public Jackson2ObjectMapperBuilderCustomizer maxStringLengthCustomizer(
+      @Value("${engine.submission.max-stdin-bytes:" + Utf8TextDeserializer.DEFAULT_MAX_BYTES + "}")
+          int maxStdinBytes) {
+    return builder ->
+        builder.postConfigurer(
+            objectMapper ->
+                objectMapper
+                    .getFactory()
+                    .setStreamReadConstraints(
+                        StreamReadConstraints.builder().maxStringLength(maxStdinBytes).build()));
+  }
+}
@@ -0,0 +1,11 @@
+package com.cortex.engine.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+/** JPA auditing, only on instances that have a database, i.e. not in the {@code api} role. */
+@Configuration
+@Profile("!api")
+@EnableJpaAuditing
+public class JpaConfig {}
@@ -2,88 +2,159 @@ package com.cortex.engine.config;
 
 import com.cortex.engine.entities.Language;
 import com.cortex.engine.repositories.LanguageRepository;
+import com.cortex.engine.services.ILanguageService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 @Component
+@Profile("!api")
 @RequiredArgsConstructor
+@Slf4j
 public class LanguageInitializer implements CommandLineRunner {
 
   private final LanguageRepository languageRepository;
+  private final ILanguageService languageService;
 
   @Override
   public void run(String... args) {
-    if (languageRepository.count() == 0) {
-      List<Language> predefinedLanguages =
-          Arrays.asList(
-              Language.builder()
-                  .name("python")
-                  .dockerImage("python:3.12-slim")
-                  .executeCommand("python {fileName}")
-                  .fileExtension(".py")
-                  .defaultMemoryLimit(128 * 1024 * 1024L) // 128 MB
-                  .defaultCpuLimit(1L)
-                  .defaultTimeout(5000L) // 5 seconds
-                  .createdBy(1L)
-                  .build(),
-              Language.builder()
-                  .name("java")
-                  .dockerImage("eclipse-temurin:21")
-                  .executeCommand("java {fileName}")
-                  .compileCommand("javac {fileName}")
-                  .fileExtension(".java")
-                  .defaultMemoryLimit(256 * 1024 * 1024L) // 256 MB
-                  .defaultCpuLimit(1L)
-                  .defaultTimeout(10000L) // 10 seconds
-                  .createdBy(1L)
-                  .build(),
-              Language.builder()
-                  .name("javascript")
-                  .dockerImage("node:20-alpine3.19")
-                  .executeCommand("node {fileName}")
-                  .fileExtension(".js")
-                  .defaultMemoryLimit(128 * 1024 * 1024L) // 128 MB
-                  .defaultCpuLimit(1L)
-                  .defaultTimeout(5000L) // 5 seconds
-                  .createdBy(1L)
-                  .build(),
-              Language.builder()
-                  .name("rust")
-                  .dockerImage("rust:1.80-slim")
-                  .executeCommand("rustc {fileName} && ./{fileNameWithoutExtension}")
-                  .fileExtension(".rs")
-                  .defaultMemoryLimit(256 * 1024 * 1024L) // 256 MB
-                  .defaultCpuLimit(1L)
-                  .defaultTimeout(15000L) // 15 seconds
-                  .createdBy(1L)
-                  .build(),
-              Language.builder()
-                  .name("csharp")
-                  .dockerImage("mcr.microsoft.com/dotnet/sdk:8.0")
-                  .executeCommand(
-                      "dotnet new console -o . && mv {fileName} Program.cs && dotnet run")
-                  .fileExtension(".cs")
-                  .defaultMemoryLimit(512 * 1024 * 1024L) // 512 MB
-                  .defaultCpuLimit(2L)
-                  .defaultTimeout(30000L) // 30 seconds
-                  .createdBy(1L)
-                  .build(),
-              Language.builder()
-                  .name("go")
-                  .dockerImage("golang:1.22-bookworm")
-                  .executeCommand("go run {fileName}")
-                  .fileExtension(".go")
-                  .defaultMemoryLimit(256 * 1024 * 1024L) // 256 MB
-                  .defaultCpuLimit(1L)
-                  .defaultTimeout(10000L) // 10 seconds
-                  .createdBy(1L)
-                  .build());
+    for (Language predefined : predefinedLanguages()) {
+      languageRepository
+          .findByName(predefined.getName())
+          .ifPresentOrElse(
+              existing -> {
+                if (refresh(existing, predefined)) {
+                  languageRepository.save(existing);
+                  log.info("Updated the definition of language {}", existing.getName());
+                }
+              },
+              () -> insert(predefined));
+    }
+    languageService.publishCatalog();
+  }
 
-      languageRepository.saveAll(predefinedLanguages);
+  /**
+   * Brings a stored language up to date with its predefined definition. The image and commands
+   * belong to the engine, for example the class-data sharing archive of Java, and are always
+   * replaced; resource limits may have been tuned by operators and are only filled in when unset.
+   *
+   * @return Whether anything changed
+   */
+  private static boolean refresh(Language existing, Language predefined) {
+    boolean changed = false;
+    if (!Objects.equals(existing.getDockerImage(), predefined.getDockerImage())) {
+      existing.setDockerImage(predefined.getDockerImage());
+      changed = true;
+    }
+    if (!Objects.equals(existing.getExecuteCommand(), predefined.getExecuteCommand())) {
+      existing.setExecuteCommand(predefined.getExecuteCommand());
+      changed = true;
+    }
+    if (!Objects.equals(existing.getCompileCommand(), predefined.getCompileCommand())) {
+      existing.setCompileCommand(predefined.getCompileCommand());
+      changed = true;
+    }
+    if (!Objects.equals(existing.getFileExtension(), predefined.getFileExtension())) {
+      existing.setFileExtension(predefined.getFileExtension());
+      changed = true;
+    }
+    if (existing.getScratchSizeLimit() == null) {
+      existing.setScratchSizeLimit(predefined.getScratchSizeLimit());
+      changed = true;
     }
+    return changed;
+  }
+
+  private void insert(Language language) {
+    try {
+      languageRepository.save(language);
+      log.info("Added language {}", language.getName());
+    } catch (DataIntegrityViolationException e) {
+      // Another worker starting at the same time inserted it first
+      log.debug("Language {} was already added", language.getName());
+    }
+  }
+
+  private static List<Language> predefinedLanguages() {
+    return List.of(
+          Language.builder()
+              .name("python")
+              .dockerImage("python:3.12-slim")
+              .executeCommand("python {fileName}")
+              .fileExtension(".py")
+              .defaultMemoryLimit(128 * 1024 * 1024L) // 128 MB
+              .scratchSizeLimit(16 * 1024 * 1024L) // 16 MB
+              .defaultCpuLimit(1L)
+              .defaultTimeout(5000L) // 5 seconds
+              .createdBy(1L)
+              .build(),
+          Language.builder()
+              .name("java")
+              .dockerImage("cortex/java-cds:21")
+              // Class-data sharing archive baked into the image, C1 only and Serial GC: the
+              // source launcher is dominated by JVM startup for short programs
+              .executeCommand(
+                  "java -XX:SharedArchiveFile=/opt/cortex/cds/java.jsa"
+                      + " -XX:TieredStopAtLevel=1 -XX:+UseSerialGC -XX:-UsePerfData"
+                      + " {fileName}")
+              .compileCommand("javac {fileName}")
+              .fileExtension(".java")
+              .defaultMemoryLimit(256 * 1024 * 1024L) // 256 MB
+              .scratchSizeLimit(32 * 1024 * 1024L) // 32 MB
+              .defaultCpuLimit(1L)
+              .defaultTimeout(10000L) // 10 seconds
+              .createdBy(1L)
+              .build(),
+          Language.builder()
+              .name("javascript")
+              .dockerImage("node:20-alpine3.19")
+              .executeCommand("node {fileName}")
+              .fileExtension(".js")
+              .defaultMemoryLimit(128 * 1024 * 1024L) // 128 MB
+              .scratchSizeLimit(16 * 1024 * 1024L) // 16 MB
+              .defaultCpuLimit(1L)
+              .defaultTimeout(5000L) // 5 seconds
+              .createdBy(1L)
+              .build(),
+          Language.builder()
+              .name("rust")
+              .dockerImage("rust:1.80-slim")
+              .executeCommand("rustc {fileName} && ./{fileNameWithoutExtension}")
+              .fileExtension(".rs")
+              .defaultMemoryLimit(256 * 1024 * 1024L) // 256 MB
+              .scratchSizeLimit(64 * 1024 * 1024L) // 64 MB
+              .defaultCpuLimit(1L)
+              .defaultTimeout(15000L) // 15 seconds
+              .createdBy(1L)
+              .build(),
+          Language.builder()
+              .name("csharp")
+              .dockerImage("mcr.microsoft.com/dotnet/sdk:8.0")
+              .executeCommand(
+                  "dotnet new console -o . && mv {fileName} Program.cs && dotnet run")
+              .fileExtension(".cs")
+              .defaultMemoryLimit(512 * 1024 * 1024L) // 512 MB
+              .scratchSizeLimit(128 * 1024 * 1024L) // 128 MB
+              .defaultCpuLimit(2L)
+              .defaultTimeout(30000L) // 30 seconds
+              .createdBy(1L)
+              .build(),
+          Language.builder()
+              .name("go")
+              .dockerImage("golang:1.22-bookworm")
+              .executeCommand("go run {fileName}")
+              .fileExtension(".go")
+              .defaultMemoryLimit(256 * 1024 * 1024L) // 256 MB
+              .scratchSizeLimit(128 * 1024 * 1024L) // 128 MB
+              .defaultCpuLimit(1L)
+              .defaultTimeout(10000L) // 10 seconds
+              .createdBy(1L)
+              .build());
   }
 }
@@ -0,0 +1,25 @@
+package com.cortex.engine.config;
+
+import com.cortex.engine.services.ILanguageWarmUpService;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/** Reports the node out of service until every catalog language has been warmed up. */
+@Component("languageWarmUp")
+@Profile("!api")
+@RequiredArgsConstructor
+public class LanguageWarmUpHealthIndicator implements HealthIndicator {
+
+  private final ILanguageWarmUpService languageWarmUpService;
+
+  @Override
+  public Health health() {
+    Map<String, Boolean> readiness = languageWarmUpService.getReadiness();
+    boolean ready = !readiness.isEmpty() && !readiness.containsValue(false);
+    return (ready ? Health.up() : Health.outOfService()).withDetails(readiness).build();
+  }
+}
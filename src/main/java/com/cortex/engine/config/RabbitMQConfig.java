@@ -1,29 +1,90 @@
 package com.cortex.engine.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 @Configuration
 public class RabbitMQConfig {
 
+  public static final String CODE_EXECUTION_QUEUE = "codeExecution";
+  public static final String DEFERRED_CODE_EXECUTION_QUEUE = "codeExecution.deferred";
+  public static final String JUDGE_QUEUE = "judge";
+  public static final String CODE_EXECUTION_LISTENER_FACTORY = "codeExecutionListenerFactory";
+
   @Bean
   public Queue codeExecutionQueue() {
-    return new Queue("codeExecution", true);
+    return new Queue(CODE_EXECUTION_QUEUE, true);
   }
 
+  /**
+   * Holds tasks a worker could not take yet for {@code engine.scheduler.defer-delay}, then
+   * dead-letters them back to the execution queue. Nothing consumes it. Changing the delay on an
+   * existing broker requires deleting the queue, as RabbitMQ refuses to redeclare it with other
+   * arguments.
+   */
   @Bean
-  public RabbitTemplate rabbitTemplate(final ConnectionFactory connectionFactory) {
+  public Queue deferredCodeExecutionQueue(
+      @Value("${engine.scheduler.defer-delay:1s}") final Duration deferDelay) {
+    return QueueBuilder.durable(DEFERRED_CODE_EXECUTION_QUEUE)
+        .ttl((int) deferDelay.toMillis())
+        .deadLetterExchange("")
+        .deadLetterRoutingKey(CODE_EXECUTION_QUEUE)
+        .build();
+  }
+
+  @Bean
+  public Queue judgeQueue() {
+    return new Queue(JUDGE_QUEUE, true);
+  }
+
+  @Bean
+  public RabbitTemplate rabbitTemplate(
+      final ConnectionFactory connectionFactory,
+      final Jackson2JsonMessageConverter producerJackson2MessageConverter) {
     final RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
-    rabbitTemplate.setMessageConverter(producerJackson2MessageConverter());
+    rabbitTemplate.setMessageConverter(producerJackson2MessageConverter);
+    // Propagates the trace context to workers through the message headers
+    rabbitTemplate.setObservationEnabled(true);
     return rabbitTemplate;
   }
 
+  /**
+   * Listener container for code execution tasks. Tasks are acknowledged by the fair scheduler
+   * once they have run rather than when the listener returns, so the prefetch, which caps the
+   * unacknowledged messages of each consumer, also caps the tasks a node buffers.
+   */
+  @Bean(CODE_EXECUTION_LISTENER_FACTORY)
+  @Profile("!api")
+  public SimpleRabbitListenerContainerFactory codeExecutionListenerFactory(
+      final SimpleRabbitListenerContainerFactoryConfigurer configurer,
+      final ConnectionFactory connectionFactory,
+      @Value("${engine.scheduler.capacity:256}") final int capacity) {
+    final SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+    configurer.configure(factory, connectionFactory);
+    factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+    factory.setPrefetchCount(capacity);
+    return factory;
+  }
+
+  /**
+   * Uses the application's {@link ObjectMapper} so that tasks are (de)serialized with the same
+   * configuration, including the payload limits, as HTTP requests.
+   */
   @Bean
-  public Jackson2JsonMessageConverter producerJackson2MessageConverter() {
-    return new Jackson2JsonMessageConverter();
+  public Jackson2JsonMessageConverter producerJackson2MessageConverter(
+      final ObjectMapper objectMapper) {
+    return new Jackson2JsonMessageConverter(objectMapper);
   }
 }
@@ -1,13 +1,18 @@
 package com.cortex.engine.config;
 
 import com.cortex.engine.controllers.dto.ExecutionResponse;
+import com.cortex.engine.controllers.dto.JudgeResponse;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
@@ -26,4 +31,43 @@ public class RedisConfig {
     template.setValueSerializer(serializer);
     return template;
   }
-}
\ No newline at end of file
+
+  /** Non-blocking access to execution results for the reactive submission API. */
+  @Bean
+  public ReactiveRedisTemplate<String, ExecutionResponse> reactiveRedisTemplate(
+      ReactiveRedisConnectionFactory connectionFactory) {
+    ObjectMapper objectMapper = JsonMapper.builder().build();
+    Jackson2JsonRedisSerializer<ExecutionResponse> serializer =
+        new Jackson2JsonRedisSerializer<>(objectMapper, ExecutionResponse.class);
+
+    RedisSerializationContext<String, ExecutionResponse> context =
+        RedisSerializationContext.<String, ExecutionResponse>newSerializationContext(
+                new StringRedisSerializer())
+            .value(serializer)
+            .build();
+    return new ReactiveRedisTemplate<>(connectionFactory, context);
+  }
+
+  /** Results of judged submissions, which carry one entry per test case. */
+  @Bean
+  public RedisTemplate<String, JudgeResponse> judgeRedisTemplate(
+      RedisConnectionFactory connectionFactory) {
+    RedisTemplate<String, JudgeResponse> template = new RedisTemplate<>();
+    template.setConnectionFactory(connectionFactory);
+    template.setKeySerializer(new StringRedisSerializer());
+    template.setValueSerializer(
+        new Jackson2JsonRedisSerializer<>(JsonMapper.builder().build(), JudgeResponse.class));
+    return template;
+  }
+
+  /** Raw byte values for the task payload store, which handles its own encoding. */
+  @Bean
+  public RedisTemplate<String, byte[]> payloadRedisTemplate(
+      RedisConnectionFactory connectionFactory) {
+    RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+    template.setConnectionFactory(connectionFactory);
+    template.setKeySerializer(new StringRedisSerializer());
+    template.setValueSerializer(RedisSerializer.byteArray());
+    return template;
+  }
+}
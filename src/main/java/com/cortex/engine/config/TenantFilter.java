@@ -0,0 +1,89 @@
+package com.cortex.engine.config;
+
+import com.cortex.engine.common.TenantContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Resolves the tenant and user of an incoming request and exposes them through {@link
+ * TenantContext}.
+ *
+ * <p>The tenant is the one that owns the {@code X-Api-Key} of the request, see {@link
+ * TenantProperties}. An unknown key is rejected with {@code 401}. Without a key, the request runs
+ * as the default tenant, or as the tenant in {@code X-Tenant-Id} if the header is trusted. The user
+ * comes from {@code X-User-Id}.
+ */
+@Component
+@Profile("!worker | sessions")
+@RequiredArgsConstructor
+public class TenantFilter extends OncePerRequestFilter {
+
+  public static final String API_KEY_HEADER = "X-Api-Key";
+  public static final String TENANT_HEADER = "X-Tenant-Id";
+  public static final String USER_HEADER = "X-User-Id";
+
+  private final TenantProperties tenantProperties;
+
+  @Override
+  protected void doFilterInternal(
+      @NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain)
+      throws ServletException, IOException {
+    String tenantId = null;
+    boolean authenticated = false;
+    String apiKey = request.getHeader(API_KEY_HEADER);
+    if (StringUtils.hasText(apiKey)) {
+      tenantId = tenantProperties.getApiKeys().get(sha256(apiKey.trim()));
+      if (tenantId == null) {
+        response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Unknown API key");
+        return;
+      }
+      authenticated = true;
+    } else if (tenantProperties.isTrustTenantHeader()) {
+      String header = request.getHeader(TENANT_HEADER);
+      tenantId = StringUtils.hasText(header) ? header.trim() : null;
+    }
+    try {
+      TenantContext.set(tenantId, parseUserId(request.getHeader(USER_HEADER)), authenticated);
+      filterChain.doFilter(request, response);
+    } finally {
+      TenantContext.clear();
+    }
+  }
+
+  private Long parseUserId(String userId) {
+    if (!StringUtils.hasText(userId)) {
+      return null;
+    }
+    try {
+      return Long.parseLong(userId.trim());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static String sha256(String apiKey) {
+    try {
+      return HexFormat.of()
+          .formatHex(
+              MessageDigest.getInstance("SHA-256")
+                  .digest(apiKey.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.cortex.engine.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Scheduling weights and quotas applied per tenant.
+ *
+ * <p>Every tenant gets {@link #getDefaults()} unless an entry exists in {@link #getOverrides()};
+ * fields left unset in an override fall back to the defaults.
+ *
+ * <p>Callers identify their tenant with an API key, listed in {@link #getApiKeys()} by its
+ * SHA-256 so that the configuration holds no usable secret. The {@code X-Tenant-Id} header is only
+ * honored with {@link #isTrustTenantHeader()}, for deployments where a gateway authenticates
+ * callers and sets the header itself.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "engine.tenants")
+public class TenantProperties {
+
+  /** Length of the window over which slot-seconds are accounted. */
+  private Duration usageWindow = Duration.ofHours(1);
+
+  /**
+   * How long a reserved execution slot counts against the tenant if it is never released, for
+   * example because its worker crashed. Longer than any execution, judge shards included.
+   */
+  private Duration slotLease = Duration.ofMinutes(30);
+
+  private Quota defaults = new Quota(1, 4, 3600L);
+
+  private Map<String, Quota> overrides = new HashMap<>();
+
+  /** Tenant of each API key, keyed by the hex SHA-256 of the key. */
+  private Map<String, String> apiKeys = new HashMap<>();
+
+  /** Takes the tenant from {@code X-Tenant-Id} when no API key is given. */
+  private boolean trustTenantHeader = false;
+
+  public Quota quotaFor(String tenantId) {
+    Quota override = overrides.get(tenantId);
+    if (override == null) {
+      return defaults;
+    }
+    return new Quota(
+        override.getWeight() != null ? override.getWeight() : defaults.getWeight(),
+        override.getMaxConcurrent() != null
+            ? override.getMaxConcurrent()
+            : defaults.getMaxConcurrent(),
+        override.getSlotSeconds() != null
+            ? override.getSlotSeconds()
+            : defaults.getSlotSeconds());
+  }
+
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Quota {
+    /** Relative share of worker capacity when several tenants have queued work. */
+    private Integer weight;
+
+    /** Executions that may run at the same time across all workers. */
+    private Integer maxConcurrent;
+
+    /**
+     * Seconds of execution slot time, i.e. wall-clock time executions hold a slot, the tenant may
+     * consume per {@code usageWindow}.
+     */
+    private Long slotSeconds;
+  }
+}
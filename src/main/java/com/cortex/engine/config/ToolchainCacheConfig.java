@@ -0,0 +1,84 @@
+package com.cortex.engine.config;
+
+import com.cortex.engine.docker.ToolchainCacheSpec;
+import java.util.List;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Toolchain caches shared by execution containers.
+ *
+ * <p>Caches are mounted read-only. Toolchains that need to write to their cache get a private
+ * writable copy seeded from the shared one at the start of each run. Rust has no entry: the image
+ * already ships precompiled std artifacts and submissions are built with plain {@code rustc}.
+ *
+ * <p>Seeded copies live in the container's {@code /tmp} tmpfs and count against the language's
+ * scratch size. The Go cache is seeded as a tree of symlinks, so a run only spends scratch on the
+ * objects of its own package and the linked binary, a few MB; the C# project is small enough to
+ * be copied outright.
+ */
+@Configuration
+public class ToolchainCacheConfig {
+
+  private static final String GO_WARM_UP_PROGRAM =
+      """
+      package main
+
+      import (
+      \t"bufio"
+      \t"fmt"
+      \t"math"
+      \t"os"
+      \t"sort"
+      \t"strconv"
+      \t"strings"
+      )
+
+      func main() {
+      \treader := bufio.NewReader(os.Stdin)
+      \tline, _ := reader.ReadString('\\n')
+      \tfields := strings.Fields(line)
+      \tsort.Strings(fields)
+      \tn, _ := strconv.Atoi("42")
+      \tfmt.Println(fields, math.Sqrt(float64(n)))
+      }
+      """;
+
+  @Bean
+  public List<ToolchainCacheSpec> toolchainCacheSpecs() {
+    String cache = ToolchainCacheSpec.MOUNT_PATH;
+    return List.of(
+        new ToolchainCacheSpec(
+            "go",
+            "mkdir -p /tmp/warmup && cd /tmp/warmup && cat > main.go <<'EOF'\n"
+                + GO_WARM_UP_PROGRAM
+                + "EOF\n"
+                + "GOCACHE="
+                + cache
+                + "/go go build -o /dev/null main.go",
+            // Symlinks rather than copies: go only reads cache entries back and writes new ones
+            // as new files, so the run's /tmp only holds its own entries and trim.txt, which go
+            // rewrites on exit and must not point into the read-only volume
+            "mkdir -p /tmp/gocache && cp -rs "
+                + cache
+                + "/go/. /tmp/gocache && rm -f /tmp/gocache/trim.txt",
+            "go run {fileName}",
+            List.of("GOCACHE=/tmp/gocache")),
+        new ToolchainCacheSpec(
+            "csharp",
+            "mkdir -p /tmp/app && cd /tmp/app && dotnet new console --force"
+                + " && NUGET_PACKAGES="
+                + cache
+                + "/nuget dotnet build && cp -a /tmp/app "
+                + cache
+                + "/app",
+            // The project is rebuilt from /tmp/app so that paths recorded in obj/ stay valid
+            "mkdir -p /tmp/app && cp -a " + cache + "/app/. /tmp/app",
+            "mv {fileName} /tmp/app/Program.cs && cd /tmp/app && dotnet run",
+            List.of(
+                "NUGET_PACKAGES=" + cache + "/nuget",
+                "DOTNET_NOLOGO=1",
+                "DOTNET_SKIP_FIRST_TIME_EXPERIENCE=1",
+                "DOTNET_CLI_TELEMETRY_OPTOUT=1")));
+  }
+}
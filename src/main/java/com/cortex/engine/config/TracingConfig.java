@@ -0,0 +1,35 @@
+package com.cortex.engine.config;
+
+import com.cortex.engine.tracing.FileSpanExporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Span exporters for offline environments, selected with {@code engine.tracing.exporter}. Spring
+ * Boot registers any {@link SpanExporter} bean with the tracer, so a backend such as OTLP can be
+ * used instead by adding its exporter and setting this property to {@code none}.
+ */
+@Configuration
+public class TracingConfig {
+
+  @Bean
+  @ConditionalOnProperty(name = "engine.tracing.exporter", havingValue = "logging")
+  public SpanExporter loggingSpanExporter() {
+    return LoggingSpanExporter.create();
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "engine.tracing.exporter", havingValue = "file")
+  public SpanExporter fileSpanExporter(
+      @Value("${engine.tracing.file:traces/spans.jsonl}") Path file, ObjectMapper objectMapper)
+      throws IOException {
+    return new FileSpanExporter(file, objectMapper);
+  }
+}
@@ -3,13 +3,24 @@ package com.cortex.engine.controllers;
 import com.cortex.engine.controllers.dto.ExecutionResponse;
 import com.cortex.engine.controllers.dto.SubmissionRequest;
 import com.cortex.engine.controllers.dto.SubmissionResponse;
+import com.cortex.engine.exceptions.SubmissionRejectedException;
 import com.cortex.engine.services.impl.CodeExecutionServiceImpl;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+/**
+ * Blocking submission API, kept for comparison with {@link ReactiveCodeExecutionController}.
+ * Enabled with {@code engine.api.reactive=false}.
+ */
 @RestController
+@Profile("!worker")
+@ConditionalOnProperty(name = "engine.api.reactive", havingValue = "false")
 @RequestMapping("/execute")
 @RequiredArgsConstructor
 public class CodeExecutionController {
@@ -22,6 +33,10 @@ public class CodeExecutionController {
     try {
       String taskId = codeExecutionServiceImpl.submitCodeExecution(request);
       return ResponseEntity.ok(new SubmissionResponse(taskId, "Code submission successful"));
+    } catch (SubmissionRejectedException e) {
+      return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+          .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+          .body(new SubmissionResponse(null, e.getMessage()));
     } catch (Exception e) {
       return ResponseEntity.badRequest().body(new SubmissionResponse(null, e.getMessage()));
     }
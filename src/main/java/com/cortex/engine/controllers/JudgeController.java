@@ -0,0 +1,42 @@
+package com.cortex.engine.controllers;
+
+import com.cortex.engine.controllers.dto.JudgeRequest;
+import com.cortex.engine.controllers.dto.JudgeResponse;
+import com.cortex.engine.controllers.dto.SubmissionResponse;
+import com.cortex.engine.controllers.dto.Verdict;
+import com.cortex.engine.services.IJudgeService;
+import jakarta.validation.Valid;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Profile("!worker")
+@RequestMapping("/judge")
+@RequiredArgsConstructor
+public class JudgeController {
+
+  private final IJudgeService judgeService;
+
+  @PostMapping
+  public ResponseEntity<SubmissionResponse> submit(@Valid @RequestBody JudgeRequest request) {
+    try {
+      String taskId = judgeService.submit(request);
+      return ResponseEntity.ok(new SubmissionResponse(taskId, "Judge submission successful"));
+    } catch (Exception e) {
+      return ResponseEntity.badRequest().body(new SubmissionResponse(null, e.getMessage()));
+    }
+  }
+
+  @GetMapping("/{taskId}")
+  public ResponseEntity<JudgeResponse> getResult(@PathVariable String taskId) {
+    try {
+      return ResponseEntity.ok(judgeService.getResult(taskId));
+    } catch (Exception e) {
+      return ResponseEntity.badRequest()
+          .body(new JudgeResponse(Verdict.INTERNAL_ERROR, 0, 0, e.getMessage(), List.of()));
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.cortex.engine.controllers;
+
+import com.cortex.engine.controllers.dto.ExecutionResponse;
+import com.cortex.engine.controllers.dto.SubmissionRequest;
+import com.cortex.engine.controllers.dto.SubmissionResponse;
+import com.cortex.engine.exceptions.SubmissionRejectedException;
+import com.cortex.engine.services.impl.CodeExecutionServiceImpl;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Submission API with the same contract as {@link CodeExecutionController}, served without
+ * blocking: the request thread is released as soon as the handler returns, and the response is
+ * written when Redis answers or the broker confirms the task. Large numbers of concurrent submits
+ * and polls therefore do not exhaust the servlet thread pool.
+ */
+@RestController
+@Profile("!worker")
+@ConditionalOnProperty(name = "engine.api.reactive", havingValue = "true", matchIfMissing = true)
+@RequestMapping("/execute")
+@RequiredArgsConstructor
+public class ReactiveCodeExecutionController {
+
+  private final CodeExecutionServiceImpl codeExecutionServiceImpl;
+
+  @PostMapping
+  public Mono<ResponseEntity<SubmissionResponse>> submitCode(
+      @Valid @RequestBody SubmissionRequest request) {
+    return codeExecutionServiceImpl
+        .submitCodeExecutionReactive(request)
+        .map(
+            taskId ->
+                ResponseEntity.ok(new SubmissionResponse(taskId, "Code submission successful")))
+        .onErrorResume(
+            SubmissionRejectedException.class,
+            e ->
+                Mono.just(
+                    ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(
+                            HttpHeaders.RETRY_AFTER,
+                            String.valueOf(e.getRetryAfter().toSeconds()))
+                        .body(new SubmissionResponse(null, e.getMessage()))))
+        .onErrorResume(
+            e ->
+                Mono.just(
+                    ResponseEntity.badRequest()
+                        .body(new SubmissionResponse(null, e.getMessage()))));
+  }
+
+  @GetMapping("/{taskId}")
+  public Mono<ResponseEntity<ExecutionResponse>> getExecutionResult(@PathVariable String taskId) {
+    return codeExecutionServiceImpl
+        .getExecutionResultReactive(taskId)
+        .map(ResponseEntity::ok)
+        .onErrorResume(
+            e ->
+                Mono.just(
+                    ResponseEntity.badRequest()
+                        .body(new ExecutionResponse(null, 4, e.getMessage()))));
+  }
+}
@@ -0,0 +1,52 @@
+package com.cortex.engine.controllers;
+
+import com.cortex.engine.controllers.dto.CreateSessionRequest;
+import com.cortex.engine.controllers.dto.ExecutionResponse;
+import com.cortex.engine.controllers.dto.SessionResponse;
+import com.cortex.engine.controllers.dto.SessionRunRequest;
+import com.cortex.engine.exceptions.CodeExecutionException;
+import com.cortex.engine.exceptions.SubmissionRejectedException;
+import com.cortex.engine.services.ISessionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Profile("!api & (!worker | sessions)")
+@RequestMapping("/sessions")
+@RequiredArgsConstructor
+public class SessionController {
+
+  private final ISessionService sessionService;
+
+  @PostMapping
+  public ResponseEntity<SessionResponse> createSession(
+      @Valid @RequestBody CreateSessionRequest request) {
+    return ResponseEntity.ok(sessionService.createSession(request.language()));
+  }
+
+  @PostMapping("/{sessionId}/run")
+  public ResponseEntity<ExecutionResponse> run(
+      @PathVariable String sessionId, @Valid @RequestBody SessionRunRequest request)
+      throws CodeExecutionException {
+    try {
+      return ResponseEntity.ok(sessionService.run(sessionId, request));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(new ExecutionResponse(null, 4, e.getMessage()));
+    } catch (SubmissionRejectedException e) {
+      return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+          .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()))
+          .body(new ExecutionResponse(null, 4, e.getMessage()));
+    }
+  }
+
+  @DeleteMapping("/{sessionId}")
+  public ResponseEntity<Void> closeSession(@PathVariable String sessionId) {
+    sessionService.closeSession(sessionId);
+    return ResponseEntity.noContent().build();
+  }
+}
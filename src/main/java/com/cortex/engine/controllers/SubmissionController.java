@@ -0,0 +1,41 @@
+package com.cortex.engine.controllers;
+
+import com.cortex.engine.controllers.dto.SubmissionHistoryResponse;
+import com.cortex.engine.services.ISubmissionService;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Profile("!api & !worker")
+@RequestMapping("/submissions")
+@RequiredArgsConstructor
+public class SubmissionController {
+
+  private final ISubmissionService submissionService;
+
+  @GetMapping
+  public ResponseEntity<SubmissionHistoryResponse> getHistory(
+      @RequestParam(required = false) Long userId,
+      @RequestParam(required = false) String language,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime to,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int limit) {
+    try {
+      return ResponseEntity.ok(
+          submissionService.getHistory(userId, language, from, to, cursor, limit));
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+}
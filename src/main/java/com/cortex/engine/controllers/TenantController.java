@@ -0,0 +1,36 @@
+package com.cortex.engine.controllers;
+
+import com.cortex.engine.common.TenantContext;
+import com.cortex.engine.controllers.dto.TenantUsageResponse;
+import com.cortex.engine.services.ITenantQuotaService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Profile("!worker")
+@RequestMapping("/tenants")
+@RequiredArgsConstructor
+public class TenantController {
+
+  private final ITenantQuotaService tenantQuotaService;
+
+  /**
+   * Returns the usage and quotas of the caller's own tenant.
+   *
+   * @param tenantId The tenant to report on
+   * @return The usage, or 404 if the tenant is not the caller's, so that other tenants cannot be
+   *     probed
+   */
+  @GetMapping("/{tenantId}/usage")
+  public ResponseEntity<TenantUsageResponse> getUsage(@PathVariable String tenantId) {
+    if (!tenantId.equals(TenantContext.getTenantId())) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok(tenantQuotaService.getUsage(tenantId));
+  }
+}
@@ -7,5 +7,13 @@ import lombok.Setter;
 @Setter
 public class CodeExecutionTask {
   private String taskId;
+  private String tenantId;
+  /** Whether the tenant authenticated with an API key; only then may it pick its own backend. */
+  private boolean authenticated;
+  private Long userId;
   private SubmissionRequest submissionRequest;
+  /** Set when the code was offloaded to the payload store; the request then carries no code. */
+  private PayloadRef codeRef;
+  /** Set when stdin was offloaded to the payload store; the request then carries no stdin. */
+  private PayloadRef stdinRef;
 }
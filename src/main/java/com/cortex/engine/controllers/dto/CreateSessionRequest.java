@@ -0,0 +1,6 @@
+package com.cortex.engine.controllers.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record CreateSessionRequest(
+    @NotBlank(message = "Language cannot be blank") String language) {}
@@ -0,0 +1,25 @@
+package com.cortex.engine.controllers.dto;
+
+import com.cortex.engine.validation.BoundedBase64Deserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * A submission to be judged against a suite of test cases. The program is built once and then run
+ * with the stdin of every case; unless {@code stopOnFirstFailure} is false, the first failing case
+ * stops the cases that have not run yet.
+ */
+public record JudgeRequest(
+    @NotEmpty(message = "Code cannot be blank")
+        @JsonDeserialize(using = BoundedBase64Deserializer.class)
+        byte[] code,
+    @NotBlank(message = "Language cannot be blank") String language,
+    @NotEmpty(message = "At least one test case is required") List<@Valid TestCase> testCases,
+    Boolean stopOnFirstFailure) {
+  public JudgeRequest {
+    stopOnFirstFailure = stopOnFirstFailure == null || stopOnFirstFailure;
+  }
+}
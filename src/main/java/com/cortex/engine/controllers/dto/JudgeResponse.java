@@ -0,0 +1,19 @@
+package com.cortex.engine.controllers.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Result of a judged submission. The verdict is that of the first failing case in request order,
+ * or {@link Verdict#ACCEPTED} if every case passed.
+ *
+ * @param verdict The overall verdict
+ * @param passed How many cases were accepted
+ * @param total How many cases the submission had
+ * @param message Compiler output for {@link Verdict#COMPILATION_ERROR}, the error for {@link
+ *     Verdict#INTERNAL_ERROR}, null otherwise
+ * @param testCases The result of every case, in request order
+ */
+public record JudgeResponse(
+    Verdict verdict, int passed, int total, String message, List<TestCaseResult> testCases)
+    implements Serializable {}
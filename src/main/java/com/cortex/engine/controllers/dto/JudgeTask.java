@@ -0,0 +1,17 @@
+package com.cortex.engine.controllers.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class JudgeTask {
+  private String taskId;
+  private String tenantId;
+  private Long userId;
+  private JudgeRequest judgeRequest;
+  /** Set when the code was offloaded to the payload store; the request then carries no code. */
+  private PayloadRef codeRef;
+  /** Where the test cases were stored; the request then carries none. */
+  private PayloadRef testCasesRef;
+}
@@ -0,0 +1,9 @@
+package com.cortex.engine.controllers.dto;
+
+/**
+ * Reference to a task body kept in the payload store instead of the broker message.
+ *
+ * @param key The store key, derived from the content hash
+ * @param size The size of the original content in bytes
+ */
+public record PayloadRef(String key, int size) {}
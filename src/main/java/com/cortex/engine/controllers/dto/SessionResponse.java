@@ -0,0 +1,7 @@
+package com.cortex.engine.controllers.dto;
+
+/**
+ * An interactive session. It is evicted after {@code idleTimeoutSeconds} without runs, or earlier
+ * if the node needs room for new sessions.
+ */
+public record SessionResponse(String sessionId, String language, long idleTimeoutSeconds) {}
@@ -0,0 +1,27 @@
+package com.cortex.engine.controllers.dto;
+
+import com.cortex.engine.validation.BoundedBase64Deserializer;
+import com.cortex.engine.validation.Utf8TextDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import jakarta.validation.constraints.NotBlank;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A run in an interactive session. Only files that changed since the previous run need to be
+ * sent: {@code files} maps workspace-relative paths to their Base64 content, and {@code
+ * deletedFiles} lists paths to remove. Everything else in the workspace is kept between runs.
+ * {@code stdin} is plain text, encoded to UTF-8 as it is read.
+ */
+public record SessionRunRequest(
+    @JsonDeserialize(contentUsing = BoundedBase64Deserializer.class) Map<String, byte[]> files,
+    List<String> deletedFiles,
+    @NotBlank(message = "Entry file cannot be blank") String entryFile,
+    @JsonDeserialize(using = Utf8TextDeserializer.class) byte[] stdin,
+    Boolean encodeOutputToBase64) {
+  public SessionRunRequest {
+    files = files != null ? files : Map.of();
+    deletedFiles = deletedFiles != null ? deletedFiles : List.of();
+    encodeOutputToBase64 = encodeOutputToBase64 == null || encodeOutputToBase64;
+  }
+}
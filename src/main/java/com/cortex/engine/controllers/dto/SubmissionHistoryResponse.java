@@ -0,0 +1,9 @@
+package com.cortex.engine.controllers.dto;
+
+import java.util.List;
+
+/**
+ * A page of submission history. {@code nextCursor} is {@code null} on the last page, otherwise it
+ * is passed back as the {@code cursor} parameter to fetch the next page.
+ */
+public record SubmissionHistoryResponse(List<SubmissionSummary> items, String nextCursor) {}
@@ -1,14 +1,26 @@
 package com.cortex.engine.controllers.dto;
 
-import com.cortex.engine.validation.Base64Encoded;
+import com.cortex.engine.validation.BoundedBase64Deserializer;
+import com.cortex.engine.validation.Utf8TextDeserializer;
+import com.cortex.engine.validation.Utf8TextSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 
+/**
+ * A code submission. {@code code} travels as Base64 in JSON and is decoded once, while the request
+ * is read; {@code stdin} travels as plain text and is encoded to UTF-8 as it is read. From then on
+ * both are carried as raw bytes.
+ */
 public record SubmissionRequest(
-    @NotBlank(message = "Code cannot be blank")
-        @Base64Encoded(message = "The code must be Base64 encoded")
-        String code,
+    @NotEmpty(message = "Code cannot be blank")
+        @JsonDeserialize(using = BoundedBase64Deserializer.class)
+        byte[] code,
     @NotBlank(message = "Language cannot be blank") String language,
-    String stdin,
+    @JsonDeserialize(using = Utf8TextDeserializer.class)
+        @JsonSerialize(using = Utf8TextSerializer.class)
+        byte[] stdin,
     Float cpuTimeLimit,
     Float cpuExtraTime,
     String commandLineArguments,
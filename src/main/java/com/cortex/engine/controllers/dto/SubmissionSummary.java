@@ -0,0 +1,13 @@
+package com.cortex.engine.controllers.dto;
+
+import java.time.LocalDateTime;
+
+/** A submission as listed in the history, without its code or stdin. */
+public record SubmissionSummary(
+    Long id,
+    LocalDateTime createdDate,
+    String language,
+    Long userId,
+    Float cpuTimeLimit,
+    Integer codeBytes,
+    Integer stdinBytes) {}
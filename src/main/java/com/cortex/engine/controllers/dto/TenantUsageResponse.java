@@ -0,0 +1,9 @@
+package com.cortex.engine.controllers.dto;
+
+public record TenantUsageResponse(
+    String tenantId,
+    Integer weight,
+    Long running,
+    Integer maxConcurrent,
+    Double slotSecondsUsed,
+    Long slotSecondsQuota) {}
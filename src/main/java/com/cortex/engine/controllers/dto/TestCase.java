@@ -0,0 +1,10 @@
+package com.cortex.engine.controllers.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * One input of a judged submission and the output it must produce. Outputs are compared ignoring
+ * trailing whitespace on each line and at the end.
+ */
+public record TestCase(
+    String stdin, @NotNull(message = "Expected output cannot be null") String expectedOutput) {}
@@ -0,0 +1,16 @@
+package com.cortex.engine.controllers.dto;
+
+import java.io.Serializable;
+
+/**
+ * Result of one test case. Output is only kept for cases that were not accepted.
+ *
+ * @param index Position of the case in the request
+ * @param verdict The case's verdict
+ * @param timeMs Wall-clock time of the run, or null if the case did not run
+ * @param stdout The program's stdout, for failed cases
+ * @param stderr The program's stderr, for failed cases
+ */
+public record TestCaseResult(
+    int index, Verdict verdict, Long timeMs, String stdout, String stderr)
+    implements Serializable {}
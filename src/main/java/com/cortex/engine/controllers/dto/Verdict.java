@@ -0,0 +1,14 @@
+package com.cortex.engine.controllers.dto;
+
+/** Outcome of a judged submission or of one of its test cases. */
+public enum Verdict {
+  ACCEPTED,
+  WRONG_ANSWER,
+  RUNTIME_ERROR,
+  TIME_LIMIT_EXCEEDED,
+  COMPILATION_ERROR,
+  /** The case did not run because an earlier failure stopped the submission. */
+  SKIPPED,
+  /** The submission could not be judged, for reasons unrelated to the program. */
+  INTERNAL_ERROR
+}
@@ -0,0 +1,59 @@
+package com.cortex.engine.docker;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.ExecCreateCmdResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/** Runs shell commands in running containers through {@code exec}. */
+public final class ContainerExec {
+
+  private ContainerExec() {}
+
+  /**
+   * Runs a command with {@code /bin/sh -c} and waits for it to finish. A command that is still
+   * running when the timeout elapses is left running; callers that cannot tolerate that remove
+   * the container.
+   *
+   * @param dockerClient The Docker client
+   * @param containerId The running container to run the command in
+   * @param command The shell command
+   * @param timeoutMillis How long to wait for the command
+   * @param stdin The command's standard input, or {@code null} for none
+   * @return The exit code and output of the command
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public static ExecResult run(
+      DockerClient dockerClient,
+      String containerId,
+      String command,
+      long timeoutMillis,
+      InputStream stdin)
+      throws InterruptedException {
+    ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+    ExecCreateCmdResponse exec =
+        dockerClient
+            .execCreateCmd(containerId)
+            .withAttachStdin(stdin != null)
+            .withAttachStdout(true)
+            .withAttachStderr(true)
+            .withCmd("/bin/sh", "-c", command)
+            .exec();
+    boolean completed =
+        dockerClient
+            .execStartCmd(exec.getId())
+            .withStdIn(stdin)
+            .exec(new OutputAdapter(stdout, stderr))
+            .awaitCompletion(timeoutMillis, TimeUnit.MILLISECONDS);
+    Long exitCode =
+        completed ? dockerClient.inspectExecCmd(exec.getId()).exec().getExitCodeLong() : null;
+    return new ExecResult(
+        completed,
+        exitCode != null ? exitCode : -1,
+        stdout.toByteArray(),
+        stderr.toString(StandardCharsets.UTF_8));
+  }
+}
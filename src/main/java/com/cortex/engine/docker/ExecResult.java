@@ -0,0 +1,23 @@
+package com.cortex.engine.docker;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The outcome of a command run with {@link ContainerExec}.
+ *
+ * @param completed Whether the command finished within its timeout
+ * @param exitCode The exit code, or -1 if the command did not complete
+ * @param stdout Everything the command wrote to stdout
+ * @param stderr Everything the command wrote to stderr
+ */
+public record ExecResult(boolean completed, long exitCode, byte[] stdout, String stderr) {
+
+  /** Whether the command finished within its timeout with exit code 0. */
+  public boolean succeeded() {
+    return completed && exitCode == 0;
+  }
+
+  public String stdoutText() {
+    return new String(stdout, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,38 @@
+package com.cortex.engine.docker;
+
+import com.github.dockerjava.api.async.ResultCallback.Adapter;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+
+/** Collects the stdout and stderr frames of a Docker exec; discards them when either is null. */
+@Slf4j
+public class OutputAdapter extends Adapter<Frame> {
+  private final ByteArrayOutputStream stdout;
+  private final ByteArrayOutputStream stderr;
+
+  public OutputAdapter(ByteArrayOutputStream stdout, ByteArrayOutputStream stderr) {
+    this.stdout = stdout;
+    this.stderr = stderr;
+  }
+
+  @Override
+  public void onNext(Frame frame) {
+    if (stdout == null || stderr == null) return;
+
+    byte[] payload = frame.getPayload();
+    if (payload != null) {
+      try {
+        if (frame.getStreamType() == StreamType.STDOUT) {
+          stdout.write(payload);
+        } else if (frame.getStreamType() == StreamType.STDERR) {
+          stderr.write(payload);
+        }
+      } catch (IOException e) {
+        log.error("Error writing to output stream", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.cortex.engine.docker;
+
+import com.cortex.engine.entities.Language;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Memory-backed scratch directories for execution containers. The workspace at {@link
+ * #WORKSPACE} and {@code /tmp} are tmpfs mounts, so sources, compiler output such as {@code rustc}
+ * binaries, {@code javac} classes or .NET project trees, and temporary files never reach the
+ * disk. Each mount is capped at the language's scratch size, and at most at its memory limit: the
+ * kernel charges tmpfs pages to the container's memory cgroup, so what a program writes there
+ * counts against the same limit as what it allocates.
+ *
+ * <p>Docker cannot copy archives into tmpfs mounts, so files are written through {@code exec}.
+ */
+@Component
+@Profile("!api")
+public class ScratchSpace {
+
+  public static final String WORKSPACE = "/code";
+  private static final String TMP = "/tmp";
+
+  private final long defaultSize;
+
+  public ScratchSpace(@Value("${engine.scratch.default-size:64MB}") DataSize defaultSize) {
+    this.defaultSize = defaultSize.toBytes();
+  }
+
+  /**
+   * Returns the size of each of the language's scratch mounts.
+   *
+   * @param language The language of the container
+   * @return The size in bytes
+   */
+  public long sizeOf(Language language) {
+    long size =
+        language.getScratchSizeLimit() != null ? language.getScratchSizeLimit() : defaultSize;
+    Long memoryLimit = language.getDefaultMemoryLimit();
+    return memoryLimit != null && memoryLimit > 0 ? Math.min(size, memoryLimit) : size;
+  }
+
+  /**
+   * Returns the tmpfs mounts for a container of the language, as expected by {@code
+   * HostConfig.withTmpFs}.
+   *
+   * @param language The language of the container
+   * @return The mount options by path
+   */
+  public Map<String, String> mounts(Language language) {
+    return mounts(language, sizeOf(language));
+  }
+
+  /**
+   * Returns the tmpfs mounts for a container of the language whose workspace has its own size,
+   * such as the long-lived workspace of an interactive session.
+   *
+   * @param language The language of the container
+   * @param workspaceSize The size of the workspace mount in bytes
+   * @return The mount options by path
+   */
+  public Map<String, String> mounts(Language language, long workspaceSize) {
+    return Map.of(WORKSPACE, options(workspaceSize), TMP, options(sizeOf(language)));
+  }
+
+  private static String options(long size) {
+    // exec, because compiled programs run from the workspace
+    return "rw,exec,nosuid,nodev,mode=1777,size=" + size;
+  }
+}
@@ -0,0 +1,9 @@
+package com.cortex.engine.docker;
+
+/**
+ * A prepared toolchain cache volume, ready to be mounted into execution containers.
+ *
+ * @param volumeName Name of the Docker volume holding the cache
+ * @param spec The cache definition the volume was built from
+ */
+public record ToolchainCache(String volumeName, ToolchainCacheSpec spec) {}
@@ -0,0 +1,31 @@
+package com.cortex.engine.docker;
+
+import java.util.List;
+
+/**
+ * Describes a persistent toolchain cache for a language.
+ *
+ * @param language Name of the language the cache belongs to
+ * @param warmUpCommand Shell command that populates {@link #MOUNT_PATH} when the cache is built
+ * @param seedCommand Shell command that copies what the toolchain writes to from the read-only
+ *     cache into a writable place; it runs once per container, before anything is built
+ * @param executeCommand Execute command template used instead of the language's own one while the
+ *     cache is mounted, once the container has been seeded; supports the same {@code {fileName}}
+ *     placeholder
+ * @param env Environment variables set on execution containers that mount the cache
+ */
+public record ToolchainCacheSpec(
+    String language,
+    String warmUpCommand,
+    String seedCommand,
+    String executeCommand,
+    List<String> env) {
+
+  /** Where cache volumes are mounted, read-write while warming up and read-only afterwards. */
+  public static final String MOUNT_PATH = "/opt/cortex/cache";
+
+  /** The execute command template for a container that runs a single program. */
+  public String seededExecuteCommand() {
+    return seedCommand + " && " + executeCommand;
+  }
+}
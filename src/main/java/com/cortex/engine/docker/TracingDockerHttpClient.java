@@ -0,0 +1,48 @@
+package com.cortex.engine.docker;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Wraps the Docker transport so that every Docker API call becomes a span of the current trace.
+ *
+ * <p>Container, exec and image IDs are replaced by {@code {id}} in the operation name to keep its
+ * cardinality low. Streaming calls such as exec start or image pulls are timed until the response
+ * headers arrive; the time spent reading the stream belongs to the enclosing span.
+ */
+public class TracingDockerHttpClient implements DockerHttpClient {
+
+  private static final Pattern ID_SEGMENT =
+      Pattern.compile("/(?:sha256:)?[0-9a-f]{12,64}(?=/|$)|/cortex-[^/?]+");
+
+  private final DockerHttpClient delegate;
+  private final ObservationRegistry observationRegistry;
+
+  public TracingDockerHttpClient(
+      DockerHttpClient delegate, ObservationRegistry observationRegistry) {
+    this.delegate = delegate;
+    this.observationRegistry = observationRegistry;
+  }
+
+  @Override
+  public Response execute(Request request) {
+    String path = request.path();
+    int query = path.indexOf('?');
+    String operation =
+        request.method()
+            + " "
+            + ID_SEGMENT.matcher(query >= 0 ? path.substring(0, query) : path).replaceAll("/{id}");
+    return Observation.createNotStarted("docker.api", observationRegistry)
+        .contextualName("docker " + operation)
+        .lowCardinalityKeyValue("docker.operation", operation)
+        .observe(() -> delegate.execute(request));
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+}
@@ -0,0 +1,51 @@
+package com.cortex.engine.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Content-addressed storage for submitted code and stdin.
+ *
+ * <p>Blobs are keyed by the SHA-256 of their uncompressed content, so identical starter code or
+ * reference solutions are stored once no matter how often they are submitted. Blobs are
+ * immutable and therefore do not extend {@link com.cortex.engine.common.BaseEntity}.
+ *
+ * <p>Blobs no submission references any more are swept along with submission partition
+ * maintenance. The sweep spares recent blobs, so {@code created_date} is refreshed when an old
+ * blob is stored again.
+ */
+@Entity
+@Table(name = "code_blobs")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodeBlob {
+
+  @Id
+  @Column(length = 64)
+  private String hash;
+
+  /** Size of the uncompressed content in bytes. */
+  @Column(nullable = false)
+  private Integer size;
+
+  @Column(nullable = false)
+  private boolean compressed;
+
+  @Column(nullable = false)
+  private byte[] content;
+
+  /** When the blob was last stored, refreshed by {@code CodeBlobRepository#refreshIfStale}. */
+  @Column(nullable = false, updatable = false, name = "created_date")
+  private LocalDateTime createdDate;
+}
@@ -40,4 +40,11 @@ public class Language extends BaseEntity {
 
   @Column(name = "default_timeout")
   private Long defaultTimeout;
+
+  /**
+   * Size in bytes of each memory-backed scratch directory of the language's containers, or null
+   * for {@code engine.scratch.default-size}. Scratch contents count against the memory limit.
+   */
+  @Column(name = "scratch_size_limit")
+  private Long scratchSizeLimit;
 }
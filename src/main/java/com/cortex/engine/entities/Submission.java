@@ -14,15 +14,39 @@ import lombok.experimental.SuperBuilder;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(
+    name = "submission",
+    indexes = {
+      @Index(name = "idx_submission_tenant_created", columnList = "tenant_id, created_date, id"),
+      @Index(
+          name = "idx_submission_tenant_user_created",
+          columnList = "tenant_id, created_by, created_date, id"),
+      @Index(
+          name = "idx_submission_tenant_language_created",
+          columnList = "tenant_id, language_id, created_date, id"),
+      // Used by the sweep of unreferenced code blobs
+      @Index(name = "idx_submission_code_blob", columnList = "code_blob_id"),
+      @Index(name = "idx_submission_stdin_blob", columnList = "stdin_blob_id")
+    })
 public class Submission extends BaseEntity {
 
-  @Column(nullable = false, columnDefinition = "TEXT")
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "code_blob_id")
+  private CodeBlob codeBlob;
+
+  /** Legacy inline Base64 code, moved into {@link #codeBlob} by the blob migration. */
+  @Column(columnDefinition = "TEXT")
   private String code;
 
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "language_id", nullable = false)
   private Language language;
 
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "stdin_blob_id")
+  private CodeBlob stdinBlob;
+
+  /** Legacy inline stdin, moved into {@link #stdinBlob} by the blob migration. */
   @Column(columnDefinition = "TEXT")
   private String stdin;
 
@@ -40,4 +64,7 @@ public class Submission extends BaseEntity {
 
   @Column(name = "compiler_options")
   private String compilerOptions;
+
+  @Column(name = "tenant_id")
+  private String tenantId;
 }
@@ -13,6 +13,9 @@ public enum BusinessErrorCodes {
   CODE_COMPILATION_ERROR(309, BAD_REQUEST, "Code compilation failed"),
   EXECUTION_TIMEOUT(310, REQUEST_TIMEOUT, "Code execution timed out"),
   FILE_OPERATION_ERROR(311, INTERNAL_SERVER_ERROR, "Error in file operation"),
+  PAYLOAD_TOO_LARGE(312, CONTENT_TOO_LARGE, "Submitted payload is too large"),
+  SESSION_NOT_FOUND(313, NOT_FOUND, "Session not found or expired"),
+  SESSION_LIMIT_REACHED(314, TOO_MANY_REQUESTS, "Too many active sessions on this node"),
   VALIDATION_ERROR(400, BAD_REQUEST, "Validation error occurred");
 
   private final int code;
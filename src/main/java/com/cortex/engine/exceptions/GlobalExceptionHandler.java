@@ -4,8 +4,10 @@ import static com.cortex.engine.exceptions.BusinessErrorCodes.*;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -94,6 +96,61 @@ public class GlobalExceptionHandler {
                 .build());
   }
 
+  @ExceptionHandler(PayloadTooLargeException.class)
+  public ResponseEntity<ExceptionResponse> handleException(PayloadTooLargeException exp) {
+    return ResponseEntity.status(PAYLOAD_TOO_LARGE.getHttpStatus())
+        .body(
+            ExceptionResponse.builder()
+                .businessErrorCode(PAYLOAD_TOO_LARGE.getCode())
+                .businessErrorDescription(PAYLOAD_TOO_LARGE.getDescription())
+                .error(exp.getMessage())
+                .build());
+  }
+
+  @ExceptionHandler(SessionNotFoundException.class)
+  public ResponseEntity<ExceptionResponse> handleException(SessionNotFoundException exp) {
+    return ResponseEntity.status(SESSION_NOT_FOUND.getHttpStatus())
+        .body(
+            ExceptionResponse.builder()
+                .businessErrorCode(SESSION_NOT_FOUND.getCode())
+                .businessErrorDescription(SESSION_NOT_FOUND.getDescription())
+                .error(exp.getMessage())
+                .build());
+  }
+
+  @ExceptionHandler(SessionLimitExceededException.class)
+  public ResponseEntity<ExceptionResponse> handleException(SessionLimitExceededException exp) {
+    return ResponseEntity.status(SESSION_LIMIT_REACHED.getHttpStatus())
+        .body(
+            ExceptionResponse.builder()
+                .businessErrorCode(SESSION_LIMIT_REACHED.getCode())
+                .businessErrorDescription(SESSION_LIMIT_REACHED.getDescription())
+                .error(exp.getMessage())
+                .build());
+  }
+
+  @ExceptionHandler(HttpMessageNotReadableException.class)
+  public ResponseEntity<ExceptionResponse> handleHttpMessageNotReadableException(
+      HttpMessageNotReadableException exp) {
+    // Payload limits are enforced while the body is being decoded, so they surface here
+    for (Throwable cause = exp.getCause(); cause != null; cause = cause.getCause()) {
+      if (cause instanceof PayloadTooLargeException payloadTooLarge) {
+        return handleException(payloadTooLarge);
+      }
+      if (cause instanceof StreamConstraintsException tooLong) {
+        return handleException(new PayloadTooLargeException(tooLong.getOriginalMessage()));
+      }
+    }
+
+    return ResponseEntity.status(BAD_REQUEST)
+        .body(
+            ExceptionResponse.builder()
+                .businessErrorCode(VALIDATION_ERROR.getCode())
+                .businessErrorDescription(VALIDATION_ERROR.getDescription())
+                .error(exp.getMostSpecificCause().getMessage())
+                .build());
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<ExceptionResponse> handleMethodArgumentNotValidException(
       MethodArgumentNotValidException exp) {
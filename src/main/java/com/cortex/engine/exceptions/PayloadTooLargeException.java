@@ -0,0 +1,7 @@
+package com.cortex.engine.exceptions;
+
+public class PayloadTooLargeException extends RuntimeException {
+  public PayloadTooLargeException(String message) {
+    super(message);
+  }
+}
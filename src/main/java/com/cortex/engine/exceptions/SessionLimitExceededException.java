@@ -0,0 +1,7 @@
+package com.cortex.engine.exceptions;
+
+public class SessionLimitExceededException extends RuntimeException {
+  public SessionLimitExceededException(String message) {
+    super(message);
+  }
+}
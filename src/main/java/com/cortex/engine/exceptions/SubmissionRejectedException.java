@@ -0,0 +1,17 @@
+package com.cortex.engine.exceptions;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/** Thrown when a submission is turned away because the engine is overloaded. */
+@Getter
+public class SubmissionRejectedException extends RuntimeException {
+
+  /** How long the client should wait before submitting again. */
+  private final Duration retryAfter;
+
+  public SubmissionRejectedException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+}
@@ -0,0 +1,388 @@
+package com.cortex.engine.execution;
+
+import com.cortex.engine.docker.AutoCloseableContainer;
+import com.cortex.engine.docker.ContainerExec;
+import com.cortex.engine.docker.ExecResult;
+import com.cortex.engine.docker.OutputAdapter;
+import com.cortex.engine.docker.ScratchSpace;
+import com.cortex.engine.docker.ToolchainCache;
+import com.cortex.engine.docker.ToolchainCacheSpec;
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.exceptions.CodeExecutionException;
+import com.cortex.engine.exceptions.ContainerCreationException;
+import com.cortex.engine.exceptions.ContainerStartException;
+import com.cortex.engine.exceptions.ExecutionTimeoutException;
+import com.cortex.engine.exceptions.FileOperationException;
+import com.cortex.engine.scheduling.CpusetAllocator;
+import com.cortex.engine.services.IToolchainCacheService;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback.Adapter;
+import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.command.ExecCreateCmdResponse;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.exception.NotModifiedException;
+import com.github.dockerjava.api.model.AccessMode;
+import com.github.dockerjava.api.model.Bind;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.HostConfig;
+import com.github.dockerjava.api.model.Volume;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs each program in a fresh Docker container with the language's image and resource limits,
+ * pinned to exclusive cores and with the language's toolchain cache mounted when one is ready.
+ * The program is written into, built in and run from the container's memory-backed {@link
+ * ScratchSpace}.
+ *
+ * @author Ángel Cuervo
+ * @version 1.1
+ * @since 2024-08-27
+ */
+@Component
+@Profile("!api")
+@RequiredArgsConstructor
+@Slf4j
+public class DockerExecutionBackend implements ExecutionBackend {
+
+  public static final String NAME = "docker";
+
+  private static final long WRITE_TIMEOUT_SECONDS = 30;
+
+  private final DockerClient dockerClient;
+  private final IToolchainCacheService toolchainCacheService;
+  private final CpusetAllocator cpusetAllocator;
+  private final ScratchSpace scratchSpace;
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  /** Runs the code in a fresh Docker container, removed once the run finishes. */
+  @Override
+  public ExecutionResult execute(Language language, byte[] code, InputStream stdin)
+      throws CodeExecutionException {
+    if (code.length == 0) {
+      throw new IllegalArgumentException("Content cannot be null or empty");
+    }
+    ToolchainCache cache = toolchainCacheService.getCache(language).orElse(null);
+    String codeFileName = "code" + language.getFileExtension();
+    try (CpusetAllocator.Lease cpus = cpusetAllocator.acquire(language.getDefaultCpuLimit());
+        AutoCloseableContainer container =
+            new AutoCloseableContainer(
+                createAndStartContainer(language, cache, cpus.cpus()), dockerClient)) {
+      startContainer(container);
+      writeCode(container, codeFileName, code);
+
+      return executeCodeInContainer(container, language, codeFileName, cache, stdin);
+    } catch (ContainerCreationException
+        | ContainerStartException
+        | ExecutionTimeoutException
+        | FileOperationException e) {
+      throw e;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CodeExecutionException("Interrupted while waiting for free cores", e);
+    } catch (Exception e) {
+      throw new CodeExecutionException("Failed to execute code: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Creates a Docker container for code execution.
+   *
+   * @param language The programming language of the code to be executed.
+   * @param cache The toolchain cache to mount read-only, or null if none is ready.
+   * @param cpusetCpus The host cores reserved for the container, or null to leave it unpinned.
+   * @return A CreateContainerResponse object representing the created container.
+   * @throws ContainerCreationException If the container creation fails.
+   */
+  private CreateContainerResponse createAndStartContainer(
+      Language language, ToolchainCache cache, String cpusetCpus) {
+    String containerName = "cortex-" + UUID.randomUUID();
+
+    try {
+      // Verificar si existe un contenedor con el mismo nombre
+      List<Container> existingContainers =
+          dockerClient
+              .listContainersCmd()
+              .withShowAll(true)
+              .withNameFilter(Collections.singletonList(containerName))
+              .exec();
+
+      if (!existingContainers.isEmpty()) {
+        String existingContainerId = existingContainers.getFirst().getId();
+        log.info("Container with name {} already exists. Removing it.", containerName);
+        dockerClient.removeContainerCmd(existingContainerId).withForce(true).exec();
+      }
+
+      List<Bind> binds = new ArrayList<>();
+      if (cache != null) {
+        binds.add(
+            new Bind(
+                cache.volumeName(), new Volume(ToolchainCacheSpec.MOUNT_PATH), AccessMode.ro));
+      }
+
+      HostConfig hostConfig =
+          new HostConfig()
+              .withMemory(language.getDefaultMemoryLimit())
+              .withCpuCount(language.getDefaultCpuLimit())
+              .withCpusetCpus(cpusetCpus)
+              .withTmpFs(scratchSpace.mounts(language))
+              .withBinds(binds);
+
+      CreateContainerResponse container =
+          dockerClient
+              .createContainerCmd(language.getDockerImage())
+              .withName(containerName)
+              .withHostConfig(hostConfig)
+              .withEnv(cache != null ? cache.spec().env() : List.of())
+              .withCmd("tail", "-f", "/dev/null")
+              .withWorkingDir(ScratchSpace.WORKSPACE)
+              .withTty(true)
+              .withAttachStderr(true)
+              .withAttachStdout(true)
+              .exec();
+
+      // Start the container
+      dockerClient.startContainerCmd(container.getId()).exec();
+      log.info("Container started successfully: {}", container.getId());
+
+      // Install dotnet-script if the language is C#
+      if ("csharp".equals(language.getName())) {
+        installDotnetScript(container.getId());
+      }
+
+      return container;
+    } catch (Exception e) {
+      throw new ContainerCreationException(
+          "Failed to create or start Docker container: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Starts the Docker container.
+   *
+   * @param container The container to be started.
+   * @throws ContainerStartException If the container fails to start.
+   */
+  private void startContainer(AutoCloseableContainer container) {
+    String containerId = container.getContainer().getId();
+    try {
+      // Check if the container exists and get its state
+      InspectContainerResponse containerInfo = dockerClient.inspectContainerCmd(containerId).exec();
+
+      if (Boolean.TRUE.equals(containerInfo.getState().getRunning())) {
+        log.info("Container {} is already in a running state. No action needed.", containerId);
+        return;
+      }
+
+      // Attempt to start the container
+      dockerClient.startContainerCmd(containerId).exec();
+      log.info("Container {} started successfully", containerId);
+    } catch (NotModifiedException e) {
+      // This might occur if the container started between our check and the start command
+      log.warn(
+          "Attempted to start container {} but it was already running. This might indicate a race condition.",
+          containerId);
+    } catch (Exception e) {
+      log.error("Failed to start or inspect container {}. Error: {}", containerId, e.getMessage());
+      throw new ContainerStartException(
+          "Failed to start or inspect Docker container: " + e.getMessage(), e);
+    }
+  }
+
+  private ExecutionResult executeCodeInContainer(
+      AutoCloseableContainer container,
+      Language language,
+      String codeFileName,
+      ToolchainCache cache,
+      InputStream stdin)
+      throws ExecutionTimeoutException {
+    ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+
+    try {
+      String executeCommand = buildCommand(language, codeFileName, cache);
+
+      if ("rust".equals(language.getName())) {
+        ExecutionResult compileResult = compileRustCode(container, codeFileName, language);
+        if (compileResult.statusId() != 3) {
+          return compileResult;
+        }
+        executeCommand = buildRustExecuteCommand(codeFileName);
+      }
+
+      ExecCreateCmdResponse execCreateCmdResponse =
+          createExecCommand(container, executeCommand, stdin != null);
+      if (!executeCommand(
+          execCreateCmdResponse, language.getDefaultTimeout(), stdout, stderr, stdin)) {
+        throw new ExecutionTimeoutException("Code execution timed out");
+      }
+
+      int statusId = getExecutionStatus(execCreateCmdResponse);
+
+      return new ExecutionResult(
+          stdout.toString(StandardCharsets.UTF_8),
+          stderr.toString(StandardCharsets.UTF_8),
+          statusId);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ExecutionTimeoutException("Code execution timed out", e);
+    } catch (ExecutionTimeoutException e) {
+      throw e;
+    } catch (Exception e) {
+      log.error("Error executing code in container", e);
+      return new ExecutionResult("", e.getMessage(), 4);
+    }
+  }
+
+  private ExecutionResult compileRustCode(
+      AutoCloseableContainer container, String codeFileName, Language language)
+      throws InterruptedException {
+    ExecCreateCmdResponse compileResponse =
+        createExecCommand(container, "rustc " + codeFileName, false);
+    executeCommand(compileResponse, language.getDefaultTimeout(), null, null, null);
+
+    Long compileExitCode = getExitCode(compileResponse);
+    if (compileExitCode != null && compileExitCode != 0) {
+      return new ExecutionResult("", "Compilation failed", 4);
+    }
+    return new ExecutionResult("", "", 3);
+  }
+
+  private String buildRustExecuteCommand(String codeFileName) {
+    String fileNameWithoutExtension = codeFileName.substring(0, codeFileName.lastIndexOf('.'));
+    return "./" + fileNameWithoutExtension;
+  }
+
+  private ExecCreateCmdResponse createExecCommand(
+      AutoCloseableContainer container, String command, boolean attachStdin) {
+    return dockerClient
+        .execCreateCmd(container.getContainer().getId())
+        .withAttachStdin(attachStdin)
+        .withAttachStdout(true)
+        .withAttachStderr(true)
+        .withCmd("/bin/sh", "-c", command)
+        .exec();
+  }
+
+  /** Runs an exec and returns {@code false} if it did not finish within the timeout. */
+  private boolean executeCommand(
+      ExecCreateCmdResponse execCreateCmdResponse,
+      Long timeout,
+      ByteArrayOutputStream stdout,
+      ByteArrayOutputStream stderr,
+      InputStream stdin)
+      throws InterruptedException {
+    // Docker copies stdin into the process as it reads it and closes it at the end of the stream
+    return dockerClient
+        .execStartCmd(execCreateCmdResponse.getId())
+        .withStdIn(stdin)
+        .exec(new OutputAdapter(stdout, stderr))
+        .awaitCompletion(timeout, TimeUnit.MILLISECONDS);
+  }
+
+  private int getExecutionStatus(ExecCreateCmdResponse execCreateCmdResponse) {
+    Long exitCode = getExitCode(execCreateCmdResponse);
+    return (exitCode != null && exitCode == 0) ? 3 : 4;
+  }
+
+  private Long getExitCode(ExecCreateCmdResponse execCreateCmdResponse) {
+    return dockerClient.inspectExecCmd(execCreateCmdResponse.getId()).exec().getExitCodeLong();
+  }
+
+  /**
+   * Builds the command to execute the code in the container.
+   *
+   * @param language The programming language of the code.
+   * @param codeFileName The name of the file containing the code.
+   * @param cache The mounted toolchain cache, whose execute command takes precedence.
+   * @return The command string to execute the code.
+   */
+  private String buildCommand(Language language, String codeFileName, ToolchainCache cache) {
+    String commandTemplate =
+        cache != null ? cache.spec().seededExecuteCommand() : language.getExecuteCommand();
+    String executeCommand = commandTemplate.replace("{fileName}", codeFileName);
+    if ("rust".equals(language.getName())) {
+      // For Rust, we'll handle compilation separately, so just return the run command
+      String fileNameWithoutExtension = codeFileName.substring(0, codeFileName.lastIndexOf('.'));
+      executeCommand = "./" + fileNameWithoutExtension;
+    }
+    return executeCommand;
+  }
+
+  /**
+   * Writes the code into the container's workspace.
+   *
+   * @param container The container to write the code into.
+   * @param fileName The name of the file to create.
+   * @param content The code.
+   * @throws FileOperationException If the file could not be written.
+   */
+  private void writeCode(AutoCloseableContainer container, String fileName, byte[] content)
+      throws InterruptedException {
+    log.info("Writing {} ({} bytes) into the container", fileName, content.length);
+    ExecResult write =
+        ContainerExec.run(
+            dockerClient,
+            container.getContainer().getId(),
+            "cat > " + fileName,
+            TimeUnit.SECONDS.toMillis(WRITE_TIMEOUT_SECONDS),
+            new ByteArrayInputStream(content));
+    if (!write.succeeded()) {
+      throw new FileOperationException("Failed to write " + fileName + " into the container");
+    }
+  }
+
+  /**
+   * Installs the dotnet-script tool in a Docker container. This method is specifically used for C#
+   * code execution.
+   *
+   * @param containerId The ID of the Docker container where dotnet-script will be installed
+   * @throws ContainerCreationException if the installation process fails or is interrupted
+   */
+  private void installDotnetScript(String containerId) {
+    String[] installCommand = {
+      "/bin/sh",
+      "-c",
+      "dotnet tool install -g dotnet-script && export PATH=\"$PATH:/root/.dotnet/tools\""
+    };
+    try {
+      ExecCreateCmdResponse execCreateCmdResponse =
+          dockerClient.execCreateCmd(containerId).withCmd(installCommand).exec();
+
+      dockerClient
+          .execStartCmd(execCreateCmdResponse.getId())
+          .exec(
+              new Adapter<Frame>() {
+                @Override
+                public void onNext(Frame object) {
+                  log.info("Installing dotnet-script: {}", object.toString());
+                }
+              })
+          .awaitCompletion(60, TimeUnit.SECONDS);
+
+      log.info("dotnet-script installed successfully in container: {}", containerId);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ContainerCreationException("Container creation was interrupted", e);
+    } catch (Exception e) {
+      throw new ContainerCreationException("Failed to install dotnet-script: " + e.getMessage(), e);
+    }
+  }
+
+}
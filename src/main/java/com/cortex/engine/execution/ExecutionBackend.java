@@ -0,0 +1,33 @@
+package com.cortex.engine.execution;
+
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.exceptions.CodeExecutionException;
+import com.cortex.engine.exceptions.ExecutionTimeoutException;
+import java.io.InputStream;
+
+/**
+ * Runs a single program in isolation. Implementations decide how the program is isolated and
+ * limited; they are picked per tenant or language by {@link ExecutionBackendSelector}.
+ */
+public interface ExecutionBackend {
+
+  /**
+   * Returns the name the backend is selected by in {@code engine.backends}.
+   *
+   * @return The backend name
+   */
+  String getName();
+
+  /**
+   * Runs a program once with the language's resource limits.
+   *
+   * @param language The language to run the program with
+   * @param code The program source
+   * @param stdin The standard input to stream into the program, or {@code null} if it has none
+   * @return The program's output and status
+   * @throws CodeExecutionException if the program could not be run
+   * @throws ExecutionTimeoutException if the program did not finish within the language's timeout
+   */
+  ExecutionResult execute(Language language, byte[] code, InputStream stdin)
+      throws CodeExecutionException;
+}
@@ -0,0 +1,58 @@
+package com.cortex.engine.execution;
+
+import com.cortex.engine.config.ExecutionBackendProperties;
+import com.cortex.engine.entities.Language;
+import jakarta.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/** Picks the {@link ExecutionBackend} for a run from {@link ExecutionBackendProperties}. */
+@Component
+@Profile("!api")
+@Slf4j
+public class ExecutionBackendSelector {
+
+  private final ExecutionBackendProperties properties;
+  private final Map<String, ExecutionBackend> backends = new HashMap<>();
+
+  public ExecutionBackendSelector(
+      ExecutionBackendProperties properties, List<ExecutionBackend> backends) {
+    this.properties = properties;
+    backends.forEach(backend -> this.backends.put(backend.getName(), backend));
+  }
+
+  /** Fails startup when the configuration routes work to a backend that is not enabled. */
+  @PostConstruct
+  public void validate() {
+    Stream.concat(
+            Stream.of(properties.getDefaultBackend()),
+            Stream.concat(
+                properties.getLanguages().values().stream(),
+                properties.getTenants().values().stream()))
+        .filter(name -> !backends.containsKey(name))
+        .findFirst()
+        .ifPresent(
+            name -> {
+              throw new IllegalStateException(
+                  "Execution backend '" + name + "' is configured but not available");
+            });
+    log.info("Execution backends available: {}", backends.keySet());
+  }
+
+  /**
+   * Returns the backend for a run.
+   *
+   * @param tenantId The submitting tenant, or {@code null} for internal runs such as warm-up
+   * @param authenticated Whether the tenant authenticated with an API key
+   * @param language The language of the program
+   * @return The backend to run the program on
+   */
+  public ExecutionBackend select(String tenantId, boolean authenticated, Language language) {
+    return backends.get(properties.backendFor(tenantId, authenticated, language.getName()));
+  }
+}
@@ -0,0 +1,10 @@
+package com.cortex.engine.execution;
+
+/**
+ * Raw outcome of running a program on an {@link ExecutionBackend}.
+ *
+ * @param stdout The program's standard output
+ * @param stderr The program's standard error, empty if it wrote none
+ * @param statusId 3 when the program exited successfully, 4 otherwise
+ */
+public record ExecutionResult(String stdout, String stderr, int statusId) {}
@@ -0,0 +1,409 @@
+package com.cortex.engine.execution;
+
+import com.cortex.engine.config.ExecutionBackendProperties;
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.exceptions.CodeExecutionException;
+import com.cortex.engine.exceptions.ContainerCreationException;
+import com.cortex.engine.exceptions.ExecutionTimeoutException;
+import com.cortex.engine.exceptions.FileOperationException;
+import com.cortex.engine.scheduling.CpusetAllocator;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.model.Bind;
+import com.github.dockerjava.api.model.HostConfig;
+import com.github.dockerjava.api.model.Volume;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs Python and JavaScript programs in a warm container that hosts a fork server, so that
+ * interpreter startup and standard-library imports are paid once per container instead of once
+ * per run.
+ *
+ * <p>Each language gets one long-lived container, started on first use, running {@code
+ * zygote.py} or {@code zygote.js} from the shared directory mounted at {@code /zygote}. The Python
+ * server forks every run from the warmed interpreter; Node.js cannot fork a running interpreter,
+ * so its server hands each run to a runner process started ahead of time. Either way, every run
+ * has its own directory, stdin, stdout and stderr, CPU-time and memory limits, and its own user
+ * from a pool of {@code 4 * slots} users starting at uid {@value #FIRST_RUN_UID}. The run's
+ * directory belongs to that user with mode 0700, while the FIFOs the engine and the server talk
+ * through (see the scripts for the protocol) and the runs' outputs live in a directory that only
+ * the engine's user and the container's root can reach. A run therefore cannot read or alter
+ * other runs or the server's control channel, and when it ends every process of its user is
+ * killed, including any that left its session. Runs in a container still share its network and
+ * its {@code /tmp}, which is why this backend is meant for workloads that can accept
+ * process-level isolation.
+ *
+ * <p>The container is pinned to {@code cpuLimit * slots} cores leased from the {@link
+ * CpusetAllocator} for as long as it lives, so its runs share those cores and never land on cores
+ * leased to other executions.
+ *
+ * @author Ángel Cuervo
+ * @version 1.2
+ * @since 2024-08-28
+ */
+@Component
+@Profile("!api")
+@ConditionalOnProperty(name = "engine.backends.zygote.enabled", havingValue = "true")
+@Slf4j
+public class ForkServerExecutionBackend implements ExecutionBackend {
+
+  public static final String NAME = "zygote";
+
+  private static final String MOUNT_PATH = "/zygote";
+  private static final long EXIT_GRACE_MS = 2000;
+  static final int FIRST_RUN_UID = 20000;
+
+  private static final FileAttribute<Set<PosixFilePermission>> ENGINE_ONLY =
+      PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------"));
+  private static final FileAttribute<Set<PosixFilePermission>> TRAVERSE_ONLY =
+      PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx--x--x"));
+
+  private static final Map<String, ServerSpec> SPECS =
+      Map.of(
+          "python", new ServerSpec(List.of("zygote.py"), "main.py"),
+          "javascript", new ServerSpec(List.of("zygote.js", "runner.js"), "main.js"));
+
+  private final DockerClient dockerClient;
+  private final CpusetAllocator cpusetAllocator;
+  private final ExecutionBackendProperties.Zygote properties;
+  private final Map<String, ForkServer> servers = new ConcurrentHashMap<>();
+
+  public ForkServerExecutionBackend(
+      DockerClient dockerClient,
+      CpusetAllocator cpusetAllocator,
+      ExecutionBackendProperties properties) {
+    this.dockerClient = dockerClient;
+    this.cpusetAllocator = cpusetAllocator;
+    this.properties = properties.getZygote();
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public ExecutionResult execute(Language language, byte[] code, InputStream stdin)
+      throws CodeExecutionException {
+    ServerSpec spec = SPECS.get(language.getName());
+    if (spec == null) {
+      throw new CodeExecutionException("No fork server for language " + language.getName());
+    }
+    ForkServer server = serverFor(language, spec);
+    String runId = UUID.randomUUID().toString();
+    // Written here and handed to the run's user by the server; removed by the server afterwards
+    Path runDir = server.root.resolve("runs").resolve(runId);
+    // Created by the server, out of the run's reach
+    Path outDir = server.root.resolve("ipc").resolve(runId);
+    PendingRun run = new PendingRun();
+    try {
+      server.slots.acquire();
+      server.pending.put(runId, run);
+      Files.createDirectory(runDir);
+      Files.write(runDir.resolve(spec.mainFile()), code);
+      server.send(
+          String.join(
+              " ",
+              "run",
+              runId,
+              String.valueOf(language.getDefaultTimeout()),
+              String.valueOf(language.getDefaultMemoryLimit()),
+              stdin != null ? "1" : "0"));
+
+      long timeout = language.getDefaultTimeout() + EXIT_GRACE_MS;
+      run.started.get(timeout, TimeUnit.MILLISECONDS);
+      Thread stdinWriter = stdin != null ? streamStdin(outDir.resolve("stdin"), stdin) : null;
+      Integer exitCode = run.exit.get(timeout, TimeUnit.MILLISECONDS);
+      if (stdinWriter != null) {
+        stdinWriter.join(EXIT_GRACE_MS);
+      }
+      if (exitCode == null) {
+        throw new ExecutionTimeoutException("Code execution timed out");
+      }
+      return new ExecutionResult(
+          Files.readString(outDir.resolve("stdout")),
+          Files.readString(outDir.resolve("stderr")),
+          exitCode == 0 ? 3 : 4);
+    } catch (IOException e) {
+      throw new FileOperationException("Error in file operation: " + e.getMessage(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CodeExecutionException("Interrupted while running code", e);
+    } catch (ExecutionException | TimeoutException e) {
+      // The server stopped answering; start a fresh one for the next run
+      stop(language.getName(), server);
+      throw new CodeExecutionException("Fork server failed: " + e.getMessage(), e);
+    } finally {
+      if (server.pending.remove(runId) != null) {
+        server.slots.release();
+      }
+      deleteDirectory(outDir);
+      deleteDirectory(runDir);
+    }
+  }
+
+  @PreDestroy
+  public void stopAll() {
+    servers.forEach(this::stop);
+  }
+
+  private ForkServer serverFor(Language language, ServerSpec spec) {
+    return servers.compute(
+        language.getName(),
+        (name, current) -> current != null && current.alive ? current : start(language, spec));
+  }
+
+  private ForkServer start(Language language, ServerSpec spec) {
+    Path root = null;
+    String containerId = null;
+    CpusetAllocator.Lease cpus = null;
+    try {
+      // Readable by the runs, which need runner.js and to reach their own directory under runs/
+      root =
+          Files.createTempDirectory(
+              "cortex-zygote-",
+              PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwxr-xr-x")));
+      Files.createDirectory(root.resolve("ipc"), ENGINE_ONLY);
+      Files.createDirectory(root.resolve("runs"), TRAVERSE_ONLY);
+      for (String script : spec.scripts()) {
+        try (InputStream source = getClass().getResourceAsStream("/zygote/" + script)) {
+          Files.copy(source, root.resolve(script));
+        }
+      }
+
+      int slots = properties.getSlots();
+      cpus = cpusetAllocator.acquire(language.getDefaultCpuLimit() * slots);
+      containerId =
+          dockerClient
+              .createContainerCmd(language.getDockerImage())
+              .withName("cortex-zygote-" + language.getName() + "-" + UUID.randomUUID())
+              .withHostConfig(
+                  new HostConfig()
+                      .withMemory(language.getDefaultMemoryLimit() * slots)
+                      .withCpuCount(language.getDefaultCpuLimit() * slots)
+                      .withCpusetCpus(cpus.cpus())
+                      .withBinds(new Bind(root.toString(), new Volume(MOUNT_PATH))))
+              .withCmd(command(language, spec, slots, root))
+              .withWorkingDir(MOUNT_PATH)
+              // The server switches each run to its own user, so it has to start as root
+              .withUser("0")
+              .exec()
+              .getId();
+      dockerClient.startContainerCmd(containerId).exec();
+
+      long deadline = System.nanoTime() + properties.getStartupTimeout().toNanos();
+      while (!Files.exists(root.resolve("ipc").resolve("ready"))) {
+        if (System.nanoTime() > deadline) {
+          throw new ContainerCreationException("Fork server did not become ready in time");
+        }
+        Thread.sleep(50);
+      }
+
+      ForkServer server = new ForkServer(containerId, root, slots, cpus);
+      server.control = new FileOutputStream(root.resolve("ipc").resolve("control").toFile());
+      Thread.ofVirtual()
+          .name("zygote-events-" + language.getName())
+          .start(() -> readEvents(server));
+      log.info("Fork server for {} started in container {}", language.getName(), containerId);
+      return server;
+    } catch (Exception e) {
+      removeContainer(containerId);
+      if (cpus != null) {
+        cpus.close();
+      }
+      deleteDirectory(root);
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      throw new ContainerCreationException(
+          "Failed to start fork server for " + language.getName() + ": " + e.getMessage(), e);
+    }
+  }
+
+  private List<String> command(Language language, ServerSpec spec, int slots, Path root)
+      throws IOException {
+    String script = MOUNT_PATH + "/" + spec.scripts().getFirst();
+    // The server hands the FIFOs and the runs' outputs to the engine's user
+    String owner = String.valueOf(Files.getAttribute(root, "unix:uid"));
+    String group = String.valueOf(Files.getAttribute(root, "unix:gid"));
+    // Room for the spare runners and for runs still being cleaned up
+    String firstUid = String.valueOf(FIRST_RUN_UID);
+    String uids = String.valueOf(4 * slots);
+    if ("javascript".equals(language.getName())) {
+      long memoryMb = language.getDefaultMemoryLimit() / (1024 * 1024);
+      return List.of(
+          "node",
+          script,
+          MOUNT_PATH,
+          String.valueOf(memoryMb),
+          String.valueOf(slots),
+          owner,
+          group,
+          firstUid,
+          uids);
+    }
+    return List.of("python", script, MOUNT_PATH, owner, group, firstUid, uids);
+  }
+
+  private void readEvents(ForkServer server) {
+    try (BufferedReader events =
+        new BufferedReader(
+            new InputStreamReader(
+                new FileInputStream(server.root.resolve("ipc").resolve("events").toFile()),
+                StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = events.readLine()) != null) {
+        handleEvent(line, server.pending);
+      }
+    } catch (IOException e) {
+      log.warn("Lost the event stream of fork server {}: {}", server.containerId, e.getMessage());
+    } finally {
+      server.alive = false;
+      IOException stopped = new IOException("Fork server stopped");
+      server.pending.values().forEach(run -> run.fail(stopped));
+    }
+  }
+
+  /**
+   * Completes the pending run an event line refers to: {@code started <id>}, {@code exit <id>
+   * <code>} or {@code timeout <id>}. Lines for runs no longer pending are ignored, and malformed
+   * ones are logged without stopping the event stream.
+   */
+  static void handleEvent(String line, Map<String, PendingRun> pending) {
+    String[] parts = line.split(" ");
+    PendingRun run = parts.length >= 2 ? pending.get(parts[1]) : null;
+    if (run == null) {
+      return;
+    }
+    switch (parts[0]) {
+      case "started" -> run.started.complete(null);
+      case "exit" -> {
+        try {
+          run.exit.complete(Integer.parseInt(parts[2]));
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+          log.warn("Malformed fork server event: {}", line);
+        }
+      }
+      case "timeout" -> run.exit.complete(null);
+      default -> log.warn("Unknown fork server event: {}", line);
+    }
+  }
+
+  /** Streams stdin into the run's FIFO, which opens once the child starts reading it. */
+  private Thread streamStdin(Path fifo, InputStream stdin) {
+    return Thread.ofVirtual()
+        .start(
+            () -> {
+              try (OutputStream target = new FileOutputStream(fifo.toFile())) {
+                stdin.transferTo(target);
+              } catch (IOException e) {
+                // The program exited without reading all of its input
+                log.debug("Stopped streaming stdin to {}: {}", fifo, e.getMessage());
+              }
+            });
+  }
+
+  private void stop(String language, ForkServer server) {
+    servers.remove(language, server);
+    server.alive = false;
+    try {
+      if (server.control != null) {
+        server.control.close();
+      }
+    } catch (IOException e) {
+      log.debug("Failed to close fork server control channel: {}", e.getMessage());
+    }
+    removeContainer(server.containerId);
+    server.cpus.close();
+    deleteDirectory(server.root);
+  }
+
+  private void removeContainer(String containerId) {
+    if (containerId != null) {
+      try {
+        dockerClient.removeContainerCmd(containerId).withForce(true).exec();
+      } catch (Exception e) {
+        log.warn("Failed to remove fork server container {}: {}", containerId, e.getMessage());
+      }
+    }
+  }
+
+  private void deleteDirectory(Path directory) {
+    if (directory == null || !Files.exists(directory)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.deleteIfExists(path);
+      }
+    } catch (IOException e) {
+      // Directories of runs cut short by a dead server belong to the run's user
+      log.error("Failed to delete fork server directory {}: {}", directory, e.getMessage());
+    }
+  }
+
+  /** Scripts copied into the shared directory, the first one being the server to run. */
+  private record ServerSpec(List<String> scripts, String mainFile) {}
+
+  private static final class ForkServer {
+    private final String containerId;
+    private final Path root;
+    private final Semaphore slots;
+    /** Cores the container is pinned to, released with it. */
+    private final CpusetAllocator.Lease cpus;
+    private final Map<String, PendingRun> pending = new ConcurrentHashMap<>();
+    private OutputStream control;
+    private volatile boolean alive = true;
+
+    private ForkServer(String containerId, Path root, int slots, CpusetAllocator.Lease cpus) {
+      this.containerId = containerId;
+      this.root = root;
+      this.slots = new Semaphore(slots, true);
+      this.cpus = cpus;
+    }
+
+    private synchronized void send(String line) throws IOException {
+      control.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+      control.flush();
+    }
+  }
+
+  static final class PendingRun {
+    final CompletableFuture<Void> started = new CompletableFuture<>();
+    /** Completes with the exit code, or with {@code null} when the server killed the run. */
+    final CompletableFuture<Integer> exit = new CompletableFuture<>();
+
+    private void fail(Throwable cause) {
+      started.completeExceptionally(cause);
+      exit.completeExceptionally(cause);
+    }
+  }
+}
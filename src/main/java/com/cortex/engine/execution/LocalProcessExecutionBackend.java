@@ -0,0 +1,257 @@
+package com.cortex.engine.execution;
+
+import com.cortex.engine.config.ExecutionBackendProperties;
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.exceptions.CodeExecutionException;
+import com.cortex.engine.exceptions.ExecutionTimeoutException;
+import com.cortex.engine.exceptions.FileOperationException;
+import com.cortex.engine.scheduling.CpusetAllocator;
+import jakarta.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs programs as local processes on the worker host, for trusted workloads that do not need a
+ * container per run.
+ *
+ * <p>Each run gets a scratch directory and is started through {@code unshare} in fresh user, PID,
+ * mount, network, IPC and UTS namespaces, so it cannot see other processes or reach the network,
+ * and through {@code prlimit} for CPU time, open files, file size and core dumps. When a delegated
+ * cgroup v2 directory is available, the run also gets its own cgroup limiting memory, processes
+ * and CPU bandwidth, pinned to the cores leased from {@link CpusetAllocator}; the process joins it
+ * before {@code exec}, so nothing runs outside the limits. The language toolchains must be
+ * installed on the host, and the language's execute command is used as is.
+ *
+ * @author Ángel Cuervo
+ * @version 1.0
+ * @since 2024-08-27
+ */
+@Component
+@Profile("!api")
+@ConditionalOnProperty(name = "engine.backends.local.enabled", havingValue = "true")
+@Slf4j
+public class LocalProcessExecutionBackend implements ExecutionBackend {
+
+  public static final String NAME = "local";
+
+  /** Moves the shell into the cgroup given as {@code $0}, then replaces it with the command. */
+  private static final String JOIN_CGROUP = "echo $$ > \"$0/cgroup.procs\" && exec \"$@\"";
+
+  private static final long CPU_PERIOD_MICROS = 100_000;
+
+  private final ExecutionBackendProperties.Local properties;
+  private final CpusetAllocator cpusetAllocator;
+
+  private Path cgroupRoot;
+
+  public LocalProcessExecutionBackend(
+      ExecutionBackendProperties properties, CpusetAllocator cpusetAllocator) {
+    this.properties = properties.getLocal();
+    this.cpusetAllocator = cpusetAllocator;
+  }
+
+  @PostConstruct
+  public void init() {
+    Path root = Path.of(properties.getCgroupRoot());
+    if (Files.isDirectory(root) && Files.isWritable(root)) {
+      cgroupRoot = root;
+      log.info("Local execution backend enabled with cgroups under {}", root);
+    } else {
+      log.warn(
+          "Cgroup directory {} is not writable; local runs are limited with rlimits only", root);
+    }
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public ExecutionResult execute(Language language, byte[] code, InputStream stdin)
+      throws CodeExecutionException {
+    Path workDir = null;
+    Path cgroup = null;
+    Process process = null;
+    try (CpusetAllocator.Lease cpus = cpusetAllocator.acquire(language.getDefaultCpuLimit())) {
+      workDir = Files.createTempDirectory("cortex-local-");
+      String fileName = "code" + language.getFileExtension();
+      Files.write(workDir.resolve(fileName), code);
+      cgroup = createCgroup(language, cpus.cpus());
+
+      process =
+          new ProcessBuilder(buildCommand(language, fileName, cgroup))
+              .directory(workDir.toFile())
+              .start();
+      ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+      ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+      Thread stdoutReader = pump(process.getInputStream(), stdout);
+      Thread stderrReader = pump(process.getErrorStream(), stderr);
+      if (stdin != null) {
+        pump(stdin, process.getOutputStream());
+      } else {
+        process.getOutputStream().close();
+      }
+
+      if (!process.waitFor(language.getDefaultTimeout(), TimeUnit.MILLISECONDS)) {
+        throw new ExecutionTimeoutException("Code execution timed out");
+      }
+      stdoutReader.join();
+      stderrReader.join();
+      return new ExecutionResult(
+          stdout.toString(StandardCharsets.UTF_8),
+          stderr.toString(StandardCharsets.UTF_8),
+          process.exitValue() == 0 ? 3 : 4);
+    } catch (IOException e) {
+      throw new FileOperationException("Error in file operation: " + e.getMessage(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CodeExecutionException("Interrupted while running code", e);
+    } finally {
+      kill(process, cgroup);
+      removeCgroup(cgroup);
+      deleteDirectory(workDir);
+    }
+  }
+
+  List<String> buildCommand(Language language, String fileName, Path cgroup) {
+    String baseName = fileName.substring(0, fileName.lastIndexOf('.'));
+    String executeCommand =
+        language
+            .getExecuteCommand()
+            .replace("{fileNameWithoutExtension}", baseName)
+            .replace("{fileName}", fileName);
+    long cpuSeconds =
+        (TimeUnit.MILLISECONDS.toSeconds(language.getDefaultTimeout()) + 1)
+            * Math.max(1, language.getDefaultCpuLimit());
+
+    List<String> command = new ArrayList<>();
+    if (cgroup != null) {
+      command.addAll(List.of("/bin/sh", "-c", JOIN_CGROUP, cgroup.toString()));
+    }
+    command.addAll(
+        List.of(
+            "unshare",
+            "--user",
+            "--map-root-user",
+            "--pid",
+            "--fork",
+            "--kill-child",
+            "--mount-proc",
+            "--net",
+            "--ipc",
+            "--uts"));
+    command.addAll(
+        List.of(
+            "prlimit",
+            "--cpu=" + cpuSeconds,
+            "--nofile=" + properties.getMaxOpenFiles(),
+            "--fsize=" + properties.getMaxFileBytes(),
+            "--core=0"));
+    if (cgroup == null) {
+      command.add("--as=" + language.getDefaultMemoryLimit());
+    }
+    command.addAll(List.of("/bin/sh", "-c", executeCommand));
+    return command;
+  }
+
+  Path createCgroup(Language language, String cpus) throws IOException {
+    if (cgroupRoot == null) {
+      return null;
+    }
+    Path cgroup = Files.createDirectory(cgroupRoot.resolve("run-" + UUID.randomUUID()));
+    writeControl(cgroup, "memory.max", String.valueOf(language.getDefaultMemoryLimit()));
+    writeControl(cgroup, "memory.swap.max", "0");
+    writeControl(cgroup, "pids.max", String.valueOf(properties.getMaxProcesses()));
+    writeControl(
+        cgroup,
+        "cpu.max",
+        Math.max(1, language.getDefaultCpuLimit()) * CPU_PERIOD_MICROS + " " + CPU_PERIOD_MICROS);
+    if (cpus != null) {
+      writeControl(cgroup, "cpuset.cpus", cpus);
+    }
+    return cgroup;
+  }
+
+  /** Writes a cgroup control file, skipping controllers not delegated to the engine. */
+  private void writeControl(Path cgroup, String file, String value) throws IOException {
+    try {
+      Files.writeString(cgroup.resolve(file), value);
+    } catch (NoSuchFileException e) {
+      log.debug("Cgroup controller file {} is not available, skipping it", file);
+    }
+  }
+
+  private Thread pump(InputStream source, OutputStream target) {
+    return Thread.ofVirtual()
+        .start(
+            () -> {
+              try (source;
+                  target) {
+                source.transferTo(target);
+              } catch (IOException e) {
+                // The process exited without reading all of its input
+                log.debug("Stopped copying process stream: {}", e.getMessage());
+              }
+            });
+  }
+
+  private void kill(Process process, Path cgroup) {
+    if (process == null || !process.isAlive()) {
+      return;
+    }
+    if (cgroup != null) {
+      try {
+        writeControl(cgroup, "cgroup.kill", "1");
+      } catch (IOException e) {
+        log.debug("Failed to kill cgroup {}: {}", cgroup, e.getMessage());
+      }
+    }
+    // The PID namespace ends with unshare, taking any remaining descendants with it
+    process.destroyForcibly();
+    try {
+      process.waitFor(1, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void removeCgroup(Path cgroup) {
+    if (cgroup != null) {
+      try {
+        Files.deleteIfExists(cgroup);
+      } catch (IOException e) {
+        log.warn("Failed to remove cgroup {}: {}", cgroup, e.getMessage());
+      }
+    }
+  }
+
+  private void deleteDirectory(Path directory) {
+    if (directory == null) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.deleteIfExists(path);
+      }
+    } catch (IOException e) {
+      log.error("Failed to delete scratch directory {}: {}", directory, e.getMessage());
+    }
+  }
+}
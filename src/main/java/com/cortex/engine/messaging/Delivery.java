@@ -0,0 +1,65 @@
+package com.cortex.engine.messaging;
+
+import com.rabbitmq.client.Channel;
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A broker message received with manual acknowledgement, settled once its task is done with.
+ *
+ * <p>Settling can happen on any thread. If the channel is already gone, for example because the
+ * connection dropped, the failure is only logged: the broker redelivers every message that was
+ * not acknowledged on a closed channel.
+ */
+public interface Delivery {
+
+  /** For tasks that did not come from the broker. */
+  Delivery NONE =
+      new Delivery() {
+        @Override
+        public void ack() {}
+
+        @Override
+        public void requeue() {}
+      };
+
+  /** Removes the message from the queue. */
+  void ack();
+
+  /** Returns the message to the queue for any consumer to take. */
+  void requeue();
+
+  static Delivery of(Channel channel, long deliveryTag) {
+    return new ChannelDelivery(channel, deliveryTag);
+  }
+
+  @Slf4j
+  final class ChannelDelivery implements Delivery {
+    private final Channel channel;
+    private final long deliveryTag;
+
+    private ChannelDelivery(Channel channel, long deliveryTag) {
+      this.channel = channel;
+      this.deliveryTag = deliveryTag;
+    }
+
+    @Override
+    public void ack() {
+      try {
+        channel.basicAck(deliveryTag, false);
+      } catch (IOException | RuntimeException e) {
+        log.warn(
+            "Failed to ack delivery {}, it will be redelivered: {}", deliveryTag, e.getMessage());
+      }
+    }
+
+    @Override
+    public void requeue() {
+      try {
+        channel.basicNack(deliveryTag, false, true);
+      } catch (IOException | RuntimeException e) {
+        log.warn("Failed to requeue delivery {}: {}", deliveryTag, e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,298 @@
+package com.cortex.engine.messaging;
+
+import com.cortex.engine.config.RabbitMQConfig;
+import com.cortex.engine.controllers.dto.CodeExecutionTask;
+import com.cortex.engine.exceptions.CodeExecutionException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes code execution tasks to the broker in small batches and reports, per task, when the
+ * broker has durably accepted it.
+ *
+ * <p>Callers enqueue tasks and get a future back. A single sender thread collects whatever is
+ * queued, waiting at most {@code engine.publisher.linger} after the first task for the batch to
+ * fill up to {@code engine.publisher.batch-size}, and publishes the batch on one channel. Every
+ * message carries a publisher-confirm correlation, so the sender moves on to the next batch
+ * without waiting for the broker. Since the queue is durable and messages are persistent, an ack
+ * means the task survives a broker restart; the task's future then completes. A nack, a confirm
+ * that does not arrive within {@code engine.publisher.confirm-timeout} or a failed send retries
+ * the task with exponential backoff, up to {@code engine.publisher.max-attempts} times. Delivery
+ * is therefore at least once: a task whose confirm was lost may be published twice.
+ *
+ * <p>The observation current when a task is queued is restored on the sender thread while the
+ * task is sent, so the publish span, and the trace headers the consumer continues from, belong to
+ * the request that submitted the task.
+ *
+ * <p>Publish latency, batch sizes, retries and failures are recorded under {@code
+ * engine.publisher.*} in the meter registry.
+ *
+ * @author Ángel Cuervo
+ * @version 1.2
+ * @since 2024-08-29
+ */
+@Component
+@Slf4j
+public class TaskPublisher {
+
+  private final RabbitTemplate rabbitTemplate;
+  private final ObservationRegistry observationRegistry;
+  private final BlockingQueue<Pending> queue;
+  private final int batchSize;
+  private final Duration linger;
+  private final Duration confirmTimeout;
+  private final int maxAttempts;
+  private final Duration retryBackoff;
+
+  private final Timer latency;
+  private final DistributionSummary batchSizes;
+  private final Counter retries;
+  private final Counter failures;
+
+  private Thread sender;
+  private volatile boolean running;
+
+  public TaskPublisher(
+      RabbitTemplate rabbitTemplate,
+      MeterRegistry meterRegistry,
+      ObservationRegistry observationRegistry,
+      @Value("${engine.publisher.batch-size:64}") int batchSize,
+      @Value("${engine.publisher.linger:2ms}") Duration linger,
+      @Value("${engine.publisher.capacity:10000}") int capacity,
+      @Value("${engine.publisher.confirm-timeout:5s}") Duration confirmTimeout,
+      @Value("${engine.publisher.max-attempts:3}") int maxAttempts,
+      @Value("${engine.publisher.retry-backoff:100ms}") Duration retryBackoff) {
+    this.rabbitTemplate = rabbitTemplate;
+    this.observationRegistry = observationRegistry;
+    this.queue = new LinkedBlockingQueue<>(capacity);
+    this.batchSize = Math.max(1, batchSize);
+    this.linger = linger;
+    this.confirmTimeout = confirmTimeout;
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.retryBackoff = retryBackoff;
+
+    this.latency =
+        Timer.builder("engine.publisher.latency")
+            .description("Time from enqueueing a task until the broker confirmed it")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+    this.batchSizes =
+        DistributionSummary.builder("engine.publisher.batch.size")
+            .description("Tasks sent per batch")
+            .register(meterRegistry);
+    this.retries = meterRegistry.counter("engine.publisher.retries");
+    this.failures = meterRegistry.counter("engine.publisher.failures");
+    meterRegistry.gauge("engine.publisher.queued", queue, BlockingQueue::size);
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!rabbitTemplate.getConnectionFactory().isPublisherConfirms()) {
+      throw new IllegalStateException(
+          "The task publisher needs spring.rabbitmq.publisher-confirm-type=correlated");
+    }
+    running = true;
+    sender = new Thread(this::sendLoop, "task-publisher");
+    sender.setDaemon(true);
+    sender.start();
+  }
+
+  /** Stops accepting tasks and sends those already queued before returning. */
+  @PreDestroy
+  public void stop() {
+    running = false;
+    if (sender != null) {
+      try {
+        sender.join(confirmTimeout.toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Queues a task for publishing.
+   *
+   * @param task The task to publish
+   * @return A future completed once the broker has confirmed the task, or failed with a {@link
+   *     CodeExecutionException} if it could not be published
+   */
+  public CompletableFuture<Void> publish(CodeExecutionTask task) {
+    return publish(RabbitMQConfig.CODE_EXECUTION_QUEUE, task.getTaskId(), task);
+  }
+
+  /**
+   * Queues a message for publishing to another queue, with the same batching and guarantees as
+   * code execution tasks.
+   *
+   * @param queue The queue to publish to
+   * @param id The message's ID, used as its confirm correlation and in logs
+   * @param message The message to publish
+   * @return A future completed once the broker has confirmed the message, or failed with a {@link
+   *     CodeExecutionException} if it could not be published
+   */
+  public CompletableFuture<Void> publish(String queue, String id, Object message) {
+    Pending pending =
+        new Pending(
+            queue,
+            id,
+            message,
+            observationRegistry.getCurrentObservation(),
+            new CompletableFuture<>(),
+            System.nanoTime());
+    enqueue(pending);
+    return pending.future;
+  }
+
+  private void enqueue(Pending pending) {
+    if (!running) {
+      fail(pending, "Task publisher is shutting down", null);
+    } else if (!queue.offer(pending)) {
+      fail(pending, "Task publisher queue is full", null);
+    }
+  }
+
+  private void sendLoop() {
+    List<Pending> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + linger.toNanos();
+        while (batch.size() < batchSize) {
+          queue.drainTo(batch, batchSize - batch.size());
+          long remaining = deadline - System.nanoTime();
+          if (batch.size() >= batchSize || remaining <= 0) {
+            break;
+          }
+          Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        send(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        log.error("Unexpected error while publishing tasks", e);
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void send(List<Pending> batch) {
+    batchSizes.record(batch.size());
+    AtomicInteger sent = new AtomicInteger();
+    try {
+      rabbitTemplate.invoke(
+          operations -> {
+            for (Pending pending : batch) {
+              CorrelationData correlation = new CorrelationData(pending.id);
+              send(operations, pending, correlation);
+              sent.incrementAndGet();
+              correlation
+                  .getFuture()
+                  .orTimeout(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                  .whenComplete(
+                      (confirm, error) -> {
+                        if (error == null && confirm.isAck()) {
+                          latency.record(
+                              System.nanoTime() - pending.enqueuedAt, TimeUnit.NANOSECONDS);
+                          pending.future.complete(null);
+                        } else {
+                          retry(
+                              pending,
+                              error != null
+                                  ? "no confirm within " + confirmTimeout
+                                  : "nack: " + confirm.getReason(),
+                              error);
+                        }
+                      });
+            }
+            return null;
+          });
+    } catch (AmqpException e) {
+      for (Pending pending : batch.subList(sent.get(), batch.size())) {
+        retry(pending, e.getMessage(), e);
+      }
+    }
+  }
+
+  private void send(RabbitOperations operations, Pending pending, CorrelationData correlation) {
+    if (pending.parent == null) {
+      operations.convertAndSend(pending.queue, pending.message, correlation);
+      return;
+    }
+    try (Observation.Scope scope = pending.parent.openScope()) {
+      operations.convertAndSend(pending.queue, pending.message, correlation);
+    }
+  }
+
+  private void retry(Pending pending, String reason, Throwable cause) {
+    if (pending.attempts.incrementAndGet() >= maxAttempts) {
+      fail(
+          pending,
+          "Task " + pending.id + " was not accepted by the broker: " + reason,
+          cause);
+      return;
+    }
+    retries.increment();
+    log.debug("Retrying task {} after {}", pending.id, reason);
+    long delay = retryBackoff.toMillis() << (pending.attempts.get() - 1);
+    CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+        .execute(() -> enqueue(pending));
+  }
+
+  private void fail(Pending pending, String message, Throwable cause) {
+    failures.increment();
+    log.warn(message);
+    pending.future.completeExceptionally(new CodeExecutionException(message, cause));
+  }
+
+  private record Pending(
+      String queue,
+      String id,
+      Object message,
+      Observation parent,
+      CompletableFuture<Void> future,
+      long enqueuedAt,
+      AtomicInteger attempts) {
+
+    Pending(
+        String queue,
+        String id,
+        Object message,
+        Observation parent,
+        CompletableFuture<Void> future,
+        long enqueuedAt) {
+      this(queue, id, message, parent, future, enqueuedAt, new AtomicInteger());
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.cortex.engine.replay;
+
+import java.time.LocalDateTime;
+
+/**
+ * A historical submission as loaded for replay, with its code and stdin already decoded.
+ *
+ * @param id The submission's ID in the source database
+ * @param createdDate When the submission was originally received
+ * @param tenantId The submitting tenant, or {@code null} for the default one
+ * @param language The language name
+ * @param code The raw code
+ * @param stdin The raw standard input, or {@code null} if it had none
+ * @param expectedOutput The expected output recorded with the submission, or {@code null}
+ */
+record RecordedSubmission(
+    long id,
+    LocalDateTime createdDate,
+    String tenantId,
+    String language,
+    byte[] code,
+    byte[] stdin,
+    String expectedOutput,
+    Float cpuTimeLimit,
+    Float cpuExtraTime,
+    String commandLineArguments,
+    String compilerOptions) {}
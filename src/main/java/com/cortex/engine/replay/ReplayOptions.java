@@ -0,0 +1,103 @@
+package com.cortex.engine.replay;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Command-line options of {@link WorkloadReplay}, given as {@code --name=value}.
+ *
+ * @param dbUrl JDBC URL of the database to sample submissions from
+ * @param target Base URL of the engine under test, e.g. {@code http://host:8080/api/v1/}
+ * @param baseline Base URL of a reference engine to compare results with, or {@code null}
+ * @param from Oldest submission to sample
+ * @param to Newest submission to sample, exclusive
+ * @param tenant Only sample this tenant's submissions, or {@code null} for all tenants
+ * @param sample How many submissions to replay
+ * @param mode Whether to replay at the recorded arrival times or with a fixed number of clients
+ * @param rate Speed-up of the recorded arrival times in open-loop mode
+ * @param concurrency Number of clients in closed-loop mode
+ * @param pollInterval How often to poll for a result
+ * @param timeout How long to wait for a result before counting the run as failed
+ * @param report File to write the JSON report to, or {@code null}
+ */
+record ReplayOptions(
+    String dbUrl,
+    String dbUser,
+    String dbPassword,
+    URI target,
+    URI baseline,
+    LocalDateTime from,
+    LocalDateTime to,
+    String tenant,
+    int sample,
+    Mode mode,
+    double rate,
+    int concurrency,
+    Duration pollInterval,
+    Duration timeout,
+    Path report) {
+
+  enum Mode {
+    /** Submissions arrive at their recorded times, divided by the rate multiplier. */
+    OPEN,
+    /** A fixed number of clients each submit the next submission as soon as theirs completes. */
+    CLOSED
+  }
+
+  static ReplayOptions parse(String[] args) {
+    Map<String, String> values = new HashMap<>();
+    for (String arg : args) {
+      int equals = arg.indexOf('=');
+      if (!arg.startsWith("--") || equals < 0) {
+        throw new IllegalArgumentException("Expected --name=value but got " + arg);
+      }
+      values.put(arg.substring(2, equals), arg.substring(equals + 1));
+    }
+
+    LocalDateTime to = parseDate(values.get("to"), LocalDateTime.now());
+    ReplayOptions options =
+        new ReplayOptions(
+            required(values, "db-url"),
+            values.get("db-user"),
+            values.get("db-password"),
+            baseUri(required(values, "target")),
+            values.containsKey("baseline") ? baseUri(values.get("baseline")) : null,
+            parseDate(values.get("from"), to.minusDays(7)),
+            to,
+            values.get("tenant"),
+            Integer.parseInt(values.getOrDefault("sample", "1000")),
+            Mode.valueOf(values.getOrDefault("mode", "open").toUpperCase(Locale.ROOT)),
+            Double.parseDouble(values.getOrDefault("rate", "1")),
+            Integer.parseInt(values.getOrDefault("concurrency", "16")),
+            DurationStyle.detectAndParse(values.getOrDefault("poll-interval", "200ms")),
+            DurationStyle.detectAndParse(values.getOrDefault("timeout", "60s")),
+            values.containsKey("report") ? Path.of(values.get("report")) : null);
+    if (options.sample() < 1 || options.rate() <= 0 || options.concurrency() < 1) {
+      throw new IllegalArgumentException("sample, rate and concurrency must be positive");
+    }
+    return options;
+  }
+
+  private static String required(Map<String, String> values, String name) {
+    String value = values.get(name);
+    if (value == null || value.isBlank()) {
+      throw new IllegalArgumentException("Missing required option --" + name);
+    }
+    return value;
+  }
+
+  private static LocalDateTime parseDate(String value, LocalDateTime defaultValue) {
+    return value != null ? LocalDateTime.parse(value) : defaultValue;
+  }
+
+  /** Ensures a trailing slash so that relative paths resolve below the context path. */
+  private static URI baseUri(String value) {
+    return URI.create(value.endsWith("/") ? value : value + "/");
+  }
+}
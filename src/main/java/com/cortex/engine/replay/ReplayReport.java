@@ -0,0 +1,162 @@
+package com.cortex.engine.replay;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/** Throughput, latency percentiles and result divergence of a replay, broken down by language. */
+class ReplayReport {
+
+  /** How many submission IDs to keep per language and kind of problem, for inspection. */
+  private static final int MAX_EXAMPLES = 10;
+
+  /** Why a replayed result is considered different from the reference. */
+  enum Divergence {
+    /** The stdout does not match the expected output recorded with the submission. */
+    EXPECTED_OUTPUT,
+    /** The status or stdout differs from the baseline engine's result. */
+    BASELINE
+  }
+
+  private final Map<String, LanguageStats> languages = new ConcurrentHashMap<>();
+  private long elapsedNanos;
+
+  void recordResult(
+      RecordedSubmission submission, long latencyNanos, int statusId, Divergence divergence) {
+    stats(submission.language()).recordResult(submission.id(), latencyNanos, statusId, divergence);
+  }
+
+  void recordFailure(RecordedSubmission submission) {
+    stats(submission.language()).recordFailure(submission.id());
+  }
+
+  void finish(long elapsedNanos) {
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /** A JSON-friendly view of the report, with latencies in milliseconds. */
+  Map<String, Object> summary() {
+    Map<String, Object> summary = new LinkedHashMap<>();
+    long completed = languages.values().stream().mapToLong(LanguageStats::completed).sum();
+    double seconds = elapsedNanos / 1e9;
+    summary.put("elapsedSeconds", seconds);
+    summary.put("completed", completed);
+    summary.put("throughputPerSecond", seconds > 0 ? completed / seconds : 0);
+    Map<String, Object> byLanguage = new TreeMap<>();
+    languages.forEach((language, stats) -> byLanguage.put(language, stats.summary()));
+    summary.put("languages", byLanguage);
+    return summary;
+  }
+
+  void print(PrintStream out) {
+    Map<String, Object> summary = summary();
+    out.printf(
+        "Replayed %d submissions in %.1f s (%.1f/s)%n",
+        summary.get("completed"),
+        summary.get("elapsedSeconds"),
+        summary.get("throughputPerSecond"));
+    out.printf(
+        "%-12s %8s %8s %10s %10s %10s %10s %10s %10s%n",
+        "language",
+        "runs",
+        "failed",
+        "errors",
+        "p50(ms)",
+        "p95(ms)",
+        "p99(ms)",
+        "expected",
+        "baseline");
+    languages.entrySet().stream()
+        .sorted(Map.Entry.comparingByKey())
+        .forEach(
+            entry -> {
+              LanguageStats stats = entry.getValue();
+              out.printf(
+                  "%-12s %8d %8d %10d %10.1f %10.1f %10.1f %10d %10d%n",
+                  entry.getKey(),
+                  stats.completed(),
+                  stats.failed,
+                  stats.errors,
+                  stats.percentileMillis(0.50),
+                  stats.percentileMillis(0.95),
+                  stats.percentileMillis(0.99),
+                  stats.divergences.get(Divergence.EXPECTED_OUTPUT),
+                  stats.divergences.get(Divergence.BASELINE));
+            });
+  }
+
+  private LanguageStats stats(String language) {
+    return languages.computeIfAbsent(language, ignored -> new LanguageStats());
+  }
+
+  private static final class LanguageStats {
+
+    private final List<Long> latencies = new ArrayList<>();
+    private final Map<Divergence, Long> divergences = new LinkedHashMap<>();
+    private final Map<String, List<Long>> examples = new LinkedHashMap<>();
+    private long failed;
+    private long errors;
+
+    LanguageStats() {
+      for (Divergence divergence : Divergence.values()) {
+        divergences.put(divergence, 0L);
+      }
+    }
+
+    synchronized void recordResult(
+        long submissionId, long latencyNanos, int statusId, Divergence divergence) {
+      latencies.add(latencyNanos);
+      if (statusId != 3) {
+        errors++;
+      }
+      if (divergence != null) {
+        divergences.merge(divergence, 1L, Long::sum);
+        addExample(divergence.name(), submissionId);
+      }
+    }
+
+    synchronized void recordFailure(long submissionId) {
+      failed++;
+      addExample("FAILED", submissionId);
+    }
+
+    synchronized long completed() {
+      return latencies.size();
+    }
+
+    synchronized double percentileMillis(double percentile) {
+      if (latencies.isEmpty()) {
+        return 0;
+      }
+      long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+      int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+      return sorted[Math.max(0, index)] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    synchronized Map<String, Object> summary() {
+      Map<String, Object> summary = new LinkedHashMap<>();
+      summary.put("completed", latencies.size());
+      summary.put("failed", failed);
+      summary.put("errors", errors);
+      summary.put("p50Ms", percentileMillis(0.50));
+      summary.put("p95Ms", percentileMillis(0.95));
+      summary.put("p99Ms", percentileMillis(0.99));
+      summary.put("maxMs", percentileMillis(1.0));
+      summary.put("divergences", new LinkedHashMap<>(divergences));
+      summary.put("examples", new LinkedHashMap<>(examples));
+      return summary;
+    }
+
+    private void addExample(String kind, long submissionId) {
+      List<Long> ids = examples.computeIfAbsent(kind, ignored -> new ArrayList<>());
+      if (ids.size() < MAX_EXAMPLES) {
+        ids.add(submissionId);
+      }
+    }
+  }
+}
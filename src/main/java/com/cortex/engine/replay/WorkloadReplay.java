@@ -0,0 +1,53 @@
+package com.cortex.engine.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+
+/**
+ * Replays a sample of production submissions against an engine instance, to validate pool sizes,
+ * limits and releases with the real mix of languages, programs and inputs before they reach
+ * production.
+ *
+ * <p>Submissions are sampled straight from the submission tables, preferably on a replica, and sent
+ * to the target engine through its public API with their original tenant. The tool does not start
+ * a Spring context, so it runs from the engine jar without any of the engine's roles:
+ *
+ * <pre>
+ * java -cp engine.jar -Dloader.main=com.cortex.engine.replay.WorkloadReplay \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher \
+ *     --db-url=jdbc:postgresql://replica:5432/cortex_db --db-user=... --db-password=... \
+ *     --target=http://staging:8080/api/v1/ --sample=5000 --mode=open --rate=4
+ * </pre>
+ *
+ * <p>See {@link ReplayOptions} for every option. The target stores replayed runs as new
+ * submissions, so it must not share its database with production.
+ *
+ * @author Ángel Cuervo
+ * @version 1.0
+ * @since 2024-08-30
+ */
+public final class WorkloadReplay {
+
+  private WorkloadReplay() {}
+
+  public static void main(String[] args) throws Exception {
+    ReplayOptions options = ReplayOptions.parse(args);
+    List<RecordedSubmission> workload = new WorkloadSampler().sample(options);
+    if (workload.isEmpty()) {
+      System.err.println("No submissions between " + options.from() + " and " + options.to());
+      System.exit(1);
+    }
+    System.out.printf(
+        "Replaying %d submissions against %s (%s loop)%n",
+        workload.size(), options.target(), options.mode().name().toLowerCase());
+
+    ReplayReport report = new WorkloadReplayer(options).replay(workload);
+    report.print(System.out);
+    if (options.report() != null) {
+      new ObjectMapper()
+          .writerWithDefaultPrettyPrinter()
+          .writeValue(options.report().toFile(), report.summary());
+    }
+    System.exit(0);
+  }
+}
@@ -0,0 +1,188 @@
+package com.cortex.engine.replay;
+
+import com.cortex.engine.config.TenantFilter;
+import com.cortex.engine.controllers.dto.ExecutionResponse;
+import com.cortex.engine.controllers.dto.SubmissionRequest;
+import com.cortex.engine.controllers.dto.SubmissionResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays recorded submissions against an engine over its public API, measuring each run from
+ * submit until the result can be fetched.
+ *
+ * <p>In open-loop mode, submissions are sent at their recorded arrival times divided by the rate
+ * multiplier, whether or not earlier ones have finished, so the engine sees the production arrival
+ * pattern sped up. In closed-loop mode, a fixed number of clients each send the next submission
+ * as soon as theirs completes, which finds the throughput the engine sustains. When a baseline
+ * engine is given, every submission also runs there and the two results are compared. Latencies
+ * are only as precise as the poll interval.
+ */
+class WorkloadReplayer {
+
+  private static final String NOT_AVAILABLE = "Execution result not available yet";
+
+  private final ReplayOptions options;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final HttpClient httpClient =
+      HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .connectTimeout(Duration.ofSeconds(10))
+          .build();
+  private final ExecutorService baselineRuns = Executors.newVirtualThreadPerTaskExecutor();
+
+  WorkloadReplayer(ReplayOptions options) {
+    this.options = options;
+  }
+
+  ReplayReport replay(List<RecordedSubmission> workload) throws InterruptedException {
+    ReplayReport report = new ReplayReport();
+    long start = System.nanoTime();
+    try (ExecutorService runs = Executors.newVirtualThreadPerTaskExecutor()) {
+      if (options.mode() == ReplayOptions.Mode.OPEN) {
+        RecordedSubmission first = workload.getFirst();
+        for (RecordedSubmission submission : workload) {
+          long offset =
+              (long)
+                  (Duration.between(first.createdDate(), submission.createdDate()).toNanos()
+                      / options.rate());
+          long wait = start + offset - System.nanoTime();
+          if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+          }
+          runs.submit(() -> replayOne(submission, report));
+        }
+      } else {
+        AtomicInteger next = new AtomicInteger();
+        for (int i = 0; i < options.concurrency(); i++) {
+          runs.submit(
+              () -> {
+                int index;
+                while ((index = next.getAndIncrement()) < workload.size()) {
+                  replayOne(workload.get(index), report);
+                }
+              });
+        }
+      }
+    }
+    report.finish(System.nanoTime() - start);
+    return report;
+  }
+
+  private void replayOne(RecordedSubmission submission, ReplayReport report) {
+    CompletableFuture<ExecutionResponse> baseline =
+        options.baseline() != null
+            ? CompletableFuture.supplyAsync(
+                () -> runOrNull(options.baseline(), submission), baselineRuns)
+            : CompletableFuture.completedFuture(null);
+    try {
+      long start = System.nanoTime();
+      ExecutionResponse result = run(options.target(), submission);
+      long latency = System.nanoTime() - start;
+      int statusId = result.statusId() != null ? result.statusId() : 4;
+      report.recordResult(
+          submission, latency, statusId, divergence(submission, result, baseline.join()));
+    } catch (IOException | TimeoutException e) {
+      System.err.printf("Submission %d failed: %s%n", submission.id(), e.getMessage());
+      report.recordFailure(submission);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Compares a replayed result with the baseline engine's, if any, and otherwise with the
+   * submission's expected output. Trailing whitespace is ignored.
+   *
+   * @return The kind of divergence, or {@code null} if the result matches
+   */
+  static ReplayReport.Divergence divergence(
+      RecordedSubmission submission, ExecutionResponse result, ExecutionResponse baseline) {
+    if (baseline != null
+        && (!Objects.equals(baseline.statusId(), result.statusId())
+            || !normalize(baseline.stdout()).equals(normalize(result.stdout())))) {
+      return ReplayReport.Divergence.BASELINE;
+    }
+    if (submission.expectedOutput() != null
+        && !normalize(submission.expectedOutput()).equals(normalize(result.stdout()))) {
+      return ReplayReport.Divergence.EXPECTED_OUTPUT;
+    }
+    return null;
+  }
+
+  private static String normalize(String output) {
+    return output == null ? "" : output.replaceAll("[ \\t\\r]+\\n", "\n").stripTrailing();
+  }
+
+  private ExecutionResponse runOrNull(URI engine, RecordedSubmission submission) {
+    try {
+      return run(engine, submission);
+    } catch (IOException | TimeoutException e) {
+      System.err.printf("Baseline run of %d failed: %s%n", submission.id(), e.getMessage());
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  private ExecutionResponse run(URI engine, RecordedSubmission submission)
+      throws IOException, InterruptedException, TimeoutException {
+    SubmissionRequest request =
+        new SubmissionRequest(
+            submission.code(),
+            submission.language(),
+            submission.stdin(),
+            submission.cpuTimeLimit(),
+            submission.cpuExtraTime(),
+            submission.commandLineArguments(),
+            submission.compilerOptions(),
+            false);
+    HttpRequest.Builder submit =
+        HttpRequest.newBuilder(engine.resolve("execute"))
+            .header("Content-Type", "application/json")
+            .POST(
+                HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)));
+    if (submission.tenantId() != null) {
+      submit.header(TenantFilter.TENANT_HEADER, submission.tenantId());
+    }
+    HttpResponse<byte[]> submitted =
+        httpClient.send(submit.build(), HttpResponse.BodyHandlers.ofByteArray());
+    SubmissionResponse accepted =
+        objectMapper.readValue(submitted.body(), SubmissionResponse.class);
+    if (submitted.statusCode() != 200 || accepted.taskId() == null) {
+      throw new IOException("Submission rejected: " + accepted.message());
+    }
+
+    HttpRequest poll =
+        HttpRequest.newBuilder(engine.resolve("execute/" + accepted.taskId())).build();
+    long deadline = System.nanoTime() + options.timeout().toNanos();
+    while (System.nanoTime() < deadline) {
+      Thread.sleep(options.pollInterval());
+      HttpResponse<byte[]> polled =
+          httpClient.send(poll, HttpResponse.BodyHandlers.ofByteArray());
+      ExecutionResponse response = objectMapper.readValue(polled.body(), ExecutionResponse.class);
+      if (polled.statusCode() == 200) {
+        return response;
+      }
+      if (!NOT_AVAILABLE.equals(response.stderr())) {
+        throw new IOException("Result lookup failed: " + response.stderr());
+      }
+    }
+    throw new TimeoutException(
+        "No result for task " + accepted.taskId() + " within " + options.timeout());
+  }
+}
@@ -0,0 +1,104 @@
+package com.cortex.engine.replay;
+
+import com.cortex.engine.common.Compression;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.DataFormatException;
+
+/**
+ * Draws a uniform random sample of submissions from a time window, returned in their original
+ * arrival order. Both blob-backed and legacy inline submissions are supported. The sample is taken
+ * with {@code ORDER BY random()}, which reads every row of the window, so it is meant to be run
+ * against a replica.
+ */
+class WorkloadSampler {
+
+  private static final String QUERY =
+      "SELECT s.id, s.created_date, s.tenant_id, l.name, s.code, s.stdin, s.expected_output,"
+          + " s.cpu_time_limit, s.cpu_extra_time, s.command_line_arguments, s.compiler_options,"
+          + " c.compressed AS code_compressed, c.size AS code_size, c.content AS code_content,"
+          + " i.compressed AS stdin_compressed, i.size AS stdin_size, i.content AS stdin_content"
+          + " FROM submission s JOIN languages l ON l.id = s.language_id"
+          + " LEFT JOIN code_blobs c ON c.hash = s.code_blob_id"
+          + " LEFT JOIN code_blobs i ON i.hash = s.stdin_blob_id"
+          + " WHERE s.created_date >= ? AND s.created_date < ?%s"
+          + " ORDER BY random() LIMIT ?";
+
+  List<RecordedSubmission> sample(ReplayOptions options) throws SQLException {
+    String query = QUERY.formatted(options.tenant() != null ? " AND s.tenant_id = ?" : "");
+    List<RecordedSubmission> submissions = new ArrayList<>();
+    try (Connection connection =
+            DriverManager.getConnection(options.dbUrl(), options.dbUser(), options.dbPassword());
+        PreparedStatement statement = connection.prepareStatement(query)) {
+      connection.setReadOnly(true);
+      int index = 1;
+      statement.setTimestamp(index++, Timestamp.valueOf(options.from()));
+      statement.setTimestamp(index++, Timestamp.valueOf(options.to()));
+      if (options.tenant() != null) {
+        statement.setString(index++, options.tenant());
+      }
+      statement.setInt(index, options.sample());
+      try (ResultSet rows = statement.executeQuery()) {
+        while (rows.next()) {
+          submissions.add(read(rows));
+        }
+      }
+    }
+    submissions.sort(Comparator.comparing(RecordedSubmission::createdDate));
+    return submissions;
+  }
+
+  private RecordedSubmission read(ResultSet rows) throws SQLException {
+    byte[] code = blob(rows, "code");
+    if (code == null && rows.getString("code") != null) {
+      code = decodeLegacyCode(rows.getString("code"));
+    }
+    byte[] stdin = blob(rows, "stdin");
+    if (stdin == null && rows.getString("stdin") != null) {
+      stdin = rows.getString("stdin").getBytes(StandardCharsets.UTF_8);
+    }
+    return new RecordedSubmission(
+        rows.getLong("id"),
+        rows.getTimestamp("created_date").toLocalDateTime(),
+        rows.getString("tenant_id"),
+        rows.getString("name"),
+        code,
+        stdin,
+        rows.getString("expected_output"),
+        rows.getObject("cpu_time_limit", Float.class),
+        rows.getObject("cpu_extra_time", Float.class),
+        rows.getString("command_line_arguments"),
+        rows.getString("compiler_options"));
+  }
+
+  private byte[] blob(ResultSet rows, String prefix) throws SQLException {
+    byte[] content = rows.getBytes(prefix + "_content");
+    if (content == null || !rows.getBoolean(prefix + "_compressed")) {
+      return content;
+    }
+    try {
+      return Compression.inflate(content, 0, rows.getInt(prefix + "_size"));
+    } catch (DataFormatException e) {
+      throw new SQLException(
+          "Corrupted " + prefix + " blob of submission " + rows.getLong("id"), e);
+    }
+  }
+
+  /** Decodes inline code the same way as the blob migration. */
+  private byte[] decodeLegacyCode(String code) {
+    try {
+      return Base64.getDecoder().decode(code);
+    } catch (IllegalArgumentException e) {
+      return code.getBytes(StandardCharsets.UTF_8);
+    }
+  }
+}
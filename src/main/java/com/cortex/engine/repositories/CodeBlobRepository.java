@@ -0,0 +1,39 @@
+package com.cortex.engine.repositories;
+
+import com.cortex.engine.entities.CodeBlob;
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CodeBlobRepository extends JpaRepository<CodeBlob, String> {
+
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO code_blobs (hash, size, compressed, content, created_date)"
+              + " VALUES (:hash, :size, :compressed, :content, now())"
+              + " ON CONFLICT (hash) DO NOTHING",
+      nativeQuery = true)
+  int insertIfAbsent(
+      @Param("hash") String hash,
+      @Param("size") int size,
+      @Param("compressed") boolean compressed,
+      @Param("content") byte[] content);
+
+  /**
+   * Marks a blob as stored again, so that the sweep of unreferenced blobs does not remove it before
+   * the submission about to reference it is committed. Recently stored blobs are left untouched to
+   * spare a write per deduplicated submission.
+   */
+  @Modifying
+  @Query(
+      value =
+          "UPDATE code_blobs SET created_date = now()"
+              + " WHERE hash = :hash AND created_date < :staleBefore",
+      nativeQuery = true)
+  int refreshIfStale(@Param("hash") String hash, @Param("staleBefore") LocalDateTime staleBefore);
+}
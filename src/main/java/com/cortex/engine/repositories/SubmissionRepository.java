@@ -1,8 +1,85 @@
 package com.cortex.engine.repositories;
 
+import com.cortex.engine.controllers.dto.SubmissionSummary;
 import com.cortex.engine.entities.Submission;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface SubmissionRepository extends CrudRepository<Submission, Long> {}
+public interface SubmissionRepository extends CrudRepository<Submission, Long> {
+
+  /**
+   * Locks a batch of submissions that still store code or stdin inline, skipping locked rows. The
+   * condition matches the partial index {@code idx_submission_legacy_inline} exactly, so only the
+   * remaining legacy rows are read.
+   */
+  @Query(
+      value =
+          "SELECT * FROM submission WHERE code IS NOT NULL OR stdin IS NOT NULL"
+              + " ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  List<Submission> lockLegacyInlineBatch(@Param("limit") int limit);
+
+  String HISTORY_SELECT =
+      "SELECT new com.cortex.engine.controllers.dto.SubmissionSummary("
+          + "s.id, s.createdDate, l.name, s.createdBy, s.cpuTimeLimit, c.size, i.size)"
+          + " FROM Submission s JOIN s.language l"
+          + " LEFT JOIN s.codeBlob c LEFT JOIN s.stdinBlob i"
+          + " WHERE s.tenantId = :tenantId"
+          + " AND s.createdDate >= :from AND s.createdDate <= :beforeDate"
+          + " AND (s.createdDate < :beforeDate OR s.id < :beforeId)";
+
+  String HISTORY_ORDER = " ORDER BY s.createdDate DESC, s.id DESC";
+
+  /**
+   * Lists a tenant's submissions newest first, strictly after the keyset position {@code
+   * (beforeDate, beforeId)}. The redundant {@code createdDate <= :beforeDate} bound lets the index
+   * range scan start at the cursor and, together with {@code :from}, prunes partitions.
+   *
+   * <p>Each combination of filters has its own query, without {@code :x IS NULL OR} catch-alls,
+   * so that the statement planned for it always matches the index that leads with its columns.
+   */
+  @Query(HISTORY_SELECT + HISTORY_ORDER)
+  List<SubmissionSummary> findHistory(
+      @Param("tenantId") String tenantId,
+      @Param("from") LocalDateTime from,
+      @Param("beforeDate") LocalDateTime beforeDate,
+      @Param("beforeId") Long beforeId,
+      Limit limit);
+
+  /** Like {@link #findHistory}, for one user's submissions. */
+  @Query(HISTORY_SELECT + " AND s.createdBy = :userId" + HISTORY_ORDER)
+  List<SubmissionSummary> findHistoryByUser(
+      @Param("tenantId") String tenantId,
+      @Param("userId") Long userId,
+      @Param("from") LocalDateTime from,
+      @Param("beforeDate") LocalDateTime beforeDate,
+      @Param("beforeId") Long beforeId,
+      Limit limit);
+
+  /** Like {@link #findHistory}, for the submissions in one language. */
+  @Query(HISTORY_SELECT + " AND l.id = :languageId" + HISTORY_ORDER)
+  List<SubmissionSummary> findHistoryByLanguage(
+      @Param("tenantId") String tenantId,
+      @Param("languageId") Long languageId,
+      @Param("from") LocalDateTime from,
+      @Param("beforeDate") LocalDateTime beforeDate,
+      @Param("beforeId") Long beforeId,
+      Limit limit);
+
+  /** Like {@link #findHistory}, for one user's submissions in one language. */
+  @Query(HISTORY_SELECT + " AND s.createdBy = :userId AND l.id = :languageId" + HISTORY_ORDER)
+  List<SubmissionSummary> findHistoryByUserAndLanguage(
+      @Param("tenantId") String tenantId,
+      @Param("userId") Long userId,
+      @Param("languageId") Long languageId,
+      @Param("from") LocalDateTime from,
+      @Param("beforeDate") LocalDateTime beforeDate,
+      @Param("beforeId") Long beforeId,
+      Limit limit);
+}
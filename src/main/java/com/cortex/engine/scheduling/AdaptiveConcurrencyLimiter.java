@@ -0,0 +1,263 @@
+package com.cortex.engine.scheduling;
+
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.repositories.LanguageRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounds how many executions run at once on this node and adapts the bound to host pressure.
+ *
+ * <p>The limit follows AIMD: once per adjustment interval it grows by one if executions used the
+ * whole limit without signs of congestion, and shrinks by the backoff factor as soon as any of
+ * these signals appears:
+ *
+ * <ul>
+ *   <li>Executions got slower: each latency is compared with the {@link RuntimeEstimator}
+ *       estimate of its own program, so that a Rust compile and a Python one-liner can be mixed,
+ *       and the window's mean ratio exceeds the tolerance. Programs that have not run before have
+ *       no estimate to compare with, and runs stopped at their time limit are left out, as they
+ *       took as long as the limit whatever the load
+ *   <li>Linux PSI reports CPU or memory pressure ({@code /proc/pressure/*}, {@code some avg10})
+ *       above its threshold
+ *   <li>{@code MemAvailable} is below the largest {@code defaultMemoryLimit}, so one more
+ *       container could push the host into swapping or the OOM killer
+ * </ul>
+ *
+ * <p>Signals that cannot be read, such as PSI on kernels without it, are ignored. Host signals are
+ * read by the releasing thread that makes the adjustment, without holding the lock, so that other
+ * executions can take and return slots meanwhile. With {@code min-limit} equal to {@code
+ * max-limit} the limiter behaves as a plain semaphore.
+ *
+ * @author Ángel Cuervo
+ * @version 1.1
+ * @since 2024-08-26
+ */
+@Component
+@Profile("!api")
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+  private static final long MEMORY_LIMIT_REFRESH_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  private final LanguageRepository languageRepository;
+  private final int minLimit;
+  private final int maxLimit;
+  private final long intervalNanos;
+  private final double latencyTolerance;
+  private final double backoff;
+  private final double cpuPressureThreshold;
+  private final double memoryPressureThreshold;
+  private final Path procRoot;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition released = lock.newCondition();
+
+  private int limit;
+  private int inFlight;
+  private int peakInFlight;
+  private int samples;
+  private double ratioSum;
+  private long lastAdjustment = System.nanoTime();
+  private boolean adjusting;
+
+  // Only used by the thread making an adjustment
+  private long largestMemoryLimit;
+  private long memoryLimitLoadedAt;
+
+  public AdaptiveConcurrencyLimiter(
+      LanguageRepository languageRepository,
+      @Value("${engine.scheduler.concurrency:4}") int initialLimit,
+      @Value("${engine.scheduler.adaptive.min-limit:1}") int minLimit,
+      @Value("${engine.scheduler.adaptive.max-limit:32}") int maxLimit,
+      @Value("${engine.scheduler.adaptive.interval-ms:1000}") long intervalMs,
+      @Value("${engine.scheduler.adaptive.latency-tolerance:2.0}") double latencyTolerance,
+      @Value("${engine.scheduler.adaptive.backoff:0.75}") double backoff,
+      @Value("${engine.scheduler.adaptive.cpu-pressure-threshold:40}") double cpuPressureThreshold,
+      @Value("${engine.scheduler.adaptive.memory-pressure-threshold:10}")
+          double memoryPressureThreshold,
+      @Value("${engine.scheduler.adaptive.proc-root:/proc}") Path procRoot) {
+    this.languageRepository = languageRepository;
+    this.minLimit = Math.max(1, minLimit);
+    this.maxLimit = Math.max(this.minLimit, maxLimit);
+    this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+    this.latencyTolerance = latencyTolerance;
+    this.backoff = backoff;
+    this.cpuPressureThreshold = cpuPressureThreshold;
+    this.memoryPressureThreshold = memoryPressureThreshold;
+    this.procRoot = procRoot;
+    this.limit = Math.clamp(initialLimit, this.minLimit, this.maxLimit);
+  }
+
+  /**
+   * Waits for an execution slot.
+   *
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void acquire() throws InterruptedException {
+    lock.lock();
+    try {
+      while (inFlight >= limit) {
+        released.await();
+      }
+      inFlight++;
+      peakInFlight = Math.max(peakInFlight, inFlight);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns a slot without recording a latency, for slots that did not run a single program. */
+  public void release() {
+    release(null, 0, false);
+  }
+
+  /**
+   * Returns a slot and records how long the execution held it.
+   *
+   * @param estimate The runtime estimated for the execution before it ran, or {@code null} if
+   *     none
+   * @param elapsedMillis The wall-clock time the slot was held
+   * @param completed {@code false} if the program was stopped at its time limit
+   */
+  public void release(RuntimeEstimator.Estimate estimate, long elapsedMillis, boolean completed) {
+    boolean adjust;
+    lock.lock();
+    try {
+      inFlight--;
+      if (completed && estimate != null && estimate.observed()) {
+        samples++;
+        ratioSum += Math.max(1, elapsedMillis) / Math.max(1, estimate.millis());
+      }
+      adjust = !adjusting && System.nanoTime() - lastAdjustment >= intervalNanos;
+      adjusting = adjust;
+      released.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    if (adjust) {
+      adjust();
+    }
+  }
+
+  /**
+   * @return The current concurrency limit
+   */
+  public int getLimit() {
+    lock.lock();
+    try {
+      return limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void adjust() {
+    String hostCongestion = null;
+    try {
+      hostCongestion = hostCongestionSignal();
+    } finally {
+      lock.lock();
+      try {
+        String congestion =
+            samples > 0 && ratioSum / samples > latencyTolerance
+                ? String.format("latency %.1fx estimate", ratioSum / samples)
+                : hostCongestion;
+        int previous = limit;
+        if (congestion != null) {
+          limit = Math.max(minLimit, (int) Math.floor(limit * backoff));
+        } else if (peakInFlight >= limit) {
+          limit = Math.min(maxLimit, limit + 1);
+        }
+        if (limit != previous) {
+          log.info(
+              "Concurrency limit {} -> {}{}",
+              previous,
+              limit,
+              congestion != null ? " (" + congestion + ")" : "");
+          released.signalAll();
+        }
+        samples = 0;
+        ratioSum = 0;
+        peakInFlight = inFlight;
+        lastAdjustment = System.nanoTime();
+        adjusting = false;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /** Returns a description of the first host congestion signal found, or {@code null} if none. */
+  private String hostCongestionSignal() {
+    double cpuPressure = readPressure("cpu");
+    if (cpuPressure > cpuPressureThreshold) {
+      return String.format("cpu pressure %.1f%%", cpuPressure);
+    }
+    double memoryPressure = readPressure("memory");
+    if (memoryPressure > memoryPressureThreshold) {
+      return String.format("memory pressure %.1f%%", memoryPressure);
+    }
+    long available = readMemAvailable();
+    if (available >= 0 && available < largestMemoryLimit()) {
+      return String.format("%d MB available", available / (1024 * 1024));
+    }
+    return null;
+  }
+
+  /** Reads {@code some avg10} from a PSI file; NaN when PSI is not available. */
+  private double readPressure(String resource) {
+    try {
+      for (String line : Files.readAllLines(procRoot.resolve("pressure").resolve(resource))) {
+        if (line.startsWith("some ")) {
+          for (String field : line.split(" ")) {
+            if (field.startsWith("avg10=")) {
+              return Double.parseDouble(field.substring("avg10=".length()));
+            }
+          }
+        }
+      }
+    } catch (IOException | NumberFormatException e) {
+      // PSI not supported or not readable
+    }
+    return Double.NaN;
+  }
+
+  /** Reads {@code MemAvailable} in bytes; -1 when not available. */
+  private long readMemAvailable() {
+    try {
+      for (String line : Files.readAllLines(procRoot.resolve("meminfo"))) {
+        if (line.startsWith("MemAvailable:")) {
+          String[] fields = line.trim().split("\\s+");
+          return Long.parseLong(fields[1]) * 1024;
+        }
+      }
+    } catch (IOException | NumberFormatException e) {
+      // Not a Linux host
+    }
+    return -1;
+  }
+
+  private long largestMemoryLimit() {
+    long now = System.nanoTime();
+    if (memoryLimitLoadedAt == 0 || now - memoryLimitLoadedAt > MEMORY_LIMIT_REFRESH_NANOS) {
+      long largest = 0;
+      for (Language language : languageRepository.findAll()) {
+        if (language.getDefaultMemoryLimit() != null) {
+          largest = Math.max(largest, language.getDefaultMemoryLimit());
+        }
+      }
+      largestMemoryLimit = largest;
+      memoryLimitLoadedAt = now;
+    }
+    return largestMemoryLimit;
+  }
+}
@@ -0,0 +1,198 @@
+package com.cortex.engine.scheduling;
+
+import com.github.dockerjava.api.DockerClient;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.StringJoiner;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out exclusive sets of host cores to execution containers.
+ *
+ * <p>Each execution gets as many cores as its language's {@code defaultCpuLimit}, applied with
+ * Docker's {@code cpuset-cpus}, so concurrent submissions never share a core and their timings do
+ * not depend on what else runs on the node. Reserved cores are never handed out and stay
+ * available to the engine, the Docker daemon and the OS. When not enough cores are free,
+ * callers wait in arrival order, so a submission asking for several cores is not starved by a
+ * stream of single-core ones.
+ *
+ * @author Ángel Cuervo
+ * @version 1.0
+ * @since 2024-08-23
+ */
+@Component
+@Profile("!api")
+@Slf4j
+public class CpusetAllocator {
+
+  private final DockerClient dockerClient;
+  private final boolean enabled;
+  private final String cpus;
+  private final String reservedCpus;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition released = lock.newCondition();
+  private final Deque<Object> waiters = new ArrayDeque<>();
+  private final BitSet free = new BitSet();
+  private int total;
+
+  public CpusetAllocator(
+      DockerClient dockerClient,
+      @Value("${engine.cpuset.enabled:true}") boolean enabled,
+      @Value("${engine.cpuset.cpus:}") String cpus,
+      @Value("${engine.cpuset.reserved-cpus:0}") String reservedCpus) {
+    this.dockerClient = dockerClient;
+    this.enabled = enabled;
+    this.cpus = cpus;
+    this.reservedCpus = reservedCpus;
+  }
+
+  @PostConstruct
+  public void init() {
+    if (!enabled) {
+      log.info("Cpuset allocation disabled, executions share all host cores");
+      return;
+    }
+    BitSet available;
+    if (cpus == null || cpus.isBlank()) {
+      // Cores of the Docker host, which is not necessarily the machine the engine runs on
+      Integer hostCpus = dockerClient.infoCmd().exec().getNCPU();
+      available = new BitSet();
+      available.set(0, hostCpus != null ? hostCpus : Runtime.getRuntime().availableProcessors());
+    } else {
+      available = parse(cpus);
+    }
+    available.andNot(parse(reservedCpus));
+    if (available.isEmpty()) {
+      throw new IllegalStateException(
+          "No cores left for executions after reserving " + reservedCpus);
+    }
+    free.or(available);
+    total = available.cardinality();
+    log.info("Cpuset allocator managing cores {} ({} reserved)", format(available), reservedCpus);
+  }
+
+  /**
+   * Reserves cores for one execution, waiting until enough are free.
+   *
+   * @param requested The number of cores wanted; clamped to what the node can ever provide
+   * @return A lease to close once the container is gone
+   * @throws InterruptedException if interrupted while waiting for cores
+   */
+  public Lease acquire(Long requested) throws InterruptedException {
+    if (!enabled) {
+      return new Lease(null, null);
+    }
+    int count = (int) Math.clamp(requested != null ? requested : 1, 1, total);
+    Object ticket = new Object();
+    lock.lock();
+    try {
+      waiters.addLast(ticket);
+      try {
+        while (waiters.peekFirst() != ticket || free.cardinality() < count) {
+          released.await();
+        }
+      } catch (InterruptedException e) {
+        waiters.remove(ticket);
+        released.signalAll();
+        throw e;
+      }
+      waiters.removeFirst();
+      BitSet taken = pick(count);
+      free.andNot(taken);
+      // The next waiter may fit in what is left
+      released.signalAll();
+      return new Lease(this, taken);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Prefers adjacent cores, which usually share caches, and falls back to any free cores. */
+  private BitSet pick(int count) {
+    BitSet taken = new BitSet();
+    for (int start = free.nextSetBit(0); start >= 0; start = free.nextSetBit(start + 1)) {
+      int end = free.nextClearBit(start);
+      if (end - start >= count) {
+        taken.set(start, start + count);
+        return taken;
+      }
+      start = end;
+    }
+    for (int core = free.nextSetBit(0);
+        taken.cardinality() < count;
+        core = free.nextSetBit(core + 1)) {
+      taken.set(core);
+    }
+    return taken;
+  }
+
+  private void release(BitSet cores) {
+    lock.lock();
+    try {
+      free.or(cores);
+      released.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Parses a Linux cpu list such as {@code 0-3,8,10-11}. */
+  static BitSet parse(String cpuList) {
+    BitSet cores = new BitSet();
+    if (cpuList == null || cpuList.isBlank()) {
+      return cores;
+    }
+    for (String part : cpuList.split(",")) {
+      String range = part.trim();
+      int dash = range.indexOf('-');
+      if (dash < 0) {
+        cores.set(Integer.parseInt(range));
+      } else {
+        cores.set(
+            Integer.parseInt(range.substring(0, dash).trim()),
+            Integer.parseInt(range.substring(dash + 1).trim()) + 1);
+      }
+    }
+    return cores;
+  }
+
+  private static String format(BitSet cores) {
+    StringJoiner joiner = new StringJoiner(",");
+    cores.stream().forEach(core -> joiner.add(Integer.toString(core)));
+    return joiner.toString();
+  }
+
+  /** Cores held by one execution. Closing it more than once has no further effect. */
+  public static final class Lease implements AutoCloseable {
+    private final CpusetAllocator allocator;
+    private BitSet cores;
+
+    private Lease(CpusetAllocator allocator, BitSet cores) {
+      this.allocator = allocator;
+      this.cores = cores;
+    }
+
+    /**
+     * @return The cores in Docker's {@code cpuset-cpus} format, or {@code null} when unpinned
+     */
+    public String cpus() {
+      return cores != null ? format(cores) : null;
+    }
+
+    @Override
+    public void close() {
+      if (cores != null) {
+        allocator.release(cores);
+        cores = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,382 @@
+package com.cortex.engine.scheduling;
+
+import com.cortex.engine.common.TenantContext;
+import com.cortex.engine.config.TenantProperties;
+import com.cortex.engine.controllers.dto.CodeExecutionTask;
+import com.cortex.engine.messaging.Delivery;
+import com.cortex.engine.services.ITenantQuotaService;
+import com.cortex.engine.services.impl.TaskExecutionServiceImpl;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dispatches code execution tasks across tenants using weighted fair queuing.
+ *
+ * <p>Tasks received from the broker are buffered in one lane per tenant. Each task is stamped with
+ * a virtual finish time of {@code max(virtualTime, lane.lastFinish) + cost / weight}, and the
+ * dispatcher always runs the eligible task with the smallest finish time. A tenant that floods the
+ * queue therefore only pushes its own finish times forward, while other tenants keep being served
+ * in proportion to their weight. A lane is only eligible while the tenant is under its
+ * cluster-wide quota, as reported by {@link ITenantQuotaService}. How many tasks run at once on
+ * this node is decided by the {@link AdaptiveConcurrencyLimiter}. Quotas are checked outside the
+ * scheduler's lock, as each check is a Redis round trip, so listeners keep buffering tasks while
+ * the dispatcher waits on Redis.
+ *
+ * <p>A buffered task is only acknowledged to the broker once it has run, so tasks buffered or
+ * running on a node that crashes are redelivered to another one. The number of buffered tasks is
+ * therefore bounded by the listener's prefetch as well as by {@code engine.scheduler.capacity}. On
+ * shutdown, buffered tasks are handed back to the broker and running ones get up to {@code
+ * engine.scheduler.shutdown-timeout} to finish.
+ *
+ * <p>The cost of a task is its expected runtime according to the {@link RuntimeEstimator}, so
+ * tenants are charged for the capacity they use rather than for the number of tasks. Within a
+ * lane, the task that runs next is the one with the shortest expected runtime, which keeps quick
+ * scripts from waiting behind long builds. To avoid starving long tasks, every millisecond a task
+ * waits takes {@code engine.scheduler.aging-factor} milliseconds off its expected runtime for this
+ * choice. The lane's finish times are consumed in arrival order whichever task runs, so the
+ * reordering does not change the lane's share. With {@code engine.scheduler.shortest-first}
+ * disabled, lanes are served in arrival order.
+ *
+ * @author Ángel Cuervo
+ * @version 1.2
+ * @since 2024-08-20
+ */
+@Component
+@Profile("!api")
+@Slf4j
+public class FairTaskScheduler {
+
+  /** How long the dispatcher waits before re-checking quotas when every lane is throttled. */
+  private static final long THROTTLED_RETRY_MS = 200;
+
+  private final TaskExecutionServiceImpl taskExecutionServiceImpl;
+  private final ITenantQuotaService tenantQuotaService;
+  private final TenantProperties tenantProperties;
+  private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+  private final RuntimeEstimator runtimeEstimator;
+  private final ObservationRegistry observationRegistry;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition changed = lock.newCondition();
+  private final Map<String, Lane> lanes = new HashMap<>();
+
+  private final int capacity;
+  private final int laneCapacity;
+  private final boolean shortestFirst;
+  private final double agingFactor;
+  private final Duration shutdownTimeout;
+
+  private ExecutorService executor;
+  private Thread dispatcher;
+  private double virtualTime;
+  private int buffered;
+  private volatile boolean running;
+  private volatile boolean stopped;
+
+  public FairTaskScheduler(
+      TaskExecutionServiceImpl taskExecutionServiceImpl,
+      ITenantQuotaService tenantQuotaService,
+      TenantProperties tenantProperties,
+      AdaptiveConcurrencyLimiter concurrencyLimiter,
+      RuntimeEstimator runtimeEstimator,
+      ObservationRegistry observationRegistry,
+      @Value("${engine.scheduler.capacity:256}") int capacity,
+      @Value("${engine.scheduler.lane-capacity:64}") int laneCapacity,
+      @Value("${engine.scheduler.shortest-first:true}") boolean shortestFirst,
+      @Value("${engine.scheduler.aging-factor:1.0}") double agingFactor,
+      @Value("${engine.scheduler.shutdown-timeout:30s}") Duration shutdownTimeout) {
+    this.taskExecutionServiceImpl = taskExecutionServiceImpl;
+    this.tenantQuotaService = tenantQuotaService;
+    this.tenantProperties = tenantProperties;
+    this.concurrencyLimiter = concurrencyLimiter;
+    this.runtimeEstimator = runtimeEstimator;
+    this.observationRegistry = observationRegistry;
+    this.capacity = capacity;
+    this.laneCapacity = laneCapacity;
+    this.shortestFirst = shortestFirst;
+    this.agingFactor = agingFactor;
+    this.shutdownTimeout = shutdownTimeout;
+  }
+
+  @PostConstruct
+  public void start() {
+    // Sized by the limiter rather than by the pool
+    executor = Executors.newCachedThreadPool();
+    running = true;
+    dispatcher = new Thread(this::dispatchLoop, "fair-task-dispatcher");
+    dispatcher.setDaemon(true);
+    dispatcher.start();
+    log.info(
+        "Fair task scheduler started with {} execution slots", concurrencyLimiter.getLimit());
+  }
+
+  @PreDestroy
+  public void stop() {
+    running = false;
+    stopped = true;
+    if (dispatcher == null) {
+      return;
+    }
+    dispatcher.interrupt();
+    List<QueuedTask> unstarted = new ArrayList<>();
+    lock.lock();
+    try {
+      lanes.values().forEach(lane -> unstarted.addAll(lane.tasks));
+      lanes.clear();
+      buffered = 0;
+      changed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    unstarted.forEach(queued -> queued.delivery().requeue());
+    log.info("Handed {} buffered tasks back to the broker", unstarted.size());
+
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+        // Their messages are still unacknowledged and the broker redelivers them
+        log.warn("Tasks still running after {}, they will be redelivered", shutdownTimeout);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Buffers a task for fair dispatch, blocking while the scheduler is at capacity.
+   *
+   * @param task The task to schedule
+   * @param delivery The task's message, acknowledged once the task has run
+   * @return {@code false} if the tenant's lane is full or the scheduler is stopping, and the task
+   *     should be deferred
+   * @throws InterruptedException if interrupted while waiting for capacity
+   */
+  public boolean offer(CodeExecutionTask task, Delivery delivery) throws InterruptedException {
+    if (task.getTenantId() == null) {
+      task.setTenantId(TenantContext.DEFAULT_TENANT);
+    }
+    String tenantId = task.getTenantId();
+    RuntimeEstimator.Estimate estimate = runtimeEstimator.estimate(task);
+    lock.lock();
+    try {
+      if (isFull(lanes.get(tenantId))) {
+        return false;
+      }
+      while (!stopped && buffered >= capacity) {
+        changed.await();
+      }
+      if (stopped) {
+        return false;
+      }
+      // Created only now, so that a listener interrupted while waiting leaves no empty lane behind
+      Lane lane = lanes.computeIfAbsent(tenantId, Lane::new);
+      if (isFull(lane)) {
+        return false;
+      }
+      int weight = Math.max(1, tenantProperties.quotaFor(tenantId).getWeight());
+      double start = Math.max(virtualTime, lane.lastFinish);
+      double finish = start + costOf(estimate) / weight;
+      lane.lastFinish = finish;
+      lane.finishes.addLast(finish);
+      // The listener's span ends when offer returns; executions continue the trace from it
+      lane.tasks.add(
+          new QueuedTask(
+              task,
+              delivery,
+              estimate,
+              System.nanoTime(),
+              observationRegistry.getCurrentObservation()));
+      buffered++;
+      changed.signalAll();
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of tasks of a tenant buffered on this node.
+   *
+   * @param tenantId The tenant to report on
+   * @return The number of tasks waiting for dispatch
+   */
+  public int queuedFor(String tenantId) {
+    lock.lock();
+    try {
+      Lane lane = lanes.get(tenantId);
+      return lane != null ? lane.tasks.size() : 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean isFull(Lane lane) {
+    return lane != null && lane.tasks.size() >= laneCapacity;
+  }
+
+  /** Expected runtime in seconds, floored so that a task is never free. */
+  private static double costOf(RuntimeEstimator.Estimate estimate) {
+    return Math.max(estimate.millis(), 1) / 1000.0;
+  }
+
+  private void dispatchLoop() {
+    while (running) {
+      try {
+        concurrencyLimiter.acquire();
+        Dispatch next = awaitNextEligible();
+        executor.execute(() -> runTask(next));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception e) {
+        concurrencyLimiter.release();
+        log.error("Unexpected error in fair task dispatcher", e);
+      }
+    }
+  }
+
+  private Dispatch awaitNextEligible() throws InterruptedException {
+    while (true) {
+      for (String tenantId : awaitCandidates()) {
+        // A Redis round trip, so it is made without holding the lock
+        String leaseId = tenantQuotaService.tryAcquire(tenantId);
+        if (leaseId != null) {
+          QueuedTask next = take(tenantId);
+          if (next != null) {
+            return new Dispatch(next, leaseId);
+          }
+          tenantQuotaService.release(tenantId, leaseId, 0);
+        }
+      }
+      lock.lock();
+      try {
+        changed.await(THROTTLED_RETRY_MS, TimeUnit.MILLISECONDS);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /** Waits for buffered tasks and returns their tenants by the finish time of their lane. */
+  private List<String> awaitCandidates() throws InterruptedException {
+    lock.lock();
+    try {
+      while (buffered == 0) {
+        changed.await();
+      }
+      return lanes.values().stream()
+          .sorted(Comparator.comparingDouble(lane -> lane.finishes.peekFirst()))
+          .map(lane -> lane.tenantId)
+          .toList();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Removes the next task from a tenant's lane, or returns {@code null} if it is empty. */
+  private QueuedTask take(String tenantId) {
+    lock.lock();
+    try {
+      Lane lane = lanes.get(tenantId);
+      if (lane == null || lane.tasks.isEmpty()) {
+        return null;
+      }
+      QueuedTask next = lane.tasks.remove(nextIndex(lane.tasks));
+      virtualTime = Math.max(virtualTime, lane.finishes.pollFirst());
+      buffered--;
+      if (lane.tasks.isEmpty()) {
+        // The last finish time was just consumed, so virtualTime has caught up with the lane and
+        // a new lane for the tenant starts where this one would have
+        lanes.remove(tenantId);
+      }
+      changed.signalAll();
+      return next;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Index of the task with the shortest expected runtime once aged, or the oldest task. */
+  private int nextIndex(List<QueuedTask> tasks) {
+    if (!shortestFirst) {
+      return 0;
+    }
+    long now = System.nanoTime();
+    int best = 0;
+    double bestScore = Double.MAX_VALUE;
+    for (int i = 0; i < tasks.size(); i++) {
+      QueuedTask queued = tasks.get(i);
+      double waitedMillis = (now - queued.enqueuedAt()) / 1_000_000.0;
+      double score = queued.estimate().millis() - agingFactor * waitedMillis;
+      // Ties go to the oldest task, as the list is in arrival order
+      if (score < bestScore) {
+        best = i;
+        bestScore = score;
+      }
+    }
+    return best;
+  }
+
+  private void runTask(Dispatch dispatch) {
+    QueuedTask queued = dispatch.queued();
+    CodeExecutionTask task = queued.task();
+    long startedAt = System.nanoTime();
+    boolean completed = false;
+    try {
+      completed =
+          Observation.createNotStarted("execution.task", observationRegistry)
+              .parentObservation(queued.parent())
+              .highCardinalityKeyValue("tenant", task.getTenantId())
+              .highCardinalityKeyValue("task.id", String.valueOf(task.getTaskId()))
+              .observe(() -> taskExecutionServiceImpl.processCodeExecution(task));
+    } finally {
+      // The tenant is charged the wall-clock time the task held an execution slot
+      long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+      runtimeEstimator.record(queued.estimate(), elapsedMillis);
+      queued.delivery().ack();
+      tenantQuotaService.release(task.getTenantId(), dispatch.leaseId(), elapsedMillis);
+      concurrencyLimiter.release(queued.estimate(), elapsedMillis, completed);
+    }
+  }
+
+  private static final class Lane {
+    private final String tenantId;
+    /** Buffered tasks in arrival order; a lane holds at most lane-capacity of them. */
+    private final List<QueuedTask> tasks = new ArrayList<>();
+    private final Deque<Double> finishes = new ArrayDeque<>();
+    private double lastFinish;
+
+    private Lane(String tenantId) {
+      this.tenantId = tenantId;
+    }
+  }
+
+  private record QueuedTask(
+      CodeExecutionTask task,
+      Delivery delivery,
+      RuntimeEstimator.Estimate estimate,
+      long enqueuedAt,
+      Observation parent) {}
+
+  /** A task taken for execution, with the tenant slot reserved for it. */
+  private record Dispatch(QueuedTask queued, String leaseId) {}
+}
@@ -0,0 +1,61 @@
+package com.cortex.engine.services;
+
+import com.cortex.engine.exceptions.SubmissionRejectedException;
+import reactor.core.publisher.Mono;
+
+public interface IAdmissionControlService {
+
+  /**
+   * Decides whether a submission can be queued, from the latest backlog and drain rate.
+   *
+   * @param language The language of the submission
+   * @throws SubmissionRejectedException if the backlog or the estimated wait is too large
+   */
+  void admit(String language);
+
+  /**
+   * Counts an admitted task in its language's backlog until it completes.
+   *
+   * @param language The language of the task
+   * @param taskId The task ID
+   */
+  void recordAdmitted(String language, String taskId);
+
+  /**
+   * Non-blocking variant of {@link #recordAdmitted(String, String)}.
+   *
+   * @param language The language of the task
+   * @param taskId The task ID
+   * @return Completes once the task is counted
+   */
+  Mono<Void> recordAdmittedReactive(String language, String taskId);
+
+  /**
+   * Removes a task counted by {@link #recordAdmitted(String, String)} that was never queued,
+   * without counting it towards the drain rate.
+   *
+   * @param language The language of the task
+   * @param taskId The task ID
+   */
+  void recordAbandoned(String language, String taskId);
+
+  /**
+   * Non-blocking variant of {@link #recordAbandoned(String, String)}.
+   *
+   * @param language The language of the task
+   * @param taskId The task ID
+   * @return Completes once the task is removed
+   */
+  Mono<Void> recordAbandonedReactive(String language, String taskId);
+
+  /**
+   * Removes a finished task from its language's backlog and counts it towards the drain rate.
+   *
+   * @param language The language of the task
+   * @param taskId The task ID
+   */
+  void recordCompletion(String language, String taskId);
+
+  /** Reloads the backlog and drain rate of every language. */
+  void refresh();
+}
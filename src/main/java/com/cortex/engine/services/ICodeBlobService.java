@@ -0,0 +1,31 @@
+package com.cortex.engine.services;
+
+import com.cortex.engine.common.StoredPayload;
+import com.cortex.engine.entities.CodeBlob;
+
+public interface ICodeBlobService {
+
+  /**
+   * Stores content once, keyed by its hash, compressing it when that saves space.
+   *
+   * @param content The raw content to store
+   * @return A reference to the stored blob, suitable for an association
+   */
+  CodeBlob store(byte[] content);
+
+  /**
+   * Stores a body taken from another content-addressed store as it is, keeping its compression.
+   *
+   * @param payload The stored body, keyed by the SHA-256 hash of its original content
+   * @return A reference to the stored blob, suitable for an association
+   */
+  CodeBlob store(StoredPayload payload);
+
+  /**
+   * Returns the raw content of a blob.
+   *
+   * @param blob The blob to read
+   * @return The uncompressed content
+   */
+  byte[] load(CodeBlob blob);
+}
@@ -1,10 +1,11 @@
 package com.cortex.engine.services;
 
-import com.cortex.engine.controllers.dto.CodeExecutionTask;
 import com.cortex.engine.controllers.dto.ExecutionResponse;
 import com.cortex.engine.controllers.dto.SubmissionRequest;
 import com.cortex.engine.exceptions.CodeExecutionException;
+import com.cortex.engine.exceptions.SubmissionRejectedException;
 import com.cortex.engine.exceptions.UnsupportedLanguageException;
+import reactor.core.publisher.Mono;
 
 public interface ICodeExecutionService {
 
@@ -14,8 +15,11 @@ public interface ICodeExecutionService {
    * @param request The submission request containing code and execution parameters
    * @return A unique task ID for retrieving the execution result
    * @throws UnsupportedLanguageException if the specified language is not supported
+   * @throws SubmissionRejectedException if the engine is overloaded
+   * @throws CodeExecutionException if the broker did not accept the task
    */
-  String submitCodeExecution(SubmissionRequest request) throws UnsupportedLanguageException;
+  String submitCodeExecution(SubmissionRequest request)
+      throws UnsupportedLanguageException, CodeExecutionException;
 
   /**
    * Retrieves the execution result for a given task ID.
@@ -27,9 +31,21 @@ public interface ICodeExecutionService {
   ExecutionResponse getExecutionResult(String taskId) throws CodeExecutionException;
 
   /**
-   * Processes a code execution task.
+   * Non-blocking variant of {@link #submitCodeExecution(SubmissionRequest)}. Completes once the
+   * broker has confirmed the task, without holding a thread while waiting.
    *
-   * @param task The code execution task to process
+   * @param request The submission request containing code and execution parameters
+   * @return A unique task ID, or an {@link UnsupportedLanguageException}, {@link
+   *     SubmissionRejectedException} or {@link CodeExecutionException} error
+   */
+  Mono<String> submitCodeExecutionReactive(SubmissionRequest request);
+
+  /**
+   * Non-blocking variant of {@link #getExecutionResult(String)}.
+   *
+   * @param taskId The unique identifier of the execution task
+   * @return The execution response, or a {@link CodeExecutionException} error if it is not
+   *     available
    */
-  void processCodeExecution(CodeExecutionTask task);
+  Mono<ExecutionResponse> getExecutionResultReactive(String taskId);
 }
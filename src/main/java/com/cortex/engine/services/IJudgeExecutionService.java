@@ -0,0 +1,14 @@
+package com.cortex.engine.services;
+
+import com.cortex.engine.controllers.dto.JudgeTask;
+
+public interface IJudgeExecutionService {
+
+  /**
+   * Builds a judged program once, runs its test cases in parallel containers and stores the
+   * judgement for retrieval by the API.
+   *
+   * @param task The judge task to process
+   */
+  void judge(JudgeTask task);
+}
@@ -0,0 +1,28 @@
+package com.cortex.engine.services;
+
+import com.cortex.engine.controllers.dto.JudgeRequest;
+import com.cortex.engine.controllers.dto.JudgeResponse;
+import com.cortex.engine.exceptions.CodeExecutionException;
+import com.cortex.engine.exceptions.UnsupportedLanguageException;
+
+public interface IJudgeService {
+
+  /**
+   * Submits a program to be judged against a suite of test cases.
+   *
+   * @param request The program, its language and its test cases
+   * @return A unique task ID for retrieving the judgement
+   * @throws UnsupportedLanguageException if the specified language is not supported
+   * @throws CodeExecutionException if the suite is too large or the broker did not accept the task
+   */
+  String submit(JudgeRequest request) throws UnsupportedLanguageException, CodeExecutionException;
+
+  /**
+   * Retrieves the judgement of a submission.
+   *
+   * @param taskId The unique identifier of the judge task
+   * @return The verdict and the result of every test case
+   * @throws CodeExecutionException if the judgement is not available
+   */
+  JudgeResponse getResult(String taskId) throws CodeExecutionException;
+}
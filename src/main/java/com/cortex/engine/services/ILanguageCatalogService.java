@@ -0,0 +1,39 @@
+package com.cortex.engine.services;
+
+import java.util.Collection;
+import java.util.Set;
+import reactor.core.publisher.Mono;
+
+public interface ILanguageCatalogService {
+
+  /**
+   * Checks whether a language is supported without touching the database, so that API-only
+   * instances can validate submissions.
+   *
+   * @param name The language name
+   * @return {@code true} if some worker has published the language
+   */
+  boolean isSupported(String name);
+
+  /**
+   * Non-blocking variant of {@link #isSupported(String)}.
+   *
+   * @param name The language name
+   * @return {@code true} if some worker has published the language
+   */
+  Mono<Boolean> isSupportedReactive(String name);
+
+  /**
+   * Lists the languages that some worker has published.
+   *
+   * @return The language names
+   */
+  Set<String> getSupported();
+
+  /**
+   * Publishes languages that workers are able to execute.
+   *
+   * @param names The language names to publish
+   */
+  void publish(Collection<String> names);
+}
@@ -10,4 +10,6 @@ public interface ILanguageService {
   Optional<Language> getLanguageByName(String name);
 
   Language saveLanguage(Language language);
+
+  void publishCatalog();
 }
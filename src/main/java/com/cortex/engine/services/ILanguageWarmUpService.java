@@ -0,0 +1,28 @@
+package com.cortex.engine.services;
+
+import java.time.Duration;
+import java.util.Map;
+
+public interface ILanguageWarmUpService {
+
+  /**
+   * Pulls missing images and runs a trivial program for every language in the catalog, in
+   * parallel, marking each language ready as soon as its own warm-up finishes.
+   */
+  void warmUpAll();
+
+  /**
+   * Waits until a language has been warmed up on this node.
+   *
+   * @param language The language name
+   * @param timeout How long to wait at most
+   * @return {@code true} if the language is ready to serve submissions
+   * @throws InterruptedException if interrupted while waiting
+   */
+  boolean awaitReady(String language, Duration timeout) throws InterruptedException;
+
+  /**
+   * @return Whether each catalog language has finished warming up on this node
+   */
+  Map<String, Boolean> getReadiness();
+}
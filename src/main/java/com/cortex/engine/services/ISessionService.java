@@ -0,0 +1,38 @@
+package com.cortex.engine.services;
+
+import com.cortex.engine.controllers.dto.ExecutionResponse;
+import com.cortex.engine.controllers.dto.SessionResponse;
+import com.cortex.engine.controllers.dto.SessionRunRequest;
+import com.cortex.engine.exceptions.CodeExecutionException;
+
+public interface ISessionService {
+
+  /**
+   * Starts a container and workspace for repeated runs in one language, evicting the least
+   * recently used idle session if the node is full.
+   *
+   * @param language The language of the session
+   * @return The created session
+   */
+  SessionResponse createSession(String language);
+
+  /**
+   * Applies file changes to a session's workspace and runs its entry file.
+   *
+   * @param sessionId The session to run in
+   * @param request The file changes and what to run
+   * @return The execution result
+   * @throws CodeExecutionException if interrupted while waiting for cores
+   */
+  ExecutionResponse run(String sessionId, SessionRunRequest request) throws CodeExecutionException;
+
+  /**
+   * Removes a session's container and workspace.
+   *
+   * @param sessionId The session to close
+   */
+  void closeSession(String sessionId);
+
+  /** Closes sessions that have been idle or alive for longer than allowed. */
+  void evictExpired();
+}
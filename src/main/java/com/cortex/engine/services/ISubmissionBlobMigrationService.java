@@ -0,0 +1,11 @@
+package com.cortex.engine.services;
+
+public interface ISubmissionBlobMigrationService {
+
+  /**
+   * Moves one batch of inline submission code and stdin into blob storage.
+   *
+   * @return The number of submissions migrated
+   */
+  int migrateBatch();
+}
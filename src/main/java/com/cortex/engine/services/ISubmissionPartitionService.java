@@ -0,0 +1,11 @@
+package com.cortex.engine.services;
+
+public interface ISubmissionPartitionService {
+
+  /**
+   * Converts the submissions table to a partitioned table if needed, creates upcoming partitions,
+   * removes partitions that fall entirely outside the retention period and deletes the code blobs
+   * no submission references any more.
+   */
+  void maintainPartitions();
+}
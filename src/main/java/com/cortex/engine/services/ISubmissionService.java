@@ -1,12 +1,33 @@
 package com.cortex.engine.services;
 
+import com.cortex.engine.controllers.dto.SubmissionHistoryResponse;
 import com.cortex.engine.entities.Submission;
-import java.util.List;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface ISubmissionService {
-  List<Submission> getAllSubmissions();
+
+  /**
+   * Lists a page of the current tenant's submissions, newest first.
+   *
+   * @param userId Only submissions of this user, or {@code null} for all users
+   * @param language Only submissions in this language, or {@code null} for all languages
+   * @param from Oldest creation time to include, or {@code null} for the default window
+   * @param to Newest creation time to include, or {@code null} for now
+   * @param cursor The {@code nextCursor} of the previous page, or {@code null} for the first page
+   * @param limit Maximum number of submissions to return
+   * @return The page and the cursor of the next one
+   * @throws IllegalArgumentException if the cursor is malformed
+   */
+  SubmissionHistoryResponse getHistory(
+      Long userId,
+      String language,
+      LocalDateTime from,
+      LocalDateTime to,
+      String cursor,
+      int limit);
+
   Optional<Submission> getSubmissionById(Long id);
   Submission saveSubmission(Submission submission);
   void deleteSubmission(Long id);
-}
\ No newline at end of file
+}
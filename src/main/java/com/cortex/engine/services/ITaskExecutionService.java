@@ -0,0 +1,29 @@
+package com.cortex.engine.services;
+
+import com.cortex.engine.controllers.dto.CodeExecutionTask;
+import com.cortex.engine.controllers.dto.ExecutionResponse;
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.exceptions.CodeExecutionException;
+
+public interface ITaskExecutionService {
+
+  /**
+   * Processes a code execution task and stores its result for retrieval by the API.
+   *
+   * @param task The code execution task to process
+   * @return {@code false} if the program was stopped at its time limit, so that the time it held
+   *     an execution slot says nothing about how loaded the node is
+   */
+  boolean processCodeExecution(CodeExecutionTask task);
+
+  /**
+   * Runs a program exactly like a submission, without persisting it or publishing a result. Used
+   * to warm up a language's image and toolchain before real submissions arrive.
+   *
+   * @param language The language to run the program with
+   * @param code The program source
+   * @return The execution result
+   * @throws CodeExecutionException if the program could not be run
+   */
+  ExecutionResponse warmUp(Language language, byte[] code) throws CodeExecutionException;
+}
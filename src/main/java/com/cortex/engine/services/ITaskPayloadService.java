@@ -0,0 +1,77 @@
+package com.cortex.engine.services;
+
+import com.cortex.engine.common.StoredPayload;
+import com.cortex.engine.controllers.dto.CodeExecutionTask;
+import com.cortex.engine.controllers.dto.JudgeRequest;
+import com.cortex.engine.controllers.dto.JudgeTask;
+import com.cortex.engine.controllers.dto.PayloadRef;
+import com.cortex.engine.controllers.dto.SubmissionRequest;
+import com.cortex.engine.exceptions.CodeExecutionException;
+import java.io.InputStream;
+
+public interface ITaskPayloadService {
+
+  /**
+   * Moves large code and stdin bodies of a task to the payload store, leaving only references in
+   * the task so that the broker message stays small.
+   *
+   * @param task The task about to be published; modified in place
+   */
+  void offload(CodeExecutionTask task);
+
+  /**
+   * Moves the test cases of a judge task to the payload store, along with its code if that is
+   * large, so that suites of any size travel through the broker as a reference. Identical suites
+   * submitted again are stored once.
+   *
+   * @param task The judge task about to be published; modified in place
+   */
+  void offload(JudgeTask task);
+
+  /**
+   * Returns the judge request of a task with its offloaded code and test cases loaded back.
+   *
+   * @param task The judge task received from the broker
+   * @return The judge request with its code and test cases
+   * @throws CodeExecutionException if an offloaded body is no longer in the store
+   */
+  JudgeRequest resolve(JudgeTask task) throws CodeExecutionException;
+
+  /**
+   * Tells whether {@link #offload(CodeExecutionTask)} would move any body of the request to the
+   * payload store, so that non-blocking callers only leave the event loop when it does.
+   *
+   * @param request The submission request
+   * @return {@code true} if the code or stdin is large enough to be offloaded
+   */
+  boolean needsOffload(SubmissionRequest request);
+
+  /**
+   * Returns the submission request of a task with offloaded code loaded back. Offloaded stdin is
+   * left in the store; use {@link #openStdin(CodeExecutionTask)} to stream it.
+   *
+   * @param task The task received from the broker
+   * @return The submission request with its code
+   * @throws CodeExecutionException if the offloaded code is no longer in the store
+   */
+  SubmissionRequest resolve(CodeExecutionTask task) throws CodeExecutionException;
+
+  /**
+   * Opens the standard input of a task, reading offloaded input from the store in chunks.
+   *
+   * @param task The task received from the broker
+   * @return A stream over the input, or {@code null} if the task has none
+   * @throws CodeExecutionException if the offloaded input is no longer in the store
+   */
+  InputStream openStdin(CodeExecutionTask task) throws CodeExecutionException;
+
+  /**
+   * Returns an offloaded body as stored, without inflating it, so that it can be copied into blob
+   * storage as it is.
+   *
+   * @param ref The reference to the body
+   * @return The stored body
+   * @throws CodeExecutionException if the body is no longer in the store
+   */
+  StoredPayload loadStored(PayloadRef ref) throws CodeExecutionException;
+}
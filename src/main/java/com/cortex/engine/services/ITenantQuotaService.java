@@ -0,0 +1,34 @@
+package com.cortex.engine.services;
+
+import com.cortex.engine.controllers.dto.TenantUsageResponse;
+
+public interface ITenantQuotaService {
+
+  /**
+   * Reserves an execution slot for the tenant if it is below both its concurrency and slot-time
+   * quota.
+   *
+   * @param tenantId The tenant requesting the slot
+   * @return The lease of the reserved slot, to be passed to {@link #release}, or {@code null} if
+   *     the tenant is at its quota
+   */
+  String tryAcquire(String tenantId);
+
+  /**
+   * Releases a slot previously reserved with {@link #tryAcquire(String)} and charges the time it
+   * was held to the tenant.
+   *
+   * @param tenantId The tenant that owned the slot
+   * @param leaseId The lease returned when the slot was reserved
+   * @param slotMillis How long the slot was held, in milliseconds
+   */
+  void release(String tenantId, String leaseId, long slotMillis);
+
+  /**
+   * Returns the current usage of a tenant across all workers.
+   *
+   * @param tenantId The tenant to report on
+   * @return The tenant's usage and quotas
+   */
+  TenantUsageResponse getUsage(String tenantId);
+}
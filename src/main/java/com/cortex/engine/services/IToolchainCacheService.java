@@ -0,0 +1,20 @@
+package com.cortex.engine.services;
+
+import com.cortex.engine.docker.ToolchainCache;
+import com.cortex.engine.entities.Language;
+import java.util.Optional;
+
+public interface IToolchainCacheService {
+
+  /**
+   * Returns the cache volume to mount for a language, if one has been prepared for the language's
+   * current image.
+   *
+   * @param language The language about to be executed
+   * @return The ready cache, or empty if the language has none or it is still warming up
+   */
+  Optional<ToolchainCache> getCache(Language language);
+
+  /** Builds missing cache volumes and replaces those whose image has changed. */
+  void refreshCaches();
+}
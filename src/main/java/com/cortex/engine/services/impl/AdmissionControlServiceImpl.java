@@ -0,0 +1,324 @@
+package com.cortex.engine.services.impl;
+
+import static com.cortex.engine.services.impl.CodeExecutionServiceImpl.RESULT_EXPIRATION_HOURS;
+
+import com.cortex.engine.config.RabbitMQConfig;
+import com.cortex.engine.exceptions.SubmissionRejectedException;
+import com.cortex.engine.services.IAdmissionControlService;
+import com.cortex.engine.services.ILanguageCatalogService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Admission control for submissions, based on how much work is waiting and how fast workers get
+ * through it.
+ *
+ * <p>Every admitted task is added to its language's backlog, a Redis sorted set scored by
+ * admission time, and workers remove it when it completes and count it in ten-second buckets of
+ * drained tasks. Each API instance reloads the backlogs, the drain rate of each language over
+ * {@code engine.admission.drain-window} and the live depth of the broker queue once a second, so
+ * that admitting a submission costs no Redis call. A submission is rejected with a {@link
+ * SubmissionRejectedException} when the total backlog reaches {@code engine.admission.max-backlog},
+ * or when the estimated wait exceeds {@code engine.admission.max-wait}, which is never longer than
+ * the time results are kept. The wait is the larger of the total backlog over the total drain rate
+ * and the language's backlog over its own rate, since a slow language can fall behind on its own.
+ * The suggested retry delay is the time it should take to drain the excess at the current rate.
+ * Nothing having drained yet says nothing about the rate, unless a task has been waiting for the
+ * whole drain window: then the workers have stalled and the wait is taken as unbounded.
+ *
+ * <p>Tasks that never complete, for example because they were lost with a worker, are dropped
+ * from the backlog after {@code engine.admission.stale-after}.
+ *
+ * @author Ángel Cuervo
+ * @version 1.1
+ * @since 2024-09-01
+ */
+@Service
+@Slf4j
+public class AdmissionControlServiceImpl implements IAdmissionControlService {
+
+  private static final String BACKLOG_KEY_PREFIX = "admission:backlog:";
+  private static final String DRAINED_KEY_PREFIX = "admission:drained:";
+  private static final long BUCKET_SECONDS = 10;
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+  private final ILanguageCatalogService languageCatalogService;
+  private final AmqpAdmin amqpAdmin;
+  private final boolean enabled;
+  private final long maxBacklog;
+  private final Duration maxWait;
+  private final Duration drainWindow;
+  private final Duration staleAfter;
+  private final Duration defaultRetryAfter;
+  private final Duration maxRetryAfter;
+  private final Counter rejectedForBacklog;
+  private final Counter rejectedForWait;
+
+  private volatile Load load = Load.EMPTY;
+  /** Set by the first admission, so that instances that never admit do not poll Redis. */
+  private volatile boolean serving;
+
+  public AdmissionControlServiceImpl(
+      StringRedisTemplate stringRedisTemplate,
+      ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+      ILanguageCatalogService languageCatalogService,
+      AmqpAdmin amqpAdmin,
+      MeterRegistry meterRegistry,
+      @Value("${engine.admission.enabled:true}") boolean enabled,
+      @Value("${engine.admission.max-backlog:5000}") long maxBacklog,
+      @Value("${engine.admission.max-wait:1h}") Duration maxWait,
+      @Value("${engine.admission.drain-window:60s}") Duration drainWindow,
+      @Value("${engine.admission.stale-after:2h}") Duration staleAfter,
+      @Value("${engine.admission.default-retry-after:30s}") Duration defaultRetryAfter,
+      @Value("${engine.admission.max-retry-after:5m}") Duration maxRetryAfter) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+    this.languageCatalogService = languageCatalogService;
+    this.amqpAdmin = amqpAdmin;
+    this.enabled = enabled;
+    this.maxBacklog = maxBacklog;
+    Duration resultTtl = Duration.ofHours(RESULT_EXPIRATION_HOURS);
+    this.maxWait = maxWait.compareTo(resultTtl) < 0 ? maxWait : resultTtl;
+    this.drainWindow = drainWindow;
+    this.staleAfter = staleAfter;
+    this.defaultRetryAfter = defaultRetryAfter;
+    this.maxRetryAfter = maxRetryAfter;
+
+    this.rejectedForBacklog =
+        meterRegistry.counter("engine.admission.rejected", "reason", "backlog");
+    this.rejectedForWait = meterRegistry.counter("engine.admission.rejected", "reason", "wait");
+    meterRegistry.gauge("engine.admission.backlog", this, service -> service.load.backlog());
+    meterRegistry.gauge(
+        "engine.admission.drain.rate", this, service -> service.load.drainRate());
+  }
+
+  @Override
+  public void admit(String language) {
+    if (!enabled) {
+      return;
+    }
+    serving = true;
+    Load current = load;
+    if (current.backlog() >= maxBacklog) {
+      rejectedForBacklog.increment();
+      throw new SubmissionRejectedException(
+          "The engine has " + current.backlog() + " submissions waiting, retry later",
+          retryAfter(current.backlog() - maxBacklog + 1, current.drainRate()));
+    }
+    LanguageLoad languageLoad = current.languages().getOrDefault(language, LanguageLoad.IDLE);
+    double waitSeconds =
+        Math.max(
+            seconds(current.backlog(), current.drainRate(), current.stalled()),
+            seconds(languageLoad.backlog(), languageLoad.drainRate(), languageLoad.stalled()));
+    if (Double.isInfinite(waitSeconds)) {
+      rejectedForWait.increment();
+      throw new SubmissionRejectedException(
+          "No submissions have completed in the last "
+              + drainWindow.toSeconds()
+              + " s, retry later",
+          defaultRetryAfter);
+    }
+    if (waitSeconds > maxWait.toSeconds()) {
+      rejectedForWait.increment();
+      throw new SubmissionRejectedException(
+          "Estimated wait of "
+              + (long) waitSeconds
+              + " s exceeds "
+              + maxWait.toSeconds()
+              + " s, retry later",
+          clamp(Duration.ofSeconds((long) Math.ceil(waitSeconds - maxWait.toSeconds()))));
+    }
+  }
+
+  @Override
+  public void recordAdmitted(String language, String taskId) {
+    if (enabled) {
+      stringRedisTemplate
+          .opsForZSet()
+          .add(BACKLOG_KEY_PREFIX + language, taskId, System.currentTimeMillis());
+    }
+  }
+
+  @Override
+  public Mono<Void> recordAdmittedReactive(String language, String taskId) {
+    if (!enabled) {
+      return Mono.empty();
+    }
+    return reactiveStringRedisTemplate
+        .opsForZSet()
+        .add(BACKLOG_KEY_PREFIX + language, taskId, System.currentTimeMillis())
+        .then();
+  }
+
+  @Override
+  public void recordAbandoned(String language, String taskId) {
+    if (enabled) {
+      stringRedisTemplate.opsForZSet().remove(BACKLOG_KEY_PREFIX + language, taskId);
+    }
+  }
+
+  @Override
+  public Mono<Void> recordAbandonedReactive(String language, String taskId) {
+    if (!enabled) {
+      return Mono.empty();
+    }
+    return reactiveStringRedisTemplate
+        .opsForZSet()
+        .remove(BACKLOG_KEY_PREFIX + language, taskId)
+        .then();
+  }
+
+  @Override
+  public void recordCompletion(String language, String taskId) {
+    if (!enabled) {
+      return;
+    }
+    stringRedisTemplate.opsForZSet().remove(BACKLOG_KEY_PREFIX + language, taskId);
+    String bucket = drainedKey(language, System.currentTimeMillis() / 1000 / BUCKET_SECONDS);
+    stringRedisTemplate.opsForValue().increment(bucket);
+    stringRedisTemplate.expire(bucket, drainWindow.plusSeconds(2 * BUCKET_SECONDS));
+  }
+
+  @Override
+  @Scheduled(fixedDelayString = "${engine.admission.refresh-interval-ms:1000}")
+  public void refresh() {
+    if (!enabled || !serving) {
+      return;
+    }
+    try {
+      long now = System.currentTimeMillis();
+      long currentBucket = now / 1000 / BUCKET_SECONDS;
+      long buckets = Math.max(1, drainWindow.toSeconds() / BUCKET_SECONDS);
+      Map<String, Long> backlogs = new HashMap<>();
+      Map<String, Double> drainRates = new HashMap<>();
+      Set<String> waitingSinceWindow = new HashSet<>();
+      for (String language : languageCatalogService.getSupported()) {
+        String backlogKey = BACKLOG_KEY_PREFIX + language;
+        stringRedisTemplate
+            .opsForZSet()
+            .removeRangeByScore(backlogKey, 0, now - staleAfter.toMillis());
+        Long backlog = stringRedisTemplate.opsForZSet().zCard(backlogKey);
+        backlogs.put(language, backlog != null ? backlog : 0);
+        Set<ZSetOperations.TypedTuple<String>> oldest =
+            stringRedisTemplate.opsForZSet().rangeWithScores(backlogKey, 0, 0);
+        if (oldest != null
+            && oldest.stream()
+                .anyMatch(
+                    entry ->
+                        entry.getScore() != null
+                            && entry.getScore() < now - drainWindow.toMillis())) {
+          waitingSinceWindow.add(language);
+        }
+
+        // Only whole buckets, the current one is still filling up
+        List<String> keys = new ArrayList<>();
+        for (long bucket = currentBucket - buckets; bucket < currentBucket; bucket++) {
+          keys.add(drainedKey(language, bucket));
+        }
+        List<String> counts = stringRedisTemplate.opsForValue().multiGet(keys);
+        long drained =
+            counts == null
+                ? 0
+                : counts.stream().filter(count -> count != null).mapToLong(Long::parseLong).sum();
+        drainRates.put(language, drained / (double) (buckets * BUCKET_SECONDS));
+      }
+      QueueInformation queue = amqpAdmin.getQueueInfo(RabbitMQConfig.CODE_EXECUTION_QUEUE);
+      update(
+          backlogs, drainRates, waitingSinceWindow, queue != null ? queue.getMessageCount() : 0);
+    } catch (RuntimeException e) {
+      // Keep admitting on the last known load rather than failing submissions
+      log.warn("Failed to refresh the submission backlog: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Replaces the load that admissions are decided on.
+   *
+   * @param backlogs Admitted tasks that have not completed, by language
+   * @param drainRates Completed tasks per second, by language
+   * @param waitingSinceWindow Languages with a task admitted before the start of the drain window
+   * @param queueDepth Messages in the broker queue, which bounds the total backlog from below
+   */
+  void update(
+      Map<String, Long> backlogs,
+      Map<String, Double> drainRates,
+      Set<String> waitingSinceWindow,
+      long queueDepth) {
+    Map<String, LanguageLoad> languages = new HashMap<>();
+    long backlog = 0;
+    double drainRate = 0;
+    boolean anyStalled = false;
+    for (Map.Entry<String, Long> entry : backlogs.entrySet()) {
+      double rate = drainRates.getOrDefault(entry.getKey(), 0.0);
+      boolean stalled = rate == 0 && waitingSinceWindow.contains(entry.getKey());
+      languages.put(entry.getKey(), new LanguageLoad(entry.getValue(), rate, stalled));
+      backlog += entry.getValue();
+      drainRate += rate;
+      anyStalled |= stalled;
+    }
+    load =
+        new Load(
+            Math.max(backlog, queueDepth),
+            drainRate,
+            drainRate == 0 && anyStalled,
+            Map.copyOf(languages));
+  }
+
+  /**
+   * Time to drain a backlog at a rate. When nothing has drained, the wait is unbounded if the
+   * workers have stalled and zero otherwise, as the rate is not known yet.
+   */
+  private static double seconds(long backlog, double drainRate, boolean stalled) {
+    if (drainRate > 0) {
+      return backlog / drainRate;
+    }
+    return backlog > 0 && stalled ? Double.POSITIVE_INFINITY : 0;
+  }
+
+  private Duration retryAfter(long excess, double drainRate) {
+    return drainRate > 0
+        ? clamp(Duration.ofSeconds((long) Math.ceil(excess / drainRate)))
+        : defaultRetryAfter;
+  }
+
+  private Duration clamp(Duration retryAfter) {
+    if (retryAfter.compareTo(Duration.ofSeconds(1)) < 0) {
+      return Duration.ofSeconds(1);
+    }
+    return retryAfter.compareTo(maxRetryAfter) > 0 ? maxRetryAfter : retryAfter;
+  }
+
+  private static String drainedKey(String language, long bucket) {
+    return DRAINED_KEY_PREFIX + language + ":" + bucket;
+  }
+
+  /**
+   * @param stalled Whether nothing drained during a whole drain window while tasks were waiting
+   */
+  private record Load(
+      long backlog, double drainRate, boolean stalled, Map<String, LanguageLoad> languages) {
+    static final Load EMPTY = new Load(0, 0, false, Map.of());
+  }
+
+  private record LanguageLoad(long backlog, double drainRate, boolean stalled) {
+    static final LanguageLoad IDLE = new LanguageLoad(0, 0, false);
+  }
+}
@@ -0,0 +1,81 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.common.Compression;
+import com.cortex.engine.common.StoredPayload;
+import com.cortex.engine.entities.CodeBlob;
+import com.cortex.engine.exceptions.FileOperationException;
+import com.cortex.engine.repositories.CodeBlobRepository;
+import com.cortex.engine.services.ICodeBlobService;
+import jakarta.transaction.Transactional;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.zip.DataFormatException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+@Service
+@Profile("!api")
+public class CodeBlobServiceImpl implements ICodeBlobService {
+
+  private final CodeBlobRepository codeBlobRepository;
+  private final Duration refreshAfter;
+
+  public CodeBlobServiceImpl(
+      CodeBlobRepository codeBlobRepository,
+      @Value("${engine.submissions.blob-sweep-grace:1d}") Duration blobSweepGrace) {
+    this.codeBlobRepository = codeBlobRepository;
+    // Half the grace period leaves the other half for the referencing submission to be committed
+    this.refreshAfter = blobSweepGrace.dividedBy(2);
+  }
+
+  @Override
+  @Transactional
+  public CodeBlob store(byte[] content) {
+    String hash = sha256(content);
+    if (codeBlobRepository.existsById(hash)) {
+      codeBlobRepository.refreshIfStale(hash, LocalDateTime.now().minus(refreshAfter));
+    } else {
+      byte[] compressed = Compression.deflate(content);
+      boolean useCompressed = compressed.length < content.length;
+      codeBlobRepository.insertIfAbsent(
+          hash, content.length, useCompressed, useCompressed ? compressed : content);
+    }
+    return codeBlobRepository.getReferenceById(hash);
+  }
+
+  @Override
+  @Transactional
+  public CodeBlob store(StoredPayload payload) {
+    if (codeBlobRepository.existsById(payload.hash())) {
+      codeBlobRepository.refreshIfStale(payload.hash(), LocalDateTime.now().minus(refreshAfter));
+    } else {
+      codeBlobRepository.insertIfAbsent(
+          payload.hash(), payload.size(), payload.compressed(), payload.content());
+    }
+    return codeBlobRepository.getReferenceById(payload.hash());
+  }
+
+  @Override
+  public byte[] load(CodeBlob blob) {
+    if (!blob.isCompressed()) {
+      return blob.getContent();
+    }
+    try {
+      return Compression.inflate(blob.getContent(), 0, blob.getSize());
+    } catch (DataFormatException e) {
+      throw new FileOperationException("Corrupted code blob " + blob.getHash(), e);
+    }
+  }
+
+  private String sha256(byte[] content) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -6,12 +6,14 @@ import com.github.dockerjava.api.model.Container;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 
 @Service
+@Profile("!api")
 @RequiredArgsConstructor
 @Slf4j
 public class DockerCleanupServiceImpl implements IDockerCleanupService {
@@ -0,0 +1,562 @@
+package com.cortex.engine.services.impl;
+
+import static com.cortex.engine.services.impl.CodeExecutionServiceImpl.RESULT_EXPIRATION_HOURS;
+import static com.cortex.engine.services.impl.JudgeServiceImpl.JUDGE_KEY_PREFIX;
+
+import com.cortex.engine.controllers.dto.JudgeRequest;
+import com.cortex.engine.controllers.dto.JudgeResponse;
+import com.cortex.engine.controllers.dto.JudgeTask;
+import com.cortex.engine.controllers.dto.TestCase;
+import com.cortex.engine.controllers.dto.TestCaseResult;
+import com.cortex.engine.controllers.dto.Verdict;
+import com.cortex.engine.docker.ContainerExec;
+import com.cortex.engine.docker.ExecResult;
+import com.cortex.engine.docker.ScratchSpace;
+import com.cortex.engine.docker.ToolchainCache;
+import com.cortex.engine.docker.ToolchainCacheSpec;
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.exceptions.CodeExecutionException;
+import com.cortex.engine.exceptions.ContainerCreationException;
+import com.cortex.engine.exceptions.UnsupportedLanguageException;
+import com.cortex.engine.repositories.LanguageRepository;
+import com.cortex.engine.scheduling.AdaptiveConcurrencyLimiter;
+import com.cortex.engine.scheduling.CpusetAllocator;
+import com.cortex.engine.services.IAdmissionControlService;
+import com.cortex.engine.services.IJudgeExecutionService;
+import com.cortex.engine.services.ITaskPayloadService;
+import com.cortex.engine.services.ITenantQuotaService;
+import com.cortex.engine.services.IToolchainCacheService;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.model.AccessMode;
+import com.github.dockerjava.api.model.Bind;
+import com.github.dockerjava.api.model.HostConfig;
+import com.github.dockerjava.api.model.Volume;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Judges a program against a suite of test cases, running the cases in several containers at
+ * once.
+ *
+ * <p>The program is built once in a builder container: compiled languages are compiled, and
+ * interpreted ones are syntax-checked where the toolchain can do it without running the program.
+ * The builder's workspace, with the build output, is then exported as a tar archive and unpacked
+ * into up to {@code engine.judge.max-shards} shard containers. Cases are dealt to the shards in
+ * turn, so every shard starts with the earliest cases it holds, and each shard runs its cases one
+ * after another with the language's time limit and one lease of exclusive cores. Time to verdict
+ * is thus about the length of one shard rather than of the whole suite.
+ *
+ * <p>When a case fails and the request stops on the first failure, the other shards' containers
+ * are removed right away, which kills the cases they are running; those and every case that had
+ * not started are reported as skipped. A case that exceeds its time limit may still be running,
+ * so its shard replaces its container before the next case.
+ *
+ * <p>Shards run on the worker that received the task, so a suite is spread over that node's free
+ * cores only; the number of judge tasks a node takes at once is set by {@code
+ * engine.judge.concurrency}. The build and every shard each take one of the tenant's slots and an
+ * execution slot from the {@link AdaptiveConcurrencyLimiter}, like any other execution, so judging
+ * counts against the tenant's quota and the node's limit. A finished judgement leaves the
+ * admission backlog of its language like an execution does.
+ *
+ * @author Ángel Cuervo
+ * @version 1.2
+ * @since 2024-08-31
+ */
+@Service
+@Profile("!api")
+@Slf4j
+public class JudgeExecutionServiceImpl implements IJudgeExecutionService {
+
+  private static final Pattern JAVA_PUBLIC_CLASS =
+      Pattern.compile("public\\s+(?:(?:final|abstract)\\s+)*class\\s+(\\w+)");
+  private static final long TRANSFER_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(1);
+  private static final long QUOTA_RETRY_MS = 100;
+
+  private final DockerClient dockerClient;
+  private final LanguageRepository languageRepository;
+  private final IToolchainCacheService toolchainCacheService;
+  private final CpusetAllocator cpusetAllocator;
+  private final ScratchSpace scratchSpace;
+  private final ITaskPayloadService taskPayloadService;
+  private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+  private final ITenantQuotaService tenantQuotaService;
+  private final IAdmissionControlService admissionControlService;
+  private final RedisTemplate<String, JudgeResponse> judgeRedisTemplate;
+  private final int maxShards;
+  private final Duration compileTimeout;
+
+  public JudgeExecutionServiceImpl(
+      DockerClient dockerClient,
+      LanguageRepository languageRepository,
+      IToolchainCacheService toolchainCacheService,
+      CpusetAllocator cpusetAllocator,
+      ScratchSpace scratchSpace,
+      ITaskPayloadService taskPayloadService,
+      AdaptiveConcurrencyLimiter concurrencyLimiter,
+      ITenantQuotaService tenantQuotaService,
+      IAdmissionControlService admissionControlService,
+      RedisTemplate<String, JudgeResponse> judgeRedisTemplate,
+      @Value("${engine.judge.max-shards:4}") int maxShards,
+      @Value("${engine.judge.compile-timeout:60s}") Duration compileTimeout) {
+    this.dockerClient = dockerClient;
+    this.languageRepository = languageRepository;
+    this.toolchainCacheService = toolchainCacheService;
+    this.cpusetAllocator = cpusetAllocator;
+    this.scratchSpace = scratchSpace;
+    this.taskPayloadService = taskPayloadService;
+    this.concurrencyLimiter = concurrencyLimiter;
+    this.tenantQuotaService = tenantQuotaService;
+    this.admissionControlService = admissionControlService;
+    this.judgeRedisTemplate = judgeRedisTemplate;
+    this.maxShards = Math.max(1, maxShards);
+    this.compileTimeout = compileTimeout;
+  }
+
+  @Override
+  public void judge(JudgeTask task) {
+    JudgeRequest request = null;
+    JudgeResponse response;
+    try {
+      request = taskPayloadService.resolve(task);
+      response = judge(request, task.getTenantId());
+    } catch (Exception e) {
+      log.error("Error judging task {}", task.getTaskId(), e);
+      int cases = request != null ? request.testCases().size() : 0;
+      response = verdictOf(new TestCaseResult[cases], Verdict.INTERNAL_ERROR, e.getMessage());
+    }
+    judgeRedisTemplate
+        .opsForValue()
+        .set(
+            JUDGE_KEY_PREFIX + task.getTaskId(),
+            response,
+            RESULT_EXPIRATION_HOURS,
+            TimeUnit.HOURS);
+    admissionControlService.recordCompletion(
+        task.getJudgeRequest().language(), task.getTaskId());
+  }
+
+  private JudgeResponse judge(JudgeRequest request, String tenantId)
+      throws CodeExecutionException {
+    Language language =
+        languageRepository
+            .findByName(request.language())
+            .orElseThrow(
+                () ->
+                    new UnsupportedLanguageException(
+                        "Unsupported language: " + request.language()));
+    ToolchainCache cache = toolchainCacheService.getCache(language).orElse(null);
+    String fileName = sourceFileName(language, request.code());
+    Build build = build(language, fileName, cache);
+    List<TestCase> testCases = request.testCases();
+    TestCaseResult[] results = new TestCaseResult[testCases.size()];
+
+    byte[] artifact;
+    long buildStartedAt = System.nanoTime();
+    String buildLease;
+    try {
+      buildLease = acquireSlots(tenantId, null);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CodeExecutionException("Interrupted while waiting for an execution slot", e);
+    }
+    try (CpusetAllocator.Lease cpus = cpusetAllocator.acquire(language.getDefaultCpuLimit());
+        Sandbox builder = new Sandbox(language, cache)) {
+      builder.start(cpus.cpus());
+      builder.write(fileName, request.code());
+      if (build.compileCommand() != null) {
+        ExecResult compiled =
+            builder.exec(build.compileCommand(), compileTimeout.toMillis(), null);
+        if (!compiled.succeeded()) {
+          String output =
+              compiled.completed()
+                  ? String.join("", compiled.stdoutText(), compiled.stderr())
+                  : "Compilation timed out after " + compileTimeout.toSeconds() + " s";
+          return verdictOf(results, Verdict.COMPILATION_ERROR, output);
+        }
+      }
+      artifact = builder.exportWorkspace();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CodeExecutionException("Interrupted while building the program", e);
+    } finally {
+      releaseSlots(tenantId, buildLease, buildStartedAt);
+    }
+
+    int shards = Math.min(testCases.size(), maxShards);
+    AtomicBoolean stopped = new AtomicBoolean();
+    List<Sandbox> sandboxes = new CopyOnWriteArrayList<>();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int shard = 0; shard < shards; shard++) {
+        List<Integer> indices = shardIndices(testCases.size(), shards, shard);
+        executor.submit(
+            () ->
+                runShard(
+                    tenantId,
+                    language,
+                    cache,
+                    artifact,
+                    build,
+                    request,
+                    indices,
+                    results,
+                    stopped,
+                    sandboxes));
+      }
+    }
+    return verdictOf(results, null, null);
+  }
+
+  /** Runs a shard's cases in order, in one container that is replaced after a timeout. */
+  private void runShard(
+      String tenantId,
+      Language language,
+      ToolchainCache cache,
+      byte[] artifact,
+      Build build,
+      JudgeRequest request,
+      List<Integer> indices,
+      TestCaseResult[] results,
+      AtomicBoolean stopped,
+      List<Sandbox> sandboxes) {
+    Sandbox sandbox = null;
+    String leaseId = null;
+    long startedAt = 0;
+    try {
+      leaseId = acquireSlots(tenantId, stopped);
+      if (leaseId == null) {
+        return;
+      }
+      startedAt = System.nanoTime();
+      try (CpusetAllocator.Lease cpus = cpusetAllocator.acquire(language.getDefaultCpuLimit())) {
+        for (int index : indices) {
+          if (stopped.get()) {
+            return;
+          }
+          if (sandbox == null) {
+            sandbox = new Sandbox(language, cache);
+            sandboxes.add(sandbox);
+            sandbox.start(cpus.cpus());
+            sandbox.importWorkspace(artifact);
+          }
+          TestCase testCase = request.testCases().get(index);
+          long start = System.nanoTime();
+          ExecResult run =
+              sandbox.exec(
+                  build.runCommand(),
+                  language.getDefaultTimeout(),
+                  testCase.stdin() != null
+                      ? new ByteArrayInputStream(testCase.stdin().getBytes(StandardCharsets.UTF_8))
+                      : null);
+          long timeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+          if (stopped.get()) {
+            // The case may have been killed by the shard that failed first
+            return;
+          }
+          Verdict verdict = verdictOf(run, testCase);
+          results[index] =
+              verdict == Verdict.ACCEPTED
+                  ? new TestCaseResult(index, verdict, timeMs, null, null)
+                  : new TestCaseResult(index, verdict, timeMs, run.stdoutText(), run.stderr());
+          if (verdict == Verdict.TIME_LIMIT_EXCEEDED) {
+            sandboxes.remove(sandbox);
+            sandbox.close();
+            sandbox = null;
+          }
+          if (verdict != Verdict.ACCEPTED
+              && request.stopOnFirstFailure()
+              && stopped.compareAndSet(false, true)) {
+            Sandbox own = sandbox;
+            sandboxes.stream().filter(other -> other != own).forEach(Sandbox::close);
+            return;
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      if (!stopped.get()) {
+        log.error("Judge shard failed", e);
+        for (int index : indices) {
+          if (results[index] == null) {
+            results[index] =
+                new TestCaseResult(index, Verdict.INTERNAL_ERROR, null, null, e.getMessage());
+          }
+        }
+      }
+    } finally {
+      if (sandbox != null) {
+        sandboxes.remove(sandbox);
+        sandbox.close();
+      }
+      if (leaseId != null) {
+        releaseSlots(tenantId, leaseId, startedAt);
+      }
+    }
+  }
+
+  /**
+   * Waits for one of the tenant's slots and then for an execution slot on this node. The tenant's
+   * slot comes first so that a tenant at its quota waits without holding node slots that other
+   * tenants could use.
+   *
+   * @param stopped Set when the judgement no longer needs the slots, or {@code null} if it always
+   *     does
+   * @return The lease of the tenant's slot if both slots were taken and must be released with
+   *     {@link #releaseSlots}, or {@code null} if the judgement stopped first
+   */
+  private String acquireSlots(String tenantId, AtomicBoolean stopped)
+      throws InterruptedException {
+    String leaseId;
+    while ((leaseId = tenantQuotaService.tryAcquire(tenantId)) == null) {
+      if (stopped != null && stopped.get()) {
+        return null;
+      }
+      Thread.sleep(QUOTA_RETRY_MS);
+    }
+    try {
+      concurrencyLimiter.acquire();
+      return leaseId;
+    } catch (InterruptedException | RuntimeException e) {
+      tenantQuotaService.release(tenantId, leaseId, 0);
+      throw e;
+    }
+  }
+
+  /** Charges the time the slots were held to the tenant and returns them. */
+  private void releaseSlots(String tenantId, String leaseId, long startedAt) {
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    tenantQuotaService.release(tenantId, leaseId, elapsedMillis);
+    // Without a latency, so that a whole shard is not taken as one slow execution
+    concurrencyLimiter.release();
+  }
+
+  /** The verdict of one finished run. */
+  static Verdict verdictOf(ExecResult run, TestCase testCase) {
+    if (!run.completed()) {
+      return Verdict.TIME_LIMIT_EXCEEDED;
+    }
+    if (run.exitCode() != 0) {
+      return Verdict.RUNTIME_ERROR;
+    }
+    return matches(testCase.expectedOutput(), run.stdoutText())
+        ? Verdict.ACCEPTED
+        : Verdict.WRONG_ANSWER;
+  }
+
+  /**
+   * Builds the judgement from the per-case results; cases without a result were skipped.
+   *
+   * @param results The result of each case, null for cases that did not run
+   * @param verdict The overall verdict if the cases were not run at all, otherwise null to take
+   *     the verdict of the first case that was not accepted
+   * @param message The message that goes with a verdict given for the whole submission
+   */
+  static JudgeResponse verdictOf(TestCaseResult[] results, Verdict verdict, String message) {
+    List<TestCaseResult> testCases = new ArrayList<>(results.length);
+    int passed = 0;
+    for (int index = 0; index < results.length; index++) {
+      TestCaseResult result = results[index];
+      if (result == null) {
+        result = new TestCaseResult(index, Verdict.SKIPPED, null, null, null);
+      }
+      if (result.verdict() == Verdict.ACCEPTED) {
+        passed++;
+      } else if (verdict == null && result.verdict() != Verdict.SKIPPED) {
+        verdict = result.verdict();
+      }
+      testCases.add(result);
+    }
+    return new JudgeResponse(
+        verdict != null ? verdict : Verdict.ACCEPTED, passed, results.length, message, testCases);
+  }
+
+  /** Compares outputs ignoring trailing whitespace on each line and at the end. */
+  static boolean matches(String expected, String actual) {
+    return normalize(expected).equals(normalize(actual));
+  }
+
+  private static String normalize(String output) {
+    return output == null ? "" : output.replaceAll("[ \\t\\r]+\\n", "\n").stripTrailing();
+  }
+
+  /** The cases of one shard: every {@code shards}-th case, starting at {@code shard}. */
+  static List<Integer> shardIndices(int cases, int shards, int shard) {
+    List<Integer> indices = new ArrayList<>();
+    for (int index = shard; index < cases; index += shards) {
+      indices.add(index);
+    }
+    return indices;
+  }
+
+  /** Java classes must live in a file named after them once they are compiled with javac. */
+  private String sourceFileName(Language language, byte[] code) {
+    if ("java".equals(language.getName())) {
+      Matcher matcher = JAVA_PUBLIC_CLASS.matcher(new String(code, StandardCharsets.UTF_8));
+      return (matcher.find() ? matcher.group(1) : "Main") + ".java";
+    }
+    return "main" + language.getFileExtension();
+  }
+
+  /** The one-off build command, if any, and the command that runs each case on its output. */
+  private Build build(Language language, String fileName, ToolchainCache cache) {
+    String seed = cache != null ? cache.spec().seedCommand() + " && " : "";
+    String baseName = fileName.substring(0, fileName.lastIndexOf('.'));
+    return switch (language.getName()) {
+      case "python" -> new Build("python -m py_compile " + fileName, "python " + fileName);
+      case "javascript" -> new Build("node --check " + fileName, "node " + fileName);
+      case "java" ->
+          new Build(
+              "javac -d . " + fileName,
+              language.getExecuteCommand().replace("{fileName}", "-cp . " + baseName));
+      case "rust" -> new Build("rustc -O -o main " + fileName, "./main");
+      case "go" ->
+          new Build(seed + "go build -o main " + fileName, "./main");
+      case "csharp" ->
+          new Build(
+              (cache != null
+                      ? seed
+                      : "mkdir -p /tmp/app && cd /tmp/app && dotnet new console --force && ")
+                  + "cp "
+                  + ScratchSpace.WORKSPACE
+                  + "/"
+                  + fileName
+                  + " /tmp/app/Program.cs && cd /tmp/app && dotnet build -c Release -o "
+                  + ScratchSpace.WORKSPACE
+                  + "/out",
+              "dotnet out/app.dll");
+      default ->
+          new Build(
+              language.getCompileCommand() != null
+                  ? language.getCompileCommand().replace("{fileName}", fileName)
+                  : null,
+              language
+                  .getExecuteCommand()
+                  .replace("{fileName}", fileName)
+                  .replace("{fileNameWithoutExtension}", baseName));
+    };
+  }
+
+  private record Build(String compileCommand, String runCommand) {}
+
+  /**
+   * A container with the language's image and limits and an empty, memory-backed workspace.
+   * Files go in and out through {@code exec}, so nothing is shared with the host. Closing it
+   * removes the container, killing whatever runs in it; it may be closed more than once and from
+   * other threads.
+   */
+  private final class Sandbox implements AutoCloseable {
+
+    private final Language language;
+    private final ToolchainCache cache;
+    private String containerId;
+    private boolean closed;
+
+    private Sandbox(Language language, ToolchainCache cache) {
+      this.language = language;
+      this.cache = cache;
+    }
+
+    void start(String cpusetCpus) {
+      List<Bind> binds = new ArrayList<>();
+      if (cache != null) {
+        binds.add(
+            new Bind(
+                cache.volumeName(), new Volume(ToolchainCacheSpec.MOUNT_PATH), AccessMode.ro));
+      }
+      try {
+        String id =
+            dockerClient
+                .createContainerCmd(language.getDockerImage())
+                .withName("cortex-judge-" + UUID.randomUUID())
+                .withHostConfig(
+                    new HostConfig()
+                        .withMemory(language.getDefaultMemoryLimit())
+                        .withCpuCount(language.getDefaultCpuLimit())
+                        .withCpusetCpus(cpusetCpus)
+                        .withTmpFs(scratchSpace.mounts(language))
+                        .withBinds(binds))
+                .withEnv(cache != null ? cache.spec().env() : List.of())
+                .withCmd("tail", "-f", "/dev/null")
+                .withWorkingDir(ScratchSpace.WORKSPACE)
+                .exec()
+                .getId();
+        synchronized (this) {
+          containerId = id;
+          if (closed) {
+            remove();
+            return;
+          }
+        }
+        dockerClient.startContainerCmd(id).exec();
+      } catch (Exception e) {
+        throw new ContainerCreationException(
+            "Failed to create or start judge container: " + e.getMessage(), e);
+      }
+    }
+
+    void write(String fileName, byte[] content) throws InterruptedException {
+      ExecResult result =
+          exec("cat > " + fileName, TRANSFER_TIMEOUT_MS, new ByteArrayInputStream(content));
+      check(result, "write the program");
+    }
+
+    byte[] exportWorkspace() throws InterruptedException {
+      ExecResult result = exec("tar -cf - .", TRANSFER_TIMEOUT_MS, null);
+      check(result, "export the build output");
+      return result.stdout();
+    }
+
+    void importWorkspace(byte[] archive) throws InterruptedException {
+      ExecResult result =
+          exec("tar -xf -", TRANSFER_TIMEOUT_MS, new ByteArrayInputStream(archive));
+      check(result, "import the build output");
+    }
+
+    ExecResult exec(String command, long timeoutMillis, InputStream stdin)
+        throws InterruptedException {
+      return ContainerExec.run(dockerClient, containerId, command, timeoutMillis, stdin);
+    }
+
+    private void check(ExecResult result, String action) {
+      if (!result.succeeded()) {
+        throw new ContainerCreationException(
+            "Failed to " + action + " in the judge container: " + result.stderr());
+      }
+    }
+
+    @Override
+    public synchronized void close() {
+      if (!closed) {
+        closed = true;
+        remove();
+      }
+    }
+
+    private void remove() {
+      if (containerId != null) {
+        try {
+          dockerClient.removeContainerCmd(containerId).withForce(true).exec();
+        } catch (Exception e) {
+          log.warn("Failed to remove judge container {}: {}", containerId, e.getMessage());
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.common.TenantContext;
+import com.cortex.engine.config.RabbitMQConfig;
+import com.cortex.engine.controllers.dto.JudgeRequest;
+import com.cortex.engine.controllers.dto.JudgeResponse;
+import com.cortex.engine.controllers.dto.JudgeTask;
+import com.cortex.engine.exceptions.CodeExecutionException;
+import com.cortex.engine.exceptions.UnsupportedLanguageException;
+import com.cortex.engine.messaging.TaskPublisher;
+import com.cortex.engine.services.IAdmissionControlService;
+import com.cortex.engine.services.IJudgeService;
+import com.cortex.engine.services.ILanguageCatalogService;
+import com.cortex.engine.services.ITaskPayloadService;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Submission side of judging: validates judge requests, hands them to the workers and serves
+ * their results from Redis. Judging itself happens in {@link JudgeExecutionServiceImpl}.
+ *
+ * <p>Test cases go to the payload store and travel through the broker as a reference, so a large
+ * suite does not slow the queue down and a suite that many submissions share is stored once.
+ * Judge submissions go through the same admission control as executions, and count in their
+ * language's backlog until judged.
+ */
+@Service
+public class JudgeServiceImpl implements IJudgeService {
+
+  static final String JUDGE_KEY_PREFIX = "judge:";
+
+  private final RedisTemplate<String, JudgeResponse> judgeRedisTemplate;
+  private final ILanguageCatalogService languageCatalogService;
+  private final TaskPublisher taskPublisher;
+  private final ITaskPayloadService taskPayloadService;
+  private final IAdmissionControlService admissionControlService;
+  private final int maxTestCases;
+
+  public JudgeServiceImpl(
+      RedisTemplate<String, JudgeResponse> judgeRedisTemplate,
+      ILanguageCatalogService languageCatalogService,
+      TaskPublisher taskPublisher,
+      ITaskPayloadService taskPayloadService,
+      IAdmissionControlService admissionControlService,
+      @Value("${engine.judge.max-test-cases:1000}") int maxTestCases) {
+    this.judgeRedisTemplate = judgeRedisTemplate;
+    this.languageCatalogService = languageCatalogService;
+    this.taskPublisher = taskPublisher;
+    this.taskPayloadService = taskPayloadService;
+    this.admissionControlService = admissionControlService;
+    this.maxTestCases = maxTestCases;
+  }
+
+  @Override
+  public String submit(JudgeRequest request)
+      throws UnsupportedLanguageException, CodeExecutionException {
+    if (!languageCatalogService.isSupported(request.language())) {
+      throw new UnsupportedLanguageException("Unsupported language: " + request.language());
+    }
+    if (request.testCases().size() > maxTestCases) {
+      throw new CodeExecutionException(
+          "A submission can have at most " + maxTestCases + " test cases");
+    }
+
+    admissionControlService.admit(request.language());
+
+    JudgeTask task = new JudgeTask();
+    task.setTaskId(UUID.randomUUID().toString());
+    task.setTenantId(TenantContext.getTenantId());
+    task.setUserId(TenantContext.getUserId());
+    task.setJudgeRequest(request);
+    taskPayloadService.offload(task);
+    admissionControlService.recordAdmitted(request.language(), task.getTaskId());
+
+    try {
+      taskPublisher.publish(RabbitMQConfig.JUDGE_QUEUE, task.getTaskId(), task).get();
+    } catch (ExecutionException e) {
+      admissionControlService.recordAbandoned(request.language(), task.getTaskId());
+      throw e.getCause() instanceof CodeExecutionException cause
+          ? cause
+          : new CodeExecutionException("Failed to publish judge task", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CodeExecutionException("Interrupted while publishing judge task", e);
+    }
+    return task.getTaskId();
+  }
+
+  @Override
+  public JudgeResponse getResult(String taskId) throws CodeExecutionException {
+    JudgeResponse result = judgeRedisTemplate.opsForValue().get(JUDGE_KEY_PREFIX + taskId);
+    if (result == null) {
+      throw new CodeExecutionException("Judge result not available yet");
+    }
+    return result;
+  }
+}
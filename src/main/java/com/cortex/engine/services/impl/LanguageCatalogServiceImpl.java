@@ -0,0 +1,48 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.services.ILanguageCatalogService;
+import java.util.Collection;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/** Language catalog shared between API and worker instances through a Redis set. */
+@Service
+@RequiredArgsConstructor
+public class LanguageCatalogServiceImpl implements ILanguageCatalogService {
+
+  private static final String CATALOG_KEY = "languages";
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+  @Override
+  public boolean isSupported(String name) {
+    return Boolean.TRUE.equals(stringRedisTemplate.opsForSet().isMember(CATALOG_KEY, name));
+  }
+
+  @Override
+  public Mono<Boolean> isSupportedReactive(String name) {
+    return reactiveStringRedisTemplate
+        .opsForSet()
+        .isMember(CATALOG_KEY, name)
+        .map(Boolean.TRUE::equals)
+        .defaultIfEmpty(false);
+  }
+
+  @Override
+  public Set<String> getSupported() {
+    Set<String> names = stringRedisTemplate.opsForSet().members(CATALOG_KEY);
+    return names != null ? names : Set.of();
+  }
+
+  @Override
+  public void publish(Collection<String> names) {
+    if (!names.isEmpty()) {
+      stringRedisTemplate.opsForSet().add(CATALOG_KEY, names.toArray(String[]::new));
+    }
+  }
+}
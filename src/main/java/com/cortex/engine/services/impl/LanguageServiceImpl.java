@@ -2,18 +2,25 @@ package com.cortex.engine.services.impl;
 
 import com.cortex.engine.entities.Language;
 import com.cortex.engine.repositories.LanguageRepository;
+import com.cortex.engine.services.ILanguageCatalogService;
 import com.cortex.engine.services.ILanguageService;
 import jakarta.transaction.Transactional;
 import java.util.List;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 @Service
+@Profile("!api")
 @RequiredArgsConstructor
+@Slf4j
 public class LanguageServiceImpl implements ILanguageService {
 
   private final LanguageRepository languageRepository;
+  private final ILanguageCatalogService languageCatalogService;
 
   @Override
   public List<Language> getAllLanguages() {
@@ -28,6 +35,18 @@ public class LanguageServiceImpl implements ILanguageService {
   @Override
   @Transactional
   public Language saveLanguage(Language language) {
-    return languageRepository.save(language);
+    Language saved = languageRepository.save(language);
+    languageCatalogService.publish(List.of(saved.getName()));
+    return saved;
+  }
+
+  @Override
+  @Scheduled(fixedDelayString = "${engine.language-catalog.publish-interval-ms:60000}")
+  public void publishCatalog() {
+    try {
+      languageCatalogService.publish(getAllLanguages().stream().map(Language::getName).toList());
+    } catch (Exception e) {
+      log.error("Failed to publish language catalog", e);
+    }
   }
 }
@@ -0,0 +1,200 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.controllers.dto.ExecutionResponse;
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.repositories.LanguageRepository;
+import com.cortex.engine.services.ILanguageWarmUpService;
+import com.cortex.engine.services.ITaskExecutionService;
+import com.cortex.engine.services.IToolchainCacheService;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.PullImageResultCallback;
+import com.github.dockerjava.api.exception.NotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Prepares a freshly started worker so that the first real submission of each language does not
+ * pay for pulling the image, building toolchain caches or reading the runtime from a cold disk.
+ *
+ * <p>Missing images are pulled in parallel, toolchain caches are refreshed once every image is
+ * present, and a trivial program is then run per language through the regular execution path.
+ * Until its warm-up finishes, a language is reported as not ready and workers hand its tasks back
+ * to the queue for other nodes.
+ *
+ * @author Ángel Cuervo
+ * @version 1.1
+ * @since 2024-08-24
+ */
+@Service
+@Profile("!api")
+@RequiredArgsConstructor
+@Slf4j
+public class LanguageWarmUpServiceImpl implements ILanguageWarmUpService {
+
+  private static final Map<String, String> WARM_UP_PROGRAMS =
+      Map.of(
+          "python", "print(\"ok\")\n",
+          "java",
+              "class Main { public static void main(String[] args) {"
+                  + " System.out.println(\"ok\"); } }\n",
+          "javascript", "console.log(\"ok\");\n",
+          "rust", "fn main() { println!(\"ok\"); }\n",
+          "csharp", "Console.WriteLine(\"ok\");\n",
+          "go", "package main\n\nimport \"fmt\"\n\nfunc main() { fmt.Println(\"ok\") }\n");
+
+  private final DockerClient dockerClient;
+  private final LanguageRepository languageRepository;
+  private final IToolchainCacheService toolchainCacheService;
+  private final ITaskExecutionService taskExecutionService;
+
+  /** Released once the set of languages to warm up is known. */
+  private final CountDownLatch planned = new CountDownLatch(1);
+
+  private final Map<String, CountDownLatch> readiness = new ConcurrentHashMap<>();
+
+  @Value("${engine.warm-up.pull-timeout-minutes:15}")
+  private long pullTimeoutMinutes;
+
+  @Override
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUpAll() {
+    List<Language> languages = new ArrayList<>();
+    languageRepository.findAll().forEach(languages::add);
+    for (Language language : languages) {
+      readiness.putIfAbsent(language.getName(), new CountDownLatch(1));
+    }
+    planned.countDown();
+    Thread.ofVirtual().name("language-warm-up").start(() -> prepare(languages));
+  }
+
+  @Override
+  public boolean awaitReady(String language, Duration timeout) throws InterruptedException {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    if (!planned.await(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+      return false;
+    }
+    CountDownLatch ready = readiness.get(language);
+    // Languages added after startup were never warmed up and run cold, as before
+    return ready == null
+        || ready.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public Map<String, Boolean> getReadiness() {
+    Map<String, Boolean> result = new TreeMap<>();
+    readiness.forEach((language, ready) -> result.put(language, ready.getCount() == 0));
+    return result;
+  }
+
+  private void prepare(List<Language> languages) {
+    long startedAt = System.nanoTime();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      Set<String> images = new LinkedHashSet<>();
+      languages.forEach(language -> images.add(language.getDockerImage()));
+      List<Future<?>> pulls = new ArrayList<>();
+      for (String image : images) {
+        pulls.add(executor.submit(() -> pullIfMissing(image)));
+      }
+      for (Future<?> pull : pulls) {
+        awaitQuietly(pull);
+      }
+
+      // Caches are built from the images, which are only now guaranteed to be present
+      toolchainCacheService.refreshCaches();
+
+      for (Language language : languages) {
+        executor.submit(() -> warmUp(language));
+      }
+    } catch (RuntimeException e) {
+      log.error("Language warm-up failed, the remaining languages will run cold", e);
+    } finally {
+      // Whatever failed above, no language may stay not ready and keep bouncing its tasks
+      languages.forEach(language -> readiness.get(language.getName()).countDown());
+    }
+    log.info(
+        "Warmed up {} languages in {} ms",
+        languages.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+  }
+
+  private void pullIfMissing(String image) {
+    try {
+      dockerClient.inspectImageCmd(image).exec();
+      return;
+    } catch (NotFoundException e) {
+      log.info("Image {} is missing, pulling it", image);
+    }
+    try {
+      boolean completed =
+          dockerClient
+              .pullImageCmd(image)
+              .exec(new PullImageResultCallback())
+              .awaitCompletion(pullTimeoutMinutes, TimeUnit.MINUTES);
+      if (!completed) {
+        log.warn("Pulling image {} did not finish within {} minutes", image, pullTimeoutMinutes);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      log.error("Failed to pull image {}", image, e);
+    }
+  }
+
+  private void warmUp(Language language) {
+    long startedAt = System.nanoTime();
+    try {
+      String program = WARM_UP_PROGRAMS.get(language.getName());
+      if (program != null) {
+        ExecutionResponse response =
+            taskExecutionService.warmUp(language, program.getBytes(StandardCharsets.UTF_8));
+        if (response.statusId() != 3) {
+          log.warn(
+              "Warm-up run for {} ended with status {}: {}",
+              language.getName(),
+              response.statusId(),
+              response.stderr());
+        }
+      }
+    } catch (Exception e) {
+      log.error("Warm-up run for {} failed", language.getName(), e);
+    } finally {
+      // Ready even after a failure: the node is as prepared as it can get, and holding the
+      // language back would only bounce its tasks between nodes
+      readiness.get(language.getName()).countDown();
+      log.info(
+          "Language {} ready after {} ms",
+          language.getName(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+  }
+
+  private void awaitQuietly(Future<?> future) {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      // Already logged by the task itself
+    }
+  }
+}
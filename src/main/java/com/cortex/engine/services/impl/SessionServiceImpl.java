@@ -0,0 +1,530 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.common.TenantContext;
+import com.cortex.engine.controllers.dto.ExecutionResponse;
+import com.cortex.engine.controllers.dto.SessionResponse;
+import com.cortex.engine.controllers.dto.SessionRunRequest;
+import com.cortex.engine.docker.ContainerExec;
+import com.cortex.engine.docker.ExecResult;
+import com.cortex.engine.docker.ScratchSpace;
+import com.cortex.engine.docker.ToolchainCache;
+import com.cortex.engine.docker.ToolchainCacheSpec;
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.exceptions.CodeExecutionException;
+import com.cortex.engine.exceptions.ContainerCreationException;
+import com.cortex.engine.exceptions.ExecutionTimeoutException;
+import com.cortex.engine.exceptions.FileOperationException;
+import com.cortex.engine.exceptions.PayloadTooLargeException;
+import com.cortex.engine.exceptions.SessionLimitExceededException;
+import com.cortex.engine.exceptions.SessionNotFoundException;
+import com.cortex.engine.exceptions.SubmissionRejectedException;
+import com.cortex.engine.exceptions.UnsupportedLanguageException;
+import com.cortex.engine.repositories.LanguageRepository;
+import com.cortex.engine.scheduling.AdaptiveConcurrencyLimiter;
+import com.cortex.engine.scheduling.CpusetAllocator;
+import com.cortex.engine.services.ISessionService;
+import com.cortex.engine.services.ITenantQuotaService;
+import com.cortex.engine.services.IToolchainCacheService;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.model.AccessMode;
+import com.github.dockerjava.api.model.Bind;
+import com.github.dockerjava.api.model.HostConfig;
+import com.github.dockerjava.api.model.Volume;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Interactive sessions that keep a container and workspace alive across runs.
+ *
+ * <p>Creating a session starts the language's container once and runs its one-off toolchain
+ * setup, such as scaffolding the .NET project or seeding the Go build cache. Each run then only
+ * writes the files that changed and executes the entry file, so builds are incremental and no
+ * container is created. Each run takes the same slots as any other execution, one of the tenant's
+ * slots and then one of the node's from {@link AdaptiveConcurrencyLimiter}, and cores from {@link
+ * CpusetAllocator}, all for the duration of the run only, so idle sessions do not hold any. A run
+ * whose tenant has no slot free within {@code engine.sessions.slot-wait} is rejected. Processes a
+ * run leaves behind are killed before its cores are returned, so they cannot keep running on cores
+ * handed to another execution.
+ *
+ * <p>The workspace is a tmpfs mount inside the container, capped at {@code
+ * engine.sessions.max-workspace-bytes}, and files are written and deleted through {@code exec}.
+ * Paths therefore resolve inside the container: a symbolic link left in the workspace by a run
+ * cannot point a later write at the host.
+ *
+ * <p>Sessions are served by full-role nodes and by workers that also have the {@code sessions}
+ * profile, since they need both Docker and HTTP endpoints. They live on the node that created
+ * them, so deployments with several such nodes need routing that is sticky on the session ID. The
+ * number of sessions per node is bounded; when it is reached, the least recently used idle session
+ * is evicted. Sessions idle for longer than the configured TTL, or older than the maximum lifetime,
+ * are closed periodically. A run that times out closes its session, since its files may have been
+ * left half written.
+ *
+ * @author Ángel Cuervo
+ * @version 1.2
+ * @since 2024-08-25
+ */
+@Service
+@Profile("!api & (!worker | sessions)")
+@Slf4j
+public class SessionServiceImpl implements ISessionService {
+
+  private static final Pattern SAFE_PATH = Pattern.compile("[A-Za-z0-9_][A-Za-z0-9._/-]*");
+  private static final long SETUP_TIMEOUT_MINUTES = 5;
+  private static final long FILE_TIMEOUT_MILLIS = 30_000;
+  private static final long QUOTA_RETRY_MS = 100;
+  private static final Duration QUOTA_RETRY_AFTER = Duration.ofSeconds(5);
+
+  private final DockerClient dockerClient;
+  private final LanguageRepository languageRepository;
+  private final IToolchainCacheService toolchainCacheService;
+  private final CpusetAllocator cpusetAllocator;
+  private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+  private final ITenantQuotaService tenantQuotaService;
+  private final ScratchSpace scratchSpace;
+  private final int maxSessions;
+  private final Duration idleTtl;
+  private final Duration maxLifetime;
+  private final long maxWorkspaceBytes;
+  private final Duration slotWait;
+
+  /** Sessions in access order, so iteration starts with the least recently used. */
+  private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+
+  private int creating;
+
+  public SessionServiceImpl(
+      DockerClient dockerClient,
+      LanguageRepository languageRepository,
+      IToolchainCacheService toolchainCacheService,
+      CpusetAllocator cpusetAllocator,
+      AdaptiveConcurrencyLimiter concurrencyLimiter,
+      ITenantQuotaService tenantQuotaService,
+      ScratchSpace scratchSpace,
+      @Value("${engine.sessions.max-per-node:16}") int maxSessions,
+      @Value("${engine.sessions.idle-ttl:10m}") Duration idleTtl,
+      @Value("${engine.sessions.max-lifetime:2h}") Duration maxLifetime,
+      @Value("${engine.sessions.max-workspace-bytes:16777216}") long maxWorkspaceBytes,
+      @Value("${engine.sessions.slot-wait:30s}") Duration slotWait) {
+    this.dockerClient = dockerClient;
+    this.languageRepository = languageRepository;
+    this.toolchainCacheService = toolchainCacheService;
+    this.cpusetAllocator = cpusetAllocator;
+    this.concurrencyLimiter = concurrencyLimiter;
+    this.tenantQuotaService = tenantQuotaService;
+    this.scratchSpace = scratchSpace;
+    this.maxSessions = maxSessions;
+    this.idleTtl = idleTtl;
+    this.maxLifetime = maxLifetime;
+    this.maxWorkspaceBytes = maxWorkspaceBytes;
+    this.slotWait = slotWait;
+  }
+
+  @Override
+  public SessionResponse createSession(String languageName) {
+    Language language =
+        languageRepository
+            .findByName(languageName)
+            .orElseThrow(
+                () -> new UnsupportedLanguageException("Unsupported language: " + languageName));
+
+    reserveSlot();
+    String containerId = null;
+    try {
+      ToolchainCache cache = toolchainCacheService.getCache(language).orElse(null);
+      containerId = createContainer(language, cache);
+
+      String setup = setupCommand(language, cache);
+      if (setup != null) {
+        ExecResult result =
+            exec(containerId, setup, TimeUnit.MINUTES.toMillis(SETUP_TIMEOUT_MINUTES), null);
+        if (!result.succeeded()) {
+          throw new ContainerCreationException(
+              "Session setup failed for " + languageName + ": " + result.stderr());
+        }
+      }
+
+      Session session =
+          new Session(
+              UUID.randomUUID().toString(),
+              TenantContext.getTenantId(),
+              language,
+              containerId);
+      synchronized (this) {
+        creating--;
+        sessions.put(session.id, session);
+      }
+      log.info("Session {} started for {} in container {}", session.id, languageName, containerId);
+      return new SessionResponse(session.id, languageName, idleTtl.toSeconds());
+    } catch (Exception e) {
+      synchronized (this) {
+        creating--;
+      }
+      destroy(containerId);
+      if (e instanceof ContainerCreationException creationException) {
+        throw creationException;
+      }
+      throw new ContainerCreationException("Failed to create session: " + e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public ExecutionResponse run(String sessionId, SessionRunRequest request)
+      throws CodeExecutionException {
+    Session session = find(sessionId);
+    session.lock.lock();
+    try {
+      if (session.closed) {
+        throw new SessionNotFoundException("Session " + sessionId + " was closed");
+      }
+      applyChanges(session, request);
+
+      String command =
+          runCommand(session.language)
+              .replace("{fileName}", checkPath(request.entryFile()));
+
+      ExecResult result;
+      String leaseId = acquireSlots(session.tenantId);
+      long startedAt = System.nanoTime();
+      try (CpusetAllocator.Lease cpus =
+          cpusetAllocator.acquire(session.language.getDefaultCpuLimit())) {
+        if (cpus.cpus() != null) {
+          dockerClient.updateContainerCmd(session.containerId).withCpusetCpus(cpus.cpus()).exec();
+        }
+        try {
+          result =
+              exec(
+                  session.containerId,
+                  command,
+                  session.language.getDefaultTimeout(),
+                  request.stdin() != null ? new ByteArrayInputStream(request.stdin()) : null);
+        } finally {
+          if (!reap(session)) {
+            // Leftovers may still be running and must be gone before the cores are handed back
+            discard(session);
+          }
+        }
+      } finally {
+        releaseSlots(session.tenantId, leaseId, startedAt);
+      }
+      session.lastUsedAt = Instant.now();
+
+      if (!result.completed()) {
+        discard(session);
+        throw new ExecutionTimeoutException("Code execution timed out; the session was closed");
+      }
+      boolean encode = request.encodeOutputToBase64();
+      return new ExecutionResponse(
+          encode(result.stdoutText(), encode),
+          result.exitCode() == 0 ? 3 : 4,
+          result.stderr().isEmpty() ? null : encode(result.stderr(), encode));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CodeExecutionException("Interrupted while running in session " + sessionId, e);
+    } finally {
+      session.lock.unlock();
+    }
+  }
+
+  @Override
+  public void closeSession(String sessionId) {
+    Session session;
+    synchronized (this) {
+      // Another tenant's session must stay open, so it is only removed once found to be ours
+      session = find(sessionId);
+      sessions.remove(sessionId);
+    }
+    close(session);
+  }
+
+  @Override
+  @Scheduled(fixedDelayString = "${engine.sessions.sweep-interval-ms:30000}")
+  public void evictExpired() {
+    Instant idleCutoff = Instant.now().minus(idleTtl);
+    Instant lifetimeCutoff = Instant.now().minus(maxLifetime);
+    List<Session> expired = new ArrayList<>();
+    synchronized (this) {
+      Iterator<Session> iterator = sessions.values().iterator();
+      while (iterator.hasNext()) {
+        Session session = iterator.next();
+        boolean idle = session.lastUsedAt.isBefore(idleCutoff) && !session.lock.isLocked();
+        if (idle || session.createdAt.isBefore(lifetimeCutoff)) {
+          iterator.remove();
+          expired.add(session);
+        }
+      }
+    }
+    for (Session session : expired) {
+      log.info("Evicting expired session {}", session.id);
+      close(session);
+    }
+  }
+
+  @PreDestroy
+  public void closeAll() {
+    List<Session> all;
+    synchronized (this) {
+      all = new ArrayList<>(sessions.values());
+      sessions.clear();
+    }
+    all.forEach(this::close);
+  }
+
+  /** Makes room for one more session, evicting the least recently used idle one if needed. */
+  private void reserveSlot() {
+    Session evicted = null;
+    synchronized (this) {
+      if (sessions.size() + creating >= maxSessions) {
+        Iterator<Session> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+          Session candidate = iterator.next();
+          if (!candidate.lock.isLocked()) {
+            iterator.remove();
+            evicted = candidate;
+            break;
+          }
+        }
+        if (evicted == null) {
+          throw new SessionLimitExceededException(
+              "All " + maxSessions + " sessions on this node are running");
+        }
+      }
+      creating++;
+    }
+    if (evicted != null) {
+      log.info("Evicting least recently used session {}", evicted.id);
+      close(evicted);
+    }
+  }
+
+  /**
+   * Waits for one of the tenant's slots and then for an execution slot on this node, in the same
+   * order as judgements so that a tenant at its quota does not hold node slots meanwhile. Only the
+   * wait for the tenant's slot is bounded, as it is the one a single tenant can make unbounded.
+   *
+   * @return The lease of the tenant's slot, to be released with {@link #releaseSlots}
+   */
+  private String acquireSlots(String tenantId) throws InterruptedException {
+    long deadline = System.nanoTime() + slotWait.toNanos();
+    String leaseId;
+    while ((leaseId = tenantQuotaService.tryAcquire(tenantId)) == null) {
+      if (System.nanoTime() - deadline >= 0) {
+        throw new SubmissionRejectedException(
+            "Tenant " + tenantId + " has no execution slot free", QUOTA_RETRY_AFTER);
+      }
+      Thread.sleep(QUOTA_RETRY_MS);
+    }
+    try {
+      concurrencyLimiter.acquire();
+      return leaseId;
+    } catch (InterruptedException | RuntimeException e) {
+      tenantQuotaService.release(tenantId, leaseId, 0);
+      throw e;
+    }
+  }
+
+  /** Charges the time the slots were held to the tenant and returns them. */
+  private void releaseSlots(String tenantId, String leaseId, long startedAt) {
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    tenantQuotaService.release(tenantId, leaseId, elapsedMillis);
+    concurrencyLimiter.release();
+  }
+
+  /**
+   * Kills every process of the session except the container's idle {@code tail}, which is PID 1
+   * and therefore spared by {@code kill -1}.
+   *
+   * @return Whether the processes are known to be gone; if not, the session must be closed before
+   *     anyone relies on its cores being free
+   */
+  private boolean reap(Session session) {
+    try {
+      // kill exits with an error when there was nothing to kill, so only completion matters
+      return exec(session.containerId, "kill -9 -1", FILE_TIMEOUT_MILLIS, null).completed();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (Exception e) {
+      log.warn("Failed to stop leftover processes in session {}: {}", session.id, e.getMessage());
+      return false;
+    }
+  }
+
+  private synchronized Session find(String sessionId) {
+    // get() also moves the session to the most recently used end
+    Session session = sessions.get(sessionId);
+    if (session == null || !TenantContext.getTenantId().equals(session.tenantId)) {
+      throw new SessionNotFoundException("Session " + sessionId + " does not exist");
+    }
+    return session;
+  }
+
+  private void applyChanges(Session session, SessionRunRequest request)
+      throws InterruptedException {
+    request.deletedFiles().forEach(this::checkPath);
+    request.files().keySet().forEach(this::checkPath);
+
+    if (!request.deletedFiles().isEmpty()) {
+      String command = "rm -f -- " + String.join(" ", request.deletedFiles());
+      checkFileOperation(exec(session.containerId, command, FILE_TIMEOUT_MILLIS, null), command);
+    }
+    for (Map.Entry<String, byte[]> file : request.files().entrySet()) {
+      String path = file.getKey();
+      String command = "mkdir -p \"$(dirname " + path + ")\" && cat > " + path;
+      ExecResult result =
+          exec(
+              session.containerId,
+              command,
+              FILE_TIMEOUT_MILLIS,
+              new ByteArrayInputStream(file.getValue()));
+      checkFileOperation(result, command);
+    }
+  }
+
+  private void checkFileOperation(ExecResult result, String command) {
+    if (result.succeeded()) {
+      return;
+    }
+    if (result.stderr().contains("No space left on device")) {
+      throw new PayloadTooLargeException(
+          "Session workspace exceeds " + maxWorkspaceBytes + " bytes");
+    }
+    throw new FileOperationException(
+        "Error in file operation '" + command + "': " + result.stderr());
+  }
+
+  /** Rejects paths that could escape the workspace or break out of the shell command. */
+  private String checkPath(String path) {
+    if (path == null
+        || !SAFE_PATH.matcher(path).matches()
+        || path.contains("..")) {
+      throw new IllegalArgumentException("Invalid workspace path: " + path);
+    }
+    return path;
+  }
+
+  private String createContainer(Language language, ToolchainCache cache) {
+    List<Bind> binds = new ArrayList<>();
+    if (cache != null) {
+      binds.add(
+          new Bind(cache.volumeName(), new Volume(ToolchainCacheSpec.MOUNT_PATH), AccessMode.ro));
+    }
+    String containerId =
+        dockerClient
+            .createContainerCmd(language.getDockerImage())
+            .withName("cortex-session-" + UUID.randomUUID())
+            .withHostConfig(
+                new HostConfig()
+                    .withMemory(language.getDefaultMemoryLimit())
+                    .withCpuCount(language.getDefaultCpuLimit())
+                    .withTmpFs(scratchSpace.mounts(language, maxWorkspaceBytes))
+                    .withBinds(binds))
+            .withEnv(cache != null ? cache.spec().env() : List.of())
+            .withCmd("tail", "-f", "/dev/null")
+            .withWorkingDir(ScratchSpace.WORKSPACE)
+            .exec()
+            .getId();
+    dockerClient.startContainerCmd(containerId).exec();
+    return containerId;
+  }
+
+  /** One-off toolchain preparation that plain executions repeat on every run. */
+  private String setupCommand(Language language, ToolchainCache cache) {
+    if (cache != null) {
+      return cache.spec().seedCommand();
+    }
+    return "csharp".equals(language.getName())
+        ? "mkdir -p /tmp/app && cd /tmp/app && dotnet new console --force && rm -f Program.cs"
+        : null;
+  }
+
+  /**
+   * The per-run command; it relies on the setup having run once in the same container. C# builds
+   * every source file of the workspace, copied with their timestamps so that unchanged ones do not
+   * defeat the incremental build, and runs from the workspace so relative paths still resolve.
+   */
+  private String runCommand(Language language) {
+    return switch (language.getName()) {
+      case "csharp" ->
+          "rm -rf /tmp/app/src && mkdir /tmp/app/src"
+              + " && find . -name '*.cs' -exec cp -p --parents {} /tmp/app/src \\;"
+              + " && dotnet run --project /tmp/app";
+      case "go" -> "go run {fileName}";
+      case "rust" -> "rustc -o /tmp/main {fileName} && /tmp/main";
+      default -> language.getExecuteCommand();
+    };
+  }
+
+  private ExecResult exec(
+      String containerId, String command, long timeoutMillis, InputStream stdin)
+      throws InterruptedException {
+    return ContainerExec.run(dockerClient, containerId, command, timeoutMillis, stdin);
+  }
+
+  /** Closes a session found to be unusable while it is being run. */
+  private void discard(Session session) {
+    synchronized (this) {
+      sessions.remove(session.id, session);
+    }
+    if (!session.closed) {
+      close(session);
+    }
+  }
+
+  private void close(Session session) {
+    session.closed = true;
+    destroy(session.containerId);
+  }
+
+  private void destroy(String containerId) {
+    if (containerId != null) {
+      try {
+        dockerClient.removeContainerCmd(containerId).withForce(true).exec();
+      } catch (Exception e) {
+        log.warn("Failed to remove session container {}: {}", containerId, e.getMessage());
+      }
+    }
+  }
+
+  private String encode(String output, boolean shouldEncode) {
+    return shouldEncode
+        ? Base64.getEncoder().encodeToString(output.getBytes(StandardCharsets.UTF_8))
+        : output;
+  }
+
+  private static final class Session {
+    private final String id;
+    private final String tenantId;
+    private final Language language;
+    private final String containerId;
+    private final Instant createdAt = Instant.now();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Instant lastUsedAt = createdAt;
+    private volatile boolean closed;
+
+    private Session(String id, String tenantId, Language language, String containerId) {
+      this.id = id;
+      this.tenantId = tenantId;
+      this.language = language;
+      this.containerId = containerId;
+    }
+  }
+}
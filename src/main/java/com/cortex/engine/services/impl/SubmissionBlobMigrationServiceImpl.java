@@ -0,0 +1,190 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.entities.Submission;
+import com.cortex.engine.repositories.SubmissionRepository;
+import com.cortex.engine.services.ICodeBlobService;
+import com.cortex.engine.services.ISubmissionBlobMigrationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Online migration of submissions from inline code and stdin columns to blob storage.
+ *
+ * <p>Each run moves a small batch in its own transaction, locking rows with {@code SKIP LOCKED} so
+ * that several workers can migrate side by side while new submissions keep being written. Batches
+ * are read through a partial index over the rows that still hold inline data, so each one costs
+ * its own size rather than a scan of the already migrated rows. New submissions are never written
+ * inline, so once a batch comes back empty the node stops looking.
+ *
+ * <p>The schema changes the migration needs are applied once at startup, before the broker
+ * listeners start and the first blob-backed submission is inserted.
+ */
+@Service
+@Profile("!api")
+@RequiredArgsConstructor
+@Slf4j
+public class SubmissionBlobMigrationServiceImpl implements ISubmissionBlobMigrationService {
+
+  private final SubmissionRepository submissionRepository;
+  private final ICodeBlobService codeBlobService;
+  private final JdbcTemplate jdbcTemplate;
+
+  private static final String TABLE = "submission";
+  private static final String LEGACY_INDEX = "idx_submission_legacy_inline";
+  private static final String LEGACY_ROWS = "code IS NOT NULL OR stdin IS NOT NULL";
+
+  @Value("${engine.blob-migration.batch-size:500}")
+  private int batchSize;
+
+  private volatile boolean finished;
+
+  @PostConstruct
+  public void prepareSchema() {
+    try {
+      if (tableKind() == null) {
+        // Hibernate has not created the table, so there is nothing to migrate
+        finished = true;
+        return;
+      }
+      relaxLegacyColumns();
+      indexLegacyRows();
+    } catch (CannotGetJdbcConnectionException e) {
+      // For example the CDS training run of the fast-start image, which has no database
+      log.warn("Database unreachable, the blob migration schema is prepared on the next start");
+    }
+  }
+
+  @Override
+  @Transactional
+  @Scheduled(fixedDelayString = "${engine.blob-migration.interval-ms:10000}")
+  public int migrateBatch() {
+    if (finished) {
+      return 0;
+    }
+
+    List<Submission> batch = submissionRepository.lockLegacyInlineBatch(batchSize);
+    for (Submission submission : batch) {
+      if (submission.getCode() != null) {
+        submission.setCodeBlob(codeBlobService.store(decodeLegacyCode(submission.getCode())));
+        submission.setCode(null);
+      }
+      if (submission.getStdin() != null) {
+        submission.setStdinBlob(
+            codeBlobService.store(submission.getStdin().getBytes(StandardCharsets.UTF_8)));
+        submission.setStdin(null);
+      }
+    }
+    submissionRepository.saveAll(batch);
+
+    if (batch.isEmpty()) {
+      finished = true;
+      log.info("No submissions left to migrate to blob storage");
+    } else {
+      log.info("Migrated {} submissions to blob storage", batch.size());
+    }
+    return batch.size();
+  }
+
+  /**
+   * The inline code column was created NOT NULL, which new blob-backed rows cannot satisfy. The
+   * constraint is only dropped while it is still there, so restarts do not take the table lock.
+   */
+  private void relaxLegacyColumns() {
+    List<String> nullable =
+        jdbcTemplate.queryForList(
+            "SELECT is_nullable FROM information_schema.columns"
+                + " WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?",
+            String.class,
+            TABLE,
+            "code");
+    if (nullable.contains("NO")) {
+      jdbcTemplate.execute("ALTER TABLE " + TABLE + " ALTER COLUMN code DROP NOT NULL");
+      log.info("Dropped NOT NULL on {}.code for blob-backed submissions", TABLE);
+    }
+  }
+
+  /**
+   * Builds the partial index without blocking writes. Partitioned tables cannot be indexed
+   * concurrently, so each partition is indexed on its own and attached to an index created on
+   * the parent only.
+   */
+  private void indexLegacyRows() {
+    if (indexExists(LEGACY_INDEX)) {
+      return;
+    }
+    try {
+      if (!"p".equals(tableKind())) {
+        createLegacyIndex(true, LEGACY_INDEX, TABLE);
+        return;
+      }
+      List<String> partitions =
+          jdbcTemplate.queryForList(
+              "SELECT c.relname::text FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid"
+                  + " WHERE i.inhparent = ?::regclass",
+              String.class,
+              TABLE);
+      for (String partition : partitions) {
+        String partitionIndex = LEGACY_INDEX + "_" + partition;
+        if (!indexExists(partitionIndex)) {
+          createLegacyIndex(true, partitionIndex, partition);
+        }
+      }
+      createLegacyIndex(false, LEGACY_INDEX, "ONLY " + TABLE);
+      for (String partition : partitions) {
+        jdbcTemplate.execute(
+            "ALTER INDEX " + LEGACY_INDEX + " ATTACH PARTITION " + LEGACY_INDEX + "_" + partition);
+      }
+    } catch (Exception e) {
+      // Another worker building it at the same time; batches still work, only slower
+      log.warn("Failed to index legacy submissions: {}", e.getMessage());
+    }
+  }
+
+  private void createLegacyIndex(boolean concurrently, String name, String target) {
+    jdbcTemplate.execute(
+        "CREATE INDEX "
+            + (concurrently ? "CONCURRENTLY " : "")
+            + "IF NOT EXISTS "
+            + name
+            + " ON "
+            + target
+            + " (id) WHERE "
+            + LEGACY_ROWS);
+  }
+
+  private boolean indexExists(String name) {
+    return !jdbcTemplate
+        .queryForList("SELECT to_regclass(?)::text", String.class, name)
+        .contains(null);
+  }
+
+  private String tableKind() {
+    List<String> kinds =
+        jdbcTemplate.queryForList(
+            "SELECT c.relkind::text FROM pg_class c"
+                + " JOIN pg_namespace n ON n.oid = c.relnamespace"
+                + " WHERE c.relname = ? AND n.nspname = current_schema()",
+            String.class,
+            TABLE);
+    return kinds.isEmpty() ? null : kinds.getFirst();
+  }
+
+  private byte[] decodeLegacyCode(String code) {
+    try {
+      return Base64.getDecoder().decode(code);
+    } catch (IllegalArgumentException e) {
+      return code.getBytes(StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,537 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.services.ISubmissionPartitionService;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the {@code submission} table range-partitioned on {@code created_date}.
+ *
+ * <p>Hibernate creates the table as a plain table, which this service converts online in three
+ * short transactions: a {@code NOT VALID} check constraint bounding the existing rows is added,
+ * validated without blocking writes, and then the table is renamed to {@code submission_legacy}
+ * and attached as the first partition of a new partitioned {@code submission} table. Since the
+ * constraint proves the bound, attaching does not rescan the rows.
+ *
+ * <p>A partitioned primary key must include the partition column, so the new table's key is
+ * {@code (id, created_date)}. The unique index backing it on the legacy rows is built
+ * concurrently beforehand, and every partition created later gets its own, so lookups by id use
+ * an index in each partition.
+ *
+ * <p>Partitions are created {@code engine.submissions.premake} periods ahead. Should maintenance
+ * stall for longer, rows past the last partition land in {@code submission_default} instead of
+ * failing the insert; they are moved into their partition once it is created, and a warning is
+ * logged as this means maintenance fell behind.
+ *
+ * <p>Retention drops or detaches whole partitions once their upper bound is older than the
+ * retention period, so its cost does not depend on how many rows the table holds.
+ *
+ * <p>Code blobs are shared between submissions and would outlive the partitions that referenced
+ * them, so each maintenance run then deletes, in batches, the blobs no table references through a
+ * foreign key any more. Detached partitions keep their foreign keys and therefore their blobs.
+ * Blobs stored within {@code engine.submissions.blob-sweep-grace} are spared, as the submission
+ * referencing them may not be committed yet.
+ */
+@Service
+@Profile("!api")
+@Slf4j
+public class SubmissionPartitionServiceImpl implements ISubmissionPartitionService {
+
+  private static final String TABLE = "submission";
+  private static final String LEGACY_TABLE = "submission_legacy";
+  private static final String LEGACY_BOUND_CONSTRAINT = "submission_legacy_bound";
+  private static final String LEGACY_KEY_INDEX = "submission_legacy_id_created_date_key";
+  private static final String DEFAULT_PARTITION = "submission_default";
+  private static final Pattern PARTITION_BOUND =
+      Pattern.compile("FROM \\((MINVALUE|'[^']+')\\) TO \\((MAXVALUE|'[^']+')\\)");
+  private static final Pattern INDEX_TARGET =
+      Pattern.compile(" ON (?:\\S+\\.)?" + TABLE + " USING ");
+  private static final Pattern QUOTED_TIMESTAMP = Pattern.compile("'([^']+)'");
+  private static final DateTimeFormatter PG_TIMESTAMP =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+  /** What happens to partitions that fall outside the retention period. */
+  public enum RetentionMode {
+    DROP,
+    DETACH
+  }
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ChronoUnit partitionInterval;
+  private final int premake;
+  private final Duration retention;
+  private final RetentionMode retentionMode;
+  private final Duration blobSweepGrace;
+  private final int blobSweepBatchSize;
+
+  public SubmissionPartitionServiceImpl(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      @Value("${engine.submissions.partition-interval:MONTHS}") ChronoUnit partitionInterval,
+      @Value("${engine.submissions.premake:3}") int premake,
+      @Value("${engine.submissions.retention:180d}") Duration retention,
+      @Value("${engine.submissions.retention-mode:DROP}") RetentionMode retentionMode,
+      @Value("${engine.submissions.blob-sweep-grace:1d}") Duration blobSweepGrace,
+      @Value("${engine.submissions.blob-sweep-batch-size:1000}") int blobSweepBatchSize) {
+    if (partitionInterval != ChronoUnit.DAYS
+        && partitionInterval != ChronoUnit.WEEKS
+        && partitionInterval != ChronoUnit.MONTHS) {
+      throw new IllegalArgumentException(
+          "Unsupported submission partition interval: " + partitionInterval);
+    }
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.partitionInterval = partitionInterval;
+    this.premake = premake;
+    this.retention = retention;
+    this.retentionMode = retentionMode;
+    this.blobSweepGrace = blobSweepGrace;
+    this.blobSweepBatchSize = blobSweepBatchSize;
+  }
+
+  @Override
+  @Scheduled(fixedDelayString = "${engine.submissions.partition-maintenance-interval-ms:3600000}")
+  public void maintainPartitions() {
+    try {
+      String kind = tableKind();
+      if (kind == null) {
+        // Hibernate has not created the table yet
+        return;
+      }
+      if (!"p".equals(kind)) {
+        convertToPartitioned();
+      }
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            lockMaintenance();
+            createUpcomingPartitions();
+            createDefaultPartition();
+            applyRetention();
+          });
+      sweepCodeBlobs();
+    } catch (Exception e) {
+      log.error("Submission partition maintenance failed", e);
+    }
+  }
+
+  private String tableKind() {
+    List<String> kinds =
+        jdbcTemplate.queryForList(
+            "SELECT c.relkind::text FROM pg_class c"
+                + " JOIN pg_namespace n ON n.oid = c.relnamespace"
+                + " WHERE c.relname = ? AND n.nspname = current_schema()",
+            String.class,
+            TABLE);
+    return kinds.isEmpty() ? null : kinds.getFirst();
+  }
+
+  private void convertToPartitioned() {
+    // Anything written while converting lands before the bound: it lies past the current period
+    LocalDateTime bound = periodStart(LocalDateTime.now()).plus(1, partitionInterval);
+    if (legacyBound() == null) {
+      log.info("Bounding existing submissions below {} before partitioning", bound);
+      jdbcTemplate.execute(
+          "ALTER TABLE "
+              + TABLE
+              + " ADD CONSTRAINT "
+              + LEGACY_BOUND_CONSTRAINT
+              + " CHECK (created_date IS NOT NULL AND created_date < '"
+              + PG_TIMESTAMP.format(bound)
+              + "') NOT VALID");
+    }
+    jdbcTemplate.execute(
+        "ALTER TABLE " + TABLE + " VALIDATE CONSTRAINT " + LEGACY_BOUND_CONSTRAINT);
+    buildLegacyKeyIndex();
+
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          lockMaintenance();
+          if ("p".equals(tableKind())) {
+            return;
+          }
+          String legacyBound = PG_TIMESTAMP.format(legacyBound());
+          List<Map<String, Object>> foreignKeys =
+              jdbcTemplate.queryForList(
+                  "SELECT conname, pg_get_constraintdef(oid) AS definition FROM pg_constraint"
+                      + " WHERE conrelid = ?::regclass AND contype = 'f'",
+                  TABLE);
+          List<Map<String, Object>> indexes =
+              jdbcTemplate.queryForList(
+                  "SELECT c.relname AS name, pg_get_indexdef(c.oid) AS definition FROM pg_index x"
+                      + " JOIN pg_class c ON c.oid = x.indexrelid"
+                      + " WHERE x.indrelid = ?::regclass AND NOT x.indisunique",
+                  TABLE);
+
+          List<String> primaryKeys =
+              jdbcTemplate.queryForList(
+                  "SELECT conname FROM pg_constraint"
+                      + " WHERE conrelid = ?::regclass AND contype = 'p'",
+                  String.class,
+                  TABLE);
+
+          jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + LEGACY_TABLE);
+          // Frees the name of the primary key for the parent's
+          for (String primaryKey : primaryKeys) {
+            jdbcTemplate.execute(
+                "ALTER TABLE "
+                    + LEGACY_TABLE
+                    + " RENAME CONSTRAINT "
+                    + primaryKey
+                    + " TO "
+                    + LEGACY_TABLE
+                    + "_pkey");
+          }
+          // Attaching reuses the index for the parent's key only if it backs a constraint, and
+          // the bound constraint proves the column has no nulls, so neither step scans the rows
+          jdbcTemplate.execute(
+              "ALTER TABLE "
+                  + LEGACY_TABLE
+                  + " ADD CONSTRAINT "
+                  + LEGACY_KEY_INDEX
+                  + " UNIQUE USING INDEX "
+                  + LEGACY_KEY_INDEX);
+          jdbcTemplate.execute(
+              "ALTER TABLE " + LEGACY_TABLE + " ALTER COLUMN created_date SET NOT NULL");
+          jdbcTemplate.execute(
+              "CREATE TABLE "
+                  + TABLE
+                  + " (LIKE "
+                  + LEGACY_TABLE
+                  + " INCLUDING DEFAULTS INCLUDING IDENTITY INCLUDING STORAGE,"
+                  + " PRIMARY KEY (id, created_date))"
+                  + " PARTITION BY RANGE (created_date)");
+          jdbcTemplate.execute(
+              "ALTER TABLE " + LEGACY_TABLE + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+          jdbcTemplate.execute(
+              "ALTER TABLE "
+                  + TABLE
+                  + " ATTACH PARTITION "
+                  + LEGACY_TABLE
+                  + " FOR VALUES FROM (MINVALUE) TO ('"
+                  + legacyBound
+                  + "')");
+          // Re-declared on the parent so that Hibernate finds them; the identical constraints on
+          // the legacy partition are reused instead of being validated again
+          for (Map<String, Object> foreignKey : foreignKeys) {
+            jdbcTemplate.execute(
+                "ALTER TABLE "
+                    + TABLE
+                    + " ADD CONSTRAINT "
+                    + foreignKey.get("conname")
+                    + " "
+                    + foreignKey.get("definition"));
+          }
+          // Parent indexes are created ON ONLY the parent and adopt the existing legacy index, so
+          // nothing is rebuilt; partitions created later get their own copy automatically
+          for (Map<String, Object> index : indexes) {
+            String name = (String) index.get("name");
+            String legacyName = name + "_legacy";
+            jdbcTemplate.execute("ALTER INDEX " + name + " RENAME TO " + legacyName);
+            jdbcTemplate.execute(
+                INDEX_TARGET
+                    .matcher((String) index.get("definition"))
+                    .replaceFirst(" ON ONLY " + TABLE + " USING "));
+            jdbcTemplate.execute("ALTER INDEX " + name + " ATTACH PARTITION " + legacyName);
+          }
+          jdbcTemplate.execute(
+              "SELECT setval(pg_get_serial_sequence('"
+                  + TABLE
+                  + "', 'id'), (SELECT coalesce(max(id), 0) + 1 FROM "
+                  + LEGACY_TABLE
+                  + "), false)");
+          log.info("Converted {} to a table partitioned by created_date", TABLE);
+        });
+  }
+
+  /**
+   * Builds the unique index the parent's primary key will adopt on the legacy rows, without
+   * blocking writes. A build interrupted by a restart leaves an invalid index, which is rebuilt.
+   */
+  private void buildLegacyKeyIndex() {
+    List<Boolean> valid =
+        jdbcTemplate.queryForList(
+            "SELECT x.indisvalid FROM pg_index x JOIN pg_class c ON c.oid = x.indexrelid"
+                + " JOIN pg_namespace n ON n.oid = c.relnamespace"
+                + " WHERE c.relname = ? AND n.nspname = current_schema()",
+            Boolean.class,
+            LEGACY_KEY_INDEX);
+    if (!valid.isEmpty() && Boolean.TRUE.equals(valid.getFirst())) {
+      return;
+    }
+    if (!valid.isEmpty()) {
+      jdbcTemplate.execute("DROP INDEX CONCURRENTLY " + LEGACY_KEY_INDEX);
+    }
+    log.info("Indexing existing submissions by (id, created_date) before partitioning");
+    jdbcTemplate.execute(
+        "CREATE UNIQUE INDEX CONCURRENTLY "
+            + LEGACY_KEY_INDEX
+            + " ON "
+            + TABLE
+            + " (id, created_date)");
+  }
+
+  private LocalDateTime legacyBound() {
+    List<String> definitions =
+        jdbcTemplate.queryForList(
+            "SELECT pg_get_constraintdef(oid) FROM pg_constraint WHERE conname = ?",
+            String.class,
+            LEGACY_BOUND_CONSTRAINT);
+    if (definitions.isEmpty()) {
+      return null;
+    }
+    Matcher matcher = QUOTED_TIMESTAMP.matcher(definitions.getFirst());
+    if (!matcher.find()) {
+      throw new IllegalStateException("Unexpected legacy bound: " + definitions.getFirst());
+    }
+    return LocalDateTime.parse(matcher.group(1), PG_TIMESTAMP);
+  }
+
+  private void createUpcomingPartitions() {
+    List<PartitionRange> existing = listPartitions();
+    LocalDateTime current = periodStart(LocalDateTime.now());
+    LocalDateTime last = current.plus(premake, partitionInterval);
+    // Periods that went by while maintenance was stalled are still in the default partition
+    LocalDateTime oldestDefault = oldestDefaultRow();
+    LocalDateTime start =
+        oldestDefault != null && oldestDefault.isBefore(current)
+            ? periodStart(oldestDefault)
+            : current;
+    while (!start.isAfter(last)) {
+      LocalDateTime end = start.plus(1, partitionInterval);
+      if (!overlapsAny(existing, start, end)) {
+        createPartition(TABLE + "_p" + PARTITION_SUFFIX.format(start), start, end);
+      }
+      start = end;
+    }
+  }
+
+  private void createPartition(String name, LocalDateTime start, LocalDateTime end) {
+    String from = PG_TIMESTAMP.format(start);
+    String to = PG_TIMESTAMP.format(end);
+    String range = "created_date >= '" + from + "' AND created_date < '" + to + "'";
+    boolean defaultHasRows =
+        hasDefaultPartition()
+            && Boolean.TRUE.equals(
+                jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION + " WHERE " + range + ")",
+                    Boolean.class));
+    if (!defaultHasRows) {
+      jdbcTemplate.execute(
+          "CREATE TABLE IF NOT EXISTS "
+              + name
+              + " PARTITION OF "
+              + TABLE
+              + " FOR VALUES FROM ('"
+              + from
+              + "') TO ('"
+              + to
+              + "')");
+      log.info("Created submission partition {}", name);
+      return;
+    }
+    // Postgres refuses to create a partition whose rows are still in the default one, so they are
+    // moved into a standalone table that is then attached; attaching adds the parent's indexes
+    log.warn(
+        "Submissions from {} to {} landed in {}, partition maintenance fell behind",
+        from,
+        to,
+        DEFAULT_PARTITION);
+    jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + TABLE + " INCLUDING DEFAULTS)");
+    int moved =
+        jdbcTemplate.update(
+            "WITH moved AS (DELETE FROM "
+                + DEFAULT_PARTITION
+                + " WHERE "
+                + range
+                + " RETURNING *) INSERT INTO "
+                + name
+                + " SELECT * FROM moved");
+    jdbcTemplate.execute(
+        "ALTER TABLE "
+            + TABLE
+            + " ATTACH PARTITION "
+            + name
+            + " FOR VALUES FROM ('"
+            + from
+            + "') TO ('"
+            + to
+            + "')");
+    log.info(
+        "Created submission partition {} with {} submissions from {}",
+        name,
+        moved,
+        DEFAULT_PARTITION);
+  }
+
+  /** Catches rows past the last partition, so that inserts never fail for want of one. */
+  private void createDefaultPartition() {
+    if (!hasDefaultPartition()) {
+      jdbcTemplate.execute(
+          "CREATE TABLE IF NOT EXISTS "
+              + DEFAULT_PARTITION
+              + " PARTITION OF "
+              + TABLE
+              + " DEFAULT");
+      log.info("Created default submission partition {}", DEFAULT_PARTITION);
+    }
+  }
+
+  private LocalDateTime oldestDefaultRow() {
+    if (!hasDefaultPartition()) {
+      return null;
+    }
+    return jdbcTemplate.queryForObject(
+        "SELECT min(created_date) FROM " + DEFAULT_PARTITION, LocalDateTime.class);
+  }
+
+  private boolean hasDefaultPartition() {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table"
+                + " WHERE partrelid = ?::regclass AND partdefid <> 0)",
+            Boolean.class,
+            TABLE));
+  }
+
+  private void applyRetention() {
+    LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+    for (PartitionRange partition : listPartitions()) {
+      if (partition.to() == null || partition.to().isAfter(cutoff)) {
+        continue;
+      }
+      if (retentionMode == RetentionMode.DETACH) {
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition.name());
+        log.info("Detached expired submission partition {}", partition.name());
+      } else {
+        jdbcTemplate.execute("DROP TABLE " + partition.name());
+        log.info("Dropped expired submission partition {}", partition.name());
+      }
+    }
+  }
+
+  /**
+   * Deletes code blobs that no row references, one batch per transaction so that each holds the
+   * maintenance lock only briefly. The references are found through the foreign keys to {@code
+   * code_blobs}, which also covers detached partitions; constraints inherited by partitions are
+   * skipped, as their parent's already covers them.
+   */
+  private void sweepCodeBlobs() {
+    LocalDateTime cutoff = LocalDateTime.now().minus(blobSweepGrace);
+    int swept = 0;
+    int deleted;
+    do {
+      Integer batch =
+          transactionTemplate.execute(
+              status -> {
+                lockMaintenance();
+                List<Map<String, Object>> references =
+                    jdbcTemplate.queryForList(
+                        "SELECT c.conrelid::regclass::text AS table_name, a.attname AS column_name"
+                            + " FROM pg_constraint c JOIN pg_attribute a"
+                            + " ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]"
+                            + " WHERE c.contype = 'f' AND c.conparentid = 0"
+                            + " AND c.confrelid = 'code_blobs'::regclass");
+                if (references.isEmpty()) {
+                  // Without the foreign keys every blob would look unreferenced
+                  log.warn("No foreign keys reference code_blobs, skipping the blob sweep");
+                  return 0;
+                }
+                StringBuilder unreferenced = new StringBuilder();
+                for (Map<String, Object> reference : references) {
+                  unreferenced
+                      .append(" AND NOT EXISTS (SELECT 1 FROM ")
+                      .append(reference.get("table_name"))
+                      .append(" r WHERE r.")
+                      .append(reference.get("column_name"))
+                      .append(" = b.hash)");
+                }
+                return jdbcTemplate.update(
+                    "DELETE FROM code_blobs WHERE hash IN (SELECT b.hash FROM code_blobs b"
+                        + " WHERE b.created_date < ?"
+                        + unreferenced
+                        + " LIMIT ?)",
+                    cutoff,
+                    blobSweepBatchSize);
+              });
+      deleted = batch != null ? batch : 0;
+      swept += deleted;
+    } while (deleted >= blobSweepBatchSize);
+    if (swept > 0) {
+      log.info("Deleted {} code blobs no submission references", swept);
+    }
+  }
+
+  private List<PartitionRange> listPartitions() {
+    List<PartitionRange> partitions = new ArrayList<>();
+    jdbcTemplate.query(
+        "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) AS bound FROM pg_inherits i"
+            + " JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = ?::regclass",
+        rs -> {
+          Matcher matcher = PARTITION_BOUND.matcher(rs.getString("bound"));
+          if (matcher.find()) {
+            partitions.add(
+                new PartitionRange(
+                    rs.getString("relname"),
+                    parseBound(matcher.group(1)),
+                    parseBound(matcher.group(2))));
+          }
+        },
+        TABLE);
+    return partitions;
+  }
+
+  private boolean overlapsAny(
+      List<PartitionRange> partitions, LocalDateTime from, LocalDateTime to) {
+    for (PartitionRange partition : partitions) {
+      boolean startsBefore = partition.from() == null || partition.from().isBefore(to);
+      boolean endsAfter = partition.to() == null || partition.to().isAfter(from);
+      if (startsBefore && endsAfter) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Serializes maintenance across workers for the rest of the current transaction. */
+  private void lockMaintenance() {
+    jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(hashtext('submission_partitions'))");
+  }
+
+  private LocalDateTime periodStart(LocalDateTime time) {
+    LocalDateTime day = time.truncatedTo(ChronoUnit.DAYS);
+    return switch (partitionInterval) {
+      case WEEKS -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+      case MONTHS -> day.withDayOfMonth(1);
+      default -> day;
+    };
+  }
+
+  /** Parses a partition bound; {@code null} stands for MINVALUE or MAXVALUE. */
+  private LocalDateTime parseBound(String bound) {
+    if (!bound.startsWith("'")) {
+      return null;
+    }
+    return LocalDateTime.parse(bound.substring(1, bound.length() - 1), PG_TIMESTAMP);
+  }
+
+  private record PartitionRange(String name, LocalDateTime from, LocalDateTime to) {}
+}
@@ -1,23 +1,106 @@
 package com.cortex.engine.services.impl;
 
+import com.cortex.engine.common.TenantContext;
+import com.cortex.engine.controllers.dto.SubmissionHistoryResponse;
+import com.cortex.engine.controllers.dto.SubmissionSummary;
+import com.cortex.engine.entities.Language;
 import com.cortex.engine.entities.Submission;
+import com.cortex.engine.repositories.LanguageRepository;
 import com.cortex.engine.repositories.SubmissionRepository;
 import com.cortex.engine.services.ISubmissionService;
 import jakarta.transaction.Transactional;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 @Service
+@Profile("!api")
 @RequiredArgsConstructor
 public class SubmissionServiceImpl implements ISubmissionService {
 
+  private static final char CURSOR_SEPARATOR = '|';
+
   private final SubmissionRepository submissionRepository;
+  private final LanguageRepository languageRepository;
+
+  @Value("${engine.submissions.history.default-window:30d}")
+  private Duration defaultWindow;
+
+  @Value("${engine.submissions.history.max-page-size:100}")
+  private int maxPageSize;
 
   @Override
-  public List<Submission> getAllSubmissions() {
-    return (List<Submission>) submissionRepository.findAll();
+  public SubmissionHistoryResponse getHistory(
+      Long userId,
+      String language,
+      LocalDateTime from,
+      LocalDateTime to,
+      String cursor,
+      int limit) {
+    LocalDateTime upper = to != null ? to : LocalDateTime.now();
+    LocalDateTime lower = from != null ? from : upper.minus(defaultWindow);
+    int pageSize = Math.clamp(limit, 1, maxPageSize);
+
+    Long languageId = null;
+    if (language != null) {
+      Optional<Language> found = languageRepository.findByName(language);
+      if (found.isEmpty()) {
+        return new SubmissionHistoryResponse(List.of(), null);
+      }
+      languageId = found.get().getId();
+    }
+
+    LocalDateTime beforeDate = upper;
+    long beforeId = Long.MAX_VALUE;
+    if (cursor != null) {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = decoded.indexOf(CURSOR_SEPARATOR);
+      if (separator < 0) {
+        throw new IllegalArgumentException("Malformed history cursor");
+      }
+      beforeDate = LocalDateTime.parse(decoded.substring(0, separator));
+      beforeId = Long.parseLong(decoded.substring(separator + 1));
+    }
+
+    // One extra row tells whether another page follows without a count query
+    String tenantId = TenantContext.getTenantId();
+    Limit rowLimit = Limit.of(pageSize + 1);
+    List<SubmissionSummary> rows;
+    if (userId != null && languageId != null) {
+      rows =
+          submissionRepository.findHistoryByUserAndLanguage(
+              tenantId, userId, languageId, lower, beforeDate, beforeId, rowLimit);
+    } else if (userId != null) {
+      rows =
+          submissionRepository.findHistoryByUser(
+              tenantId, userId, lower, beforeDate, beforeId, rowLimit);
+    } else if (languageId != null) {
+      rows =
+          submissionRepository.findHistoryByLanguage(
+              tenantId, languageId, lower, beforeDate, beforeId, rowLimit);
+    } else {
+      rows = submissionRepository.findHistory(tenantId, lower, beforeDate, beforeId, rowLimit);
+    }
+    if (rows.size() <= pageSize) {
+      return new SubmissionHistoryResponse(rows, null);
+    }
+    List<SubmissionSummary> page = rows.subList(0, pageSize);
+    SubmissionSummary last = page.getLast();
+    String nextCursor =
+        Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString(
+                (last.createdDate().toString() + CURSOR_SEPARATOR + last.id())
+                    .getBytes(StandardCharsets.UTF_8));
+    return new SubmissionHistoryResponse(List.copyOf(page), nextCursor);
   }
 
   @Override
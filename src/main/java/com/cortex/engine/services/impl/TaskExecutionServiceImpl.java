@@ -0,0 +1,225 @@
+package com.cortex.engine.services.impl;
+
+import static com.cortex.engine.services.impl.CodeExecutionServiceImpl.RESULT_EXPIRATION_HOURS;
+import static com.cortex.engine.services.impl.CodeExecutionServiceImpl.RESULT_KEY_PREFIX;
+
+import com.cortex.engine.common.TenantContext;
+import com.cortex.engine.controllers.dto.CodeExecutionTask;
+import com.cortex.engine.controllers.dto.ExecutionResponse;
+import com.cortex.engine.controllers.dto.PayloadRef;
+import com.cortex.engine.controllers.dto.SubmissionRequest;
+import com.cortex.engine.entities.CodeBlob;
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.entities.Submission;
+import com.cortex.engine.exceptions.*;
+import com.cortex.engine.execution.ExecutionBackend;
+import com.cortex.engine.execution.ExecutionBackendSelector;
+import com.cortex.engine.execution.ExecutionResult;
+import com.cortex.engine.repositories.LanguageRepository;
+import com.cortex.engine.repositories.SubmissionRepository;
+import com.cortex.engine.services.IAdmissionControlService;
+import com.cortex.engine.services.ICodeBlobService;
+import com.cortex.engine.services.ITaskExecutionService;
+import com.cortex.engine.services.ITaskPayloadService;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service implementation responsible for executing code submissions in isolation.
+ *
+ * <p>This service resolves each task, runs it on the {@link ExecutionBackend} selected for its
+ * tenant and language, and processes the execution results. It supports multiple programming
+ * languages and only runs on worker instances.
+ *
+ * <p>Key features include:
+ *
+ * <ul>
+ *   <li>Running code on a Docker or local-process backend
+ *   <li>Supporting multiple programming languages
+ *   <li>Storing execution results in a Redis cache
+ *   <li>Reporting completed tasks to admission control
+ *   <li>Recording submissions for the history
+ *   <li>Implementing error handling and logging
+ * </ul>
+ *
+ * @author Ángel Cuervo
+ * @version 1.4
+ * @since 2024-07-26
+ */
+@Service
+@Profile("!api")
+@RequiredArgsConstructor
+@Slf4j
+public class TaskExecutionServiceImpl implements ITaskExecutionService {
+
+  private final RedisTemplate<String, ExecutionResponse> redisTemplate;
+  private final LanguageRepository languageRepository;
+  private final SubmissionRepository submissionRepository;
+  private final ICodeBlobService codeBlobService;
+  private final ITaskPayloadService taskPayloadService;
+  private final ExecutionBackendSelector executionBackendSelector;
+  private final ObservationRegistry observationRegistry;
+  private final IAdmissionControlService admissionControlService;
+
+  @Override
+  public boolean processCodeExecution(CodeExecutionTask task) {
+    ExecutionResponse result;
+    boolean completed = true;
+    try {
+      result = executeCode(task);
+    } catch (ExecutionTimeoutException e) {
+      log.debug("Task {} timed out", task.getTaskId());
+      result = new ExecutionResponse(null, 4, e.getMessage());
+      completed = false;
+    } catch (Exception e) {
+      log.error("Error processing code execution task", e);
+      result = new ExecutionResponse(null, 4, e.getMessage());
+    }
+    ExecutionResponse response = result;
+    Observation.createNotStarted("execution.store-result", observationRegistry)
+        .observe(
+            () ->
+                redisTemplate
+                    .opsForValue()
+                    .set(
+                        RESULT_KEY_PREFIX + task.getTaskId(),
+                        response,
+                        RESULT_EXPIRATION_HOURS,
+                        TimeUnit.HOURS));
+    admissionControlService.recordCompletion(
+        task.getSubmissionRequest().language(), task.getTaskId());
+    return completed;
+  }
+
+  /**
+   * Executes the submitted code on the backend selected for the task.
+   *
+   * @param task The task carrying the submission request and the identity of its submitter.
+   * @return The execution result wrapped in an ExecutionResponse object.
+   * @throws CodeExecutionException If an error occurs during code execution.
+   * @throws UnsupportedLanguageException If the specified programming language is not supported.
+   */
+  private ExecutionResponse executeCode(CodeExecutionTask task) throws CodeExecutionException {
+    // Offloaded bodies are only loaded now, so tasks buffered in the scheduler stay small
+    SubmissionRequest request = taskPayloadService.resolve(task);
+    Language language =
+        languageRepository
+            .findByName(request.language())
+            .orElseThrow(
+                () ->
+                    new UnsupportedLanguageException(
+                        "Unsupported language: " + request.language()));
+
+    ExecutionBackend backend =
+        executionBackendSelector.select(task.getTenantId(), task.isAuthenticated(), language);
+    ExecutionResponse response;
+    try (InputStream stdin = taskPayloadService.openStdin(task)) {
+      response =
+          Observation.createNotStarted("execution.run", observationRegistry)
+              .lowCardinalityKeyValue("language", language.getName())
+              .lowCardinalityKeyValue("backend", backend.getName())
+              .observeChecked(() -> runCode(backend, language, request, stdin));
+    } catch (IOException e) {
+      throw new FileOperationException("Error in file operation: " + e.getMessage(), e);
+    }
+    Observation.createNotStarted("execution.persist", observationRegistry)
+        .lowCardinalityKeyValue("language", language.getName())
+        .observeChecked(() -> saveSubmission(task, request, language));
+    return response;
+  }
+
+  @Override
+  public ExecutionResponse warmUp(Language language, byte[] code) throws CodeExecutionException {
+    return runCode(
+        executionBackendSelector.select(null, false, language),
+        language,
+        new SubmissionRequest(code, language.getName(), null, null, null, null, null, false),
+        null);
+  }
+
+  /**
+   * Runs code once on the given backend.
+   *
+   * @param backend The backend to run the code on.
+   * @param language The language to run the code with.
+   * @param request The submission request carrying the code and execution parameters.
+   * @param stdin The standard input to stream into the program, or null if it has none.
+   * @return The execution result wrapped in an ExecutionResponse object.
+   * @throws CodeExecutionException If an error occurs during code execution.
+   */
+  private ExecutionResponse runCode(
+      ExecutionBackend backend, Language language, SubmissionRequest request, InputStream stdin)
+      throws CodeExecutionException {
+    ExecutionResult result = backend.execute(language, request.code(), stdin);
+    String stdout = encodeIfRequired(result.stdout(), request.encodeOutputToBase64());
+    String stderr =
+        result.stderr().isEmpty()
+            ? null
+            : encodeIfRequired(result.stderr(), request.encodeOutputToBase64());
+    return new ExecutionResponse(stdout, result.statusId(), stderr);
+  }
+
+  /**
+   * Encodes the input string to Base64 if required.
+   *
+   * @param input The input string to potentially encode.
+   * @param shouldEncode Whether the input should be encoded.
+   * @return The encoded string if shouldEncode is true, otherwise the original input.
+   */
+  private String encodeIfRequired(String input, boolean shouldEncode) {
+    if (shouldEncode) {
+      return Base64.getEncoder().encodeToString(input.getBytes(StandardCharsets.UTF_8));
+    }
+    return input;
+  }
+
+  /**
+   * Saves the submission details to the database.
+   *
+   * @param task The executed task, carrying the request and its submitter.
+   * @param language The programming language of the submission.
+   */
+  private void saveSubmission(
+      CodeExecutionTask task, SubmissionRequest request, Language language)
+      throws CodeExecutionException {
+    Submission submission =
+        Submission.builder()
+            .codeBlob(storeBlob(task.getCodeRef(), request.code()))
+            .language(language)
+            .stdinBlob(storeBlob(task.getStdinRef(), request.stdin()))
+            .cpuTimeLimit(request.cpuTimeLimit())
+            .cpuExtraTime(request.cpuExtraTime())
+            .commandLineArguments(request.commandLineArguments())
+            .compilerOptions(request.compilerOptions())
+            .tenantId(task.getTenantId())
+            .createdBy(task.getUserId() != null ? task.getUserId() : TenantContext.DEFAULT_USER)
+            .build();
+    submissionRepository.save(submission);
+  }
+
+  /**
+   * Stores a body of the submission in blob storage. Offloaded bodies are copied from the payload
+   * store as they are kept there, so they are neither inflated nor compressed again.
+   *
+   * @param ref The reference to the offloaded body, or null if it travelled inline.
+   * @param content The inline body, or null if it was offloaded or there is none.
+   * @return The stored blob, or null if there is no body.
+   */
+  private CodeBlob storeBlob(PayloadRef ref, byte[] content) throws CodeExecutionException {
+    if (ref != null) {
+      return codeBlobService.store(taskPayloadService.loadStored(ref));
+    }
+    return content != null ? codeBlobService.store(content) : null;
+  }
+}
@@ -0,0 +1,314 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.common.Compression;
+import com.cortex.engine.common.StoredPayload;
+import com.cortex.engine.controllers.dto.CodeExecutionTask;
+import com.cortex.engine.controllers.dto.JudgeRequest;
+import com.cortex.engine.controllers.dto.JudgeTask;
+import com.cortex.engine.controllers.dto.PayloadRef;
+import com.cortex.engine.controllers.dto.SubmissionRequest;
+import com.cortex.engine.controllers.dto.TestCase;
+import com.cortex.engine.exceptions.CodeExecutionException;
+import com.cortex.engine.services.ITaskPayloadService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.InflaterInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Claim-check store for task bodies, backed by Redis so that both API and worker instances can
+ * reach it.
+ *
+ * <p>Bodies of at least {@code engine.payloads.offload-threshold-bytes} are stored under a key
+ * derived from their SHA-256 hash, so the same stdin submitted many times (typical when judging)
+ * is stored once; storing it again only extends its expiry. Stored bodies are deflated when that
+ * saves space. Each stored value starts with a one-byte marker telling whether the rest is
+ * compressed. Offloaded stdin is streamed back in chunks rather than loaded whole, and a value that
+ * expires halfway through fails the read instead of cutting the input short. The test cases of
+ * judge tasks are always stored here, whatever their size.
+ */
+@Service
+@Slf4j
+public class TaskPayloadServiceImpl implements ITaskPayloadService {
+
+  static final String PAYLOAD_KEY_PREFIX = "payload:";
+
+  private static final byte RAW = 0;
+  private static final byte DEFLATED = 1;
+  private static final int CHUNK_SIZE = 64 * 1024;
+
+  private static final TypeReference<List<TestCase>> TEST_CASES = new TypeReference<>() {};
+
+  private final RedisTemplate<String, byte[]> payloadRedisTemplate;
+  private final ObjectMapper objectMapper;
+  private final int offloadThreshold;
+  private final Duration ttl;
+
+  public TaskPayloadServiceImpl(
+      RedisTemplate<String, byte[]> payloadRedisTemplate,
+      ObjectMapper objectMapper,
+      @Value("${engine.payloads.offload-threshold-bytes:65536}") int offloadThreshold,
+      @Value("${engine.payloads.ttl:6h}") Duration ttl) {
+    this.payloadRedisTemplate = payloadRedisTemplate;
+    this.objectMapper = objectMapper;
+    this.offloadThreshold = offloadThreshold;
+    this.ttl = ttl;
+  }
+
+  @Override
+  public void offload(CodeExecutionTask task) {
+    SubmissionRequest request = task.getSubmissionRequest();
+    byte[] code = request.code();
+    byte[] stdin = request.stdin();
+    boolean offloadCode = code != null && code.length >= offloadThreshold;
+    boolean offloadStdin = stdin != null && stdin.length >= offloadThreshold;
+    if (!offloadCode && !offloadStdin) {
+      return;
+    }
+    if (offloadCode) {
+      task.setCodeRef(store(code));
+    }
+    if (offloadStdin) {
+      task.setStdinRef(store(stdin));
+    }
+    task.setSubmissionRequest(
+        withBodies(request, offloadCode ? null : code, offloadStdin ? null : stdin));
+  }
+
+  @Override
+  public void offload(JudgeTask task) {
+    JudgeRequest request = task.getJudgeRequest();
+    try {
+      task.setTestCasesRef(store(objectMapper.writeValueAsBytes(request.testCases())));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to serialize test cases", e);
+    }
+    byte[] code = request.code();
+    if (code != null && code.length >= offloadThreshold) {
+      task.setCodeRef(store(code));
+      code = null;
+    }
+    task.setJudgeRequest(
+        new JudgeRequest(code, request.language(), null, request.stopOnFirstFailure()));
+  }
+
+  @Override
+  public JudgeRequest resolve(JudgeTask task) throws CodeExecutionException {
+    JudgeRequest request = task.getJudgeRequest();
+    byte[] code = task.getCodeRef() != null ? load(task.getCodeRef()) : request.code();
+    List<TestCase> testCases = request.testCases();
+    if (task.getTestCasesRef() != null) {
+      try {
+        testCases = objectMapper.readValue(load(task.getTestCasesRef()), TEST_CASES);
+      } catch (IOException e) {
+        throw new CodeExecutionException(
+            "Corrupted test cases " + task.getTestCasesRef().key(), e);
+      }
+    }
+    return new JudgeRequest(code, request.language(), testCases, request.stopOnFirstFailure());
+  }
+
+  @Override
+  public boolean needsOffload(SubmissionRequest request) {
+    return (request.code() != null && request.code().length >= offloadThreshold)
+        || (request.stdin() != null && request.stdin().length >= offloadThreshold);
+  }
+
+  @Override
+  public SubmissionRequest resolve(CodeExecutionTask task) throws CodeExecutionException {
+    SubmissionRequest request = task.getSubmissionRequest();
+    if (task.getCodeRef() == null) {
+      return request;
+    }
+    return withBodies(request, load(task.getCodeRef()), request.stdin());
+  }
+
+  @Override
+  public InputStream openStdin(CodeExecutionTask task) throws CodeExecutionException {
+    PayloadRef ref = task.getStdinRef();
+    if (ref == null) {
+      byte[] stdin = task.getSubmissionRequest().stdin();
+      return stdin != null ? new ByteArrayInputStream(stdin) : null;
+    }
+    byte[] key = ref.key().getBytes(StandardCharsets.UTF_8);
+    Long length =
+        payloadRedisTemplate.execute(
+            (RedisCallback<Long>) connection -> connection.stringCommands().strLen(key));
+    if (length == null || length == 0) {
+      throw new CodeExecutionException("Task payload " + ref.key() + " is no longer available");
+    }
+    ChunkedValueInputStream value = new ChunkedValueInputStream(ref.key(), key, length);
+    try {
+      return value.read() == DEFLATED ? new InflaterInputStream(value) : value;
+    } catch (IOException e) {
+      throw new CodeExecutionException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public StoredPayload loadStored(PayloadRef ref) throws CodeExecutionException {
+    byte[] value = get(ref);
+    byte[] content = new byte[value.length - 1];
+    System.arraycopy(value, 1, content, 0, content.length);
+    return new StoredPayload(
+        ref.key().substring(PAYLOAD_KEY_PREFIX.length()),
+        ref.size(),
+        value[0] == DEFLATED,
+        content);
+  }
+
+  private PayloadRef store(byte[] content) {
+    String key = PAYLOAD_KEY_PREFIX + sha256(content);
+    byte[] value = encode(content);
+    if (!Boolean.TRUE.equals(payloadRedisTemplate.opsForValue().setIfAbsent(key, value, ttl))) {
+      payloadRedisTemplate.expire(key, ttl);
+    }
+    log.debug("Offloaded {} bytes to {} ({} stored)", content.length, key, value.length - 1);
+    return new PayloadRef(key, content.length);
+  }
+
+  private byte[] load(PayloadRef ref) throws CodeExecutionException {
+    byte[] value = get(ref);
+    if (value[0] == RAW) {
+      byte[] content = new byte[value.length - 1];
+      System.arraycopy(value, 1, content, 0, content.length);
+      return content;
+    }
+    try {
+      return Compression.inflate(value, 1, ref.size());
+    } catch (DataFormatException e) {
+      throw new CodeExecutionException("Corrupted task payload " + ref.key(), e);
+    }
+  }
+
+  private byte[] get(PayloadRef ref) throws CodeExecutionException {
+    byte[] value = payloadRedisTemplate.opsForValue().get(ref.key());
+    if (value == null || value.length == 0) {
+      throw new CodeExecutionException("Task payload " + ref.key() + " is no longer available");
+    }
+    return value;
+  }
+
+  private byte[] encode(byte[] content) {
+    byte[] body = content;
+    byte marker = RAW;
+    byte[] compressed = Compression.deflate(content);
+    if (compressed.length < content.length) {
+      body = compressed;
+      marker = DEFLATED;
+    }
+    byte[] value = new byte[body.length + 1];
+    value[0] = marker;
+    System.arraycopy(body, 0, value, 1, body.length);
+    return value;
+  }
+
+  private static SubmissionRequest withBodies(
+      SubmissionRequest request, byte[] code, byte[] stdin) {
+    return new SubmissionRequest(
+        code,
+        request.language(),
+        stdin,
+        request.cpuTimeLimit(),
+        request.cpuExtraTime(),
+        request.commandLineArguments(),
+        request.compilerOptions(),
+        request.encodeOutputToBase64());
+  }
+
+  /**
+   * Reads a stored value with GETRANGE, one chunk at a time, so that large inputs are never held
+   * in memory as a whole. The length of the value is known upfront: GETRANGE on an expired key
+   * returns nothing, which would otherwise look like the end of the input. Backends may read stdin
+   * on a thread of their own that only logs errors, so a failed read is thrown again on close.
+   */
+  private final class ChunkedValueInputStream extends InputStream {
+    private final String name;
+    private final byte[] key;
+    private final long size;
+    private byte[] chunk = new byte[0];
+    private int index;
+    private long position;
+    private volatile IOException failure;
+
+    private ChunkedValueInputStream(String name, byte[] key, long size) {
+      this.name = name;
+      this.key = key;
+      this.size = size;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (index == chunk.length && !fill()) {
+        return -1;
+      }
+      return chunk[index++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      if (index == chunk.length && !fill()) {
+        return -1;
+      }
+      int count = Math.min(length, chunk.length - index);
+      System.arraycopy(chunk, index, buffer, offset, count);
+      index += count;
+      return count;
+    }
+
+    private boolean fill() throws IOException {
+      if (position == size) {
+        return false;
+      }
+      long start = position;
+      long end = Math.min(start + CHUNK_SIZE, size) - 1;
+      byte[] next =
+          payloadRedisTemplate.execute(
+              (RedisCallback<byte[]>)
+                  connection -> connection.stringCommands().getRange(key, start, end));
+      if (next == null || next.length < end - start + 1) {
+        failure =
+            new IOException(
+                "Task payload " + name + " expired after " + position + " of " + size + " bytes");
+        throw failure;
+      }
+      position += next.length;
+      chunk = next;
+      index = 0;
+      return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+  private String sha256(byte[] content) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
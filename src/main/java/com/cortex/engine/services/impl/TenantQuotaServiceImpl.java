@@ -0,0 +1,125 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.config.TenantProperties;
+import com.cortex.engine.config.TenantProperties.Quota;
+import com.cortex.engine.controllers.dto.TenantUsageResponse;
+import com.cortex.engine.services.ITenantQuotaService;
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+/**
+ * Enforces per-tenant quotas with counters shared by every worker through Redis.
+ *
+ * <p>Two keys are kept per tenant: the leases of the executions currently running, in a sorted set
+ * scored by when each lease expires, and the slot time consumed in the current accounting window.
+ * Slot time is the wall-clock time executions hold a slot, not the CPU time they use. Both keys
+ * are checked and updated atomically by Lua scripts so that concurrent workers never over-admit a
+ * tenant. Expired leases are pruned on every acquire, so a slot leaked by a crashed worker is
+ * freed after {@code engine.tenants.slot-lease} however busy the tenant stays.
+ */
+@Service
+@Slf4j
+public class TenantQuotaServiceImpl implements ITenantQuotaService {
+
+  private static final String KEY_PREFIX = "tenant:";
+
+  private static final RedisScript<Long> ACQUIRE_SCRIPT =
+      RedisScript.of(
+          """
+          local time = redis.call('TIME')
+          local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+          redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now)
+          local running = redis.call('ZCARD', KEYS[1])
+          local used = tonumber(redis.call('GET', KEYS[2]) or '0')
+          if running >= tonumber(ARGV[1]) or used >= tonumber(ARGV[2]) then
+            return 0
+          end
+          redis.call('ZADD', KEYS[1], now + tonumber(ARGV[3]), ARGV[4])
+          redis.call('PEXPIRE', KEYS[1], ARGV[3])
+          return 1
+          """,
+          Long.class);
+
+  private static final RedisScript<Long> RELEASE_SCRIPT =
+      RedisScript.of(
+          """
+          redis.call('ZREM', KEYS[1], ARGV[1])
+          redis.call('INCRBY', KEYS[2], ARGV[2])
+          redis.call('PEXPIRE', KEYS[2], ARGV[3])
+          return 1
+          """,
+          Long.class);
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final TenantProperties tenantProperties;
+
+  public TenantQuotaServiceImpl(
+      StringRedisTemplate stringRedisTemplate, TenantProperties tenantProperties) {
+    this.stringRedisTemplate = stringRedisTemplate;
+    this.tenantProperties = tenantProperties;
+  }
+
+  @Override
+  public String tryAcquire(String tenantId) {
+    Quota quota = tenantProperties.quotaFor(tenantId);
+    String leaseId = UUID.randomUUID().toString();
+    Long acquired =
+        stringRedisTemplate.execute(
+            ACQUIRE_SCRIPT,
+            List.of(leasesKey(tenantId), slotTimeKey(tenantId)),
+            String.valueOf(quota.getMaxConcurrent()),
+            String.valueOf(quota.getSlotSeconds() * 1000),
+            String.valueOf(tenantProperties.getSlotLease().toMillis()),
+            leaseId);
+    return acquired != null && acquired == 1L ? leaseId : null;
+  }
+
+  @Override
+  public void release(String tenantId, String leaseId, long slotMillis) {
+    try {
+      stringRedisTemplate.execute(
+          RELEASE_SCRIPT,
+          List.of(leasesKey(tenantId), slotTimeKey(tenantId)),
+          leaseId,
+          String.valueOf(Math.max(slotMillis, 0)),
+          String.valueOf(tenantProperties.getUsageWindow().toMillis()));
+    } catch (Exception e) {
+      log.error("Failed to release quota slot for tenant {}", tenantId, e);
+    }
+  }
+
+  @Override
+  public TenantUsageResponse getUsage(String tenantId) {
+    Quota quota = tenantProperties.quotaFor(tenantId);
+    Long running =
+        stringRedisTemplate
+            .opsForZSet()
+            .count(leasesKey(tenantId), System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+    long slotMillis = parseLong(stringRedisTemplate.opsForValue().get(slotTimeKey(tenantId)));
+    return new TenantUsageResponse(
+        tenantId,
+        quota.getWeight(),
+        running != null ? running : 0L,
+        quota.getMaxConcurrent(),
+        slotMillis / 1000.0,
+        quota.getSlotSeconds());
+  }
+
+  private String leasesKey(String tenantId) {
+    return KEY_PREFIX + tenantId + ":leases";
+  }
+
+  private String slotTimeKey(String tenantId) {
+    long window = tenantProperties.getUsageWindow().toMillis();
+    long windowStart = System.currentTimeMillis() / window * window;
+    return KEY_PREFIX + tenantId + ":slot-time:" + windowStart;
+  }
+
+  private long parseLong(String value) {
+    return value != null ? Long.parseLong(value) : 0L;
+  }
+}
@@ -0,0 +1,184 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.docker.ToolchainCache;
+import com.cortex.engine.docker.ToolchainCacheSpec;
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.repositories.LanguageRepository;
+import com.cortex.engine.services.IToolchainCacheService;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.command.InspectVolumeResponse;
+import com.github.dockerjava.api.command.ListVolumesResponse;
+import com.github.dockerjava.api.command.WaitContainerResultCallback;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.model.AccessMode;
+import com.github.dockerjava.api.model.Bind;
+import com.github.dockerjava.api.model.HostConfig;
+import com.github.dockerjava.api.model.Volume;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains pre-warmed toolchain cache volumes, one per language and image.
+ *
+ * <p>Volumes are named after the image ID they were built from, so a new image always gets a fresh
+ * cache: the old volume is removed once the new one is ready. A marker file written at the end of
+ * the warm-up distinguishes complete caches from ones interrupted by a restart.
+ */
+@Service
+@Profile("!api")
+@RequiredArgsConstructor
+@Slf4j
+public class ToolchainCacheServiceImpl implements IToolchainCacheService {
+
+  private static final String VOLUME_PREFIX = "cortex-cache-";
+  private static final String CACHE_LABEL = "cortex.cache";
+  private static final String READY_MARKER = ToolchainCacheSpec.MOUNT_PATH + "/.ready";
+
+  private final DockerClient dockerClient;
+  private final LanguageRepository languageRepository;
+  private final List<ToolchainCacheSpec> toolchainCacheSpecs;
+
+  private final Map<String, ToolchainCache> readyCaches = new ConcurrentHashMap<>();
+
+  @Value("${engine.toolchain-cache.warm-up-timeout-minutes:10}")
+  private long warmUpTimeoutMinutes;
+
+  @Override
+  public Optional<ToolchainCache> getCache(Language language) {
+    return Optional.ofNullable(readyCaches.get(language.getName()));
+  }
+
+  @Override
+  @Scheduled(fixedDelayString = "${engine.toolchain-cache.refresh-interval-ms:900000}")
+  public synchronized void refreshCaches() {
+    for (ToolchainCacheSpec spec : toolchainCacheSpecs) {
+      Optional<Language> language = languageRepository.findByName(spec.language());
+      if (language.isEmpty()) {
+        continue;
+      }
+      try {
+        refreshCache(spec, language.get().getDockerImage());
+      } catch (NotFoundException e) {
+        log.warn(
+            "Image {} for {} is not available locally, skipping its toolchain cache",
+            language.get().getDockerImage(),
+            spec.language());
+      } catch (Exception e) {
+        log.error("Failed to prepare toolchain cache for {}", spec.language(), e);
+      }
+    }
+  }
+
+  private void refreshCache(ToolchainCacheSpec spec, String image) {
+    String imageId = dockerClient.inspectImageCmd(image).exec().getId();
+    String volumeName = VOLUME_PREFIX + spec.language() + "-" + shortId(imageId);
+
+    ToolchainCache current = readyCaches.get(spec.language());
+    if (current != null && current.volumeName().equals(volumeName)) {
+      return;
+    }
+
+    if (!isReady(image, volumeName)) {
+      log.info("Warming up toolchain cache {} from image {}", volumeName, image);
+      removeVolume(volumeName);
+      dockerClient
+          .createVolumeCmd()
+          .withName(volumeName)
+          .withLabels(Map.of(CACHE_LABEL, spec.language()))
+          .exec();
+      int status =
+          runWithVolume(
+              image,
+              volumeName,
+              AccessMode.rw,
+              spec.warmUpCommand() + " && touch " + READY_MARKER,
+              warmUpTimeoutMinutes);
+      if (status != 0) {
+        removeVolume(volumeName);
+        throw new IllegalStateException("Warm-up exited with status " + status);
+      }
+    }
+
+    readyCaches.put(spec.language(), new ToolchainCache(volumeName, spec));
+    log.info("Toolchain cache {} is ready", volumeName);
+    removeStaleVolumes(spec.language(), volumeName);
+  }
+
+  private boolean isReady(String image, String volumeName) {
+    try {
+      dockerClient.inspectVolumeCmd(volumeName).exec();
+    } catch (NotFoundException e) {
+      return false;
+    }
+    return runWithVolume(image, volumeName, AccessMode.ro, "test -f " + READY_MARKER, 1) == 0;
+  }
+
+  private int runWithVolume(
+      String image, String volumeName, AccessMode accessMode, String command, long timeoutMinutes) {
+    CreateContainerResponse container =
+        dockerClient
+            .createContainerCmd(image)
+            .withHostConfig(
+                new HostConfig()
+                    .withBinds(
+                        new Bind(
+                            volumeName, new Volume(ToolchainCacheSpec.MOUNT_PATH), accessMode)))
+            .withLabels(Map.of(CACHE_LABEL, volumeName))
+            .withCmd("/bin/sh", "-c", command)
+            .exec();
+    try {
+      dockerClient.startContainerCmd(container.getId()).exec();
+      Integer status =
+          dockerClient
+              .waitContainerCmd(container.getId())
+              .exec(new WaitContainerResultCallback())
+              .awaitStatusCode(timeoutMinutes, TimeUnit.MINUTES);
+      return status != null ? status : -1;
+    } finally {
+      dockerClient.removeContainerCmd(container.getId()).withForce(true).exec();
+    }
+  }
+
+  private void removeStaleVolumes(String language, String currentVolume) {
+    ListVolumesResponse response =
+        dockerClient
+            .listVolumesCmd()
+            .withFilter("label", List.of(CACHE_LABEL + "=" + language))
+            .exec();
+    if (response.getVolumes() == null) {
+      return;
+    }
+    for (InspectVolumeResponse volume : response.getVolumes()) {
+      if (!volume.getName().equals(currentVolume)) {
+        removeVolume(volume.getName());
+      }
+    }
+  }
+
+  private void removeVolume(String volumeName) {
+    try {
+      dockerClient.removeVolumeCmd(volumeName).exec();
+      log.info("Removed toolchain cache volume {}", volumeName);
+    } catch (NotFoundException e) {
+      // Nothing to remove
+    } catch (Exception e) {
+      // Still mounted by a running execution; retried on the next refresh
+      log.debug("Could not remove toolchain cache volume {}: {}", volumeName, e.getMessage());
+    }
+  }
+
+  private String shortId(String imageId) {
+    String id = imageId.startsWith("sha256:") ? imageId.substring("sha256:".length()) : imageId;
+    return id.substring(0, Math.min(12, id.length()));
+  }
+}
@@ -0,0 +1,86 @@
+package com.cortex.engine.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Appends finished spans to a local file, one JSON object per line, for environments without a
+ * tracing backend. A task's path can be followed with {@code grep <traceId>}.
+ */
+@Slf4j
+public class FileSpanExporter implements SpanExporter {
+
+  private final ObjectMapper objectMapper;
+  private final BufferedWriter writer;
+
+  public FileSpanExporter(Path file, ObjectMapper objectMapper) throws IOException {
+    this.objectMapper = objectMapper;
+    if (file.getParent() != null) {
+      Files.createDirectories(file.getParent());
+    }
+    this.writer =
+        Files.newBufferedWriter(
+            file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+  }
+
+  @Override
+  public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+    try {
+      for (SpanData span : spans) {
+        writer.write(objectMapper.writeValueAsString(toRecord(span)));
+        writer.newLine();
+      }
+      writer.flush();
+      return CompletableResultCode.ofSuccess();
+    } catch (IOException e) {
+      log.warn("Failed to export {} spans: {}", spans.size(), e.getMessage());
+      return CompletableResultCode.ofFailure();
+    }
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    return CompletableResultCode.ofSuccess();
+  }
+
+  @Override
+  public synchronized CompletableResultCode shutdown() {
+    try {
+      writer.close();
+      return CompletableResultCode.ofSuccess();
+    } catch (IOException e) {
+      return CompletableResultCode.ofFailure();
+    }
+  }
+
+  private Map<String, Object> toRecord(SpanData span) {
+    Map<String, Object> attributes = new LinkedHashMap<>();
+    span.getAttributes()
+        .forEach((AttributeKey<?> key, Object value) -> attributes.put(key.getKey(), value));
+
+    Map<String, Object> record = new LinkedHashMap<>();
+    record.put("traceId", span.getTraceId());
+    record.put("spanId", span.getSpanId());
+    record.put("parentSpanId", span.getParentSpanId());
+    record.put("name", span.getName());
+    record.put("kind", span.getKind().name());
+    record.put("startEpochNanos", span.getStartEpochNanos());
+    record.put("durationMicros", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1000);
+    record.put("status", span.getStatus().getStatusCode().name());
+    record.put("attributes", attributes);
+    return record;
+  }
+}
@@ -0,0 +1,39 @@
+package com.cortex.engine.validation;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import java.io.IOException;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Decodes a Base64 JSON string straight into bytes while it is being read.
+ *
+ * <p>The parser streams the decoded bytes into a buffer that refuses to grow past {@code
+ * engine.submission.max-code-bytes}, so an oversized payload is rejected before the rest of it is
+ * read, and no intermediate {@link String} of the encoded value is ever created. Malformed Base64
+ * fails deserialization the same way.
+ */
+public class BoundedBase64Deserializer extends JsonDeserializer<byte[]> {
+
+  public static final int DEFAULT_MAX_BYTES = 1024 * 1024;
+
+  @Value("${engine.submission.max-code-bytes:" + DEFAULT_MAX_BYTES + "}")
+  private int maxBytes = DEFAULT_MAX_BYTES;
+
+  @Override
+  public byte[] deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+    if (parser.currentToken() != JsonToken.VALUE_STRING) {
+      return (byte[]) context.handleUnexpectedToken(byte[].class, parser);
+    }
+    BoundedOutputStream decoded = new BoundedOutputStream(maxBytes, "Decoded code");
+    try {
+      parser.readBinaryValue(context.getBase64Variant(), decoded);
+    } catch (StreamReadException e) {
+      throw context.weirdStringException(null, byte[].class, "The code must be Base64 encoded");
+    }
+    return decoded.toByteArray();
+  }
+}
@@ -0,0 +1,39 @@
+package com.cortex.engine.validation;
+
+import com.cortex.engine.exceptions.PayloadTooLargeException;
+import java.io.ByteArrayOutputStream;
+
+/** A byte buffer that refuses to grow past a limit, so oversized values fail while being read. */
+final class BoundedOutputStream extends ByteArrayOutputStream {
+  private final int maxBytes;
+  private final String what;
+
+  /**
+   * @param maxBytes The largest number of bytes the buffer accepts
+   * @param what What the bytes are, for the error message
+   */
+  BoundedOutputStream(int maxBytes, String what) {
+    super(Math.min(maxBytes, 8192));
+    this.maxBytes = maxBytes;
+    this.what = what;
+  }
+
+  @Override
+  public synchronized void write(byte[] bytes, int offset, int length) {
+    ensureCapacityFor(length);
+    super.write(bytes, offset, length);
+  }
+
+  @Override
+  public synchronized void write(int value) {
+    ensureCapacityFor(1);
+    super.write(value);
+  }
+
+  private void ensureCapacityFor(int length) {
+    if (count + length > maxBytes) {
+      throw new PayloadTooLargeException(
+          what + " exceeds the maximum size of " + maxBytes + " bytes");
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.cortex.engine.validation;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Reads a JSON string straight into its UTF-8 bytes.
+ *
+ * <p>The text is encoded into a buffer that refuses to grow past {@code
+ * engine.submission.max-stdin-bytes}, and no {@link String} of the value is created. Jackson still
+ * reads the whole value into its own character buffer first; {@link
+ * com.cortex.engine.config.JacksonConfig} caps that buffer at the same length. Paired with {@link
+ * Utf8TextSerializer}, the value keeps its plain-text form in JSON.
+ */
+public class Utf8TextDeserializer extends JsonDeserializer<byte[]> {
+
+  public static final int DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+
+  @Value("${engine.submission.max-stdin-bytes:" + DEFAULT_MAX_BYTES + "}")
+  private int maxBytes = DEFAULT_MAX_BYTES;
+
+  @Override
+  public byte[] deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+    if (parser.currentToken() != JsonToken.VALUE_STRING) {
+      return (byte[]) context.handleUnexpectedToken(byte[].class, parser);
+    }
+    BoundedOutputStream encoded = new BoundedOutputStream(maxBytes, "Standard input");
+    try (Writer writer = new OutputStreamWriter(encoded, StandardCharsets.UTF_8)) {
+      parser.getText(writer);
+    }
+    return encoded.toByteArray();
+  }
+}
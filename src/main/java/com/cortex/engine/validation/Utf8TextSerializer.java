@@ -0,0 +1,25 @@
+package com.cortex.engine.validation;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes UTF-8 bytes as a plain JSON string rather than Base64, the counterpart of {@link
+ * Utf8TextDeserializer}. Generators that write bytes take the encoded text as it is; the others
+ * are given a decoded copy.
+ */
+public class Utf8TextSerializer extends JsonSerializer<byte[]> {
+
+  @Override
+  public void serialize(byte[] value, JsonGenerator generator, SerializerProvider serializers)
+      throws IOException {
+    try {
+      generator.writeUTF8String(value, 0, value.length);
+    } catch (UnsupportedOperationException e) {
+      generator.writeString(new String(value, StandardCharsets.UTF_8));
+    }
+  }
+}
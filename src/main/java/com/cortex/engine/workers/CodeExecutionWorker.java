@@ -1,22 +1,80 @@
 package com.cortex.engine.workers;
 
+import com.cortex.engine.config.RabbitMQConfig;
 import com.cortex.engine.controllers.dto.CodeExecutionTask;
-import com.cortex.engine.services.impl.CodeExecutionServiceImpl;
+import com.cortex.engine.messaging.Delivery;
+import com.cortex.engine.messaging.TaskPublisher;
+import com.cortex.engine.scheduling.FairTaskScheduler;
+import com.cortex.engine.services.ILanguageWarmUpService;
+import com.rabbitmq.client.Channel;
+import java.time.Duration;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.context.annotation.Profile;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
 @Component
+@Profile("!api")
 @RequiredArgsConstructor
 @Slf4j
 public class CodeExecutionWorker {
 
-  private final CodeExecutionServiceImpl codeExecutionServiceImpl;
+  /** How long a task waits for its language to finish warming up before it is handed back. */
+  private static final Duration WARM_UP_WAIT = Duration.ofMillis(500);
 
-  @RabbitListener(queues = "codeExecution")
-  public void processCodeExecution(CodeExecutionTask task) {
-    log.info("Received code execution task: {}", task.getTaskId());
-    codeExecutionServiceImpl.processCodeExecution(task);
+  private final FairTaskScheduler fairTaskScheduler;
+  private final TaskPublisher taskPublisher;
+  private final ILanguageWarmUpService languageWarmUpService;
+
+  @RabbitListener(
+      queues = RabbitMQConfig.CODE_EXECUTION_QUEUE,
+      containerFactory = RabbitMQConfig.CODE_EXECUTION_LISTENER_FACTORY)
+  public void processCodeExecution(
+      CodeExecutionTask task, Channel channel, @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag)
+      throws InterruptedException {
+    log.info("Received code execution task: {} (tenant {})", task.getTaskId(), task.getTenantId());
+    Delivery delivery = Delivery.of(channel, deliveryTag);
+    try {
+      if (!languageWarmUpService.awaitReady(task.getSubmissionRequest().language(), WARM_UP_WAIT)) {
+        // Still pulling or warming up the image here; another node may already be ready for it
+        log.debug("Language of task {} is not ready yet, deferring it", task.getTaskId());
+        defer(task, delivery);
+        return;
+      }
+      if (!fairTaskScheduler.offer(task, delivery)) {
+        // The tenant already has a full lane on this node; send the task to the back of the queue
+        // so that other tenants' messages behind it are not held up.
+        log.debug(
+            "Lane for tenant {} is full, deferring task {}", task.getTenantId(), task.getTaskId());
+        defer(task, delivery);
+      }
+    } catch (InterruptedException | RuntimeException e) {
+      // Buffered tasks are acknowledged by the scheduler once they have run
+      delivery.requeue();
+      throw e;
+    }
+  }
+
+  /**
+   * Republishes the task to the deferred queue, which hands it back to the execution queue after
+   * {@code engine.scheduler.defer-delay}, so that workers do not cycle through a throttled
+   * tenant's tasks at broker speed. The original is only acknowledged once the broker has
+   * confirmed the copy, and requeued if it could not be published.
+   */
+  private void defer(CodeExecutionTask task, Delivery delivery) {
+    taskPublisher
+        .publish(RabbitMQConfig.DEFERRED_CODE_EXECUTION_QUEUE, task.getTaskId(), task)
+        .whenComplete(
+            (confirmed, error) -> {
+              if (error == null) {
+                delivery.ack();
+              } else {
+                log.warn("Failed to defer task {}, requeueing it", task.getTaskId());
+                delivery.requeue();
+              }
+            });
   }
 }
@@ -0,0 +1,31 @@
+package com.cortex.engine.workers;
+
+import com.cortex.engine.config.RabbitMQConfig;
+import com.cortex.engine.controllers.dto.JudgeTask;
+import com.cortex.engine.services.IJudgeExecutionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Takes judge tasks off their own queue. Each task fans out over several containers, so a node
+ * only takes a few at a time and leaves the rest to other workers.
+ */
+@Component
+@Profile("!api")
+@RequiredArgsConstructor
+@Slf4j
+public class JudgeWorker {
+
+  private final IJudgeExecutionService judgeExecutionService;
+
+  @RabbitListener(
+      queues = RabbitMQConfig.JUDGE_QUEUE,
+      concurrency = "${engine.judge.concurrency:2}")
+  public void processJudgeTask(JudgeTask task) {
+    log.info("Received judge task: {} (tenant {})", task.getTaskId(), task.getTenantId());
+    judgeExecutionService.judge(task);
+  }
+}
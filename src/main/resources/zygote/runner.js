@@ -0,0 +1,19 @@
+// A pre-started Node.js process waiting for one run from zygote.js.
+
+'use strict';
+
+// Loaded before the run arrives so that programs find them in the module cache
+require('fs');
+require('path');
+require('readline');
+require('util');
+require('events');
+
+process.once('message', ({ dir, file }) => {
+  process.umask(0o077);
+  process.chdir(dir);
+  process.argv[1] = file;
+  // Let the event loop drain and exit once the program is done
+  process.disconnect();
+  require(file);
+});
@@ -0,0 +1,197 @@
+// Node.js pre-spawn server for the engine's zygote execution backend.
+//
+// Node cannot fork a running interpreter, so this server keeps a few runner processes that have
+// already started and loaded the common built-in modules, and hands each run to one of them. The
+// interpreter startup therefore happens ahead of time instead of on the run's critical path.
+// The protocol and the layout match zygote.py:
+//
+//   control  <- "run <id> <timeout-ms> <memory-bytes> <stdin 0|1>"
+//   events   -> "started <id>", "exit <id> <code>" or "timeout <id>"
+//
+// Each run has a working directory runs/<id>/ holding main.js, written by the engine, and a
+// directory ipc/<id>/ with the stdout and stderr files written here and, when the run has stdin, a
+// stdin FIFO that the engine streams into. Every runner is spawned as a user of its own, taken
+// from a pool, so it can only reach its working directory. When the run ends, every process left
+// with its user is killed and its working directory is removed before the user is reused.
+//
+// Usage: zygote.js <root> <memory-mb> <spares> <engine-uid> <engine-gid> <first-uid> <uids>
+
+'use strict';
+
+const { execFileSync, spawn, spawnSync } = require('child_process');
+const fs = require('fs');
+const path = require('path');
+
+const ROOT = process.argv[2] || '/zygote';
+const MEMORY_MB = Number(process.argv[3] || 128);
+const SPARES = Number(process.argv[4] || 2);
+const OWNER_UID = Number(process.argv[5] || 0);
+const OWNER_GID = Number(process.argv[6] || 0);
+const FIRST_RUN_UID = Number(process.argv[7] || 20000);
+const RUN_UIDS = Number(process.argv[8] || 16);
+const IPC = path.join(ROOT, 'ipc');
+const RUNS = path.join(ROOT, 'runs');
+const CONTROL = path.join(IPC, 'control');
+const EVENTS = path.join(IPC, 'events');
+const RUNNER = path.join(__dirname, 'runner.js');
+
+function giveToEngine(file, mode) {
+  fs.chownSync(file, OWNER_UID, OWNER_GID);
+  fs.chmodSync(file, mode);
+}
+
+function makeFifo(file) {
+  if (!fs.existsSync(file)) {
+    execFileSync('mkfifo', [file]);
+  }
+  giveToEngine(file, 0o600);
+}
+
+makeFifo(CONTROL);
+makeFifo(EVENTS);
+// Opened read-write so that neither end ever sees EOF while the engine reconnects
+const control = fs.openSync(CONTROL, 'r+');
+const events = fs.openSync(EVENTS, 'r+');
+
+function emit(line) {
+  fs.writeSync(events, line + '\n');
+}
+
+const freeUids = [];
+for (let uid = FIRST_RUN_UID; uid < FIRST_RUN_UID + RUN_UIDS; uid++) {
+  freeUids.push(uid);
+}
+const spares = [];
+
+function spawnSpare() {
+  const uid = freeUids.pop();
+  if (uid === undefined) {
+    return;
+  }
+  const runner = spawn(process.execPath, [`--max-old-space-size=${MEMORY_MB}`, RUNNER], {
+    stdio: ['pipe', 'pipe', 'pipe', 'ipc'],
+    detached: true,
+    uid,
+    gid: uid,
+  });
+  runner.uid = uid;
+  runner.on('error', () => {});
+  spares.push(runner);
+}
+
+for (let i = 0; i < SPARES; i++) {
+  spawnSpare();
+}
+
+// Kills every process of a run's user, including those that left its process group
+function killUser(uid) {
+  spawnSync('/bin/sh', ['-c', 'kill -9 -1'], { uid, gid: uid, stdio: 'ignore' });
+}
+
+// Gives the run's working directory, as written by the engine, to the run's user
+function handOver(runDir, uid) {
+  for (const entry of fs.readdirSync(runDir)) {
+    fs.lchownSync(path.join(runDir, entry), uid, uid);
+  }
+  fs.chownSync(runDir, uid, uid);
+  fs.chmodSync(runDir, 0o700);
+}
+
+// Creates the run's files on the engine's side, out of the runner's reach
+function makeOutDir(runId, hasStdin) {
+  const outDir = path.join(IPC, runId);
+  fs.mkdirSync(outDir);
+  giveToEngine(outDir, 0o700);
+  for (const name of ['stdout', 'stderr']) {
+    fs.writeFileSync(path.join(outDir, name), '', { flag: 'wx', mode: 0o600 });
+    giveToEngine(path.join(outDir, name), 0o600);
+  }
+  if (hasStdin) {
+    makeFifo(path.join(outDir, 'stdin'));
+  }
+  return outDir;
+}
+
+function start(runId, timeoutMs, hasStdin) {
+  const runner = spares.shift();
+  spawnSpare();
+  if (runner === undefined) {
+    // The engine never runs more than the pool allows; refuse rather than share a user
+    const outDir = makeOutDir(runId, false);
+    fs.writeFileSync(path.join(outDir, 'stderr'), 'No free run user in the fork server\n');
+    emit(`started ${runId}`);
+    emit(`exit ${runId} 125`);
+    return;
+  }
+  const runDir = path.join(RUNS, runId);
+  handOver(runDir, runner.uid);
+  const outDir = makeOutDir(runId, hasStdin);
+
+  const stdout = fs.createWriteStream(path.join(outDir, 'stdout'));
+  const stderr = fs.createWriteStream(path.join(outDir, 'stderr'));
+  runner.stdout.pipe(stdout);
+  runner.stderr.pipe(stderr);
+  if (hasStdin) {
+    fs.createReadStream(path.join(outDir, 'stdin')).on('error', () => {}).pipe(runner.stdin);
+  } else {
+    runner.stdin.end();
+  }
+  runner.stdin.on('error', () => {});
+
+  let timedOut = false;
+  const timer = setTimeout(() => {
+    timedOut = true;
+    killUser(runner.uid);
+  }, timeoutMs);
+
+  runner.on('close', (code, signal) => {
+    clearTimeout(timer);
+    killUser(runner.uid);
+    fs.rmSync(runDir, { recursive: true, force: true });
+    freeUids.push(runner.uid);
+    if (spares.length < SPARES) {
+      spawnSpare();
+    }
+    if (hasStdin) {
+      releaseStdin(outDir);
+    }
+    let pending = 2;
+    const done = () => {
+      if (--pending === 0) {
+        emit(timedOut ? `timeout ${runId}` : `exit ${runId} ${code ?? (signal ? 128 : 1)}`);
+      }
+    };
+    stdout.end(done);
+    stderr.end(done);
+  });
+
+  runner.send({ dir: runDir, file: path.join(runDir, 'main.js') });
+  emit(`started ${runId}`);
+}
+
+// Unblocks an engine writer still waiting for a reader on the run's stdin FIFO
+function releaseStdin(outDir) {
+  try {
+    const flags = fs.constants.O_RDONLY | fs.constants.O_NONBLOCK;
+    fs.closeSync(fs.openSync(path.join(outDir, 'stdin'), flags));
+  } catch (e) {
+    // Nothing to release
+  }
+}
+
+let pending = '';
+fs.createReadStream(null, { fd: control, autoClose: false }).on('data', (chunk) => {
+  pending += chunk.toString();
+  let newline;
+  while ((newline = pending.indexOf('\n')) >= 0) {
+    const parts = pending.slice(0, newline).trim().split(/\s+/);
+    pending = pending.slice(newline + 1);
+    if (parts.length === 5 && parts[0] === 'run' && !parts[1].includes('/')) {
+      start(parts[1], Number(parts[2]), parts[4] === '1');
+    }
+  }
+});
+
+const ready = path.join(IPC, 'ready');
+fs.writeFileSync(ready, '');
+giveToEngine(ready, 0o600);
@@ -0,0 +1,263 @@
+"""Python fork server for the engine's zygote execution backend.
+
+Imports the interpreter and the commonly used standard library once, then forks a child per run.
+The engine talks to it through two FIFOs in ipc/ under the shared directory:
+
+  control  <- "run <id> <timeout-ms> <memory-bytes> <stdin 0|1>"
+  events   -> "started <id>", "exit <id> <code>" or "timeout <id>"
+
+Each run has a working directory runs/<id>/ holding main.py, written by the engine, and a
+directory ipc/<id>/ with its stdout and stderr files and, when the run has stdin, a stdin FIFO
+that the engine streams into. The child opens those while still root and then switches to a user
+of its own, taken from a pool, so it can only reach its working directory: ipc/ belongs to the
+engine's user with mode 0700 and every other run's directory to another user. When the run ends,
+every process left with its user is killed, even those that left its session, and its working
+directory is removed before the user is handed to another run. The server is single-threaded so
+that forking is safe.
+
+Usage: zygote.py <root> <engine-uid> <engine-gid> <first-run-uid> <run-uids>
+"""
+
+import os
+import resource
+import select
+import shutil
+import signal
+import sys
+import time
+import traceback
+
+# Paid once per container instead of once per run
+import bisect  # noqa: F401
+import collections  # noqa: F401
+import dataclasses  # noqa: F401
+import datetime  # noqa: F401
+import decimal  # noqa: F401
+import fractions  # noqa: F401
+import functools  # noqa: F401
+import heapq  # noqa: F401
+import itertools  # noqa: F401
+import json  # noqa: F401
+import math  # noqa: F401
+import random  # noqa: F401
+import re  # noqa: F401
+import runpy
+import statistics  # noqa: F401
+import string  # noqa: F401
+import typing  # noqa: F401
+
+ROOT = sys.argv[1] if len(sys.argv) > 1 else "/zygote"
+OWNER_UID = int(sys.argv[2]) if len(sys.argv) > 2 else 0
+OWNER_GID = int(sys.argv[3]) if len(sys.argv) > 3 else 0
+FIRST_RUN_UID = int(sys.argv[4]) if len(sys.argv) > 4 else 20000
+RUN_UIDS = int(sys.argv[5]) if len(sys.argv) > 5 else 16
+IPC = os.path.join(ROOT, "ipc")
+RUNS = os.path.join(ROOT, "runs")
+CONTROL = os.path.join(IPC, "control")
+EVENTS = os.path.join(IPC, "events")
+# Per run user, so it also bounds fork bombs
+MAX_PROCESSES = 64
+
+
+def make_fifo(path):
+    if not os.path.exists(path):
+        os.mkfifo(path)
+    give_to_engine(path, 0o600)
+
+
+def give_to_engine(path, mode):
+    os.chown(path, OWNER_UID, OWNER_GID)
+    os.chmod(path, mode)
+
+
+def emit(events, line):
+    os.write(events, (line + "\n").encode())
+
+
+def hand_over(run_id, uid):
+    """Gives the run's working directory, as written by the engine, to the run's user."""
+    run_dir = os.path.join(RUNS, run_id)
+    for entry in os.listdir(run_dir):
+        os.lchown(os.path.join(run_dir, entry), uid, uid)
+    os.chown(run_dir, uid, uid)
+    os.chmod(run_dir, 0o700)
+    return run_dir
+
+
+def make_out_dir(run_id, has_stdin):
+    """Creates the run's files on the engine's side, out of the run's reach."""
+    out_dir = os.path.join(IPC, run_id)
+    os.mkdir(out_dir)
+    give_to_engine(out_dir, 0o700)
+    for name in ("stdout", "stderr"):
+        path = os.path.join(out_dir, name)
+        os.close(os.open(path, os.O_WRONLY | os.O_CREAT | os.O_EXCL, 0o600))
+        give_to_engine(path, 0o600)
+    if has_stdin:
+        make_fifo(os.path.join(out_dir, "stdin"))
+    return out_dir
+
+
+def kill_user(uid):
+    """Kills every process of a run's user, including those that left its process group."""
+    pid = os.fork()
+    if pid == 0:
+        try:
+            os.setresgid(uid, uid, uid)
+            os.setresuid(uid, uid, uid)
+            # Signals every process the caller may signal, which is every process of the user
+            os.kill(-1, signal.SIGKILL)
+        finally:
+            os._exit(0)
+    os.waitpid(pid, 0)
+
+
+def run_child(run_dir, out_dir, has_stdin, timeout_ms, memory, uid, inherited):
+    for fd in inherited:
+        os.close(fd)
+    signal.signal(signal.SIGCHLD, signal.SIG_DFL)
+    os.setsid()
+    stdin_path = os.path.join(out_dir, "stdin") if has_stdin else os.devnull
+    stdin = os.open(stdin_path, os.O_RDONLY)
+    stdout = os.open(os.path.join(out_dir, "stdout"), os.O_WRONLY | os.O_TRUNC | os.O_NOFOLLOW)
+    stderr = os.open(os.path.join(out_dir, "stderr"), os.O_WRONLY | os.O_TRUNC | os.O_NOFOLLOW)
+    os.dup2(stdin, 0)
+    os.dup2(stdout, 1)
+    os.dup2(stderr, 2)
+    for fd in (stdin, stdout, stderr):
+        os.close(fd)
+
+    # From here on, the run can no longer reach ipc/ or other runs
+    os.setgroups([])
+    os.setresgid(uid, uid, uid)
+    os.setresuid(uid, uid, uid)
+    os.umask(0o077)
+    os.chdir(run_dir)
+
+    cpu_seconds = timeout_ms // 1000 + 1
+    resource.setrlimit(resource.RLIMIT_CPU, (cpu_seconds, cpu_seconds))
+    resource.setrlimit(resource.RLIMIT_AS, (memory, memory))
+    resource.setrlimit(resource.RLIMIT_CORE, (0, 0))
+    resource.setrlimit(resource.RLIMIT_NPROC, (MAX_PROCESSES, MAX_PROCESSES))
+
+    code = 0
+    try:
+        sys.argv = [os.path.join(run_dir, "main.py")]
+        sys.path[0] = run_dir
+        runpy.run_path(sys.argv[0], run_name="__main__")
+    except SystemExit as exit_request:
+        if exit_request.code is None:
+            code = 0
+        elif isinstance(exit_request.code, int):
+            code = exit_request.code
+        else:
+            print(exit_request.code, file=sys.stderr)
+            code = 1
+    except BaseException:
+        traceback.print_exc()
+        code = 1
+    finally:
+        try:
+            sys.stdout.flush()
+            sys.stderr.flush()
+        finally:
+            os._exit(code)
+
+
+def release_stdin(out_dir):
+    """Unblocks an engine writer still waiting for a reader on the run's stdin FIFO."""
+    try:
+        fd = os.open(os.path.join(out_dir, "stdin"), os.O_RDONLY | os.O_NONBLOCK)
+        os.close(fd)
+    except OSError:
+        pass
+
+
+def finish(run):
+    """Leaves nothing of a finished run behind, so that its user can be handed out again."""
+    kill_user(run[5])
+    shutil.rmtree(os.path.join(RUNS, run[0]), ignore_errors=True)
+
+
+def main():
+    make_fifo(CONTROL)
+    make_fifo(EVENTS)
+    # Opened read-write so that neither end ever sees EOF while the engine reconnects
+    control = os.open(CONTROL, os.O_RDWR)
+    events = os.open(EVENTS, os.O_RDWR)
+    free_uids = list(range(FIRST_RUN_UID, FIRST_RUN_UID + RUN_UIDS))
+    ready = os.path.join(IPC, "ready")
+    with open(ready, "w"):
+        pass
+    give_to_engine(ready, 0o600)
+
+    runs = {}  # pid -> [id, out_dir, has_stdin, deadline, timed_out, uid]
+    pending = b""
+    while True:
+        now = time.monotonic()
+        wait = min([run[3] - now for run in runs.values()] + [0.05 if runs else 1.0])
+        readable, _, _ = select.select([control], [], [], max(wait, 0))
+        if readable:
+            pending += os.read(control, 65536)
+            while b"\n" in pending:
+                line, pending = pending.split(b"\n", 1)
+                parts = line.decode().split()
+                if len(parts) != 5 or parts[0] != "run" or "/" in parts[1]:
+                    continue
+                _, run_id, timeout_ms, memory, has_stdin = parts
+                has_stdin = has_stdin == "1"
+                if not free_uids:
+                    # The engine never runs more than the pool allows; refuse rather than share
+                    out_dir = make_out_dir(run_id, False)
+                    with open(os.path.join(out_dir, "stderr"), "w") as stderr:
+                        stderr.write("No free run user in the fork server\n")
+                    emit(events, "started " + run_id)
+                    emit(events, "exit %s 125" % run_id)
+                    continue
+                uid = free_uids.pop()
+                run_dir = hand_over(run_id, uid)
+                out_dir = make_out_dir(run_id, has_stdin)
+                pid = os.fork()
+                if pid == 0:
+                    run_child(
+                        run_dir,
+                        out_dir,
+                        has_stdin,
+                        int(timeout_ms),
+                        int(memory),
+                        uid,
+                        (control, events),
+                    )
+                deadline = now + int(timeout_ms) / 1000
+                runs[pid] = [run_id, out_dir, has_stdin, deadline, False, uid]
+                emit(events, "started " + run_id)
+
+        now = time.monotonic()
+        for pid, run in runs.items():
+            if not run[4] and run[3] <= now:
+                run[4] = True
+                kill_user(run[5])
+
+        while runs:
+            try:
+                pid, status = os.waitpid(-1, os.WNOHANG)
+            except ChildProcessError:
+                break
+            if pid == 0:
+                break
+            run = runs.pop(pid, None)
+            if run is None:
+                # A leftover process of a run, reparented to the server
+                continue
+            finish(run)
+            free_uids.append(run[5])
+            if run[2]:
+                release_stdin(run[1])
+            if run[4]:
+                emit(events, "timeout " + run[0])
+            else:
+                emit(events, "exit %s %d" % (run[0], os.waitstatus_to_exitcode(status)))
+
+
+if __name__ == "__main__":
+    main()
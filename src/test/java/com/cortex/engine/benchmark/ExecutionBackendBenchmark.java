@@ -0,0 +1,139 @@
+package com.cortex.engine.benchmark;
+
+import com.cortex.engine.config.DockerConfig;
+import com.cortex.engine.config.ExecutionBackendProperties;
+import com.cortex.engine.docker.ScratchSpace;
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.execution.DockerExecutionBackend;
+import com.cortex.engine.execution.ExecutionBackend;
+import com.cortex.engine.execution.ExecutionResult;
+import com.cortex.engine.execution.ForkServerExecutionBackend;
+import com.cortex.engine.execution.LocalProcessExecutionBackend;
+import com.cortex.engine.scheduling.CpusetAllocator;
+import com.cortex.engine.services.IToolchainCacheService;
+import com.github.dockerjava.api.DockerClient;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the per-execution overhead of the Docker, local-process and fork-server backends by
+ * running a trivial Python program end to end, including setup and teardown of the sandbox. The
+ * fork server's container is started by its warm-up runs, as it would be at worker startup. Needs
+ * a local Docker daemon with {@code python:3.12-slim}, and {@code python3}, {@code unshare} and
+ * {@code prlimit} on the host.
+ */
+@Tag("benchmark")
+class ExecutionBackendBenchmark {
+
+  private static final int WARMUP_RUNS = 3;
+  private static final int MEASURED_RUNS = 20;
+
+  private static final byte[] PROGRAM = "print('ok')".getBytes(StandardCharsets.UTF_8);
+
+  private static final Language PYTHON =
+      Language.builder()
+          .name("python")
+          .dockerImage("python:3.12-slim")
+          .executeCommand("python3 {fileName}")
+          .fileExtension(".py")
+          .defaultMemoryLimit(128 * 1024 * 1024L)
+          .defaultCpuLimit(1L)
+          .defaultTimeout(10_000L)
+          .build();
+
+  private static DockerClient dockerClient;
+
+  @BeforeAll
+  static void setUp() {
+    dockerClient = new DockerConfig().dockerClient(ObservationRegistry.NOOP);
+    try {
+      dockerClient.pingCmd().exec();
+    } catch (Exception e) {
+      assumeTrue(false, "Docker daemon is not available: " + e.getMessage());
+    }
+    assumeTrue(
+        Files.isExecutable(Path.of("/usr/bin/unshare"))
+            && Files.isExecutable(Path.of("/usr/bin/prlimit")),
+        "unshare and prlimit are required for the local backend");
+  }
+
+  @Test
+  void perExecutionOverhead() throws Exception {
+    // Pinning is left off so that both backends measure isolation overhead only
+    CpusetAllocator cpusetAllocator = new CpusetAllocator(dockerClient, false, "", "0");
+    IToolchainCacheService toolchainCacheService = mock(IToolchainCacheService.class);
+    when(toolchainCacheService.getCache(any())).thenReturn(Optional.empty());
+    LocalProcessExecutionBackend local =
+        new LocalProcessExecutionBackend(new ExecutionBackendProperties(), cpusetAllocator);
+    local.init();
+
+    ForkServerExecutionBackend zygote =
+        new ForkServerExecutionBackend(
+            dockerClient, cpusetAllocator, new ExecutionBackendProperties());
+
+    long[] docker =
+        measure(
+            new DockerExecutionBackend(
+                dockerClient,
+                toolchainCacheService,
+                cpusetAllocator,
+                new ScratchSpace(DataSize.ofMegabytes(64))));
+    long[] process = measure(local);
+    long[] forked;
+    try {
+      forked = measure(zygote);
+    } finally {
+      zygote.stopAll();
+    }
+
+    System.out.printf("%-10s %8s %8s %8s%n", "backend", "p50(ms)", "p90(ms)", "mean(ms)");
+    report(DockerExecutionBackend.NAME, docker);
+    report(LocalProcessExecutionBackend.NAME, process);
+    report(ForkServerExecutionBackend.NAME, forked);
+  }
+
+  private long[] measure(ExecutionBackend backend) throws Exception {
+    for (int i = 0; i < WARMUP_RUNS; i++) {
+      run(backend);
+    }
+    long[] samples = new long[MEASURED_RUNS];
+    for (int i = 0; i < MEASURED_RUNS; i++) {
+      long start = System.nanoTime();
+      run(backend);
+      samples[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+    Arrays.sort(samples);
+    return samples;
+  }
+
+  private void run(ExecutionBackend backend) throws Exception {
+    ExecutionResult result = backend.execute(PYTHON, PROGRAM, null);
+    assertEquals(3, result.statusId(), backend.getName() + " run failed: " + result.stderr());
+  }
+
+  private void report(String backend, long[] sortedSamples) {
+    double mean = Arrays.stream(sortedSamples).average().orElse(0);
+    System.out.printf(
+        "%-10s %8d %8d %8.1f%n",
+        backend,
+        sortedSamples[sortedSamples.length / 2],
+        sortedSamples[(int) Math.ceil(sortedSamples.length * 0.9) - 1],
+        mean);
+  }
+}
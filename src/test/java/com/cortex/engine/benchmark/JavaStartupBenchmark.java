@@ -0,0 +1,112 @@
+package com.cortex.engine.benchmark;
+
+import com.cortex.engine.config.DockerConfig;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback.Adapter;
+import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.command.ExecCreateCmdResponse;
+import com.github.dockerjava.api.model.Frame;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the per-submission startup time of the plain single-file source launcher on {@code
+ * eclipse-temurin:21} with the tuned launch command on the CDS-enabled {@code cortex/java-cds:21}
+ * image. Each run is a fresh JVM inside an already running container, which is what the engine
+ * pays for every Java execution.
+ */
+@Tag("benchmark")
+class JavaStartupBenchmark {
+
+  private static final int WARMUP_RUNS = 2;
+  private static final int MEASURED_RUNS = 10;
+
+  private static final String HELLO_WORLD =
+      "public class Main { public static void main(String[] a) {"
+          + " System.out.println(String.format(\"Hello, %s!\", \"World\")); } }";
+
+  private static final String BASELINE_COMMAND = "java Main.java";
+  private static final String CDS_COMMAND =
+      "java -XX:SharedArchiveFile=/opt/cortex/cds/java.jsa"
+          + " -XX:TieredStopAtLevel=1 -XX:+UseSerialGC -XX:-UsePerfData Main.java";
+
+  private static DockerClient dockerClient;
+
+  @BeforeAll
+  static void setUp() {
+    dockerClient = new DockerConfig().dockerClient(ObservationRegistry.NOOP);
+    try {
+      dockerClient.pingCmd().exec();
+    } catch (Exception e) {
+      assumeTrue(false, "Docker daemon is not available: " + e.getMessage());
+    }
+  }
+
+  @Test
+  void javaSourceLauncherStartup() throws Exception {
+    long[] baseline = measure("eclipse-temurin:21", BASELINE_COMMAND);
+    long[] cds = measure("cortex/java-cds:21", CDS_COMMAND);
+
+    System.out.printf("%-28s %8s %8s %8s%n", "variant", "p50(ms)", "p90(ms)", "mean(ms)");
+    report("eclipse-temurin:21 (plain)", baseline);
+    report("cortex/java-cds:21 (tuned)", cds);
+  }
+
+  private long[] measure(String image, String command) throws InterruptedException {
+    CreateContainerResponse container =
+        dockerClient
+            .createContainerCmd(image)
+            .withCmd("tail", "-f", "/dev/null")
+            .withWorkingDir("/tmp")
+            .exec();
+    try {
+      dockerClient.startContainerCmd(container.getId()).exec();
+      run(container.getId(), "printf '%s' '" + HELLO_WORLD + "' > Main.java");
+
+      for (int i = 0; i < WARMUP_RUNS; i++) {
+        run(container.getId(), command);
+      }
+      long[] samples = new long[MEASURED_RUNS];
+      for (int i = 0; i < MEASURED_RUNS; i++) {
+        long start = System.nanoTime();
+        run(container.getId(), command);
+        samples[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      }
+      Arrays.sort(samples);
+      return samples;
+    } finally {
+      dockerClient.removeContainerCmd(container.getId()).withForce(true).exec();
+    }
+  }
+
+  private void run(String containerId, String command) throws InterruptedException {
+    ExecCreateCmdResponse exec =
+        dockerClient
+            .execCreateCmd(containerId)
+            .withAttachStdout(true)
+            .withAttachStderr(true)
+            .withCmd("/bin/sh", "-c", command)
+            .exec();
+    dockerClient
+        .execStartCmd(exec.getId())
+        .exec(new Adapter<Frame>())
+        .awaitCompletion(60, TimeUnit.SECONDS);
+  }
+
+  private void report(String variant, long[] sortedSamples) {
+    double mean = Arrays.stream(sortedSamples).average().orElse(0);
+    System.out.printf(
+        "%-28s %8d %8d %8.1f%n",
+        variant,
+        sortedSamples[sortedSamples.length / 2],
+        sortedSamples[(int) Math.ceil(sortedSamples.length * 0.9) - 1],
+        mean);
+  }
+}
@@ -0,0 +1,110 @@
+package com.cortex.engine.benchmark;
+
+import com.cortex.engine.Application;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures how long the worker image takes to start, as autoscaling starts it, and fails if the
+ * median exceeds {@code benchmark.startup.max-ms}. This is the startup-time gate of CI, which runs
+ * it alone with {@code -Pstartup}.
+ *
+ * <p>Each run starts a fresh container of {@code benchmark.startup.image} ({@code
+ * cortex/engine-worker}, built with {@code --build-arg ROLE=worker}) with the profiles in {@code
+ * benchmark.startup.profiles}, so the AOT build and the CDS archive shipped in the image are what
+ * is measured. {@code -Xshare:on} makes the start fail rather than silently run without the
+ * archive. The container uses the host network and Docker socket, so the services from
+ * docker-compose must be running on the host.
+ */
+@Tag("benchmark")
+@Tag("startup")
+@Slf4j
+class StartupTimeBenchmark {
+
+  private static final Pattern STARTED =
+      Pattern.compile("Started " + Application.class.getSimpleName() + " in ([\\d.]+) seconds");
+  private static final int RUNS = 3;
+  private static final long STARTUP_TIMEOUT_SECONDS = 120;
+
+  @Test
+  void workerImageStartupTime() throws Exception {
+    String image = System.getProperty("benchmark.startup.image", "cortex/engine-worker");
+    String profiles = System.getProperty("benchmark.startup.profiles", "dev,faststart,worker");
+    long maxMillis = Long.getLong("benchmark.startup.max-ms", 10_000L);
+
+    long[] samples = new long[RUNS];
+    for (int i = 0; i < RUNS; i++) {
+      samples[i] = startOnce(image, profiles);
+    }
+    Arrays.sort(samples);
+
+    long median = samples[RUNS / 2];
+    log.info(
+        "{} with profiles {} started in {} ms (p50), {} ms (max)",
+        image,
+        profiles,
+        median,
+        samples[RUNS - 1]);
+    assertTrue(
+        median <= maxMillis,
+        "Median startup of " + image + " " + median + " ms exceeds budget of " + maxMillis + " ms");
+  }
+
+  private long startOnce(String image, String profiles) throws Exception {
+    String name = "cortex-startup-benchmark-" + UUID.randomUUID();
+    List<String> command =
+        List.of(
+            "docker",
+            "run",
+            "--rm",
+            "--name",
+            name,
+            "--network",
+            "host",
+            "-v",
+            "/var/run/docker.sock:/var/run/docker.sock",
+            "-e",
+            "SPRING_PROFILES_ACTIVE=" + profiles,
+            "-e",
+            "JAVA_TOOL_OPTIONS=-Xshare:on",
+            image);
+
+    Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+    try (BufferedReader output =
+        new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(STARTUP_TIMEOUT_SECONDS);
+      String line;
+      String last = null;
+      while (System.nanoTime() < deadline && (line = output.readLine()) != null) {
+        Matcher matcher = STARTED.matcher(line);
+        if (matcher.find()) {
+          return Math.round(Double.parseDouble(matcher.group(1)) * 1000);
+        }
+        last = line;
+      }
+      fail("Container of " + image + " did not report a successful startup, last output: " + last);
+      return -1;
+    } finally {
+      Process remove = new ProcessBuilder("docker", "rm", "-f", name).start();
+      remove.waitFor(30, TimeUnit.SECONDS);
+      process.destroy();
+      if (!process.waitFor(30, TimeUnit.SECONDS)) {
+        process.destroyForcibly();
+      }
+    }
+  }
+}
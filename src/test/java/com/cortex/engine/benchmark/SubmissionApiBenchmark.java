@@ -0,0 +1,203 @@
+package com.cortex.engine.benchmark;
+
+import com.cortex.engine.Application;
+import com.cortex.engine.config.RabbitMQConfig;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Puts the blocking and the reactive {@code /execute} controllers under the same load: {@code
+ * benchmark.api.clients} concurrent clients (2000 by default), each polling for results and
+ * submitting a task once every ten requests, for {@code benchmark.api.seconds}. Both runs use an
+ * API-only engine JVM with the same Tomcat thread pool, and report throughput, latency
+ * percentiles and failed requests.
+ *
+ * <p>The services from docker-compose must be running and no worker should consume the queue; the
+ * submitted tasks use a placeholder language and are purged afterwards.
+ */
+@Tag("benchmark")
+class SubmissionApiBenchmark {
+
+  private static final int CLIENTS = Integer.getInteger("benchmark.api.clients", 2000);
+  private static final long SECONDS = Long.getLong("benchmark.api.seconds", 20L);
+  private static final int TOMCAT_THREADS = Integer.getInteger("benchmark.api.threads", 200);
+  private static final long STARTUP_TIMEOUT_SECONDS = 120;
+
+  private static final String CATALOG_KEY = "languages";
+  private static final String LANGUAGE = "benchmark";
+  private static final String SUBMISSION =
+      "{\"code\":\""
+          + Base64.getEncoder().encodeToString("print(1)".getBytes(StandardCharsets.UTF_8))
+          + "\",\"language\":\""
+          + LANGUAGE
+          + "\"}";
+
+  private record Result(long requests, long failures, long[] sortedLatencyMicros) {
+
+    long percentile(double p) {
+      if (sortedLatencyMicros.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.min(sortedLatencyMicros.length - 1, p * sortedLatencyMicros.length);
+      return sortedLatencyMicros[index];
+    }
+  }
+
+  @Test
+  void blockingVersusReactive() throws Exception {
+    LettuceConnectionFactory redis = new LettuceConnectionFactory("localhost", 6379);
+    redis.afterPropertiesSet();
+    redis.start();
+    StringRedisTemplate catalog = new StringRedisTemplate(redis);
+    CachingConnectionFactory rabbit = new CachingConnectionFactory("localhost");
+    try {
+      catalog.opsForSet().add(CATALOG_KEY, LANGUAGE);
+      Result blocking = measure(false);
+      Result reactive = measure(true);
+
+      System.out.printf(
+          "%-10s %10s %10s %10s %10s %10s%n",
+          "api", "req/s", "p50(ms)", "p99(ms)", "max(ms)", "failed");
+      report("blocking", blocking);
+      report("reactive", reactive);
+    } finally {
+      catalog.opsForSet().remove(CATALOG_KEY, LANGUAGE);
+      new RabbitAdmin(rabbit).purgeQueue(RabbitMQConfig.CODE_EXECUTION_QUEUE, false);
+      rabbit.destroy();
+      redis.destroy();
+    }
+  }
+
+  private Result measure(boolean reactive) throws Exception {
+    int port;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    List<String> command = new ArrayList<>();
+    command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add("-Dspring.profiles.active=dev,api");
+    command.add("-Dengine.api.reactive=" + reactive);
+    command.add("-Dserver.port=" + port);
+    command.add("-Dserver.tomcat.threads.max=" + TOMCAT_THREADS);
+    command.add("-Dserver.tomcat.max-connections=" + (CLIENTS * 2));
+    command.add("-Dlogging.level.org.springframework.web=INFO");
+    command.add(Application.class.getName());
+
+    Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+    try {
+      awaitStartup(process);
+      return load(URI.create("http://localhost:" + port + "/api/v1/execute"));
+    } finally {
+      process.destroy();
+      if (!process.waitFor(30, TimeUnit.SECONDS)) {
+        process.destroyForcibly();
+      }
+    }
+  }
+
+  private void awaitStartup(Process process) throws IOException {
+    BufferedReader output =
+        new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(STARTUP_TIMEOUT_SECONDS);
+    String line;
+    while (System.nanoTime() < deadline && (line = output.readLine()) != null) {
+      if (line.contains("Started " + Application.class.getSimpleName())) {
+        // Keep draining the output so that the engine never blocks on a full pipe
+        Thread.ofVirtual().start(() -> output.lines().forEach(ignored -> {}));
+        return;
+      }
+    }
+    fail("Engine did not report a successful startup");
+  }
+
+  private Result load(URI base) throws InterruptedException {
+    ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+    AtomicLong failures = new AtomicLong();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+
+    try (HttpClient client =
+            HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < CLIENTS; i++) {
+        clients.submit(
+            () -> {
+              while (System.nanoTime() < deadline) {
+                boolean submit = ThreadLocalRandom.current().nextInt(10) == 0;
+                HttpRequest request =
+                    submit
+                        ? HttpRequest.newBuilder(base)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(SUBMISSION))
+                            .build()
+                        : HttpRequest.newBuilder(base.resolve("execute/" + UUID.randomUUID()))
+                            .GET()
+                            .build();
+                long start = System.nanoTime();
+                try {
+                  int status =
+                      client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                  // Polls for unknown tasks answer 400 "not available yet", as for real clients
+                  if (status == (submit ? 200 : 400)) {
+                    latencies.add(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                  } else {
+                    failures.incrementAndGet();
+                  }
+                } catch (IOException e) {
+                  failures.incrementAndGet();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  return;
+                }
+              }
+            });
+      }
+    }
+
+    long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+    return new Result(sorted.length, failures.get(), sorted);
+  }
+
+  private void report(String variant, Result result) {
+    System.out.printf(
+        "%-10s %10d %10.1f %10.1f %10.1f %10d%n",
+        variant,
+        result.requests() / SECONDS,
+        result.percentile(0.50) / 1000.0,
+        result.percentile(0.99) / 1000.0,
+        result.percentile(1.0) / 1000.0,
+        result.failures());
+  }
+}
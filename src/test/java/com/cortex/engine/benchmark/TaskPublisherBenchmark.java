@@ -0,0 +1,160 @@
+package com.cortex.engine.benchmark;
+
+import com.cortex.engine.config.RabbitMQConfig;
+import com.cortex.engine.controllers.dto.CodeExecutionTask;
+import com.cortex.engine.controllers.dto.SubmissionRequest;
+import com.cortex.engine.messaging.TaskPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares publishing tasks one confirmed message at a time with the batching {@link
+ * TaskPublisher}, with {@code benchmark.publisher.clients} concurrent submitters (64 by default)
+ * each publishing {@code benchmark.publisher.tasks} tasks. Fire-and-forget publishing, which gives
+ * no delivery guarantee, is included as a reference. Needs RabbitMQ on localhost and no worker
+ * consuming the queue; the queue is purged afterwards.
+ */
+@Tag("benchmark")
+class TaskPublisherBenchmark {
+
+  private static final int CLIENTS = Integer.getInteger("benchmark.publisher.clients", 64);
+  private static final int TASKS = Integer.getInteger("benchmark.publisher.tasks", 200);
+
+  private static CachingConnectionFactory connectionFactory;
+  private static RabbitTemplate rabbitTemplate;
+
+  private interface Publish {
+    void publish(CodeExecutionTask task) throws Exception;
+  }
+
+  @BeforeAll
+  static void setUp() {
+    connectionFactory = new CachingConnectionFactory("localhost");
+    connectionFactory.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.CORRELATED);
+    try {
+      new RabbitAdmin(connectionFactory).declareQueue(
+          new Queue(RabbitMQConfig.CODE_EXECUTION_QUEUE, true));
+    } catch (Exception e) {
+      assumeTrue(false, "RabbitMQ is not available: " + e.getMessage());
+    }
+    rabbitTemplate = new RabbitTemplate(connectionFactory);
+    rabbitTemplate.setMessageConverter(new Jackson2JsonMessageConverter(new ObjectMapper()));
+  }
+
+  @AfterAll
+  static void tearDown() {
+    if (connectionFactory != null) {
+      new RabbitAdmin(connectionFactory).purgeQueue(RabbitMQConfig.CODE_EXECUTION_QUEUE, false);
+      connectionFactory.destroy();
+    }
+  }
+
+  @Test
+  void publishThroughputAndLatency() throws Exception {
+    TaskPublisher publisher =
+        new TaskPublisher(
+            rabbitTemplate,
+            new SimpleMeterRegistry(),
+            ObservationRegistry.NOOP,
+            64,
+            Duration.ofMillis(2),
+            10_000,
+            Duration.ofSeconds(5),
+            3,
+            Duration.ofMillis(100));
+    publisher.start();
+    try {
+      System.out.printf(
+          "%-16s %10s %10s %10s%n", "publisher", "tasks/s", "p50(ms)", "p99(ms)");
+      run(
+          "fire-and-forget",
+          task -> rabbitTemplate.convertAndSend(RabbitMQConfig.CODE_EXECUTION_QUEUE, task));
+      run(
+          "confirm-each",
+          task -> {
+            CorrelationData correlation = new CorrelationData(task.getTaskId());
+            rabbitTemplate.convertAndSend(RabbitMQConfig.CODE_EXECUTION_QUEUE, task, correlation);
+            correlation.getFuture().get(5, TimeUnit.SECONDS);
+          });
+      run("batched", task -> publisher.publish(task).get());
+    } finally {
+      publisher.stop();
+    }
+  }
+
+  private void run(String variant, Publish publish) throws Exception {
+    long[] latencies = new long[CLIENTS * TASKS];
+    List<Future<?>> results = new ArrayList<>();
+    long start = System.nanoTime();
+    try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int c = 0; c < CLIENTS; c++) {
+        int client = c;
+        results.add(
+            clients.submit(
+                () -> {
+                  for (int i = 0; i < TASKS; i++) {
+                    long begin = System.nanoTime();
+                    publish.publish(task());
+                    latencies[client * TASKS + i] = System.nanoTime() - begin;
+                  }
+                  return null;
+                }));
+      }
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    for (Future<?> result : results) {
+      // Surfaces the first failed publish
+      result.get();
+    }
+
+    Arrays.sort(latencies);
+    System.out.printf(
+        "%-16s %10.0f %10.2f %10.2f%n",
+        variant,
+        latencies.length / seconds,
+        latencies[latencies.length / 2] / 1e6,
+        latencies[(int) (latencies.length * 0.99)] / 1e6);
+  }
+
+  private CodeExecutionTask task() {
+    CodeExecutionTask task = new CodeExecutionTask();
+    task.setTaskId(UUID.randomUUID().toString());
+    task.setTenantId("benchmark");
+    task.setUserId(1L);
+    task.setSubmissionRequest(
+        new SubmissionRequest(
+            "print('ok')".getBytes(StandardCharsets.UTF_8),
+            "python",
+            null,
+            null,
+            null,
+            null,
+            null,
+            null));
+    return task;
+  }
+}
@@ -0,0 +1,43 @@
+package com.cortex.engine.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionTest {
+
+  private static final byte[] CONTENT =
+      "for i in range(10):\n    print(i)\n".repeat(500).getBytes(StandardCharsets.UTF_8);
+
+  @Test
+  void inflate_DeflatedContent_ReturnsTheOriginal() throws Exception {
+    // Arrange
+    byte[] compressed = Compression.deflate(CONTENT);
+
+    // Act
+    byte[] inflated = Compression.inflate(compressed, 0, CONTENT.length);
+
+    // Assert
+    assertArrayEquals(CONTENT, inflated);
+  }
+
+  @Test
+  void inflate_TruncatedContent_FailsInsteadOfSpinning() {
+    // Arrange
+    byte[] compressed = Compression.deflate(CONTENT);
+    byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+
+    // Act & Assert
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(5),
+        () ->
+            assertThrows(
+                DataFormatException.class,
+                () -> Compression.inflate(truncated, 0, CONTENT.length)));
+  }
+}
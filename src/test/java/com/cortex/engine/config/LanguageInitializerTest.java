@@ -0,0 +1,84 @@
+package com.cortex.engine.config;
+
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.repositories.LanguageRepository;
+import com.cortex.engine.services.ILanguageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LanguageInitializerTest {
+
+  @Mock private LanguageRepository languageRepository;
+  @Mock private ILanguageService languageService;
+
+  private AutoCloseable closeable;
+  private LanguageInitializer languageInitializer;
+
+  @BeforeEach
+  void setUp() {
+    closeable = MockitoAnnotations.openMocks(this);
+    when(languageRepository.findByName(anyString())).thenReturn(Optional.empty());
+    languageInitializer = new LanguageInitializer(languageRepository, languageService);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    closeable.close();
+  }
+
+  @Test
+  void run_StoredLanguageOutdated_UpdatesItsImageAndFillsTheScratchSize() {
+    // Arrange
+    Language stored =
+        Language.builder()
+            .name("java")
+            .dockerImage("openjdk:21-slim")
+            .executeCommand("java {fileName}")
+            .fileExtension(".java")
+            .defaultMemoryLimit(512 * 1024 * 1024L)
+            .build();
+    when(languageRepository.findByName("java")).thenReturn(Optional.of(stored));
+
+    // Act
+    languageInitializer.run();
+
+    // Assert
+    assertEquals("cortex/java-cds:21", stored.getDockerImage());
+    assertTrue(stored.getExecuteCommand().contains("-XX:SharedArchiveFile="));
+    assertEquals(32 * 1024 * 1024L, stored.getScratchSizeLimit());
+    assertEquals(512 * 1024 * 1024L, stored.getDefaultMemoryLimit());
+    verify(languageRepository).save(stored);
+    verify(languageService).publishCatalog();
+  }
+
+  @Test
+  void run_LanguagesUpToDate_DoesNotWriteThemAgain() {
+    // Arrange
+    ArgumentCaptor<Language> inserted = ArgumentCaptor.forClass(Language.class);
+    languageInitializer.run();
+    verify(languageRepository, atLeastOnce()).save(inserted.capture());
+    List<Language> languages = inserted.getAllValues();
+    for (Language language : languages) {
+      when(languageRepository.findByName(language.getName())).thenReturn(Optional.of(language));
+    }
+    clearInvocations(languageRepository);
+
+    // Act
+    languageInitializer.run();
+
+    // Assert
+    verify(languageRepository, never()).save(any());
+    assertEquals(6, languages.size());
+  }
+}
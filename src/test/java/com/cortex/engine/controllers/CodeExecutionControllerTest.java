@@ -14,7 +14,7 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
-import java.util.Base64;
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,11 +33,18 @@ class CodeExecutionControllerTest {
   }
 
   @Test
-  void submitCode_SuccessfulSubmission_ReturnsOkResponse() {
+  void submitCode_SuccessfulSubmission_ReturnsOkResponse() throws CodeExecutionException {
     // Arrange
     SubmissionRequest request =
         new SubmissionRequest(
-            "print('Hello, World!')", "python", null, null, null, null, null, null);
+            "print('Hello, World!')".getBytes(StandardCharsets.UTF_8),
+            "python",
+            null,
+            null,
+            null,
+            null,
+            null,
+            null);
     String taskId = "task-123";
     when(codeExecutionService.submitCodeExecution(request)).thenReturn(taskId);
 
@@ -54,13 +61,19 @@ class CodeExecutionControllerTest {
   }
 
   @Test
-  void submitCode_Base64EncodedCode_SuccessfulSubmission() {
+  void submitCode_DecodedCode_SuccessfulSubmission() throws CodeExecutionException {
     // Arrange
     String originalCode = "print('Hello, World!')";
-    String base64EncodedCode = Base64.getEncoder().encodeToString(originalCode.getBytes());
     SubmissionRequest request =
         new SubmissionRequest(
-            base64EncodedCode, "python", null, null, null, null, null, true);
+            originalCode.getBytes(StandardCharsets.UTF_8),
+            "python",
+            null,
+            null,
+            null,
+            null,
+            null,
+            true);
     String taskId = "task-123";
     when(codeExecutionService.submitCodeExecution(any(SubmissionRequest.class))).thenReturn(taskId);
 
@@ -74,7 +87,7 @@ class CodeExecutionControllerTest {
     assertEquals("Code submission successful", response.getBody().message());
 
     verify(codeExecutionService, times(1)).submitCodeExecution(argThat(submissionRequest -> {
-      String decodedCode = new String(Base64.getDecoder().decode(submissionRequest.code()));
+      String decodedCode = new String(submissionRequest.code(), StandardCharsets.UTF_8);
       return decodedCode.equals(originalCode) && submissionRequest.encodeOutputToBase64();
     }));
   }
@@ -0,0 +1,128 @@
+package com.cortex.engine.controllers;
+
+import com.cortex.engine.controllers.dto.ExecutionResponse;
+import com.cortex.engine.controllers.dto.SubmissionRequest;
+import com.cortex.engine.controllers.dto.SubmissionResponse;
+import com.cortex.engine.exceptions.CodeExecutionException;
+import com.cortex.engine.exceptions.SubmissionRejectedException;
+import com.cortex.engine.exceptions.UnsupportedLanguageException;
+import com.cortex.engine.services.impl.CodeExecutionServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveCodeExecutionControllerTest {
+
+  @Mock private CodeExecutionServiceImpl codeExecutionService;
+
+  @InjectMocks private ReactiveCodeExecutionController codeExecutionController;
+
+  private AutoCloseable closeable;
+
+  @BeforeEach
+  void setUp() {
+    closeable = MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  void submitCode_SuccessfulSubmission_ReturnsOkResponse() {
+    // Arrange
+    SubmissionRequest request = request("python");
+    when(codeExecutionService.submitCodeExecutionReactive(request))
+        .thenReturn(Mono.just("task-123"));
+
+    // Act
+    ResponseEntity<SubmissionResponse> response =
+        codeExecutionController.submitCode(request).block();
+
+    // Assert
+    assertNotNull(response);
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals("task-123", response.getBody().taskId());
+    assertEquals("Code submission successful", response.getBody().message());
+  }
+
+  @Test
+  void submitCode_EngineOverloaded_ReturnsTooManyRequestsWithRetryAfter() {
+    // Arrange
+    SubmissionRequest request = request("python");
+    when(codeExecutionService.submitCodeExecutionReactive(request))
+        .thenReturn(
+            Mono.error(new SubmissionRejectedException("Overloaded", Duration.ofSeconds(42))));
+
+    // Act
+    ResponseEntity<SubmissionResponse> response =
+        codeExecutionController.submitCode(request).block();
+
+    // Assert
+    assertNotNull(response);
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+    assertEquals("42", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    assertNull(response.getBody().taskId());
+  }
+
+  @Test
+  void submitCode_UnsupportedLanguage_ReturnsBadRequest() {
+    // Arrange
+    SubmissionRequest request = request("cobol");
+    when(codeExecutionService.submitCodeExecutionReactive(request))
+        .thenReturn(Mono.error(new UnsupportedLanguageException("Unsupported language: cobol")));
+
+    // Act
+    ResponseEntity<SubmissionResponse> response =
+        codeExecutionController.submitCode(request).block();
+
+    // Assert
+    assertNotNull(response);
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertNull(response.getBody().taskId());
+    assertEquals("Unsupported language: cobol", response.getBody().message());
+  }
+
+  @Test
+  void getExecutionResult_NotAvailable_ReturnsBadRequest() {
+    // Arrange
+    when(codeExecutionService.getExecutionResultReactive("task-123"))
+        .thenReturn(Mono.error(new CodeExecutionException("Execution result not available yet")));
+
+    // Act
+    ResponseEntity<ExecutionResponse> response =
+        codeExecutionController.getExecutionResult("task-123").block();
+
+    // Assert
+    assertNotNull(response);
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    assertEquals(
+        new ExecutionResponse(null, 4, "Execution result not available yet"), response.getBody());
+  }
+
+  private SubmissionRequest request(String language) {
+    return new SubmissionRequest(
+        "print('Hello, World!')".getBytes(StandardCharsets.UTF_8),
+        language,
+        null,
+        null,
+        null,
+        null,
+        null,
+        null);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    closeable.close();
+  }
+}
@@ -0,0 +1,61 @@
+package com.cortex.engine.controllers;
+
+import com.cortex.engine.common.TenantContext;
+import com.cortex.engine.controllers.dto.TenantUsageResponse;
+import com.cortex.engine.services.ITenantQuotaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TenantControllerTest {
+
+  @Mock private ITenantQuotaService tenantQuotaService;
+
+  @InjectMocks private TenantController tenantController;
+
+  private AutoCloseable closeable;
+
+  @BeforeEach
+  void setUp() {
+    closeable = MockitoAnnotations.openMocks(this);
+    TenantContext.set("tenant-a", null, true);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    TenantContext.clear();
+    closeable.close();
+  }
+
+  @Test
+  void getUsage_OwnTenant_ReturnsItsUsage() {
+    // Arrange
+    TenantUsageResponse usage = new TenantUsageResponse("tenant-a", 1, 2L, 4, 10.0, 3600L);
+    when(tenantQuotaService.getUsage("tenant-a")).thenReturn(usage);
+
+    // Act
+    ResponseEntity<TenantUsageResponse> response = tenantController.getUsage("tenant-a");
+
+    // Assert
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(usage, response.getBody());
+  }
+
+  @Test
+  void getUsage_AnotherTenant_IsNotFound() {
+    // Act
+    ResponseEntity<TenantUsageResponse> response = tenantController.getUsage("tenant-b");
+
+    // Assert
+    assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    verifyNoInteractions(tenantQuotaService);
+  }
+}
@@ -0,0 +1,67 @@
+package com.cortex.engine.docker;
+
+import com.cortex.engine.entities.Language;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScratchSpaceTest {
+
+  private final ScratchSpace scratchSpace = new ScratchSpace(DataSize.ofMegabytes(64));
+
+  @Test
+  void sizeOf_LanguageWithoutLimit_UsesDefaultSize() {
+    // Arrange
+    Language language = Language.builder().defaultMemoryLimit(256 * 1024 * 1024L).build();
+
+    // Act
+    long size = scratchSpace.sizeOf(language);
+
+    // Assert
+    assertEquals(64 * 1024 * 1024L, size);
+  }
+
+  @Test
+  void sizeOf_LimitAboveMemoryLimit_IsCappedAtMemoryLimit() {
+    // Arrange
+    Language language =
+        Language.builder()
+            .defaultMemoryLimit(128 * 1024 * 1024L)
+            .scratchSizeLimit(512 * 1024 * 1024L)
+            .build();
+
+    // Act
+    long size = scratchSpace.sizeOf(language);
+
+    // Assert
+    assertEquals(128 * 1024 * 1024L, size);
+  }
+
+  @Test
+  void mounts_AnyLanguage_MountsWorkspaceAndTmpAsExecutableTmpfs() {
+    // Arrange
+    Language language = Language.builder().scratchSizeLimit(1024L).build();
+
+    // Act
+    Map<String, String> mounts = scratchSpace.mounts(language);
+
+    // Assert
+    assertEquals("rw,exec,nosuid,nodev,mode=1777,size=1024", mounts.get(ScratchSpace.WORKSPACE));
+    assertEquals(mounts.get(ScratchSpace.WORKSPACE), mounts.get("/tmp"));
+  }
+
+  @Test
+  void mounts_WorkspaceSizeGiven_SizesOnlyTheWorkspaceWithIt() {
+    // Arrange
+    Language language = Language.builder().scratchSizeLimit(1024L).build();
+
+    // Act
+    Map<String, String> mounts = scratchSpace.mounts(language, 4096L);
+
+    // Assert
+    assertEquals("rw,exec,nosuid,nodev,mode=1777,size=4096", mounts.get(ScratchSpace.WORKSPACE));
+    assertEquals("rw,exec,nosuid,nodev,mode=1777,size=1024", mounts.get("/tmp"));
+  }
+}
@@ -0,0 +1,78 @@
+package com.cortex.engine.execution;
+
+import com.cortex.engine.config.ExecutionBackendProperties;
+import com.cortex.engine.entities.Language;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionBackendSelectorTest {
+
+  private final ExecutionBackend docker = new NamedBackend("docker");
+  private final ExecutionBackend local = new NamedBackend("local");
+
+  private ExecutionBackendProperties properties;
+
+  @BeforeEach
+  void setUp() {
+    properties = new ExecutionBackendProperties();
+    properties.setLanguages(Map.of("python", "local"));
+    properties.setTenants(Map.of("untrusted", "docker", "trusted", "local"));
+  }
+
+  @Test
+  void select_TenantAndLanguageEntries_TenantWins() {
+    // Arrange
+    ExecutionBackendSelector selector =
+        new ExecutionBackendSelector(properties, List.of(docker, local));
+    selector.validate();
+
+    // Act & Assert
+    assertSame(local, selector.select("acme", true, language("python")));
+    assertSame(docker, selector.select("untrusted", true, language("python")));
+    assertSame(docker, selector.select("acme", true, language("go")));
+    assertSame(local, selector.select(null, false, language("python")));
+  }
+
+  @Test
+  void select_TenantNotAuthenticated_IgnoresItsRouteOutOfDocker() {
+    // Arrange
+    ExecutionBackendSelector selector =
+        new ExecutionBackendSelector(properties, List.of(docker, local));
+
+    // Act & Assert
+    assertSame(local, selector.select("trusted", true, language("go")));
+    assertSame(docker, selector.select("trusted", false, language("go")));
+    assertSame(docker, selector.select("untrusted", false, language("python")));
+  }
+
+  @Test
+  void validate_RouteToDisabledBackend_FailsStartup() {
+    // Arrange
+    ExecutionBackendSelector selector = new ExecutionBackendSelector(properties, List.of(docker));
+
+    // Act & Assert
+    assertThrows(IllegalStateException.class, selector::validate);
+  }
+
+  private Language language(String name) {
+    return Language.builder().name(name).build();
+  }
+
+  private record NamedBackend(String name) implements ExecutionBackend {
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public ExecutionResult execute(Language language, byte[] code, InputStream stdin) {
+      return new ExecutionResult("", "", 3);
+    }
+  }
+}
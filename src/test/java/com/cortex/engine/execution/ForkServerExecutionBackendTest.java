@@ -0,0 +1,55 @@
+package com.cortex.engine.execution;
+
+import com.cortex.engine.execution.ForkServerExecutionBackend.PendingRun;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForkServerExecutionBackendTest {
+
+  private final PendingRun run = new PendingRun();
+  private final Map<String, PendingRun> pending = Map.of("run-1", run);
+
+  @Test
+  void handleEvent_StartedThenExit_CompletesTheRunWithItsExitCode() {
+    // Act
+    ForkServerExecutionBackend.handleEvent("started run-1", pending);
+    ForkServerExecutionBackend.handleEvent("exit run-1 3", pending);
+
+    // Assert
+    assertTrue(run.started.isDone());
+    assertEquals(3, run.exit.join());
+  }
+
+  @Test
+  void handleEvent_Timeout_CompletesTheRunWithoutExitCode() {
+    // Act
+    ForkServerExecutionBackend.handleEvent("timeout run-1", pending);
+
+    // Assert
+    assertNull(run.exit.join());
+  }
+
+  @Test
+  void handleEvent_RunNotPending_IsIgnored() {
+    // Act
+    ForkServerExecutionBackend.handleEvent("exit run-2 0", pending);
+    ForkServerExecutionBackend.handleEvent("started", pending);
+
+    // Assert
+    assertFalse(run.started.isDone());
+    assertFalse(run.exit.isDone());
+  }
+
+  @Test
+  void handleEvent_MalformedExit_LeavesTheRunPending() {
+    // Act
+    assertDoesNotThrow(() -> ForkServerExecutionBackend.handleEvent("exit run-1", pending));
+    assertDoesNotThrow(() -> ForkServerExecutionBackend.handleEvent("exit run-1 x", pending));
+
+    // Assert
+    assertFalse(run.exit.isDone());
+  }
+}
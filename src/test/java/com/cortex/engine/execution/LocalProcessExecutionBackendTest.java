@@ -0,0 +1,108 @@
+package com.cortex.engine.execution;
+
+import com.cortex.engine.config.ExecutionBackendProperties;
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.scheduling.CpusetAllocator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LocalProcessExecutionBackendTest {
+
+  private static final long MEMORY_LIMIT = 256L * 1024 * 1024;
+
+  @TempDir private Path cgroupRoot;
+
+  private final Language python =
+      Language.builder()
+          .name("python")
+          .executeCommand("python3 {fileName}")
+          .fileExtension(".py")
+          .defaultMemoryLimit(MEMORY_LIMIT)
+          .defaultCpuLimit(2L)
+          .defaultTimeout(5000L)
+          .build();
+
+  private ExecutionBackendProperties properties;
+
+  @BeforeEach
+  void setUp() {
+    properties = new ExecutionBackendProperties();
+    properties.getLocal().setCgroupRoot(cgroupRoot.toString());
+  }
+
+  @Test
+  void buildCommand_WithoutCgroup_LimitsTheAddressSpaceInstead() {
+    // Arrange
+    LocalProcessExecutionBackend backend = backend();
+
+    // Act
+    List<String> command = backend.buildCommand(python, "code.py", null);
+
+    // Assert
+    assertEquals("unshare", command.getFirst());
+    assertTrue(command.containsAll(List.of("--user", "--pid", "--net", "--mount-proc")));
+    // (5 s + 1) per core, for 2 cores
+    assertTrue(command.contains("--cpu=12"));
+    assertTrue(command.contains("--as=" + MEMORY_LIMIT));
+    assertEquals(
+        List.of("/bin/sh", "-c", "python3 code.py"),
+        command.subList(command.size() - 3, command.size()));
+  }
+
+  @Test
+  void buildCommand_WithCgroup_JoinsItBeforeUnsharing() {
+    // Arrange
+    LocalProcessExecutionBackend backend = backend();
+    Path cgroup = cgroupRoot.resolve("run-1");
+
+    // Act
+    List<String> command = backend.buildCommand(python, "code.py", cgroup);
+
+    // Assert
+    assertEquals(List.of("/bin/sh", "-c"), command.subList(0, 2));
+    assertEquals(cgroup.toString(), command.get(3));
+    assertEquals("unshare", command.get(4));
+    assertTrue(command.stream().noneMatch(argument -> argument.startsWith("--as=")));
+  }
+
+  @Test
+  void createCgroup_WritableRoot_WritesTheLimitsOfTheLanguage() throws Exception {
+    // Arrange
+    LocalProcessExecutionBackend backend = backend();
+    backend.init();
+
+    // Act
+    Path cgroup = backend.createCgroup(python, "2-3");
+
+    // Assert
+    assertEquals(cgroupRoot, cgroup.getParent());
+    assertEquals(String.valueOf(MEMORY_LIMIT), Files.readString(cgroup.resolve("memory.max")));
+    assertEquals("0", Files.readString(cgroup.resolve("memory.swap.max")));
+    assertEquals("64", Files.readString(cgroup.resolve("pids.max")));
+    assertEquals("200000 100000", Files.readString(cgroup.resolve("cpu.max")));
+    assertEquals("2-3", Files.readString(cgroup.resolve("cpuset.cpus")));
+  }
+
+  @Test
+  void createCgroup_RootMissing_ReturnsNull() throws Exception {
+    // Arrange
+    properties.getLocal().setCgroupRoot(cgroupRoot.resolve("missing").toString());
+    LocalProcessExecutionBackend backend = backend();
+    backend.init();
+
+    // Act & Assert
+    assertNull(backend.createCgroup(python, "0"));
+  }
+
+  private LocalProcessExecutionBackend backend() {
+    return new LocalProcessExecutionBackend(properties, mock(CpusetAllocator.class));
+  }
+}
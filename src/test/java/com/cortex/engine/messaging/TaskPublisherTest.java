@@ -0,0 +1,167 @@
+package com.cortex.engine.messaging;
+
+import com.cortex.engine.config.RabbitMQConfig;
+import com.cortex.engine.controllers.dto.CodeExecutionTask;
+import com.cortex.engine.exceptions.CodeExecutionException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TaskPublisherTest {
+
+  @Mock private RabbitTemplate rabbitTemplate;
+  @Mock private ConnectionFactory connectionFactory;
+  @Mock private RabbitOperations operations;
+
+  private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+
+  private AutoCloseable closeable;
+  private TaskPublisher publisher;
+
+  @BeforeEach
+  void setUp() {
+    closeable = MockitoAnnotations.openMocks(this);
+    observationRegistry.observationConfig().observationHandler(context -> true);
+    when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+    when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+    when(rabbitTemplate.invoke(any()))
+        .thenAnswer(
+            invocation ->
+                invocation
+                    .<RabbitOperations.OperationsCallback<?>>getArgument(0)
+                    .doInRabbit(operations));
+    // A long linger so that tasks published back to back share a batch
+    publisher =
+        new TaskPublisher(
+            rabbitTemplate,
+            new SimpleMeterRegistry(),
+            observationRegistry,
+            16,
+            Duration.ofMillis(200),
+            100,
+            Duration.ofSeconds(1),
+            2,
+            Duration.ofMillis(1));
+    publisher.start();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    publisher.stop();
+    closeable.close();
+  }
+
+  @Test
+  void publish_AckedTasks_CompleteAfterOneBatch() throws Exception {
+    // Arrange
+    confirmWith(true);
+
+    // Act
+    CompletableFuture<Void> first = publisher.publish(task("task-1"));
+    CompletableFuture<Void> second = publisher.publish(task("task-2"));
+    CompletableFuture<Void> third = publisher.publish(task("task-3"));
+
+    // Assert
+    CompletableFuture.allOf(first, second, third).get(2, TimeUnit.SECONDS);
+    verify(rabbitTemplate, times(1)).invoke(any());
+    verify(operations, times(3))
+        .convertAndSend(
+            eq(RabbitMQConfig.CODE_EXECUTION_QUEUE),
+            any(Object.class),
+            any(CorrelationData.class));
+  }
+
+  @Test
+  void publish_NackedTask_FailsAfterMaxAttempts() {
+    // Arrange
+    confirmWith(false);
+
+    // Act
+    CompletableFuture<Void> result = publisher.publish(task("task-1"));
+
+    // Assert
+    ExecutionException error =
+        assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+    assertInstanceOf(CodeExecutionException.class, error.getCause());
+    verify(operations, times(2))
+        .convertAndSend(
+            eq(RabbitMQConfig.CODE_EXECUTION_QUEUE),
+            any(Object.class),
+            any(CorrelationData.class));
+  }
+
+  @Test
+  void publish_TaskQueuedWithinObservation_IsSentWithinIt() throws Exception {
+    // Arrange
+    List<Observation> current = new CopyOnWriteArrayList<>();
+    doAnswer(
+            invocation -> {
+              current.add(observationRegistry.getCurrentObservation());
+              invocation
+                  .<CorrelationData>getArgument(2)
+                  .getFuture()
+                  .complete(new CorrelationData.Confirm(true, null));
+              return null;
+            })
+        .when(operations)
+        .convertAndSend(
+            eq(RabbitMQConfig.CODE_EXECUTION_QUEUE),
+            any(Object.class),
+            any(CorrelationData.class));
+    Observation request = Observation.start("request", observationRegistry);
+
+    // Act
+    CompletableFuture<Void> result;
+    try (Observation.Scope scope = request.openScope()) {
+      result = publisher.publish(task("task-1"));
+    }
+    result.get(2, TimeUnit.SECONDS);
+    request.stop();
+
+    // Assert
+    assertEquals(List.of(request), current);
+  }
+
+  private void confirmWith(boolean ack) {
+    doAnswer(
+            invocation -> {
+              invocation
+                  .<CorrelationData>getArgument(2)
+                  .getFuture()
+                  .complete(new CorrelationData.Confirm(ack, ack ? null : "rejected"));
+              return null;
+            })
+        .when(operations)
+        .convertAndSend(
+            eq(RabbitMQConfig.CODE_EXECUTION_QUEUE),
+            any(Object.class),
+            any(CorrelationData.class));
+  }
+
+  private CodeExecutionTask task(String taskId) {
+    CodeExecutionTask task = new CodeExecutionTask();
+    task.setTaskId(taskId);
+    return task;
+  }
+}
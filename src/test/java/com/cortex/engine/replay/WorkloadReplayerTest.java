@@ -0,0 +1,97 @@
+package com.cortex.engine.replay;
+
+import com.cortex.engine.controllers.dto.ExecutionResponse;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadReplayerTest {
+
+  @Test
+  void divergence_TrailingWhitespaceDiffers_MatchesExpectedOutput() {
+    // Arrange
+    RecordedSubmission submission = submission("1\n2\n");
+    ExecutionResponse result = new ExecutionResponse("1  \r\n2", 3, null);
+
+    // Act
+    ReplayReport.Divergence divergence = WorkloadReplayer.divergence(submission, result, null);
+
+    // Assert
+    assertNull(divergence);
+  }
+
+  @Test
+  void divergence_StdoutDiffersFromExpected_ReportsExpectedOutput() {
+    // Arrange
+    RecordedSubmission submission = submission("42");
+    ExecutionResponse result = new ExecutionResponse("41", 3, null);
+
+    // Act
+    ReplayReport.Divergence divergence = WorkloadReplayer.divergence(submission, result, null);
+
+    // Assert
+    assertEquals(ReplayReport.Divergence.EXPECTED_OUTPUT, divergence);
+  }
+
+  @Test
+  void divergence_StatusDiffersFromBaseline_ReportsBaseline() {
+    // Arrange
+    RecordedSubmission submission = submission(null);
+    ExecutionResponse result = new ExecutionResponse("", 4, "Killed");
+    ExecutionResponse baseline = new ExecutionResponse("", 3, null);
+
+    // Act
+    ReplayReport.Divergence divergence = WorkloadReplayer.divergence(submission, result, baseline);
+
+    // Assert
+    assertEquals(ReplayReport.Divergence.BASELINE, divergence);
+  }
+
+  @Test
+  void summary_RecordedRuns_ReportsPercentilesAndDivergencesPerLanguage() {
+    // Arrange
+    ReplayReport report = new ReplayReport();
+    RecordedSubmission submission = submission(null);
+    for (int i = 1; i <= 100; i++) {
+      report.recordResult(
+          submission,
+          i * 1_000_000L,
+          3,
+          i == 100 ? ReplayReport.Divergence.BASELINE : null);
+    }
+    report.recordFailure(submission);
+    report.finish(10_000_000_000L);
+
+    // Act
+    Map<String, Object> summary = report.summary();
+
+    // Assert
+    assertEquals(100L, summary.get("completed"));
+    assertEquals(10.0, (double) summary.get("throughputPerSecond"), 1e-9);
+    @SuppressWarnings("unchecked")
+    Map<String, Object> python =
+        ((Map<String, Map<String, Object>>) summary.get("languages")).get("python");
+    assertEquals(50.0, (double) python.get("p50Ms"), 1e-9);
+    assertEquals(99.0, (double) python.get("p99Ms"), 1e-9);
+    assertEquals(1L, python.get("failed"));
+  }
+
+  private RecordedSubmission submission(String expectedOutput) {
+    return new RecordedSubmission(
+        7L,
+        LocalDateTime.of(2024, 8, 1, 12, 0),
+        "default",
+        "python",
+        "print(42)".getBytes(StandardCharsets.UTF_8),
+        null,
+        expectedOutput,
+        null,
+        null,
+        null,
+        null);
+  }
+}
@@ -0,0 +1,96 @@
+package com.cortex.engine.scheduling;
+
+import com.cortex.engine.repositories.LanguageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  @Mock private LanguageRepository languageRepository;
+  @TempDir private Path procRoot;
+
+  private AutoCloseable closeable;
+  private AdaptiveConcurrencyLimiter limiter;
+
+  @BeforeEach
+  void setUp() {
+    closeable = MockitoAnnotations.openMocks(this);
+    limiter =
+        new AdaptiveConcurrencyLimiter(languageRepository, 4, 1, 8, 0, 2.0, 0.5, 40, 10, procRoot);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    closeable.close();
+  }
+
+  @Test
+  void release_SaturatedWithoutCongestion_IncreasesLimitByOne() throws Exception {
+    // Arrange
+    for (int i = 0; i < 4; i++) {
+      limiter.acquire();
+    }
+
+    // Act
+    limiter.release(seen(100), 100, true);
+
+    // Assert
+    assertEquals(5, limiter.getLimit());
+  }
+
+  @Test
+  void release_LatencyAboveTolerance_DecreasesLimitMultiplicatively() throws Exception {
+    // Arrange
+    limiter.acquire();
+
+    // Act
+    limiter.release(seen(100), 1000, true);
+
+    // Assert
+    assertEquals(2, limiter.getLimit());
+  }
+
+  @Test
+  void release_TimedOutOrUnseenProgram_IsNotTakenAsCongestion() throws Exception {
+    // Arrange
+    limiter.acquire();
+    limiter.acquire();
+
+    // Act
+    limiter.release(seen(100), 5000, false);
+    limiter.release(
+        new RuntimeEstimator.Estimate("python", "python:new", 100, false), 5000, true);
+
+    // Assert
+    assertEquals(4, limiter.getLimit());
+  }
+
+  @Test
+  void release_CpuPressureAboveThreshold_DecreasesLimit() throws Exception {
+    // Arrange
+    Files.createDirectories(procRoot.resolve("pressure"));
+    Files.writeString(
+        procRoot.resolve("pressure").resolve("cpu"),
+        "some avg10=75.00 avg60=60.00 avg300=20.00 total=123456\n");
+    limiter.acquire();
+
+    // Act
+    limiter.release();
+
+    // Assert
+    assertEquals(2, limiter.getLimit());
+  }
+
+  private static RuntimeEstimator.Estimate seen(double millis) {
+    return new RuntimeEstimator.Estimate("python", "python:abc", millis, true);
+  }
+}
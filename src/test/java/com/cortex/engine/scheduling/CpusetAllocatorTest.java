@@ -0,0 +1,65 @@
+package com.cortex.engine.scheduling;
+
+import com.github.dockerjava.api.DockerClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CpusetAllocatorTest {
+
+  @Mock private DockerClient dockerClient;
+
+  private AutoCloseable closeable;
+  private CpusetAllocator allocator;
+
+  @BeforeEach
+  void setUp() {
+    closeable = MockitoAnnotations.openMocks(this);
+    allocator = new CpusetAllocator(dockerClient, true, "0-4", "0");
+    allocator.init();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    closeable.close();
+  }
+
+  @Test
+  void acquire_ConcurrentLeases_GetDisjointCoresOutsideReserved() throws Exception {
+    // Act
+    CpusetAllocator.Lease first = allocator.acquire(2L);
+    CpusetAllocator.Lease second = allocator.acquire(2L);
+
+    // Assert
+    assertEquals("1,2", first.cpus());
+    assertEquals("3,4", second.cpus());
+  }
+
+  @Test
+  void acquire_NoFreeCores_WaitsUntilLeaseIsClosed() throws Exception {
+    // Arrange
+    CpusetAllocator.Lease all = allocator.acquire(4L);
+    CompletableFuture<CpusetAllocator.Lease> waiting =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return allocator.acquire(1L);
+              } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+
+    // Act & Assert
+    assertThrows(TimeoutException.class, () -> waiting.get(200, TimeUnit.MILLISECONDS));
+    all.close();
+    assertEquals("1", waiting.get(5, TimeUnit.SECONDS).cpus());
+  }
+}
@@ -0,0 +1,217 @@
+package com.cortex.engine.scheduling;
+
+import com.cortex.engine.config.TenantProperties;
+import com.cortex.engine.controllers.dto.CodeExecutionTask;
+import com.cortex.engine.controllers.dto.SubmissionRequest;
+import com.cortex.engine.messaging.Delivery;
+import com.cortex.engine.repositories.LanguageRepository;
+import com.cortex.engine.services.ITenantQuotaService;
+import com.cortex.engine.services.impl.TaskExecutionServiceImpl;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class FairTaskSchedulerTest {
+
+  @Mock private TaskExecutionServiceImpl codeExecutionService;
+  @Mock private ITenantQuotaService tenantQuotaService;
+  @Mock private LanguageRepository languageRepository;
+
+  private final RuntimeEstimator runtimeEstimator =
+      new RuntimeEstimator(0.3, Duration.ofSeconds(1), 100);
+
+  private AutoCloseable closeable;
+  private FairTaskScheduler scheduler;
+
+  @BeforeEach
+  void setUp() {
+    closeable = MockitoAnnotations.openMocks(this);
+    scheduler =
+        new FairTaskScheduler(
+            codeExecutionService,
+            tenantQuotaService,
+            new TenantProperties(),
+            singleSlot(),
+            runtimeEstimator,
+            ObservationRegistry.NOOP,
+            100,
+            50,
+            true,
+            1.0,
+            Duration.ofSeconds(1));
+  }
+
+  @Test
+  void offer_FloodingTenant_DoesNotDelayOtherTenants() throws Exception {
+    // Arrange
+    List<String> executed = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(11);
+    when(tenantQuotaService.tryAcquire(anyString())).thenReturn("lease");
+    doAnswer(
+            invocation -> {
+              CodeExecutionTask task = invocation.getArgument(0);
+              executed.add(task.getTaskId());
+              done.countDown();
+              return true;
+            })
+        .when(codeExecutionService)
+        .processCodeExecution(any(CodeExecutionTask.class));
+
+    for (int i = 0; i < 10; i++) {
+      assertTrue(scheduler.offer(task("heavy-" + i, "heavy"), Delivery.NONE));
+    }
+    assertTrue(scheduler.offer(task("light-0", "light"), Delivery.NONE));
+
+    // Act
+    scheduler.start();
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+
+    // Assert
+    assertTrue(executed.indexOf("light-0") <= 1);
+    verify(tenantQuotaService, times(11)).release(anyString(), eq("lease"), anyLong());
+  }
+
+  @Test
+  void offer_LaneFull_ReturnsFalse() throws Exception {
+    // Arrange
+    scheduler =
+        new FairTaskScheduler(
+            codeExecutionService,
+            tenantQuotaService,
+            new TenantProperties(),
+            singleSlot(),
+            runtimeEstimator,
+            ObservationRegistry.NOOP,
+            100,
+            2,
+            true,
+            1.0,
+            Duration.ofSeconds(1));
+
+    // Act & Assert
+    assertTrue(scheduler.offer(task("a-0", "a"), Delivery.NONE));
+    assertTrue(scheduler.offer(task("a-1", "a"), Delivery.NONE));
+    assertFalse(scheduler.offer(task("a-2", "a"), Delivery.NONE));
+    assertTrue(scheduler.offer(task("b-0", "b"), Delivery.NONE));
+    assertEquals(2, scheduler.queuedFor("a"));
+  }
+
+  @Test
+  void offer_TaskRuns_AcknowledgesItsDeliveryAfterExecution() throws Exception {
+    // Arrange
+    Delivery delivery = mock(Delivery.class);
+    CountDownLatch acked = new CountDownLatch(1);
+    when(tenantQuotaService.tryAcquire(anyString())).thenReturn("lease");
+    doAnswer(
+            invocation -> {
+              acked.countDown();
+              return null;
+            })
+        .when(delivery)
+        .ack();
+
+    // Act
+    scheduler.start();
+    assertTrue(scheduler.offer(task("a-0", "a"), delivery));
+
+    // Assert
+    assertTrue(acked.await(5, TimeUnit.SECONDS));
+    InOrder inOrder = inOrder(codeExecutionService, delivery);
+    inOrder.verify(codeExecutionService).processCodeExecution(any(CodeExecutionTask.class));
+    inOrder.verify(delivery).ack();
+    verify(delivery, never()).requeue();
+  }
+
+  @Test
+  void stop_TasksStillBuffered_RequeuesTheirDeliveries() throws Exception {
+    // Arrange
+    Delivery delivery = mock(Delivery.class);
+    when(tenantQuotaService.tryAcquire(anyString())).thenReturn(null);
+    scheduler.start();
+    assertTrue(scheduler.offer(task("a-0", "a"), delivery));
+
+    // Act
+    scheduler.stop();
+
+    // Assert
+    verify(delivery).requeue();
+    verify(delivery, never()).ack();
+    assertEquals(0, scheduler.queuedFor("a"));
+    assertFalse(scheduler.offer(task("a-1", "a"), Delivery.NONE));
+  }
+
+  @Test
+  void offer_ShorterExpectedRuntimeQueuedLater_RunsFirstWithinLane() throws Exception {
+    // Arrange
+    List<String> executed = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(2);
+    when(tenantQuotaService.tryAcquire(anyString())).thenReturn("lease");
+    doAnswer(
+            invocation -> {
+              CodeExecutionTask task = invocation.getArgument(0);
+              executed.add(task.getTaskId());
+              done.countDown();
+              return true;
+            })
+        .when(codeExecutionService)
+        .processCodeExecution(any(CodeExecutionTask.class));
+    CodeExecutionTask build = task("build", "a", "csharp", "class P {}");
+    CodeExecutionTask script = task("script", "a", "python", "print(1)");
+    runtimeEstimator.record(runtimeEstimator.estimate(build), 30_000);
+    runtimeEstimator.record(runtimeEstimator.estimate(script), 50);
+
+    assertTrue(scheduler.offer(build, Delivery.NONE));
+    assertTrue(scheduler.offer(script, Delivery.NONE));
+
+    // Act
+    scheduler.start();
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+
+    // Assert
+    assertEquals(List.of("script", "build"), executed);
+  }
+
+  private AdaptiveConcurrencyLimiter singleSlot() {
+    return new AdaptiveConcurrencyLimiter(
+        languageRepository, 1, 1, 1, 1000, 2.0, 0.75, 40, 10, Path.of("/nonexistent"));
+  }
+
+  private CodeExecutionTask task(String taskId, String tenantId) {
+    CodeExecutionTask task = new CodeExecutionTask();
+    task.setTaskId(taskId);
+    task.setTenantId(tenantId);
+    return task;
+  }
+
+  private CodeExecutionTask task(String taskId, String tenantId, String language, String code) {
+    CodeExecutionTask task = task(taskId, tenantId);
+    task.setSubmissionRequest(
+        new SubmissionRequest(
+            code.getBytes(StandardCharsets.UTF_8), language, null, null, null, null, null, false));
+    return task;
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    scheduler.stop();
+    closeable.close();
+  }
+}
@@ -0,0 +1,51 @@
+package com.cortex.engine.scheduling;
+
+import com.cortex.engine.controllers.dto.CodeExecutionTask;
+import com.cortex.engine.controllers.dto.SubmissionRequest;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuntimeEstimatorTest {
+
+  private final RuntimeEstimator estimator = new RuntimeEstimator(0.5, Duration.ofSeconds(1), 100);
+
+  @Test
+  void estimate_ProgramRanBefore_ReturnsMovingAverageOfItsRuns() {
+    // Arrange
+    CodeExecutionTask task = task("python", "print(1)");
+    estimator.record(estimator.estimate(task), 100);
+    estimator.record(estimator.estimate(task), 300);
+
+    // Act
+    RuntimeEstimator.Estimate estimate = estimator.estimate(task);
+
+    // Assert
+    assertEquals(200.0, estimate.millis(), 1e-9);
+  }
+
+  @Test
+  void estimate_NewProgram_FallsBackToLanguageThenDefault() {
+    // Arrange
+    estimator.record(estimator.estimate(task("python", "print(1)")), 100);
+
+    // Act
+    RuntimeEstimator.Estimate python = estimator.estimate(task("python", "print(2)"));
+    RuntimeEstimator.Estimate rust = estimator.estimate(task("rust", "fn main() {}"));
+
+    // Assert
+    assertEquals(100.0, python.millis(), 1e-9);
+    assertEquals(1000.0, rust.millis(), 1e-9);
+  }
+
+  private CodeExecutionTask task(String language, String code) {
+    CodeExecutionTask task = new CodeExecutionTask();
+    task.setSubmissionRequest(
+        new SubmissionRequest(
+            code.getBytes(StandardCharsets.UTF_8), language, null, null, null, null, null, false));
+    return task;
+  }
+}
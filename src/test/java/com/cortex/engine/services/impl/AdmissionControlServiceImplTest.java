@@ -0,0 +1,99 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.exceptions.SubmissionRejectedException;
+import com.cortex.engine.services.ILanguageCatalogService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class AdmissionControlServiceImplTest {
+
+  private AdmissionControlServiceImpl admissionControlService;
+
+  @BeforeEach
+  void setUp() {
+    admissionControlService =
+        new AdmissionControlServiceImpl(
+            mock(StringRedisTemplate.class),
+            mock(ReactiveStringRedisTemplate.class),
+            mock(ILanguageCatalogService.class),
+            mock(AmqpAdmin.class),
+            new SimpleMeterRegistry(),
+            true,
+            1000,
+            Duration.ofMinutes(10),
+            Duration.ofSeconds(60),
+            Duration.ofHours(2),
+            Duration.ofSeconds(30),
+            Duration.ofMinutes(5));
+  }
+
+  @Test
+  void admit_BacklogDrainsWithinMaxWait_Admits() {
+    // Arrange
+    admissionControlService.update(
+        Map.of("python", 500L), Map.of("python", 10.0), Set.of(), 400);
+
+    // Act & Assert
+    assertDoesNotThrow(() -> admissionControlService.admit("python"));
+  }
+
+  @Test
+  void admit_QueueDepthAboveMaxBacklog_RejectsUntilExcessDrains() {
+    // Arrange
+    admissionControlService.update(
+        Map.of("python", 100L), Map.of("python", 10.0), Set.of(), 1200);
+
+    // Act
+    SubmissionRejectedException rejection =
+        assertThrows(
+            SubmissionRejectedException.class, () -> admissionControlService.admit("python"));
+
+    // Assert
+    assertEquals(Duration.ofSeconds(21), rejection.getRetryAfter());
+  }
+
+  @Test
+  void admit_SlowLanguageWaitAboveMaxWait_RejectsThatLanguageOnly() {
+    // Arrange
+    admissionControlService.update(
+        Map.of("python", 100L, "csharp", 300L),
+        Map.of("python", 10.0, "csharp", 0.25),
+        Set.of(),
+        0);
+
+    // Act
+    SubmissionRejectedException rejection =
+        assertThrows(
+            SubmissionRejectedException.class, () -> admissionControlService.admit("csharp"));
+
+    // Assert
+    assertEquals(Duration.ofSeconds(5 * 60), rejection.getRetryAfter());
+    assertDoesNotThrow(() -> admissionControlService.admit("python"));
+  }
+
+  @Test
+  void admit_NothingDrainedYet_AdmitsUntilATaskWaitedTheWholeWindow() {
+    // Arrange
+    admissionControlService.update(Map.of("python", 20L), Map.of(), Set.of(), 0);
+    assertDoesNotThrow(() -> admissionControlService.admit("python"));
+    admissionControlService.update(Map.of("python", 20L), Map.of(), Set.of("python"), 0);
+
+    // Act
+    SubmissionRejectedException rejection =
+        assertThrows(
+            SubmissionRejectedException.class, () -> admissionControlService.admit("python"));
+
+    // Assert
+    assertEquals(Duration.ofSeconds(30), rejection.getRetryAfter());
+  }
+}
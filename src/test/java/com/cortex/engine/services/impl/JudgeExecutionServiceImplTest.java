@@ -0,0 +1,75 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.controllers.dto.JudgeResponse;
+import com.cortex.engine.controllers.dto.TestCase;
+import com.cortex.engine.controllers.dto.TestCaseResult;
+import com.cortex.engine.controllers.dto.Verdict;
+import com.cortex.engine.docker.ExecResult;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JudgeExecutionServiceImplTest {
+
+  @Test
+  void shardIndices_TenCasesOverFourShards_DealsCasesInTurn() {
+    // Act
+    List<Integer> first = JudgeExecutionServiceImpl.shardIndices(10, 4, 0);
+    List<Integer> last = JudgeExecutionServiceImpl.shardIndices(10, 4, 3);
+
+    // Assert
+    assertEquals(List.of(0, 4, 8), first);
+    assertEquals(List.of(3, 7), last);
+  }
+
+  @Test
+  void verdictOf_RunOutputDiffersOnlyInTrailingWhitespace_IsAccepted() {
+    // Arrange
+    ExecResult run = run(true, 0, "1 2  \r\n3\n\n");
+
+    // Act
+    Verdict verdict = JudgeExecutionServiceImpl.verdictOf(run, new TestCase(null, "1 2\n3"));
+
+    // Assert
+    assertEquals(Verdict.ACCEPTED, verdict);
+  }
+
+  @Test
+  void verdictOf_RunDidNotComplete_IsTimeLimitExceeded() {
+    // Arrange
+    ExecResult run = run(false, -1, "");
+
+    // Act
+    Verdict verdict = JudgeExecutionServiceImpl.verdictOf(run, new TestCase(null, ""));
+
+    // Assert
+    assertEquals(Verdict.TIME_LIMIT_EXCEEDED, verdict);
+  }
+
+  @Test
+  void verdictOf_StoppedAfterFailure_TakesFirstFailureAndSkipsCasesThatDidNotRun() {
+    // Arrange
+    TestCaseResult[] results = {
+      new TestCaseResult(0, Verdict.ACCEPTED, 10L, null, null),
+      null,
+      new TestCaseResult(2, Verdict.WRONG_ANSWER, 12L, "41", ""),
+      new TestCaseResult(3, Verdict.RUNTIME_ERROR, 3L, "", "panic")
+    };
+
+    // Act
+    JudgeResponse response = JudgeExecutionServiceImpl.verdictOf(results, null, null);
+
+    // Assert
+    assertEquals(Verdict.WRONG_ANSWER, response.verdict());
+    assertEquals(1, response.passed());
+    assertEquals(4, response.total());
+    assertEquals(Verdict.SKIPPED, response.testCases().get(1).verdict());
+  }
+
+  private ExecResult run(boolean completed, long exitCode, String out) {
+    return new ExecResult(
+        completed, exitCode, out.getBytes(StandardCharsets.UTF_8), "");
+  }
+}
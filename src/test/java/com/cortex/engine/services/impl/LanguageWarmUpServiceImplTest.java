@@ -0,0 +1,63 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.repositories.LanguageRepository;
+import com.cortex.engine.services.ITaskExecutionService;
+import com.cortex.engine.services.IToolchainCacheService;
+import com.github.dockerjava.api.DockerClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LanguageWarmUpServiceImplTest {
+
+  @Mock private LanguageRepository languageRepository;
+  @Mock private IToolchainCacheService toolchainCacheService;
+  @Mock private ITaskExecutionService taskExecutionService;
+
+  private final DockerClient dockerClient = mock(DockerClient.class, RETURNS_DEEP_STUBS);
+
+  private AutoCloseable closeable;
+
+  @BeforeEach
+  void setUp() {
+    closeable = MockitoAnnotations.openMocks(this);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    closeable.close();
+  }
+
+  @Test
+  void warmUpAll_CacheRefreshFails_StillMarksEveryLanguageReady() throws Exception {
+    // Arrange
+    when(languageRepository.findAll())
+        .thenReturn(
+            List.of(
+                Language.builder().name("python").dockerImage("python:3.12").build(),
+                Language.builder().name("go").dockerImage("golang:1.22").build()));
+    doThrow(new IllegalStateException("Docker is gone"))
+        .when(toolchainCacheService)
+        .refreshCaches();
+    LanguageWarmUpServiceImpl warmUpService =
+        new LanguageWarmUpServiceImpl(
+            dockerClient, languageRepository, toolchainCacheService, taskExecutionService);
+
+    // Act
+    warmUpService.warmUpAll();
+
+    // Assert
+    assertTrue(warmUpService.awaitReady("python", Duration.ofSeconds(5)));
+    assertTrue(warmUpService.awaitReady("go", Duration.ofSeconds(5)));
+    verifyNoInteractions(taskExecutionService);
+  }
+}
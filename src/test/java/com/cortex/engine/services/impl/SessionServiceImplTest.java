@@ -0,0 +1,147 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.common.TenantContext;
+import com.cortex.engine.controllers.dto.SessionResponse;
+import com.cortex.engine.controllers.dto.SessionRunRequest;
+import com.cortex.engine.docker.ScratchSpace;
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.exceptions.SessionNotFoundException;
+import com.cortex.engine.exceptions.SubmissionRejectedException;
+import com.cortex.engine.repositories.LanguageRepository;
+import com.cortex.engine.scheduling.AdaptiveConcurrencyLimiter;
+import com.cortex.engine.scheduling.CpusetAllocator;
+import com.cortex.engine.services.ITenantQuotaService;
+import com.cortex.engine.services.IToolchainCacheService;
+import com.github.dockerjava.api.DockerClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SessionServiceImplTest {
+
+  @Mock private LanguageRepository languageRepository;
+  @Mock private IToolchainCacheService toolchainCacheService;
+  @Mock private CpusetAllocator cpusetAllocator;
+  @Mock private AdaptiveConcurrencyLimiter concurrencyLimiter;
+  @Mock private ITenantQuotaService tenantQuotaService;
+
+  private final DockerClient dockerClient = mock(DockerClient.class, RETURNS_DEEP_STUBS);
+
+  private AutoCloseable closeable;
+
+  @BeforeEach
+  void setUp() {
+    closeable = MockitoAnnotations.openMocks(this);
+    when(languageRepository.findByName("python"))
+        .thenReturn(Optional.of(Language.builder().name("python").build()));
+    TenantContext.set("tenant-a", null, true);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    TenantContext.clear();
+    closeable.close();
+  }
+
+  @Test
+  void run_PathEscapesWorkspace_IsRejectedBeforeTouchingTheContainer() {
+    // Arrange
+    SessionServiceImpl sessionService = sessionService(4);
+    String sessionId = sessionService.createSession("python").sessionId();
+    SessionRunRequest request =
+        new SessionRunRequest(
+            Map.of("../../etc/cron.d/x", new byte[0]), null, "main.py", null, null);
+
+    // Act & Assert
+    assertThrows(IllegalArgumentException.class, () -> sessionService.run(sessionId, request));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> sessionService.run(sessionId, run(List.of("/etc/passwd"))));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> sessionService.run(sessionId, run(List.of("a; rm -rf /"))));
+    verify(dockerClient, never()).execCreateCmd(any());
+  }
+
+  @Test
+  void closeSession_SessionOfAnotherTenant_IsNotFoundAndStaysOpen() {
+    // Arrange
+    SessionServiceImpl sessionService = sessionService(4);
+    String sessionId = sessionService.createSession("python").sessionId();
+    TenantContext.set("tenant-b", null, true);
+
+    // Act
+    assertThrows(SessionNotFoundException.class, () -> sessionService.closeSession(sessionId));
+
+    // Assert
+    TenantContext.set("tenant-a", null, true);
+    assertDoesNotThrow(() -> sessionService.closeSession(sessionId));
+  }
+
+  @Test
+  void createSession_NodeFull_EvictsTheLeastRecentlyUsedSession() {
+    // Arrange
+    SessionServiceImpl sessionService = sessionService(2);
+    SessionResponse first = sessionService.createSession("python");
+    SessionResponse second = sessionService.createSession("python");
+    // Any run, even a rejected one, marks the first session as the most recently used
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> sessionService.run(first.sessionId(), run(List.of(".."))));
+
+    // Act
+    SessionResponse third = sessionService.createSession("python");
+
+    // Assert
+    assertThrows(
+        SessionNotFoundException.class, () -> sessionService.closeSession(second.sessionId()));
+    assertDoesNotThrow(() -> sessionService.closeSession(first.sessionId()));
+    assertDoesNotThrow(() -> sessionService.closeSession(third.sessionId()));
+  }
+
+  @Test
+  void run_TenantHasNoSlotFree_IsRejectedWithoutTakingANodeSlot() throws Exception {
+    // Arrange
+    SessionServiceImpl sessionService = sessionService(4);
+    String sessionId = sessionService.createSession("python").sessionId();
+    when(tenantQuotaService.tryAcquire("tenant-a")).thenReturn(null);
+
+    // Act & Assert
+    assertThrows(
+        SubmissionRejectedException.class, () -> sessionService.run(sessionId, run(List.of())));
+    verify(concurrencyLimiter, never()).acquire();
+    verify(cpusetAllocator, never()).acquire(any());
+    verify(dockerClient, never()).execCreateCmd(any());
+  }
+
+  private SessionServiceImpl sessionService(int maxSessions) {
+    return new SessionServiceImpl(
+        dockerClient,
+        languageRepository,
+        toolchainCacheService,
+        cpusetAllocator,
+        concurrencyLimiter,
+        tenantQuotaService,
+        new ScratchSpace(DataSize.ofMegabytes(64)),
+        maxSessions,
+        Duration.ofMinutes(10),
+        Duration.ofHours(2),
+        16 * 1024 * 1024L,
+        Duration.ZERO);
+  }
+
+  private SessionRunRequest run(List<String> deletedFiles) {
+    return new SessionRunRequest(null, deletedFiles, "main.py", null, null);
+  }
+}
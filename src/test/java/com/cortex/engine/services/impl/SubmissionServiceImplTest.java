@@ -0,0 +1,96 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.controllers.dto.SubmissionHistoryResponse;
+import com.cortex.engine.controllers.dto.SubmissionSummary;
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.repositories.LanguageRepository;
+import com.cortex.engine.repositories.SubmissionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SubmissionServiceImplTest {
+
+  @Mock private SubmissionRepository submissionRepository;
+  @Mock private LanguageRepository languageRepository;
+
+  private AutoCloseable closeable;
+  private SubmissionServiceImpl submissionService;
+
+  @BeforeEach
+  void setUp() {
+    closeable = MockitoAnnotations.openMocks(this);
+    submissionService = new SubmissionServiceImpl(submissionRepository, languageRepository);
+    ReflectionTestUtils.setField(submissionService, "defaultWindow", Duration.ofDays(30));
+    ReflectionTestUtils.setField(submissionService, "maxPageSize", 100);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    closeable.close();
+  }
+
+  @Test
+  void getHistory_FullPage_ReturnsCursorThatResumesAfterLastItem() {
+    // Arrange
+    LocalDateTime newest = LocalDateTime.of(2024, 8, 22, 10, 0);
+    SubmissionSummary first = summary(42L, newest);
+    SubmissionSummary second = summary(41L, newest.minusMinutes(1));
+    SubmissionSummary extra = summary(40L, newest.minusMinutes(2));
+    when(submissionRepository.findHistory(anyString(), any(), any(), anyLong(), eq(Limit.of(3))))
+        .thenReturn(List.of(first, second, extra));
+
+    // Act
+    SubmissionHistoryResponse page =
+        submissionService.getHistory(null, null, null, newest, null, 2);
+    submissionService.getHistory(null, null, null, newest, page.nextCursor(), 2);
+
+    // Assert
+    assertEquals(List.of(first, second), page.items());
+    assertNotNull(page.nextCursor());
+    verify(submissionRepository)
+        .findHistory(anyString(), any(), eq(second.createdDate()), eq(41L), eq(Limit.of(3)));
+  }
+
+  @Test
+  void getHistory_MalformedCursor_ThrowsIllegalArgumentException() {
+    // Act & Assert
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> submissionService.getHistory(null, null, null, null, "bm90LWEtY3Vyc29y", 20));
+  }
+
+  @Test
+  void getHistory_UserAndLanguageFilters_UsesTheQueryForBoth() {
+    // Arrange
+    Language python = Language.builder().name("python").build();
+    python.setId(7L);
+    when(languageRepository.findByName("python")).thenReturn(Optional.of(python));
+
+    // Act
+    submissionService.getHistory(3L, "python", null, null, null, 20);
+
+    // Assert
+    verify(submissionRepository)
+        .findHistoryByUserAndLanguage(
+            anyString(), eq(3L), eq(7L), any(), any(), eq(Long.MAX_VALUE), eq(Limit.of(21)));
+    verify(submissionRepository, never()).findHistory(any(), any(), any(), any(), any());
+  }
+
+  private SubmissionSummary summary(Long id, LocalDateTime createdDate) {
+    return new SubmissionSummary(id, createdDate, "python", 1L, 2.0f, 128, null);
+  }
+}
@@ -0,0 +1,218 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.common.Compression;
+import com.cortex.engine.common.StoredPayload;
+import com.cortex.engine.controllers.dto.CodeExecutionTask;
+import com.cortex.engine.controllers.dto.JudgeRequest;
+import com.cortex.engine.controllers.dto.JudgeTask;
+import com.cortex.engine.controllers.dto.SubmissionRequest;
+import com.cortex.engine.controllers.dto.TestCase;
+import com.cortex.engine.exceptions.CodeExecutionException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TaskPayloadServiceImplTest {
+
+  @Mock private RedisTemplate<String, byte[]> payloadRedisTemplate;
+  @Mock private ValueOperations<String, byte[]> valueOperations;
+
+  private AutoCloseable closeable;
+  private TaskPayloadServiceImpl taskPayloadService;
+
+  @BeforeEach
+  void setUp() {
+    closeable = MockitoAnnotations.openMocks(this);
+    when(payloadRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    taskPayloadService =
+        new TaskPayloadServiceImpl(
+            payloadRedisTemplate, new ObjectMapper(), 1024, Duration.ofHours(1));
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    closeable.close();
+  }
+
+  @Test
+  void offload_LargeStdin_StoresCompressedBodyAndResolvesItBack() throws Exception {
+    // Arrange
+    String stdin = "1 2 3\n".repeat(1000);
+    CodeExecutionTask task = task("print(input())".getBytes(StandardCharsets.UTF_8), stdin);
+    when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(true);
+
+    // Act
+    taskPayloadService.offload(task);
+
+    // Assert
+    ArgumentCaptor<byte[]> stored = ArgumentCaptor.forClass(byte[].class);
+    verify(valueOperations)
+        .setIfAbsent(eq(task.getStdinRef().key()), stored.capture(), eq(Duration.ofHours(1)));
+    assertNull(task.getSubmissionRequest().stdin());
+    assertNull(task.getCodeRef());
+    assertTrue(stored.getValue().length < stdin.length() / 10);
+
+    when(valueOperations.get(task.getStdinRef().key())).thenReturn(stored.getValue());
+    StoredPayload copied = taskPayloadService.loadStored(task.getStdinRef());
+    assertEquals(
+        task.getStdinRef().key(), TaskPayloadServiceImpl.PAYLOAD_KEY_PREFIX + copied.hash());
+    assertTrue(copied.compressed());
+    byte[] inflated = Compression.inflate(copied.content(), 0, copied.size());
+    assertEquals(stdin, new String(inflated, StandardCharsets.UTF_8));
+    SubmissionRequest resolved = taskPayloadService.resolve(task);
+    assertEquals("print(input())", new String(resolved.code(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void openStdin_OffloadedInput_StreamsItBackInChunks() throws Exception {
+    // Arrange
+    String stdin = randomInput();
+    CodeExecutionTask task = task("print(input())".getBytes(StandardCharsets.UTF_8), stdin);
+    RedisConnection connection = storedValue(task, Integer.MAX_VALUE);
+
+    // Act
+    byte[] streamed;
+    try (InputStream input = taskPayloadService.openStdin(task)) {
+      streamed = input.readAllBytes();
+    }
+
+    // Assert
+    assertEquals(stdin, new String(streamed, StandardCharsets.UTF_8));
+    verify(connection.stringCommands(), atLeast(2)).getRange(any(), anyLong(), anyLong());
+  }
+
+  @Test
+  void openStdin_PayloadExpiresWhileStreaming_FailsInsteadOfEndingTheInput() throws Exception {
+    // Arrange
+    CodeExecutionTask task = task("print(input())".getBytes(StandardCharsets.UTF_8), randomInput());
+    storedValue(task, 1);
+
+    // Act
+    InputStream input = taskPayloadService.openStdin(task);
+
+    // Assert
+    assertThrows(IOException.class, input::readAllBytes);
+    // Rethrown on close for backends that read stdin on a thread of their own
+    assertThrows(IOException.class, input::close);
+  }
+
+  @Test
+  void offload_SameBodyTwice_ExtendsExistingEntryInsteadOfRewritingIt() {
+    // Arrange
+    byte[] code = new byte[2048];
+    when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(false);
+
+    // Act
+    CodeExecutionTask task = task(code, null);
+    taskPayloadService.offload(task);
+
+    // Assert
+    verify(payloadRedisTemplate).expire(task.getCodeRef().key(), Duration.ofHours(1));
+    assertNull(task.getSubmissionRequest().code());
+  }
+
+  @Test
+  void resolve_ExpiredPayload_ThrowsCodeExecutionException() {
+    // Arrange
+    CodeExecutionTask task = task(new byte[2048], null);
+    when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(true);
+    taskPayloadService.offload(task);
+
+    // Act & Assert
+    assertThrows(CodeExecutionException.class, () -> taskPayloadService.resolve(task));
+  }
+
+  @Test
+  void offload_JudgeTask_StoresTestCasesAndResolvesThemBack() throws Exception {
+    // Arrange
+    List<TestCase> testCases = List.of(new TestCase("1 2", "3"), new TestCase(null, ""));
+    JudgeTask task = new JudgeTask();
+    task.setJudgeRequest(
+        new JudgeRequest(
+            "print(1)".getBytes(StandardCharsets.UTF_8), "python", testCases, false));
+    ArgumentCaptor<byte[]> stored = ArgumentCaptor.forClass(byte[].class);
+    when(valueOperations.setIfAbsent(anyString(), stored.capture(), any(Duration.class)))
+        .thenReturn(true);
+
+    // Act
+    taskPayloadService.offload(task);
+
+    // Assert
+    assertNull(task.getJudgeRequest().testCases());
+    assertNull(task.getCodeRef());
+    when(valueOperations.get(task.getTestCasesRef().key())).thenReturn(stored.getValue());
+    JudgeRequest resolved = taskPayloadService.resolve(task);
+    assertEquals(testCases, resolved.testCases());
+    assertEquals("print(1)", new String(resolved.code(), StandardCharsets.UTF_8));
+    assertFalse(resolved.stopOnFirstFailure());
+  }
+
+  private static String randomInput() {
+    StringBuilder stdin = new StringBuilder();
+    new Random(42).ints(100_000, 0, 1_000_000).forEach(n -> stdin.append(n).append('\n'));
+    return stdin.toString();
+  }
+
+  /** Offloads the task's stdin and serves it back for the given number of GETRANGE calls. */
+  private RedisConnection storedValue(CodeExecutionTask task, int availableReads) {
+    ArgumentCaptor<byte[]> stored = ArgumentCaptor.forClass(byte[].class);
+    when(valueOperations.setIfAbsent(anyString(), stored.capture(), any(Duration.class)))
+        .thenReturn(true);
+    taskPayloadService.offload(task);
+    byte[] value = stored.getValue();
+    AtomicInteger reads = new AtomicInteger();
+    RedisConnection connection = mock(RedisConnection.class, RETURNS_DEEP_STUBS);
+    when(connection.stringCommands().strLen(any())).thenReturn((long) value.length);
+    when(connection.stringCommands().getRange(any(), anyLong(), anyLong()))
+        .thenAnswer(
+            invocation -> {
+              int start = (int) (long) invocation.getArgument(1);
+              int end = (int) Math.min(invocation.getArgument(2), value.length - 1L);
+              if (reads.getAndIncrement() >= availableReads || start > end) {
+                return new byte[0];
+              }
+              return Arrays.copyOfRange(value, start, end + 1);
+            });
+    when(payloadRedisTemplate.execute(any(RedisCallback.class)))
+        .thenAnswer(
+            invocation -> invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+    return connection;
+  }
+
+  private CodeExecutionTask task(byte[] code, String stdin) {
+    CodeExecutionTask task = new CodeExecutionTask();
+    task.setTaskId("task-1");
+    task.setSubmissionRequest(
+        new SubmissionRequest(
+            code,
+            "python",
+            stdin != null ? stdin.getBytes(StandardCharsets.UTF_8) : null,
+            null,
+            null,
+            null,
+            null,
+            true));
+    return task;
+  }
+}
@@ -0,0 +1,70 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.config.TenantProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TenantQuotaServiceImplTest {
+
+  @Mock private StringRedisTemplate stringRedisTemplate;
+
+  private AutoCloseable closeable;
+  private TenantQuotaServiceImpl tenantQuotaService;
+
+  @BeforeEach
+  void setUp() {
+    closeable = MockitoAnnotations.openMocks(this);
+    tenantQuotaService = new TenantQuotaServiceImpl(stringRedisTemplate, new TenantProperties());
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    closeable.close();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void tryAcquire_UnderQuota_ReturnsALeaseThatReleaseRemoves() {
+    // Arrange
+    when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+        .thenReturn(1L);
+
+    // Act
+    String leaseId = tenantQuotaService.tryAcquire("tenant-a");
+    tenantQuotaService.release("tenant-a", leaseId, 1500);
+
+    // Assert
+    assertNotNull(leaseId);
+    ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+    ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+    verify(stringRedisTemplate, times(2))
+        .execute(any(RedisScript.class), keys.capture(), args.capture());
+    assertEquals("tenant:tenant-a:leases", keys.getValue().getFirst());
+    List<Object[]> calls = args.getAllValues();
+    // Acquire: max concurrent, slot-time quota, lease length and the lease itself
+    assertEquals(List.of("4", "3600000", "1800000", leaseId), List.of(calls.get(0)));
+    assertEquals(List.of(leaseId, "1500", "3600000"), List.of(calls.get(1)));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void tryAcquire_AtQuota_ReturnsNull() {
+    // Arrange
+    when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+        .thenReturn(0L);
+
+    // Act & Assert
+    assertNull(tenantQuotaService.tryAcquire("tenant-a"));
+  }
+}
@@ -0,0 +1,137 @@
+package com.cortex.engine.services.impl;
+
+import com.cortex.engine.docker.ToolchainCache;
+import com.cortex.engine.docker.ToolchainCacheSpec;
+import com.cortex.engine.entities.Language;
+import com.cortex.engine.repositories.LanguageRepository;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.InspectVolumeResponse;
+import com.github.dockerjava.api.command.WaitContainerResultCallback;
+import com.github.dockerjava.api.exception.NotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ToolchainCacheServiceImplTest {
+
+  private static final String IMAGE = "golang:1.22-bookworm";
+  private static final String VOLUME = "cortex-cache-go-0123456789ab";
+
+  @Mock private LanguageRepository languageRepository;
+
+  private final DockerClient dockerClient = mock(DockerClient.class, RETURNS_DEEP_STUBS);
+  private final WaitContainerResultCallback waitCallback = mock(WaitContainerResultCallback.class);
+  private final Language go = Language.builder().name("go").dockerImage(IMAGE).build();
+
+  private ToolchainCacheServiceImpl toolchainCacheService;
+  private AutoCloseable closeable;
+
+  @BeforeEach
+  void setUp() {
+    closeable = MockitoAnnotations.openMocks(this);
+    when(languageRepository.findByName("go")).thenReturn(Optional.of(go));
+    when(dockerClient.inspectImageCmd(IMAGE).exec().getId())
+        .thenReturn("sha256:0123456789abcdef");
+    when(dockerClient.waitContainerCmd(any()).<WaitContainerResultCallback>exec(any()))
+        .thenReturn(waitCallback);
+    toolchainCacheService =
+        new ToolchainCacheServiceImpl(
+            dockerClient,
+            languageRepository,
+            List.of(
+                new ToolchainCacheSpec(
+                    "go", "go build", "mkdir -p /tmp/gocache", "go run {fileName}", List.of())));
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    closeable.close();
+  }
+
+  @Test
+  void refreshCaches_NoVolumeForTheImage_WarmsUpANewOne() {
+    // Arrange
+    when(dockerClient.inspectVolumeCmd(VOLUME).exec()).thenThrow(new NotFoundException("none"));
+    when(waitCallback.awaitStatusCode(anyLong(), any())).thenReturn(0);
+
+    // Act
+    toolchainCacheService.refreshCaches();
+
+    // Assert
+    assertEquals(
+        Optional.of(VOLUME), toolchainCacheService.getCache(go).map(ToolchainCache::volumeName));
+    verify(dockerClient).createVolumeCmd();
+    verify(dockerClient).createContainerCmd(IMAGE);
+  }
+
+  @Test
+  void refreshCaches_WarmUpFails_RemovesTheVolumeAndLeavesTheLanguageUncached() {
+    // Arrange
+    when(dockerClient.inspectVolumeCmd(VOLUME).exec()).thenThrow(new NotFoundException("none"));
+    when(waitCallback.awaitStatusCode(anyLong(), any())).thenReturn(1);
+
+    // Act
+    toolchainCacheService.refreshCaches();
+
+    // Assert
+    assertTrue(toolchainCacheService.getCache(go).isEmpty());
+    // Once before creating it, once after the failed warm-up
+    verify(dockerClient, times(2)).removeVolumeCmd(VOLUME);
+  }
+
+  @Test
+  void refreshCaches_CompleteVolumeExists_ReusesItWithoutWarmingUp() {
+    // Arrange
+    when(waitCallback.awaitStatusCode(anyLong(), any())).thenReturn(0);
+
+    // Act
+    toolchainCacheService.refreshCaches();
+    toolchainCacheService.refreshCaches();
+
+    // Assert
+    assertTrue(toolchainCacheService.getCache(go).isPresent());
+    verify(dockerClient, never()).createVolumeCmd();
+    // Only the first refresh checks the ready marker, the second one sees the same image
+    verify(dockerClient, times(1)).createContainerCmd(IMAGE);
+  }
+
+  @Test
+  void refreshCaches_NewImage_RemovesVolumesOfThePreviousOne() {
+    // Arrange
+    when(waitCallback.awaitStatusCode(anyLong(), any())).thenReturn(0);
+    InspectVolumeResponse current = mock(InspectVolumeResponse.class);
+    when(current.getName()).thenReturn(VOLUME);
+    InspectVolumeResponse stale = mock(InspectVolumeResponse.class);
+    when(stale.getName()).thenReturn("cortex-cache-go-fedcba987654");
+    when(dockerClient.listVolumesCmd().withFilter(eq("label"), anyList()).exec().getVolumes())
+        .thenReturn(List.of(current, stale));
+
+    // Act
+    toolchainCacheService.refreshCaches();
+
+    // Assert
+    verify(dockerClient).removeVolumeCmd("cortex-cache-go-fedcba987654");
+    verify(dockerClient, never()).removeVolumeCmd(VOLUME);
+  }
+
+  @Test
+  void refreshCaches_ImageNotPulled_SkipsTheLanguage() {
+    // Arrange
+    when(dockerClient.inspectImageCmd(IMAGE).exec()).thenThrow(new NotFoundException("none"));
+
+    // Act
+    assertDoesNotThrow(() -> toolchainCacheService.refreshCaches());
+
+    // Assert
+    assertTrue(toolchainCacheService.getCache(go).isEmpty());
+    verify(dockerClient, never()).createContainerCmd(any());
+  }
+}
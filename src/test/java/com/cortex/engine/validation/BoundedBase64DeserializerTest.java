@@ -0,0 +1,60 @@
+package com.cortex.engine.validation;
+
+import com.cortex.engine.controllers.dto.SubmissionRequest;
+import com.cortex.engine.exceptions.PayloadTooLargeException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedBase64DeserializerTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void deserialize_ValidBase64_DecodesToBytes() throws Exception {
+    // Arrange
+    String code = Base64.getEncoder().encodeToString("print('Hello')".getBytes());
+    String json = "{\"code\":\"" + code + "\",\"language\":\"python\"}";
+
+    // Act
+    SubmissionRequest request = objectMapper.readValue(json, SubmissionRequest.class);
+
+    // Assert
+    assertEquals("print('Hello')", new String(request.code(), StandardCharsets.UTF_8));
+    assertTrue(request.encodeOutputToBase64());
+  }
+
+  @Test
+  void deserialize_InvalidBase64_IsRejected() {
+    // Arrange
+    String json = "{\"code\":\"not base64!\",\"language\":\"python\"}";
+
+    // Act & Assert
+    assertThrows(
+        JsonMappingException.class, () -> objectMapper.readValue(json, SubmissionRequest.class));
+  }
+
+  @Test
+  void deserialize_OversizedCode_IsRejectedWhileDecoding() {
+    // Arrange
+    byte[] oversized = new byte[BoundedBase64Deserializer.DEFAULT_MAX_BYTES + 1];
+    String json =
+        "{\"code\":\""
+            + Base64.getEncoder().encodeToString(oversized)
+            + "\",\"language\":\"python\"}";
+
+    // Act
+    JsonMappingException exception =
+        assertThrows(
+            JsonMappingException.class,
+            () -> objectMapper.readValue(json, SubmissionRequest.class));
+
+    // Assert
+    assertInstanceOf(PayloadTooLargeException.class, exception.getCause());
+  }
+}
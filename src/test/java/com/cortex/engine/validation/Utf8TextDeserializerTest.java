@@ -0,0 +1,75 @@
+package com.cortex.engine.validation;
+
+import com.cortex.engine.config.JacksonConfig;
+import com.cortex.engine.controllers.dto.SubmissionRequest;
+import com.cortex.engine.exceptions.PayloadTooLargeException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Utf8TextDeserializerTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void deserialize_TextStdin_IsEncodedAsUtf8AndWrittenBackAsText() throws Exception {
+    // Arrange
+    String json =
+        "{\"code\":\"cHJpbnQoaW5wdXQoKSk=\",\"language\":\"python\",\"stdin\":\"ñandú €\\n\"}";
+
+    // Act
+    SubmissionRequest request = objectMapper.readValue(json, SubmissionRequest.class);
+    JsonNode written = objectMapper.readTree(objectMapper.writeValueAsBytes(request));
+
+    // Assert
+    assertArrayEquals("ñandú €\n".getBytes(StandardCharsets.UTF_8), request.stdin());
+    assertEquals("ñandú €\n", written.get("stdin").asText());
+  }
+
+  @Test
+  void deserialize_OversizedStdin_IsRejected() {
+    // Arrange
+    String json =
+        "{\"code\":\"cHJpbnQoaW5wdXQoKSk=\",\"language\":\"python\",\"stdin\":\""
+            + "1".repeat(Utf8TextDeserializer.DEFAULT_MAX_BYTES + 1)
+            + "\"}";
+
+    // Act
+    JsonMappingException exception =
+        assertThrows(
+            JsonMappingException.class,
+            () -> objectMapper.readValue(json, SubmissionRequest.class));
+
+    // Assert
+    assertInstanceOf(PayloadTooLargeException.class, exception.getCause());
+  }
+
+  @Test
+  void deserialize_StdinLongerThanTheStringCap_FailsWhileBeingRead() {
+    // Arrange
+    Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+    new JacksonConfig().maxStringLengthCustomizer(1024).customize(builder);
+    ObjectMapper capped = builder.build();
+    String json =
+        "{\"code\":\"cHJpbnQoaW5wdXQoKSk=\",\"language\":\"python\",\"stdin\":\""
+            + "1".repeat(4096)
+            + "\"}";
+
+    // Act
+    JsonProcessingException exception =
+        assertThrows(
+            JsonProcessingException.class, () -> capped.readValue(json, SubmissionRequest.class));
+
+    // Assert
+    Throwable cause = exception instanceof JsonMappingException ? exception.getCause() : exception;
+    assertInstanceOf(StreamConstraintsException.class, cause);
+  }
+}